@@ -0,0 +1,151 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.benchmark.attachment;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cxf.attachment.AttachmentDeserializer;
+import org.apache.cxf.message.Attachment;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of reading an MTOM message with one binary attachment of 1M or 1G through the
+ * AttachmentDeserializer, streaming the attachment without caching it. The message is
+ * generated while it is read, so the 1G upload does not have to fit in memory.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AttachmentDeserializerBenchmark {
+    private static final String BOUNDARY = "uuid:7a555f51-c9bb-4bd4-9929-706899e2f793";
+    private static final String CONTENT_TYPE = "multipart/related; type=\"application/xop+xml\"; boundary=\""
+        + BOUNDARY + "\"; start=\"<root.message@cxf.apache.org>\"; start-info=\"text/xml\"";
+
+    @Param({"1048576", "1073741824" })
+    long size;
+
+    private final byte[] block = new byte[65536];
+    private final byte[] readBuffer = new byte[65536];
+    private byte[] head;
+    private byte[] tail;
+
+    @Setup
+    public void setUp() {
+        new Random(42).nextBytes(block);
+        head = ("--" + BOUNDARY + "\r\n"
+            + "Content-Type: application/xop+xml; charset=UTF-8; type=\"text/xml\"\r\n"
+            + "Content-Transfer-Encoding: binary\r\n"
+            + "Content-ID: <root.message@cxf.apache.org>\r\n\r\n"
+            + "<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\"><soap:Body>"
+            + "<upload><data><xop:Include xmlns:xop=\"http://www.w3.org/2004/08/xop/include\""
+            + " href=\"cid:data@cxf.apache.org\"/></data></upload></soap:Body></soap:Envelope>\r\n"
+            + "--" + BOUNDARY + "\r\n"
+            + "Content-Type: application/octet-stream\r\n"
+            + "Content-Transfer-Encoding: binary\r\n"
+            + "Content-ID: <data@cxf.apache.org>\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+        tail = ("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Benchmark
+    public long read() throws Exception {
+        Message message = new MessageImpl();
+        message.put(Message.CONTENT_TYPE, CONTENT_TYPE);
+        message.setContent(InputStream.class,
+                           new SequenceInputStream(new SequenceInputStream(new ByteArrayInputStream(head),
+                                                                           new BlockInputStream(block, size)),
+                                                   new ByteArrayInputStream(tail)));
+        new AttachmentDeserializer(message).initializeAttachments();
+
+        long read = drain(message.getContent(InputStream.class));
+        for (Attachment a : message.getAttachments()) {
+            read += drain(a.getDataHandler().getInputStream());
+        }
+        return read;
+    }
+
+    private long drain(InputStream in) throws Exception {
+        long read = 0;
+        try {
+            for (int n = in.read(readBuffer); n != -1; n = in.read(readBuffer)) {
+                read += n;
+            }
+        } finally {
+            in.close();
+        }
+        return read;
+    }
+
+    /**
+     * Returns the given number of bytes, repeating the block.
+     */
+    static final class BlockInputStream extends InputStream {
+        private final byte[] block;
+        private long remaining;
+        private int pos;
+
+        BlockInputStream(byte[] block, long size) {
+            this.block = block;
+            this.remaining = size;
+        }
+
+        @Override
+        public int read() {
+            if (remaining == 0) {
+                return -1;
+            }
+            remaining--;
+            int b = block[pos] & 0xff;
+            pos = (pos + 1) % block.length;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (remaining == 0) {
+                return -1;
+            }
+            int n = (int)Math.min(Math.min(len, remaining), block.length - pos);
+            System.arraycopy(block, pos, b, off, n);
+            pos = (pos + n) % block.length;
+            remaining -= n;
+            return n;
+        }
+    }
+}
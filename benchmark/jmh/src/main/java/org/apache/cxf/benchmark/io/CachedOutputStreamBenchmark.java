@@ -0,0 +1,98 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.benchmark.io;
+
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.BusFactory;
+import org.apache.cxf.bus.extension.ExtensionManagerBus;
+import org.apache.cxf.io.CachedOutputStream;
+import org.apache.cxf.io.CachedOutputStreamBufferPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of caching a message in a CachedOutputStream and reading it back, in 4K writes,
+ * for messages that stay in memory and a message over the default 128K threshold that
+ * spills to a temporary file, with and without a CachedOutputStreamBufferPool on the bus.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CachedOutputStreamBenchmark {
+
+    @Param({"1024", "65536", "262144" })
+    int size;
+
+    @Param({"false", "true" })
+    boolean pooled;
+
+    private final byte[] chunk = new byte[4096];
+    private final byte[] readBuffer = new byte[4096];
+    private Bus bus;
+    private Bus oldBus;
+
+    @Setup
+    public void setUp() {
+        bus = new ExtensionManagerBus();
+        if (pooled) {
+            new CachedOutputStreamBufferPool(bus);
+        }
+        oldBus = BusFactory.getAndSetThreadDefaultBus(bus);
+    }
+
+    @TearDown
+    public void tearDown() {
+        BusFactory.setThreadDefaultBus(oldBus);
+        bus.shutdown(false);
+    }
+
+    @Benchmark
+    public long writeAndRead() throws Exception {
+        CachedOutputStream cos = new CachedOutputStream();
+        for (int written = 0; written < size; written += chunk.length) {
+            cos.write(chunk, 0, Math.min(chunk.length, size - written));
+        }
+        cos.flush();
+        long read = 0;
+        try (InputStream in = cos.getInputStream()) {
+            for (int n = in.read(readBuffer); n != -1; n = in.read(readBuffer)) {
+                read += n;
+            }
+        }
+        cos.close();
+        return read;
+    }
+}
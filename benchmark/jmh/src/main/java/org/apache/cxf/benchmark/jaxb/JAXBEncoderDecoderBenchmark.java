@@ -0,0 +1,94 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.benchmark.jaxb;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.apache.cxf.benchmark.service.Item;
+import org.apache.cxf.jaxb.JAXBEncoderDecoder;
+import org.apache.cxf.staxutils.StaxUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of marshalling a JAXB bean to an XMLStreamWriter and unmarshalling it from an
+ * XMLStreamReader with the JAXBEncoderDecoder, creating the Marshaller or Unmarshaller
+ * each time the way the JAXB DataWriter and DataReader do.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JAXBEncoderDecoderBenchmark {
+
+    @Param({"10", "100" })
+    int tags;
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(16 * 1024);
+    private JAXBContext context;
+    private Item item;
+    private byte[] marshalled;
+
+    @Setup
+    public void setUp() throws Exception {
+        context = JAXBContext.newInstance(Item.class);
+        item = Item.create(tags);
+        marshal();
+        marshalled = out.toByteArray();
+    }
+
+    @Benchmark
+    public int marshal() throws Exception {
+        out.reset();
+        XMLStreamWriter writer = StaxUtils.createXMLStreamWriter(out);
+        JAXBEncoderDecoder.marshall(context.createMarshaller(), item, null, writer);
+        writer.flush();
+        StaxUtils.close(writer);
+        return out.size();
+    }
+
+    @Benchmark
+    public Object unmarshal() throws Exception {
+        XMLStreamReader reader = StaxUtils.createXMLStreamReader(new ByteArrayInputStream(marshalled));
+        try {
+            reader.nextTag();
+            return JAXBEncoderDecoder.unmarshall(context.createUnmarshaller(), reader, null, true);
+        } finally {
+            StaxUtils.close(reader);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.benchmark.jaxrs;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyReader;
+import javax.ws.rs.ext.MessageBodyWriter;
+
+import org.apache.cxf.benchmark.service.Item;
+import org.apache.cxf.bus.extension.ExtensionManagerBus;
+import org.apache.cxf.jaxrs.provider.ServerProviderFactory;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.ExchangeImpl;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of selecting the MessageBodyReader and MessageBodyWriter of a JAXB bean with the
+ * ServerProviderFactory, with 10 user providers of other types registered in front of the
+ * default ones.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProviderSelectionBenchmark {
+    private static final int USER_PROVIDERS = 10;
+    private static final Annotation[] NO_ANNOTATIONS = new Annotation[0];
+
+    private ServerProviderFactory factory;
+    private Message message;
+
+    @Setup
+    public void setUp() {
+        factory = ServerProviderFactory.createInstance(new ExtensionManagerBus());
+        List<Object> providers = new ArrayList<>(USER_PROVIDERS);
+        for (int x = 0; x < USER_PROVIDERS; x++) {
+            providers.add(new OtherTypeProvider());
+        }
+        factory.setUserProviders(providers);
+        message = new MessageImpl();
+        Exchange exchange = new ExchangeImpl();
+        exchange.setInMessage(message);
+    }
+
+    @Benchmark
+    public MessageBodyReader<Item> selectReader() {
+        return factory.createMessageBodyReader(Item.class, Item.class, NO_ANNOTATIONS,
+                                               MediaType.APPLICATION_XML_TYPE, message);
+    }
+
+    @Benchmark
+    public MessageBodyWriter<Item> selectWriter() {
+        return factory.createMessageBodyWriter(Item.class, Item.class, NO_ANNOTATIONS,
+                                               MediaType.APPLICATION_XML_TYPE, message);
+    }
+
+    public static class OtherType {
+    }
+
+    public static class OtherTypeProvider implements MessageBodyReader<OtherType>, MessageBodyWriter<OtherType> {
+        public boolean isReadable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mt) {
+            return type == OtherType.class;
+        }
+
+        public OtherType readFrom(Class<OtherType> type, Type genericType, Annotation[] annotations,
+                                  MediaType mt, MultivaluedMap<String, String> headers, InputStream is)
+            throws IOException {
+            return new OtherType();
+        }
+
+        public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mt) {
+            return type == OtherType.class;
+        }
+
+        public long getSize(OtherType t, Class<?> type, Type genericType, Annotation[] annotations,
+                            MediaType mt) {
+            return -1;
+        }
+
+        public void writeTo(OtherType t, Class<?> type, Type genericType, Annotation[] annotations,
+                            MediaType mt, MultivaluedMap<String, Object> headers, OutputStream os)
+            throws IOException {
+            // nothing to write
+        }
+    }
+}
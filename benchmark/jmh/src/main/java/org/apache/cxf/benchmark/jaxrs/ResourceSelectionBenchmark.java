@@ -0,0 +1,137 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.benchmark.jaxrs;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+
+import org.apache.cxf.bus.extension.ExtensionManagerBus;
+import org.apache.cxf.endpoint.Endpoint;
+import org.apache.cxf.endpoint.EndpointImpl;
+import org.apache.cxf.jaxrs.JAXRSBindingFactory;
+import org.apache.cxf.jaxrs.JAXRSServiceImpl;
+import org.apache.cxf.jaxrs.impl.MetadataMap;
+import org.apache.cxf.jaxrs.model.ClassResourceInfo;
+import org.apache.cxf.jaxrs.model.MethodDispatcher;
+import org.apache.cxf.jaxrs.model.OperationResourceInfo;
+import org.apache.cxf.jaxrs.model.Parameter;
+import org.apache.cxf.jaxrs.model.URITemplate;
+import org.apache.cxf.jaxrs.utils.JAXRSUtils;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.ExchangeImpl;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
+import org.apache.cxf.service.Service;
+import org.apache.cxf.service.model.BindingInfo;
+import org.apache.cxf.service.model.EndpointInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of selecting the root resource and the resource method of a request
+ * among 20 root resources of 20 resource methods each, with and without
+ * the resource path tree.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResourceSelectionBenchmark {
+    private static final int RESOURCES = 20;
+    private static final int METHODS = 20;
+    private static final String FIRST_PATH = "/service0/items0/1";
+    private static final String LAST_PATH = "/service" + (RESOURCES - 1) + "/items" + (METHODS - 1) + "/1";
+
+    @Param({"false", "true" })
+    boolean pathTree;
+
+    private final List<MediaType> acceptTypes = Collections.singletonList(MediaType.WILDCARD_TYPE);
+    private List<ClassResourceInfo> resources;
+    private Exchange exchange;
+
+    @Setup
+    public void setUp() throws Exception {
+        Method method = ResourceSelectionBenchmark.class.getMethod("getItem", String.class);
+        resources = new ArrayList<>(RESOURCES);
+        for (int i = 0; i < RESOURCES; i++) {
+            ClassResourceInfo cri = new ClassResourceInfo(ResourceSelectionBenchmark.class);
+            cri.setURITemplate(new URITemplate("/service" + i));
+            MethodDispatcher md = new MethodDispatcher();
+            for (int j = 0; j < METHODS; j++) {
+                OperationResourceInfo ori = new OperationResourceInfo(method, cri,
+                    new URITemplate("/items" + j + "/{id}"), "GET", "*/*", "*/*",
+                    Collections.<Parameter>emptyList(), false);
+                md.bind(ori, method);
+            }
+            cri.setMethodDispatcher(md);
+            resources.add(cri);
+        }
+        Service service = new JAXRSServiceImpl(resources);
+        EndpointInfo ei = new EndpointInfo();
+        Endpoint endpoint = new EndpointImpl(new ExtensionManagerBus(), service, ei);
+        ei.setBinding(new BindingInfo(null, JAXRSBindingFactory.JAXRS_BINDING_ID));
+        endpoint.put(JAXRSUtils.RESOURCE_PATH_TREE, pathTree);
+
+        exchange = new ExchangeImpl();
+        exchange.put(Service.class, service);
+        exchange.put(Endpoint.class, endpoint);
+    }
+
+    @Benchmark
+    public OperationResourceInfo selectFirst() {
+        return select(FIRST_PATH);
+    }
+
+    @Benchmark
+    public OperationResourceInfo selectLast() {
+        return select(LAST_PATH);
+    }
+
+    private OperationResourceInfo select(String path) {
+        Message message = new MessageImpl();
+        message.setExchange(exchange);
+        Map<ClassResourceInfo, MultivaluedMap<String, String>> matched =
+            JAXRSUtils.selectResourceClass(resources, path, message);
+        return JAXRSUtils.findTargetMethod(matched, message, "GET", new MetadataMap<String, String>(),
+                                           "*/*", acceptTypes);
+    }
+
+    public String getItem(String id) {
+        return id;
+    }
+}
@@ -0,0 +1,173 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.benchmark.jaxws;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.namespace.QName;
+import javax.xml.ws.handler.Handler;
+import javax.xml.ws.handler.MessageContext;
+import javax.xml.ws.handler.soap.SOAPHandler;
+import javax.xml.ws.handler.soap.SOAPMessageContext;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.BusFactory;
+import org.apache.cxf.benchmark.service.EchoRequests;
+import org.apache.cxf.benchmark.service.EchoService;
+import org.apache.cxf.benchmark.service.EchoServiceImpl;
+import org.apache.cxf.binding.Binding;
+import org.apache.cxf.binding.soap.SoapMessage;
+import org.apache.cxf.binding.soap.interceptor.ReadHeadersInterceptor;
+import org.apache.cxf.binding.soap.interceptor.StartBodyInterceptor;
+import org.apache.cxf.bus.managers.PhaseManagerImpl;
+import org.apache.cxf.endpoint.Endpoint;
+import org.apache.cxf.endpoint.Server;
+import org.apache.cxf.interceptor.StaxInInterceptor;
+import org.apache.cxf.jaxws.JaxWsServerFactoryBean;
+import org.apache.cxf.jaxws.handler.soap.SOAPHandlerInterceptor;
+import org.apache.cxf.jaxws.support.JaxWsEndpointImpl;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.ExchangeImpl;
+import org.apache.cxf.message.MessageImpl;
+import org.apache.cxf.phase.Phase;
+import org.apache.cxf.phase.PhaseInterceptorChain;
+import org.apache.cxf.service.Service;
+import org.apache.cxf.wsdl.interceptors.DocLiteralInInterceptor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of the inbound SOAP stages of a JAX-WS request with an auditing SOAPHandler, which
+ * only looks at the operation of the message, run by the SOAPHandlerInterceptor between
+ * reading the headers and unmarshalling the parameters. SoapInBenchmark.docLiteralIn runs
+ * the same stages without the handler. With lazySAAJ, the handler runs without a SAAJ
+ * SOAPMessage being built for the message.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SOAPHandlerBenchmark {
+
+    @Param({"10", "100" })
+    int tags;
+
+    @Param({"false", "true" })
+    boolean lazySAAJ;
+
+    private final StaxInInterceptor staxIn = new StaxInInterceptor();
+    private final StartBodyInterceptor startBody = new StartBodyInterceptor();
+    private final DocLiteralInInterceptor docLiteralIn = new DocLiteralInInterceptor();
+    private ReadHeadersInterceptor readHeaders;
+    private SOAPHandlerInterceptor soapHandler;
+    private Bus bus;
+    private Server server;
+    private Endpoint endpoint;
+    private SortedSet<Phase> inPhases;
+    private byte[] request;
+
+    @Setup
+    public void setUp() {
+        bus = BusFactory.newInstance().createBus();
+        JaxWsServerFactoryBean sf = new JaxWsServerFactoryBean();
+        sf.setBus(bus);
+        sf.setServiceClass(EchoService.class);
+        sf.setServiceBean(new EchoServiceImpl());
+        sf.setAddress("local://SOAPHandlerBenchmark");
+        server = sf.create();
+        endpoint = server.getEndpoint();
+
+        javax.xml.ws.Binding binding = ((JaxWsEndpointImpl)endpoint).getJaxwsBinding();
+        @SuppressWarnings("rawtypes")
+        List<Handler> handlers = new ArrayList<>();
+        handlers.add(new AuditHandler());
+        binding.setHandlerChain(handlers);
+        soapHandler = new SOAPHandlerInterceptor(binding);
+
+        readHeaders = new ReadHeadersInterceptor(bus);
+        inPhases = new PhaseManagerImpl().getInPhases();
+        request = EchoRequests.create(tags);
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.destroy();
+        bus.shutdown(false);
+    }
+
+    @Benchmark
+    public List<?> handlerIn() {
+        SoapMessage message = new SoapMessage(new MessageImpl());
+        Exchange exchange = new ExchangeImpl();
+        exchange.put(Bus.class, bus);
+        exchange.put(Endpoint.class, endpoint);
+        exchange.put(Service.class, endpoint.getService());
+        exchange.put(Binding.class, endpoint.getBinding());
+        exchange.setInMessage(message);
+        message.put(SOAPHandlerInterceptor.LAZY_SAAJ, lazySAAJ);
+        message.setContent(InputStream.class, new ByteArrayInputStream(request));
+        message.setInterceptorChain(new PhaseInterceptorChain(inPhases));
+
+        staxIn.handleMessage(message);
+        readHeaders.handleMessage(message);
+        startBody.handleMessage(message);
+        soapHandler.handleMessage(message);
+        docLiteralIn.handleMessage(message);
+        return message.getContent(List.class);
+    }
+
+    static class AuditHandler implements SOAPHandler<SOAPMessageContext> {
+        public boolean handleMessage(SOAPMessageContext context) {
+            if (context.get(MessageContext.WSDL_OPERATION) == null) {
+                throw new IllegalStateException("No operation");
+            }
+            return true;
+        }
+
+        public boolean handleFault(SOAPMessageContext context) {
+            return true;
+        }
+
+        public void close(MessageContext context) {
+        }
+
+        public Set<QName> getHeaders() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.benchmark.message;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.binding.Binding;
+import org.apache.cxf.bus.extension.ExtensionManagerBus;
+import org.apache.cxf.endpoint.Endpoint;
+import org.apache.cxf.endpoint.EndpointImpl;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.ExchangeImpl;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
+import org.apache.cxf.service.Service;
+import org.apache.cxf.service.ServiceImpl;
+import org.apache.cxf.service.model.BindingInfo;
+import org.apache.cxf.service.model.BindingOperationInfo;
+import org.apache.cxf.service.model.EndpointInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Per-message cost of the typed exchange lookups and of the contextual property
+ * lookups a typical request makes, most of which find nothing, and the cost of the
+ * typed lookups on their own.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ContextualPropertyBenchmark {
+    private static final int LOOKUPS = 30;
+
+    private final String[] keys = new String[LOOKUPS];
+    private Bus bus;
+    private Service service;
+    private Endpoint endpoint;
+    private Exchange configuredExchange;
+
+    @Setup
+    public void setUp() throws Exception {
+        bus = new ExtensionManagerBus();
+        for (int x = 0; x < 30; x++) {
+            bus.setProperty("bus.property." + x, Boolean.TRUE);
+        }
+        service = new ServiceImpl();
+        for (int x = 0; x < 5; x++) {
+            service.put("service.property." + x, Boolean.TRUE);
+        }
+        EndpointInfo ei = new EndpointInfo();
+        endpoint = new EndpointImpl(bus, service, ei);
+        ei.setBinding(new BindingInfo(null, "http://cxf.apache.org/bindings/benchmark"));
+        for (int x = 0; x < 10; x++) {
+            endpoint.put("endpoint.property." + x, Boolean.TRUE);
+        }
+        for (int x = 0; x < LOOKUPS; x++) {
+            keys[x] = x % 3 == 0 ? "endpoint.property." + (x % 10) : "not.set." + x;
+        }
+        configuredExchange = new ExchangeImpl();
+        configuredExchange.put(Bus.class, bus);
+        configuredExchange.put(Service.class, service);
+        configuredExchange.put(Endpoint.class, endpoint);
+        for (int x = 0; x < 10; x++) {
+            configuredExchange.put("exchange.property." + x, Boolean.TRUE);
+        }
+    }
+
+    @Benchmark
+    public void typedLookup(Blackhole bh) {
+        for (int x = 0; x < LOOKUPS; x++) {
+            bh.consume(configuredExchange.get(Bus.class));
+            bh.consume(configuredExchange.get(Endpoint.class));
+            bh.consume(configuredExchange.get(Service.class));
+            bh.consume(configuredExchange.get(BindingOperationInfo.class));
+        }
+    }
+
+    @Benchmark
+    public void lookup(Blackhole bh) {
+        Exchange exchange = new ExchangeImpl();
+        exchange.put(Bus.class, bus);
+        exchange.put(Service.class, service);
+        exchange.put(Endpoint.class, endpoint);
+        Message message = new MessageImpl();
+        exchange.setInMessage(message);
+
+        for (String key : keys) {
+            bh.consume(message.getContextualProperty(key));
+            bh.consume(exchange.get(Bus.class));
+            bh.consume(exchange.get(Endpoint.class));
+            bh.consume(exchange.get(Binding.class));
+            bh.consume(exchange.get(BindingOperationInfo.class));
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.benchmark.phase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cxf.bus.managers.PhaseManagerImpl;
+import org.apache.cxf.interceptor.Interceptor;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.ExchangeImpl;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
+import org.apache.cxf.phase.AbstractPhaseInterceptor;
+import org.apache.cxf.phase.Phase;
+import org.apache.cxf.phase.PhaseChainCache;
+import org.apache.cxf.phase.PhaseInterceptorChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per-message cost of getting a chain from the PhaseChainCache and running it,
+ * for chains of 10, 30 and 60 interceptors spread over the inbound phases.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PhaseInterceptorChainBenchmark {
+
+    @Param({"10", "30", "60" })
+    int interceptors;
+
+    private final PhaseChainCache cache = new PhaseChainCache();
+    private final PhaseChainCache modifyingCache = new PhaseChainCache();
+    private SortedSet<Phase> phases;
+    private List<Interceptor<? extends Message>> chainInterceptors;
+    private List<Interceptor<? extends Message>> modifyingInterceptors;
+
+    @Setup
+    public void setUp() {
+        phases = new PhaseManagerImpl().getInPhases();
+        Phase[] phaseArray = phases.toArray(new Phase[phases.size()]);
+
+        chainInterceptors = new ArrayList<>(interceptors);
+        for (int x = 0; x < interceptors; x++) {
+            chainInterceptors.add(new NoOpInterceptor("noop" + x,
+                                                      phaseArray[x % phaseArray.length].getName()));
+        }
+        modifyingInterceptors = new ArrayList<>(chainInterceptors);
+        modifyingInterceptors.set(0, new AddingInterceptor(Phase.RECEIVE));
+    }
+
+    @Benchmark
+    public boolean execute() {
+        PhaseInterceptorChain chain = cache.get(phases, chainInterceptors);
+        return chain.doIntercept(createMessage(chain));
+    }
+
+    @Benchmark
+    public boolean executeModifiedChain() {
+        PhaseInterceptorChain chain = modifyingCache.get(phases, modifyingInterceptors);
+        return chain.doIntercept(createMessage(chain));
+    }
+
+    private static Message createMessage(PhaseInterceptorChain chain) {
+        Message message = new MessageImpl();
+        Exchange exchange = new ExchangeImpl();
+        exchange.setInMessage(message);
+        message.setInterceptorChain(chain);
+        return message;
+    }
+
+    static class NoOpInterceptor extends AbstractPhaseInterceptor<Message> {
+        NoOpInterceptor(String id, String phase) {
+            super(id, phase);
+        }
+
+        public void handleMessage(Message message) {
+            message.getExchange();
+        }
+    }
+
+    /**
+     * Adds an interceptor to the running chain, the way many interceptors do.
+     */
+    static class AddingInterceptor extends AbstractPhaseInterceptor<Message> {
+        private final Interceptor<Message> added = new NoOpInterceptor("added", Phase.POST_INVOKE);
+
+        AddingInterceptor(String phase) {
+            super(phase);
+        }
+
+        public void handleMessage(Message message) {
+            message.getInterceptorChain().add(added);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.benchmark.policy;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.namespace.QName;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.BusFactory;
+import org.apache.cxf.benchmark.service.EchoService;
+import org.apache.cxf.benchmark.service.EchoServiceImpl;
+import org.apache.cxf.bus.managers.PhaseManagerImpl;
+import org.apache.cxf.endpoint.Endpoint;
+import org.apache.cxf.endpoint.Server;
+import org.apache.cxf.jaxws.JaxWsServerFactoryBean;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.ExchangeImpl;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
+import org.apache.cxf.phase.AbstractPhaseInterceptor;
+import org.apache.cxf.phase.Phase;
+import org.apache.cxf.phase.PhaseInterceptorChain;
+import org.apache.cxf.service.Service;
+import org.apache.cxf.service.model.BindingOperationInfo;
+import org.apache.cxf.ws.policy.AbstractPolicyInterceptorProvider;
+import org.apache.cxf.ws.policy.AssertionInfo;
+import org.apache.cxf.ws.policy.AssertionInfoMap;
+import org.apache.cxf.ws.policy.PolicyInInterceptor;
+import org.apache.cxf.ws.policy.PolicyInterceptorProviderRegistry;
+import org.apache.cxf.ws.policy.PolicyOutInterceptor;
+import org.apache.cxf.ws.policy.PolicyVerificationInInterceptor;
+import org.apache.cxf.ws.policy.PolicyVerificationOutInterceptor;
+import org.apache.cxf.ws.policy.WSPolicyFeature;
+import org.apache.neethi.Assertion;
+import org.apache.neethi.Policy;
+import org.apache.neethi.builders.PolicyContainingPrimitiveAssertion;
+import org.apache.neethi.builders.PrimitiveAssertion;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Per-message cost of the WS-Policy interceptors on a request and its response to an
+ * endpoint with a WS-SecurityPolicy asymmetric binding and signed and encrypted parts:
+ * adding the policy interceptors, building the AssertionInfoMaps and verifying them.
+ * The security interceptors themselves are left out, their assertions are simply
+ * marked as asserted.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 10, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PolicyInterceptorBenchmark {
+    private static final String SP_NS = "http://docs.oasis-open.org/ws-sx/ws-securitypolicy/200702";
+
+    private final Set<QName> names = new HashSet<>();
+    private Bus bus;
+    private Server server;
+    private Endpoint endpoint;
+    private BindingOperationInfo boi;
+    private SortedSet<Phase> inPhases;
+    private SortedSet<Phase> outPhases;
+
+    @Setup
+    public void setUp() {
+        Policy endpointPolicy = policy(
+            nested("AsymmetricBinding",
+                   nested("InitiatorToken", nested("X509Token", leaf("WssX509V3Token10"))),
+                   nested("RecipientToken", nested("X509Token", leaf("WssX509V3Token10"))),
+                   nested("AlgorithmSuite", leaf("Basic256")),
+                   nested("Layout", leaf("Strict")),
+                   leaf("IncludeTimestamp"),
+                   leaf("OnlySignEntireHeadersAndBody")),
+            nested("Wss11", leaf("MustSupportRefThumbprint"), leaf("MustSupportRefIssuerSerial")));
+        Policy inputPolicy = policy(leaf("SignedParts"), leaf("EncryptedParts"));
+        Policy outputPolicy = policy(leaf("SignedParts"), leaf("EncryptedParts"));
+
+        bus = BusFactory.newInstance().createBus();
+        bus.getExtension(PolicyInterceptorProviderRegistry.class)
+            .register(new SecurityPolicyInterceptorProvider(names));
+
+        JaxWsServerFactoryBean sf = new JaxWsServerFactoryBean();
+        sf.setBus(bus);
+        sf.setServiceClass(EchoService.class);
+        sf.setServiceBean(new EchoServiceImpl());
+        sf.setAddress("local://PolicyInterceptorBenchmark");
+        sf.getFeatures().add(new WSPolicyFeature(endpointPolicy));
+        server = sf.create();
+        endpoint = server.getEndpoint();
+
+        boi = endpoint.getEndpointInfo().getBinding().getOperations().iterator().next();
+        boi.getInput().addExtensor(inputPolicy);
+        boi.getOutput().addExtensor(outputPolicy);
+
+        PhaseManagerImpl phaseManager = new PhaseManagerImpl();
+        inPhases = phaseManager.getInPhases();
+        outPhases = phaseManager.getOutPhases();
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.destroy();
+        bus.shutdown(false);
+    }
+
+    @Benchmark
+    public void requestResponse(Blackhole bh) {
+        Exchange exchange = new ExchangeImpl();
+        exchange.put(Bus.class, bus);
+        exchange.put(Endpoint.class, endpoint);
+        exchange.put(Service.class, endpoint.getService());
+        exchange.put(BindingOperationInfo.class, boi);
+
+        Message request = new MessageImpl();
+        exchange.setInMessage(request);
+        request.setInterceptorChain(new PhaseInterceptorChain(inPhases));
+        PolicyInInterceptor.INSTANCE.handleMessage(request);
+        assertAll(request);
+        PolicyVerificationInInterceptor.INSTANCE.handleMessage(request);
+
+        Message response = new MessageImpl();
+        exchange.setOutMessage(response);
+        response.setInterceptorChain(new PhaseInterceptorChain(outPhases));
+        PolicyOutInterceptor.INSTANCE.handleMessage(response);
+        assertAll(response);
+        PolicyVerificationOutInterceptor.INSTANCE.handleMessage(response);
+
+        bh.consume(request.getInterceptorChain());
+        bh.consume(response.getInterceptorChain());
+    }
+
+    private static void assertAll(Message message) {
+        for (Collection<AssertionInfo> ais : message.get(AssertionInfoMap.class).values()) {
+            for (AssertionInfo ai : ais) {
+                ai.setAsserted(true);
+            }
+        }
+    }
+
+    private Assertion leaf(String name) {
+        QName qn = new QName(SP_NS, name);
+        names.add(qn);
+        return new PrimitiveAssertion(qn);
+    }
+
+    private Assertion nested(String name, Assertion... assertions) {
+        QName qn = new QName(SP_NS, name);
+        names.add(qn);
+        return new PolicyContainingPrimitiveAssertion(qn, false, false, policy(assertions));
+    }
+
+    private static Policy policy(Assertion... assertions) {
+        Policy p = new Policy();
+        for (Assertion a : assertions) {
+            p.addAssertion(a);
+        }
+        return p;
+    }
+
+    /**
+     * Stands in for the WS-SecurityPolicy interceptor providers, with an interceptor in each
+     * direction that does nothing.
+     */
+    static class SecurityPolicyInterceptorProvider extends AbstractPolicyInterceptorProvider {
+        private static final long serialVersionUID = 7164286718546419435L;
+
+        SecurityPolicyInterceptorProvider(Collection<QName> names) {
+            super(names);
+            getInInterceptors().add(new NoOpInterceptor(Phase.PRE_PROTOCOL));
+            getOutInterceptors().add(new NoOpInterceptor(Phase.PRE_PROTOCOL));
+        }
+    }
+
+    static class NoOpInterceptor extends AbstractPhaseInterceptor<Message> {
+        NoOpInterceptor(String phase) {
+            super(phase);
+        }
+
+        public void handleMessage(Message message) {
+        }
+    }
+}
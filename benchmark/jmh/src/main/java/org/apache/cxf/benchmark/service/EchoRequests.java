@@ -0,0 +1,45 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.benchmark.service;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * SOAP 1.1 requests of the echo operation, as a client would send them.
+ */
+public final class EchoRequests {
+    public static final String NAMESPACE = "http://service.benchmark.cxf.apache.org/";
+
+    private EchoRequests() {
+    }
+
+    public static byte[] create(int tagCount) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\">")
+            .append("<soap:Header><h:trace xmlns:h=\"urn:benchmark\">0123456789</h:trace></soap:Header>")
+            .append("<soap:Body><ns2:echo xmlns:ns2=\"").append(NAMESPACE).append("\"><arg0>")
+            .append("<id>42</id><name>Apache CXF benchmark item</name><price>12.5</price>");
+        for (int x = 0; x < tagCount; x++) {
+            sb.append("<tags>tag").append(x).append("</tags>");
+        }
+        sb.append("</arg0></ns2:echo></soap:Body></soap:Envelope>");
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
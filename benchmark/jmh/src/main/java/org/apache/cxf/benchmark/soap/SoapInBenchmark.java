@@ -0,0 +1,137 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.benchmark.soap;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.BusFactory;
+import org.apache.cxf.benchmark.service.EchoRequests;
+import org.apache.cxf.benchmark.service.EchoService;
+import org.apache.cxf.benchmark.service.EchoServiceImpl;
+import org.apache.cxf.binding.Binding;
+import org.apache.cxf.binding.soap.SoapMessage;
+import org.apache.cxf.binding.soap.interceptor.ReadHeadersInterceptor;
+import org.apache.cxf.binding.soap.interceptor.StartBodyInterceptor;
+import org.apache.cxf.bus.managers.PhaseManagerImpl;
+import org.apache.cxf.endpoint.Endpoint;
+import org.apache.cxf.endpoint.Server;
+import org.apache.cxf.interceptor.StaxInInterceptor;
+import org.apache.cxf.jaxws.JaxWsServerFactoryBean;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.ExchangeImpl;
+import org.apache.cxf.message.MessageImpl;
+import org.apache.cxf.phase.Phase;
+import org.apache.cxf.phase.PhaseInterceptorChain;
+import org.apache.cxf.service.Service;
+import org.apache.cxf.wsdl.interceptors.DocLiteralInInterceptor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of the inbound SOAP stages of a JAX-WS request on their own: reading the SOAP
+ * headers into a DOM with the ReadHeadersInterceptor, then finding the operation and
+ * unmarshalling the parameters with the DocLiteralInInterceptor.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SoapInBenchmark {
+
+    @Param({"10", "100" })
+    int tags;
+
+    private final StaxInInterceptor staxIn = new StaxInInterceptor();
+    private final StartBodyInterceptor startBody = new StartBodyInterceptor();
+    private final DocLiteralInInterceptor docLiteralIn = new DocLiteralInInterceptor();
+    private ReadHeadersInterceptor readHeaders;
+    private Bus bus;
+    private Server server;
+    private Endpoint endpoint;
+    private SortedSet<Phase> inPhases;
+    private byte[] request;
+
+    @Setup
+    public void setUp() {
+        bus = BusFactory.newInstance().createBus();
+        JaxWsServerFactoryBean sf = new JaxWsServerFactoryBean();
+        sf.setBus(bus);
+        sf.setServiceClass(EchoService.class);
+        sf.setServiceBean(new EchoServiceImpl());
+        sf.setAddress("local://SoapInBenchmark");
+        server = sf.create();
+        endpoint = server.getEndpoint();
+        readHeaders = new ReadHeadersInterceptor(bus);
+        inPhases = new PhaseManagerImpl().getInPhases();
+        request = EchoRequests.create(tags);
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.destroy();
+        bus.shutdown(false);
+    }
+
+    @Benchmark
+    public SoapMessage readHeaders() {
+        SoapMessage message = createMessage();
+        staxIn.handleMessage(message);
+        readHeaders.handleMessage(message);
+        return message;
+    }
+
+    @Benchmark
+    public List<?> docLiteralIn() {
+        SoapMessage message = readHeaders();
+        startBody.handleMessage(message);
+        docLiteralIn.handleMessage(message);
+        return message.getContent(List.class);
+    }
+
+    private SoapMessage createMessage() {
+        SoapMessage message = new SoapMessage(new MessageImpl());
+        Exchange exchange = new ExchangeImpl();
+        exchange.put(Bus.class, bus);
+        exchange.put(Endpoint.class, endpoint);
+        exchange.put(Service.class, endpoint.getService());
+        exchange.put(Binding.class, endpoint.getBinding());
+        exchange.setInMessage(message);
+        message.setContent(InputStream.class, new ByteArrayInputStream(request));
+        message.setInterceptorChain(new PhaseInterceptorChain(inPhases));
+        return message;
+    }
+}
@@ -0,0 +1,139 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.benchmark.stax;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.SortedSet;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.apache.cxf.benchmark.service.EchoRequests;
+import org.apache.cxf.bus.managers.PhaseManagerImpl;
+import org.apache.cxf.interceptor.StaxInInterceptor;
+import org.apache.cxf.interceptor.StaxOutInterceptor;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.ExchangeImpl;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
+import org.apache.cxf.phase.Phase;
+import org.apache.cxf.phase.PhaseInterceptorChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of creating the XMLStreamReader of an incoming message with the StaxInInterceptor
+ * and reading the whole message, and of creating the XMLStreamWriter of an outgoing message
+ * with the StaxOutInterceptor, writing the same content and ending the document.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StaxInterceptorBenchmark {
+
+    @Param({"10", "100" })
+    int tags;
+
+    private final StaxInInterceptor staxIn = new StaxInInterceptor();
+    private final StaxOutInterceptor staxOut = new StaxOutInterceptor();
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(16 * 1024);
+    private SortedSet<Phase> inPhases;
+    private SortedSet<Phase> outPhases;
+    private byte[] request;
+
+    @Setup
+    public void setUp() {
+        PhaseManagerImpl phaseManager = new PhaseManagerImpl();
+        inPhases = phaseManager.getInPhases();
+        outPhases = phaseManager.getOutPhases();
+        request = EchoRequests.create(tags);
+    }
+
+    @Benchmark
+    public int staxIn() throws Exception {
+        Message message = createMessage();
+        message.setContent(InputStream.class, new ByteArrayInputStream(request));
+        message.setInterceptorChain(new PhaseInterceptorChain(inPhases));
+        staxIn.handleMessage(message);
+        XMLStreamReader reader = message.getContent(XMLStreamReader.class);
+        int events = 0;
+        while (reader.hasNext()) {
+            reader.next();
+            events++;
+        }
+        reader.close();
+        return events;
+    }
+
+    @Benchmark
+    public int staxOut() throws Exception {
+        Message message = createMessage();
+        out.reset();
+        message.setContent(OutputStream.class, out);
+        PhaseInterceptorChain chain = new PhaseInterceptorChain(outPhases);
+        message.setInterceptorChain(chain);
+        staxOut.handleMessage(message);
+        XMLStreamWriter writer = message.getContent(XMLStreamWriter.class);
+        writer.writeStartElement("soap", "Envelope", "http://schemas.xmlsoap.org/soap/envelope/");
+        writer.writeNamespace("soap", "http://schemas.xmlsoap.org/soap/envelope/");
+        writer.writeStartElement("soap", "Body", "http://schemas.xmlsoap.org/soap/envelope/");
+        writer.writeStartElement("ns2", "echoResponse", EchoRequests.NAMESPACE);
+        writer.writeNamespace("ns2", EchoRequests.NAMESPACE);
+        writer.writeStartElement("return");
+        writeElement(writer, "id", "42");
+        writeElement(writer, "name", "Apache CXF benchmark item");
+        writeElement(writer, "price", "12.5");
+        for (int x = 0; x < tags; x++) {
+            writeElement(writer, "tags", "tag" + x);
+        }
+        // the StaxOutEndingInterceptor added by the StaxOutInterceptor closes the elements
+        chain.doIntercept(message);
+        return out.size();
+    }
+
+    private static void writeElement(XMLStreamWriter writer, String name, String text) throws Exception {
+        writer.writeStartElement(name);
+        writer.writeCharacters(text);
+        writer.writeEndElement();
+    }
+
+    private static Message createMessage() {
+        Message message = new MessageImpl();
+        Exchange exchange = new ExchangeImpl();
+        exchange.setInMessage(message);
+        return message;
+    }
+}
@@ -0,0 +1,175 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.benchmark.stax;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.apache.cxf.benchmark.service.EchoRequests;
+import org.apache.cxf.interceptor.transform.TransformInInterceptor;
+import org.apache.cxf.interceptor.transform.TransformOutInterceptor;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.ExchangeImpl;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
+import org.apache.cxf.staxutils.StaxUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Cost of bridging two versions of a service with the TransformInInterceptor and the
+ * TransformOutInterceptor: the namespace of the payload is moved to a new version, one
+ * element is renamed and a header is dropped. The plain benchmarks read and write the same
+ * content without a transformation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TransformInterceptorBenchmark {
+    private static final String SOAP_NS = "http://schemas.xmlsoap.org/soap/envelope/";
+    private static final String NEW_NAMESPACE = "http://service.benchmark.cxf.apache.org/v2";
+
+    @Param({"10", "100" })
+    int tags;
+
+    private final TransformInInterceptor transformIn = new TransformInInterceptor();
+    private final TransformOutInterceptor transformOut = new TransformOutInterceptor();
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(16 * 1024);
+    private byte[] request;
+
+    @Setup
+    public void setUp() {
+        request = EchoRequests.create(tags);
+
+        Map<String, String> inElements = new HashMap<>();
+        inElements.put("{" + EchoRequests.NAMESPACE + "}*", "{" + NEW_NAMESPACE + "}*");
+        inElements.put("tags", "tag");
+        transformIn.setInTransformElements(inElements);
+        transformIn.setInDropElements(Collections.singletonList("{urn:benchmark}trace"));
+
+        Map<String, String> outElements = new HashMap<>();
+        outElements.put("{" + NEW_NAMESPACE + "}*", "{" + EchoRequests.NAMESPACE + "}*");
+        outElements.put("tag", "tags");
+        transformOut.setOutTransformElements(outElements);
+    }
+
+    @Benchmark
+    public void plainIn(Blackhole bh) throws Exception {
+        read(StaxUtils.createXMLStreamReader(new ByteArrayInputStream(request)), bh);
+    }
+
+    @Benchmark
+    public void transformIn(Blackhole bh) throws Exception {
+        Message message = createMessage();
+        message.setContent(InputStream.class, new ByteArrayInputStream(request));
+        message.setContent(XMLStreamReader.class,
+                           StaxUtils.createXMLStreamReader(new ByteArrayInputStream(request)));
+        transformIn.handleMessage(message);
+        read(message.getContent(XMLStreamReader.class), bh);
+    }
+
+    @Benchmark
+    public int plainOut() throws Exception {
+        out.reset();
+        XMLStreamWriter writer = StaxUtils.createXMLStreamWriter(out);
+        write(writer);
+        return out.size();
+    }
+
+    @Benchmark
+    public int transformOut() throws Exception {
+        Message message = createMessage();
+        out.reset();
+        message.setContent(OutputStream.class, out);
+        message.setContent(XMLStreamWriter.class, StaxUtils.createXMLStreamWriter(out));
+        transformOut.handleMessage(message);
+        write(message.getContent(XMLStreamWriter.class));
+        return out.size();
+    }
+
+    private static void read(XMLStreamReader reader, Blackhole bh) throws Exception {
+        while (reader.hasNext()) {
+            if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+                bh.consume(reader.getLocalName());
+                bh.consume(reader.getNamespaceURI());
+                bh.consume(reader.getAttributeCount());
+            }
+        }
+        reader.close();
+    }
+
+    private void write(XMLStreamWriter writer) throws Exception {
+        writer.writeStartDocument();
+        writer.writeStartElement("soap", "Envelope", SOAP_NS);
+        writer.writeNamespace("soap", SOAP_NS);
+        writer.writeStartElement("soap", "Body", SOAP_NS);
+        writer.writeStartElement("ns2", "echoResponse", NEW_NAMESPACE);
+        writer.writeNamespace("ns2", NEW_NAMESPACE);
+        writer.writeStartElement("return");
+        writeElement(writer, "id", "42");
+        writeElement(writer, "name", "Apache CXF benchmark item");
+        writeElement(writer, "price", "12.5");
+        for (int x = 0; x < tags; x++) {
+            writeElement(writer, "tag", "tag" + x);
+        }
+        writer.writeEndElement();
+        writer.writeEndElement();
+        writer.writeEndElement();
+        writer.writeEndElement();
+        writer.writeEndDocument();
+        writer.close();
+    }
+
+    private static void writeElement(XMLStreamWriter writer, String name, String text) throws Exception {
+        writer.writeStartElement(name);
+        writer.writeCharacters(text);
+        writer.writeEndElement();
+    }
+
+    private static Message createMessage() {
+        Message message = new MessageImpl();
+        Exchange exchange = new ExchangeImpl();
+        exchange.setInMessage(message);
+        return message;
+    }
+}
@@ -22,6 +22,7 @@ package org.apache.cxf.attachment;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.PushbackInputStream;
+import java.util.Arrays;
 
 public class MimeBodyPartInputStream extends InputStream {
 
@@ -31,6 +32,7 @@ public class MimeBodyPartInputStream extends InputStream {
     int pbAmount;
     byte[] boundary;
     byte[] boundaryBuffer;
+    private int[] shiftTable;
 
     private boolean closed;
 
@@ -103,103 +105,109 @@ public class MimeBodyPartInputStream extends InputStream {
         return i;
     }
 
-    //Has Data after encountering CRLF
-    private boolean hasData(byte[] b, int initialPointer, int pointer, int off, int len)
-        throws IOException {
-        if (pointer < (off + len)) {
-            return true;
-        } else if (pointer >= 1000000000) {
-            inStream.unread(b, initialPointer, (off + len) - initialPointer);
-            return false;
-        } else {
-            int x = inStream.read();
-            if (x != -1) {
-                inStream.unread(x);
-                inStream.unread(b, initialPointer, (off + len) - initialPointer);
-                return false;
+    /**
+     * Returns the number of bytes of the buffer which belong to the part, pushing back the rest.
+     * The boundary is searched for with the Boyer-Moore-Horspool algorithm, a CRLF right before
+     * it belongs to the boundary. If the boundary starts the buffer, it is consumed along with
+     * the CRLF or "--" following it and 0 is returned.
+     */
+    protected int processBuffer(byte[] buffer, int off, int len) throws IOException {
+        int end = off + len;
+        int pos = indexOfBoundary(buffer, off, end);
+        if (pos == -1) {
+            // keep back the end of the buffer if it may be the start of a boundary
+            int keep = partialBoundaryLength(buffer, off, end);
+            if (keep > 0 && keep < len && hasMoreData()) {
+                inStream.unread(buffer, end - keep, keep);
+                return len - keep;
             }
-            return true;
+            return len;
+        }
+        int start = pos;
+        if (pos - 2 >= off && buffer[pos - 2] == 13 && buffer[pos - 1] == 10) {
+            start = pos - 2;
+        }
+        if (start > off) {
+            // return the data before the boundary, the boundary is consumed by the next read
+            inStream.unread(buffer, start, end - start);
+            return start - off;
+        }
+        boundaryFound = true;
+        int after = pos + boundary.length;
+        if (after < end) {
+            inStream.unread(buffer, after, end - after);
+        }
+        // read the end of line characters, or the "--" and end of line of the last boundary
+        int c1 = inStream.read();
+        int c2 = inStream.read();
+        if (c1 == 45 && c2 == 45) {
+            inStream.read();
+            inStream.read();
         }
+        return 0;
     }
 
-    protected int processBuffer(byte[] buffer, int off, int len) throws IOException {
-        for (int i = off; i < (off + len); i++) {
-            boolean needUnread0d0a = false;
-            int value = buffer[i];
-            int initialI = i;
-            if (value == 13) {
-                if (!hasData(buffer, initialI, initialI + 1, off, len)) {
-                    return initialI - off;
-                }
-                value = buffer[initialI + 1];
-                if (value != 10) {
-                    continue;
-                }
-                if (!hasData(buffer, initialI, initialI + 2, off, len)) {
-                    return initialI - off;
-                }
-                value = buffer[initialI + 2];
-                if ((byte) value != boundary[0]) {
-                    i++;
-                    continue;
-                }
-                needUnread0d0a = true;
-                i += 2; //i after this points to boundary[0] element
-            } else if (value != boundary[0]) {
-                continue;
+    private int[] getShiftTable() {
+        if (shiftTable == null) {
+            int m = boundary.length;
+            shiftTable = new int[256];
+            Arrays.fill(shiftTable, m);
+            for (int k = 0; k < m - 1; k++) {
+                shiftTable[boundary[k] & 0xff] = m - 1 - k;
             }
+        }
+        return shiftTable;
+    }
 
-            int boundaryIndex = 0;
-            while ((boundaryIndex < boundary.length) && (value == boundary[boundaryIndex])) {
-                if (!hasData(buffer, initialI, i + 1, off, len)) {
-                    return initialI - off;
-                }
-                value = buffer[++i];
-                boundaryIndex++;
+    private int indexOfBoundary(byte[] buffer, int from, int end) {
+        int[] shift = getShiftTable();
+        int m = boundary.length;
+        byte last = boundary[m - 1];
+        int i = from;
+        while (i + m <= end) {
+            byte b = buffer[i + m - 1];
+            if (b == last && matches(buffer, i, boundary, m - 1)) {
+                return i;
             }
-            if (boundaryIndex == boundary.length) {
-                // read the end of line character
-                if (initialI != off) {
-                    i = 1000000000;
-                }
-                if (initialI - off != 0
-                    && !hasData(buffer, initialI, i + 1, off, len)) {
-                    return initialI - off;
-                }
-                boundaryFound = true;
-                int j = i + 1;
-                if (j < len && buffer[j] == 45 && value == 45) {
-                    // Last mime boundary should have a succeeding "--"
-                    // as we are on it, read the terminating CRLF
-                    i += 2;
-                    //last mime boundary
-                }
+            i += shift[b & 0xff];
+        }
+        return -1;
+    }
 
-                //boundary matched (may or may not be last mime boundary)
-                int processed = initialI - off;
-                if ((len - ((i - off) + 2)) > 0) {
-                    inStream.unread(buffer, i + 2, len - (i + 2) + off);
-                }
-                return processed;
+    private static boolean matches(byte[] buffer, int off, byte[] pattern, int count) {
+        for (int k = 0; k < count; k++) {
+            if (buffer[off + k] != pattern[k]) {
+                return false;
             }
+        }
+        return true;
+    }
 
-            // Boundary not found. Restoring bytes skipped.
-            // write first skipped byte, push back the rest
-            if (value != -1) { //pushing back first byte of boundary
-                // Stream might have ended
-                i--;
-            }
-            if (needUnread0d0a) { //Pushing all,  returning 13
-                i = i - boundaryIndex;
-                i--; //for 10
-                value = 13;
-            } else {
-                i = i - boundaryIndex;
-                i++;
-                value = boundary[0];
+    /**
+     * Returns the length of the longest end of the buffer which is the start of a boundary,
+     * with or without the CRLF before it.
+     */
+    private int partialBoundaryLength(byte[] buffer, int off, int end) {
+        for (int k = Math.min(boundary.length + 1, end - off); k > 0; k--) {
+            int start = end - k;
+            if (buffer[start] == 13) {
+                if (k == 1 || (buffer[start + 1] == 10 && matches(buffer, start + 2, boundary, k - 2))) {
+                    return k;
+                }
+            } else if (k < boundary.length && matches(buffer, start, boundary, k)) {
+                return k;
             }
         }
-        return len;
+        return 0;
+    }
+
+    private boolean hasMoreData() throws IOException {
+        int x = inStream.read();
+        if (x == -1) {
+            return false;
+        }
+        inStream.unread(x);
+        return true;
     }
 
     public int read() throws IOException {
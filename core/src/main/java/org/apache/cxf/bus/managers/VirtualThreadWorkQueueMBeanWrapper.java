@@ -0,0 +1,113 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.bus.managers;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.management.ManagedComponent;
+import org.apache.cxf.management.ManagementConstants;
+import org.apache.cxf.management.annotation.ManagedAttribute;
+import org.apache.cxf.management.annotation.ManagedResource;
+import org.apache.cxf.workqueue.VirtualThreadWorkQueue;
+import org.apache.cxf.workqueue.WorkQueueManager;
+
+@ManagedResource(componentName = "WorkQueue",
+                 description = "The CXF virtual thread work queue",
+                 currencyTimeLimit = 15, persistPolicy = "OnUpdate", persistPeriod = 200)
+
+public class VirtualThreadWorkQueueMBeanWrapper implements ManagedComponent {
+    private static final String TYPE_VALUE = "WorkQueues";
+
+    private VirtualThreadWorkQueue aWorkQueue;
+    private WorkQueueManager manager;
+
+    public VirtualThreadWorkQueueMBeanWrapper(VirtualThreadWorkQueue wq,
+                                              WorkQueueManager mgr) {
+        aWorkQueue = wq;
+        manager = mgr;
+    }
+
+    @ManagedAttribute(description = "The WorkQueueMaxSize",
+                      persistPolicy = "OnUpdate")
+    public long getWorkQueueMaxSize() {
+        return aWorkQueue.getMaxSize();
+    }
+
+    @ManagedAttribute(description = "The WorkQueue Current size",
+                      persistPolicy = "OnUpdate")
+    public long getWorkQueueSize() {
+        return aWorkQueue.getSize();
+    }
+
+    @ManagedAttribute(description = "The largest number of work items running at the same time")
+    public int getLargestActiveCount() {
+        return aWorkQueue.getLargestActiveCount();
+    }
+
+    @ManagedAttribute(description = "The number of work items currently running")
+    public int getActiveCount() {
+        return aWorkQueue.getActiveCount();
+    }
+
+    @ManagedAttribute(description = "The work items run on virtual threads")
+    public boolean isVirtualThreads() {
+        return VirtualThreadWorkQueue.isVirtualThreadSupported();
+    }
+
+    @ManagedAttribute(description = "The WorkQueue has nothing to do",
+                      persistPolicy = "OnUpdate")
+    public boolean isEmpty() {
+        return aWorkQueue.isEmpty();
+    }
+
+    @ManagedAttribute(description = "The WorkQueue is very busy")
+    public boolean isFull() {
+        return aWorkQueue.isFull();
+    }
+
+    @ManagedAttribute(description = "The maximum number of work items running at the same time",
+                      persistPolicy = "OnUpdate")
+    public int getHighWaterMark() {
+        return aWorkQueue.getHighWaterMark();
+    }
+    public void setHighWaterMark(int hwm) {
+        aWorkQueue.setHighWaterMark(hwm);
+    }
+
+    public ObjectName getObjectName() throws JMException {
+        String busId = Bus.DEFAULT_BUS_ID;
+        if (manager instanceof WorkQueueManagerImpl) {
+            busId = ((WorkQueueManagerImpl)manager).getBus().getId();
+        }
+        StringBuilder buffer = new StringBuilder();
+        buffer.append(ManagementConstants.DEFAULT_DOMAIN_NAME).append(':');
+        buffer.append(ManagementConstants.BUS_ID_PROP).append('=').append(busId).append(',');
+        buffer.append(WorkQueueManagerImplMBeanWrapper.TYPE_VALUE).append('=');
+        buffer.append(WorkQueueManagerImplMBeanWrapper.NAME_VALUE).append(',');
+        buffer.append(ManagementConstants.TYPE_PROP).append('=').append(TYPE_VALUE).append(',');
+        buffer.append(ManagementConstants.NAME_PROP).append('=').append(aWorkQueue.getName()).append(',');
+        // Added the instance id to make the ObjectName unique
+        buffer.append(ManagementConstants.INSTANCE_ID_PROP).append('=').append(aWorkQueue.hashCode());
+        return new ObjectName(buffer.toString());
+    }
+
+}
@@ -20,7 +20,10 @@
 package org.apache.cxf.bus.managers;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -37,6 +40,7 @@ import org.apache.cxf.configuration.ConfiguredBeanLocator;
 import org.apache.cxf.management.InstrumentationManager;
 import org.apache.cxf.workqueue.AutomaticWorkQueue;
 import org.apache.cxf.workqueue.AutomaticWorkQueueImpl;
+import org.apache.cxf.workqueue.VirtualThreadWorkQueue;
 import org.apache.cxf.workqueue.WorkQueueManager;
 
 @NoJSR250Annotations(unlessNull = "bus")
@@ -44,6 +48,13 @@ public class WorkQueueManagerImpl implements WorkQueueManager {
 
     public static final String DEFAULT_QUEUE_NAME = "default";
     public static final String DEFAULT_WORKQUEUE_BEAN_NAME = "cxf.default.workqueue";
+    /**
+     * Bus property listing, comma separated, the names of the work queues that are created
+     * as {@link VirtualThreadWorkQueue}s when they are not configured otherwise,
+     * for example "default,http-conduit". When the JVM does not support virtual threads
+     * these work queues are created as {@link AutomaticWorkQueueImpl}s instead.
+     */
+    public static final String VIRTUAL_THREAD_QUEUES = "org.apache.cxf.workqueue.virtualThreadQueues";
 
     private static final Logger LOG =
         LogUtils.getL7dLogger(WorkQueueManagerImpl.class);
@@ -54,6 +65,7 @@ public class WorkQueueManagerImpl implements WorkQueueManager {
     boolean inShutdown;
     InstrumentationManager imanager;
     Bus bus;
+    Set<String> virtualThreadQueues = Collections.emptySet();
 
     public WorkQueueManagerImpl() {
 
@@ -71,6 +83,7 @@ public class WorkQueueManagerImpl implements WorkQueueManager {
         this.bus = bus;
         if (null != bus) {
             bus.setExtension(this, WorkQueueManager.class);
+            setVirtualThreadQueues(bus.getProperty(VIRTUAL_THREAD_QUEUES));
             imanager = bus.getExtension(InstrumentationManager.class);
             if (null != imanager) {
                 try {
@@ -167,7 +180,33 @@ public class WorkQueueManagerImpl implements WorkQueueManager {
     }
 
     public AutomaticWorkQueue getNamedWorkQueue(String name) {
-        return namedQueues.get(name);
+        AutomaticWorkQueue q = namedQueues.get(name);
+        if (q == null && virtualThreadQueues.contains(name)) {
+            q = createVirtualThreadWorkQueue(name);
+        }
+        return q;
+    }
+
+    /**
+     * Sets the names of the work queues that are created as {@link VirtualThreadWorkQueue}s
+     * when they are not configured otherwise, or as {@link AutomaticWorkQueueImpl}s when
+     * the JVM does not support virtual threads.
+     * @param names a collection or a comma separated string of work queue names
+     */
+    public final void setVirtualThreadQueues(Object names) {
+        Set<String> set = new HashSet<>();
+        if (names instanceof String) {
+            for (String s : ((String)names).split(",")) {
+                if (!s.trim().isEmpty()) {
+                    set.add(s.trim());
+                }
+            }
+        } else if (names instanceof Collection) {
+            for (Object o : (Collection<?>)names) {
+                set.add(o.toString());
+            }
+        }
+        virtualThreadQueues = set;
     }
     public final void addNamedWorkQueue(String name, AutomaticWorkQueue q) {
         namedQueues.put(name, q);
@@ -193,6 +232,12 @@ public class WorkQueueManagerImpl implements WorkQueueManager {
                     LOG.log(Level.WARNING, jmex.getMessage(), jmex);
                 }
             }
+        } else if (q instanceof VirtualThreadWorkQueue && imanager != null) {
+            try {
+                imanager.register(new VirtualThreadWorkQueueMBeanWrapper((VirtualThreadWorkQueue)q, this));
+            } catch (JMException jmex) {
+                LOG.log(Level.WARNING, jmex.getMessage(), jmex);
+            }
         }
     }
 
@@ -202,6 +247,21 @@ public class WorkQueueManagerImpl implements WorkQueueManager {
         return q;
     }
 
+    private synchronized AutomaticWorkQueue createVirtualThreadWorkQueue(String name) {
+        AutomaticWorkQueue q = namedQueues.get(name);
+        if (q == null) {
+            if (VirtualThreadWorkQueue.isVirtualThreadSupported()) {
+                q = new VirtualThreadWorkQueue(name);
+            } else {
+                // a thread per work item is only cheap with virtual threads
+                LOG.log(Level.INFO, "NO_VIRTUAL_THREADS", name);
+                q = new AutomaticWorkQueueImpl(name);
+            }
+            addNamedWorkQueue(name, q);
+        }
+        return q;
+    }
+
 
     class WQLifecycleListener implements BusLifeCycleListener {
         public void initComplete() {
@@ -22,18 +22,29 @@ package org.apache.cxf.common.jaxb;
 import java.io.BufferedReader;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.lang.ref.Reference;
+import java.lang.ref.SoftReference;
 import java.lang.ref.WeakReference;
 import java.lang.reflect.Method;
 import java.nio.charset.StandardCharsets;
 import java.security.AccessController;
 import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Pattern;
 
 import javax.xml.bind.JAXBContext;
@@ -45,6 +56,7 @@ import org.apache.cxf.common.classloader.ClassLoaderUtils;
 import org.apache.cxf.common.util.CacheMap;
 import org.apache.cxf.common.util.CachedClass;
 import org.apache.cxf.common.util.StringUtils;
+import org.apache.cxf.common.util.SystemPropertyAction;
 
 /**
  *
@@ -92,20 +104,86 @@ public final class JAXBContextCache {
 
     }
     private static final class CachedContextAndSchemasInternal {
-        private final WeakReference<JAXBContext> context;
-        private final WeakReference<Set<Class<?>>> classes;
+        private final String namespace;
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile Reference<JAXBContext> context;
+        private volatile Reference<Set<Class<?>>> classes;
+        private volatile JAXBException failure;
+        private volatile long lastUsed;
         private Collection<DOMSource> schemas;
 
+        CachedContextAndSchemasInternal(String namespace) {
+            this.namespace = namespace;
+        }
+
         CachedContextAndSchemasInternal(JAXBContext context, Set<Class<?>> classes) {
-            this.context = new WeakReference<JAXBContext>(context);
-            this.classes = new WeakReference<Set<Class<?>>>(classes);
+            this("");
+            setContext(context, classes);
+        }
+
+        void setContext(JAXBContext ctx, Set<Class<?>> cls) {
+            if (softReferences) {
+                context = new SoftReference<JAXBContext>(ctx);
+                classes = new SoftReference<Set<Class<?>>>(cls);
+            } else {
+                context = new WeakReference<JAXBContext>(ctx);
+                classes = new WeakReference<Set<Class<?>>>(cls);
+            }
+            done.countDown();
+        }
+
+        void setFailure(JAXBException ex) {
+            failure = ex;
+            done.countDown();
+        }
+
+        boolean isDone() {
+            return done.getCount() == 0;
+        }
+
+        /**
+         * Waits for the context to be created by another thread, returns null if it has been
+         * garbage collected since.
+         */
+        CachedContextAndSchemas await() throws JAXBException {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    done.await();
+                    break;
+                } catch (InterruptedException ex) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return get();
+        }
+
+        CachedContextAndSchemas get() {
+            if (!isDone() || failure != null) {
+                return null;
+            }
+            JAXBContext ctx = getContext();
+            Set<Class<?>> cls = getClasses();
+            if (ctx == null || cls == null) {
+                return null;
+            }
+            lastUsed = USE_COUNTER.incrementAndGet();
+            return new CachedContextAndSchemas(ctx, cls, this);
         }
 
         public JAXBContext getContext() {
-            return context.get();
+            Reference<JAXBContext> ref = context;
+            return ref == null ? null : ref.get();
         }
         public Set<Class<?>> getClasses() {
-            return classes.get();
+            Reference<Set<Class<?>>> ref = classes;
+            return ref == null ? null : ref.get();
         }
 
         public Collection<DOMSource> getSchemas() {
@@ -117,14 +195,49 @@ public final class JAXBContextCache {
         }
     }
 
-    private static final Map<Set<Class<?>>, Map<String, CachedContextAndSchemasInternal>> JAXBCONTEXT_CACHE
-        = new CacheMap<Set<Class<?>>, Map<String, CachedContextAndSchemasInternal>>();
+    /**
+     * The maximum number of contexts kept, the least recently used ones are dropped beyond it.
+     */
+    public static final String MAX_SIZE_PROPERTY = "org.apache.cxf.jaxb.JAXBContextCache.maxSize";
+    /**
+     * If set to "soft", the contexts are kept until the memory runs low, by default they are
+     * only kept while they are in use somewhere else.
+     */
+    public static final String REFERENCES_PROPERTY = "org.apache.cxf.jaxb.JAXBContextCache.references";
+    public static final int DEFAULT_MAX_SIZE = 128;
+
+    static final AtomicLong HITS = new AtomicLong();
+    static final AtomicLong MISSES = new AtomicLong();
+    static final AtomicLong WAITS = new AtomicLong();
+    static final AtomicLong BUILD_FAILURES = new AtomicLong();
+    static final AtomicLong BUILD_TIME = new AtomicLong();
+    static final AtomicLong EVICTIONS = new AtomicLong();
+
+    private static final AtomicLong USE_COUNTER = new AtomicLong();
+
+    // keyed by the names and class loaders of the classes, and the default namespace,
+    // so that the classes themselves are not kept from being unloaded
+    private static final ConcurrentMap<String, CachedContextAndSchemasInternal> JAXBCONTEXT_CACHE
+        = new ConcurrentHashMap<>();
+
+    // numbers the class loaders for the keys, without keeping them from being collected
+    private static final Map<ClassLoader, Long> CLASS_LOADER_IDS = new WeakHashMap<>();
+    private static long lastClassLoaderId;
+
+    private static final ClassValue<String> CLASS_KEYS = new ClassValue<String>() {
+        protected String computeValue(Class<?> cls) {
+            return cls.getName() + '@' + getClassLoaderId(cls.getClassLoader());
+        }
+    };
 
     private static final Map<Package, CachedClass> OBJECT_FACTORY_CACHE
         = new CacheMap<Package, CachedClass>();
 
     private static final boolean HAS_MOXY;
 
+    private static volatile int maxSize;
+    private static volatile boolean softReferences;
+
     static {
         boolean b = false;
         try {
@@ -134,6 +247,18 @@ public final class JAXBContextCache {
             //ignore
         }
         HAS_MOXY = b;
+
+        int size = DEFAULT_MAX_SIZE;
+        try {
+            String s = SystemPropertyAction.getPropertyOrNull(MAX_SIZE_PROPERTY);
+            if (s != null) {
+                size = Integer.parseInt(s);
+            }
+        } catch (NumberFormatException ex) {
+            //ignore
+        }
+        maxSize = size;
+        softReferences = "soft".equals(SystemPropertyAction.getPropertyOrNull(REFERENCES_PROPERTY));
     }
 
     private JAXBContextCache() {
@@ -144,14 +269,37 @@ public final class JAXBContextCache {
      * Clear any caches to make sure new contexts are created
      */
     public static void clearCaches() {
-        synchronized (JAXBCONTEXT_CACHE) {
-            JAXBCONTEXT_CACHE.clear();
-        }
+        JAXBCONTEXT_CACHE.clear();
         synchronized (OBJECT_FACTORY_CACHE) {
             OBJECT_FACTORY_CACHE.clear();
         }
     }
 
+    public static int getMaxSize() {
+        return maxSize;
+    }
+
+    public static void setMaxSize(int size) {
+        maxSize = size;
+        evict();
+    }
+
+    public static boolean isSoftReferences() {
+        return softReferences;
+    }
+
+    /**
+     * Sets if the contexts created from now on are kept until the memory runs low, or only
+     * while they are in use somewhere else.
+     */
+    public static void setSoftReferences(boolean soft) {
+        softReferences = soft;
+    }
+
+    public static int getSize() {
+        return JAXBCONTEXT_CACHE.size();
+    }
+
     public static void scanPackages(Set<Class<?>> classes) {
         JAXBUtils.scanPackages(classes, OBJECT_FACTORY_CACHE);
     }
@@ -199,51 +347,86 @@ public final class JAXBContextCache {
         if (props != null) {
             map.putAll(props);
         }
-        CachedContextAndSchemasInternal cachedContextAndSchemasInternal = null;
-        JAXBContext context = null;
-        Map<String, CachedContextAndSchemasInternal> cachedContextAndSchemasInternalMap = null;
-        if (typeRefs == null || typeRefs.isEmpty()) {
-            synchronized (JAXBCONTEXT_CACHE) {
-
-                if (exact) {
-                    cachedContextAndSchemasInternalMap
-                        = JAXBCONTEXT_CACHE.get(classes);
-                    if (cachedContextAndSchemasInternalMap != null && defaultNs != null) {
-                        cachedContextAndSchemasInternal = cachedContextAndSchemasInternalMap.get(defaultNs);
-                    }
-                } else {
-                    for (Entry<Set<Class<?>>, Map<String, CachedContextAndSchemasInternal>> k
-                            : JAXBCONTEXT_CACHE.entrySet()) {
-                        Set<Class<?>> key = k.getKey();
-                        if (key != null && key.containsAll(classes)) {
-                            cachedContextAndSchemasInternalMap = k.getValue();
-                            if (defaultNs != null) {
-                                cachedContextAndSchemasInternal = cachedContextAndSchemasInternalMap.get(defaultNs);
-                            } else {
-                                cachedContextAndSchemasInternal = cachedContextAndSchemasInternalMap.get("");
-                            }
-                            break;
-                        }
-                    }
+        if (typeRefs != null && !typeRefs.isEmpty()) {
+            JAXBContext context = createContext(classes, map, typeRefs);
+            return new CachedContextAndSchemas(context, classes,
+                                               new CachedContextAndSchemasInternal(context, classes));
+        }
+
+        String namespace = (defaultNs != null) ? defaultNs : "";
+        CachedContextAndSchemas cached = null;
+        if (exact) {
+            if (defaultNs != null) {
+                CachedContextAndSchemasInternal i = JAXBCONTEXT_CACHE.get(getKey(classes, namespace));
+                cached = i == null ? null : i.get();
+                if (cached != null && !cached.getClasses().containsAll(classes)) {
+                    cached = null;
                 }
-                if (cachedContextAndSchemasInternal != null) {
-                    context = cachedContextAndSchemasInternal.getContext();
-                    if (context == null) {
-                        final Set<Class<?>> cls = cachedContextAndSchemasInternal.getClasses();
-                        if (cls != null) {
-                            JAXBCONTEXT_CACHE.remove(cls);
-                        }
-                        cachedContextAndSchemasInternal = null;
-                    } else {
-                        return new CachedContextAndSchemas(context, cachedContextAndSchemasInternal.getClasses(),
-                            cachedContextAndSchemasInternal);
+            }
+        } else {
+            for (CachedContextAndSchemasInternal i : JAXBCONTEXT_CACHE.values()) {
+                Set<Class<?>> key = i.getClasses();
+                if (key != null && namespace.equals(i.namespace) && key.containsAll(classes)) {
+                    cached = i.get();
+                    if (cached != null) {
+                        break;
                     }
                 }
             }
         }
+        if (cached != null) {
+            HITS.incrementAndGet();
+            return cached;
+        }
+        return createCachedContext(classes, namespace, map);
+    }
+
+    /**
+     * Creates the context and caches it, unless another thread is already creating the same
+     * context, in which case that one is waited for.
+     */
+    private static CachedContextAndSchemas createCachedContext(Set<Class<?>> classes, String namespace,
+                                                               Map<String, Object> map)
+        throws JAXBException {
+        String key = getKey(classes, namespace);
+        CachedContextAndSchemasInternal created = new CachedContextAndSchemasInternal(namespace);
+        CachedContextAndSchemasInternal existing = JAXBCONTEXT_CACHE.putIfAbsent(key, created);
+        while (existing != null) {
+            boolean pending = !existing.isDone();
+            CachedContextAndSchemas cached = existing.await();
+            if (cached != null && cached.getClasses().containsAll(classes)) {
+                (pending ? WAITS : HITS).incrementAndGet();
+                return cached;
+            }
+            // the context has been garbage collected, or the key is not unique
+            existing = JAXBCONTEXT_CACHE.replace(key, existing, created)
+                ? null : JAXBCONTEXT_CACHE.putIfAbsent(key, created);
+        }
+        MISSES.incrementAndGet();
+        long start = System.nanoTime();
+        JAXBContext context;
+        try {
+            context = createContextWithObjectFactories(classes, map);
+        } catch (JAXBException | RuntimeException | Error ex) {
+            BUILD_FAILURES.incrementAndGet();
+            JAXBCONTEXT_CACHE.remove(key, created);
+            created.setFailure(ex instanceof JAXBException ? (JAXBException)ex : new JAXBException(ex));
+            throw ex;
+        }
+        BUILD_TIME.addAndGet(System.nanoTime() - start);
+        created.setContext(context, classes);
+        if (JAXBCONTEXT_CACHE.size() > maxSize) {
+            evict();
+        }
+        return new CachedContextAndSchemas(context, classes, created);
+    }
 
+    private static JAXBContext createContextWithObjectFactories(final Set<Class<?>> classes,
+                                                                Map<String, Object> map)
+        throws JAXBException {
+        JAXBContext context = null;
         try {
-            context = createContext(classes, map, typeRefs);
+            context = createContext(classes, map, null);
         } catch (JAXBException ex) {
             // load jaxb needed class and try to create jaxb context
             boolean added = addJaxbObjectFactory(ex, classes);
@@ -263,20 +446,69 @@ public final class JAXBContextCache {
                 throw ex;
             }
         }
-        cachedContextAndSchemasInternal = new CachedContextAndSchemasInternal(context, classes);
-        synchronized (JAXBCONTEXT_CACHE) {
-            if (typeRefs == null || typeRefs.isEmpty()) {
-                if (cachedContextAndSchemasInternalMap == null) {
-                    cachedContextAndSchemasInternalMap
-                        = new CacheMap<String, CachedContextAndSchemasInternal>();
-                }
-                cachedContextAndSchemasInternalMap.put((defaultNs != null) ? defaultNs : "",
-                    cachedContextAndSchemasInternal);
-                JAXBCONTEXT_CACHE.put(classes, cachedContextAndSchemasInternalMap);
+        return context;
+    }
+
+    private static String getKey(Set<Class<?>> classes, String namespace) {
+        String[] names = new String[classes.size()];
+        int i = 0;
+        for (Class<?> cls : classes) {
+            names[i++] = CLASS_KEYS.get(cls);
+        }
+        Arrays.sort(names);
+        StringBuilder key = new StringBuilder(namespace.length() + names.length * 48).append(namespace);
+        for (String name : names) {
+            key.append('|').append(name);
+        }
+        return key.toString();
+    }
+
+    private static long getClassLoaderId(ClassLoader loader) {
+        if (loader == null) {
+            return 0;
+        }
+        synchronized (CLASS_LOADER_IDS) {
+            Long id = CLASS_LOADER_IDS.get(loader);
+            if (id == null) {
+                id = ++lastClassLoaderId;
+                CLASS_LOADER_IDS.put(loader, id);
             }
+            return id;
         }
+    }
 
-        return new CachedContextAndSchemas(context, classes, cachedContextAndSchemasInternal);
+    /**
+     * Drops the contexts which have been garbage collected and, if the cache is still too large,
+     * the least recently used ones.
+     */
+    private static synchronized void evict() {
+        List<Map.Entry<String, CachedContextAndSchemasInternal>> entries = new ArrayList<>();
+        for (Map.Entry<String, CachedContextAndSchemasInternal> e : JAXBCONTEXT_CACHE.entrySet()) {
+            CachedContextAndSchemasInternal i = e.getValue();
+            if (!i.isDone()) {
+                continue;
+            }
+            if (i.getContext() == null || i.getClasses() == null) {
+                JAXBCONTEXT_CACHE.remove(e.getKey(), i);
+            } else {
+                entries.add(e);
+            }
+        }
+        int excess = JAXBCONTEXT_CACHE.size() - maxSize;
+        if (excess <= 0) {
+            return;
+        }
+        Collections.sort(entries, new Comparator<Map.Entry<String, CachedContextAndSchemasInternal>>() {
+            public int compare(Map.Entry<String, CachedContextAndSchemasInternal> e1,
+                               Map.Entry<String, CachedContextAndSchemasInternal> e2) {
+                return Long.compare(e1.getValue().lastUsed, e2.getValue().lastUsed);
+            }
+        });
+        for (int i = 0; i < excess && i < entries.size(); i++) {
+            if (JAXBCONTEXT_CACHE.remove(entries.get(i).getKey(), entries.get(i).getValue())) {
+                EVICTIONS.incrementAndGet();
+            }
+        }
     }
 
     private static boolean checkObjectFactoryNamespaces(Class<?> clz) {
@@ -0,0 +1,107 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.common.jaxb;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.management.ManagedComponent;
+import org.apache.cxf.management.ManagementConstants;
+import org.apache.cxf.management.annotation.ManagedAttribute;
+import org.apache.cxf.management.annotation.ManagedOperation;
+import org.apache.cxf.management.annotation.ManagedResource;
+
+/**
+ * Exposes the size and the statistics of the {@link JAXBContextCache}, which is shared
+ * by all the buses.
+ */
+@ManagedResource(componentName = "JAXBContextCache",
+                 description = "The cache of the JAXBContexts",
+                 currencyTimeLimit = 15, persistPolicy = "OnUpdate", persistPeriod = 200)
+public class ManagedJAXBContextCache implements ManagedComponent {
+    private static final String TYPE_VALUE = "JAXBContextCache";
+
+    private final String busId;
+
+    public ManagedJAXBContextCache(Bus bus) {
+        busId = bus.getId();
+    }
+
+    @ManagedAttribute(description = "The number of cached contexts")
+    public int getSize() {
+        return JAXBContextCache.getSize();
+    }
+
+    @ManagedAttribute(description = "The maximum number of cached contexts")
+    public int getMaxSize() {
+        return JAXBContextCache.getMaxSize();
+    }
+
+    @ManagedAttribute(description = "The maximum number of cached contexts")
+    public void setMaxSize(int size) {
+        JAXBContextCache.setMaxSize(size);
+    }
+
+    @ManagedAttribute(description = "The number of lookups served from the cache")
+    public long getHits() {
+        return JAXBContextCache.HITS.get();
+    }
+
+    @ManagedAttribute(description = "The number of lookups which created a context")
+    public long getMisses() {
+        return JAXBContextCache.MISSES.get();
+    }
+
+    @ManagedAttribute(description = "The number of lookups which waited for another thread "
+                                    + "to create the same context")
+    public long getSingleFlightWaits() {
+        return JAXBContextCache.WAITS.get();
+    }
+
+    @ManagedAttribute(description = "The number of contexts which could not be created")
+    public long getBuildFailures() {
+        return JAXBContextCache.BUILD_FAILURES.get();
+    }
+
+    @ManagedAttribute(description = "The average time in milliseconds to create a context")
+    public double getAverageBuildTime() {
+        long builds = JAXBContextCache.MISSES.get() - JAXBContextCache.BUILD_FAILURES.get();
+        return builds <= 0 ? 0 : JAXBContextCache.BUILD_TIME.get() / (builds * 1000000.0);
+    }
+
+    @ManagedAttribute(description = "The number of contexts dropped because the cache was full")
+    public long getEvictions() {
+        return JAXBContextCache.EVICTIONS.get();
+    }
+
+    @ManagedOperation(description = "Drop all the cached contexts")
+    public void clear() {
+        JAXBContextCache.clearCaches();
+    }
+
+    public ObjectName getObjectName() throws JMException {
+        StringBuilder buffer = new StringBuilder();
+        buffer.append(ManagementConstants.DEFAULT_DOMAIN_NAME).append(':');
+        buffer.append(ManagementConstants.BUS_ID_PROP).append('=').append(busId).append(',');
+        buffer.append(ManagementConstants.TYPE_PROP).append('=').append(TYPE_VALUE);
+        return new ObjectName(buffer.toString());
+    }
+}
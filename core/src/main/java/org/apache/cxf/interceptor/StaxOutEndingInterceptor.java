@@ -33,6 +33,11 @@ import org.apache.cxf.staxutils.StaxUtils;
 
 public class StaxOutEndingInterceptor extends AbstractPhaseInterceptor<Message> {
 
+    /**
+     * The writer created by the StaxOutInterceptor to be closed with StaxUtils.closeAndRecycle.
+     */
+    public static final String RECYCLING_WRITER = StaxOutEndingInterceptor.class.getName() + ".recyclingWriter";
+
     private static final ResourceBundle BUNDLE = BundleUtils.getBundle(StaxOutEndingInterceptor.class);
 
     private String outStreamHolder;
@@ -56,7 +61,12 @@ public class StaxOutEndingInterceptor extends AbstractPhaseInterceptor<Message>
                     xtw.writeEndDocument();
                     xtw.flush();
                 } finally {
-                    StaxUtils.close(xtw);
+                    if (message.get(RECYCLING_WRITER) == xtw) {
+                        message.remove(RECYCLING_WRITER);
+                        StaxUtils.closeAndRecycle(xtw);
+                    } else {
+                        StaxUtils.close(xtw);
+                    }
                 }
             }
 
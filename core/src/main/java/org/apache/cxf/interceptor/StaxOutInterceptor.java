@@ -79,7 +79,10 @@ public class StaxOutInterceptor extends AbstractPhaseInterceptor<Message> {
             if (factory == null) {
                 if (writer == null) {
                     os = setupOutputStream(os);
-                    xwriter = StaxUtils.createXMLStreamWriter(os, encoding);
+                    xwriter = StaxUtils.createRecyclingXMLStreamWriter(os, encoding);
+                    if (StaxUtils.isRecyclingWriterBuffers()) {
+                        message.put(StaxOutEndingInterceptor.RECYCLING_WRITER, xwriter);
+                    }
                 } else {
                     xwriter = StaxUtils.createXMLStreamWriter(writer);
                 }
@@ -31,6 +31,7 @@ import org.apache.cxf.message.Message;
 import org.apache.cxf.message.MessageUtils;
 import org.apache.cxf.phase.AbstractPhaseInterceptor;
 import org.apache.cxf.phase.Phase;
+import org.apache.cxf.staxutils.transform.TransformRules;
 import org.apache.cxf.staxutils.transform.TransformUtils;
 
 
@@ -45,6 +46,8 @@ public class TransformInInterceptor extends AbstractPhaseInterceptor<Message> {
     private Map<String, String> inAttributesMap;
     private boolean blockOriginalReader = true;
     private String contextPropertyName;
+    // parsed from the maps above on first use, the setters discard them
+    private volatile TransformRules rules;
 
     public TransformInInterceptor() {
         this(Phase.POST_STREAM);
@@ -86,27 +89,38 @@ public class TransformInInterceptor extends AbstractPhaseInterceptor<Message> {
 
     protected XMLStreamReader createTransformReaderIfNeeded(XMLStreamReader reader, InputStream is) {
         return TransformUtils.createTransformReaderIfNeeded(reader, is,
-                                                            inDropElements,
-                                                            inElementsMap,
-                                                            inAppendMap,
-                                                            inAttributesMap,
+                                                            getTransformRules(),
                                                             blockOriginalReader);
     }
 
+    private TransformRules getTransformRules() {
+        TransformRules r = rules;
+        if (r == null && (inElementsMap != null || inAppendMap != null || inDropElements != null
+            || inAttributesMap != null)) {
+            r = new TransformRules(inElementsMap, inAppendMap, inDropElements, inAttributesMap);
+            rules = r;
+        }
+        return r;
+    }
+
     public void setInAppendElements(Map<String, String> inElements) {
         this.inAppendMap = inElements;
+        rules = null;
     }
 
     public void setInDropElements(List<String> dropElementsSet) {
         this.inDropElements = dropElementsSet;
+        rules = null;
     }
 
     public void setInTransformElements(Map<String, String> inElements) {
         this.inElementsMap = inElements;
+        rules = null;
     }
 
     public void setInTransformAttributes(Map<String, String> inAttributes) {
         this.inAttributesMap = inAttributes;
+        rules = null;
     }
 
     public void setBlockOriginalReader(boolean blockOriginalReader) {
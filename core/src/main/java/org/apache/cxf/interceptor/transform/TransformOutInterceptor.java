@@ -33,6 +33,7 @@ import org.apache.cxf.message.Message;
 import org.apache.cxf.message.MessageUtils;
 import org.apache.cxf.phase.AbstractPhaseInterceptor;
 import org.apache.cxf.phase.Phase;
+import org.apache.cxf.staxutils.transform.TransformRules;
 import org.apache.cxf.staxutils.transform.TransformUtils;
 
 
@@ -54,6 +55,8 @@ public class TransformOutInterceptor extends AbstractPhaseInterceptor<Message> {
     private boolean skipOnFault;
     private String contextPropertyName;
     private String defaultNamespace;
+    // parsed from the maps above on first use, the setters discard them
+    private volatile TransformRules rules;
 
     public TransformOutInterceptor() {
         this(Phase.PRE_STREAM);
@@ -110,32 +113,44 @@ public class TransformOutInterceptor extends AbstractPhaseInterceptor<Message> {
 
     protected XMLStreamWriter createTransformWriterIfNeeded(XMLStreamWriter writer, OutputStream os) {
         return TransformUtils.createTransformWriterIfNeeded(writer, os,
-                                                      outElementsMap,
-                                                      outDropElements,
-                                                      outAppendMap,
-                                                      outAttributesMap,
+                                                      getTransformRules(),
                                                       attributesToElements,
                                                       defaultNamespace);
     }
 
+    private TransformRules getTransformRules() {
+        TransformRules r = rules;
+        if (r == null && (outElementsMap != null || outDropElements != null
+            || outAppendMap != null || attributesToElements)) {
+            r = new TransformRules(outElementsMap, outAppendMap, outDropElements, outAttributesMap);
+            rules = r;
+        }
+        return r;
+    }
+
     public void setOutTransformElements(Map<String, String> outElements) {
         this.outElementsMap = outElements;
+        rules = null;
     }
 
     public void setOutAppendElements(Map<String, String> map) {
         this.outAppendMap = map;
+        rules = null;
     }
 
     public void setOutDropElements(List<String> dropElementsSet) {
         this.outDropElements = dropElementsSet;
+        rules = null;
     }
 
     public void setOutTransformAttributes(Map<String, String> outAttributes) {
         this.outAttributesMap = outAttributes;
+        rules = null;
     }
 
     public void setAttributesToElements(boolean value) {
         this.attributesToElements = value;
+        rules = null;
     }
 
     public void setSkipOnFault(boolean value) {
@@ -88,6 +88,7 @@ public class CachedOutputStream extends OutputStream {
     private String cipherTransformation = defaultCipherTransformation;
     private CipherPair ciphers;
 
+    private CachedOutputStreamBufferPool bufferPool;
     private List<CachedOutputStreamCallback> callbacks;
 
     private List<Object> streamList = new ArrayList<>();
@@ -98,9 +99,10 @@ public class CachedOutputStream extends OutputStream {
 
     public CachedOutputStream(long threshold) {
         this.threshold = threshold;
-        currentStream = new LoadingByteArrayOutputStream(2048);
         inmem = true;
         readBusProperties();
+        currentStream = bufferPool != null
+            ? new PooledByteArrayOutputStream(bufferPool) : new LoadingByteArrayOutputStream(2048);
     }
 
     private void readBusProperties() {
@@ -118,6 +120,10 @@ public class CachedOutputStream extends OutputStream {
             if (v != null) {
                 cipherTransformation = v;
             }
+            Object pool = b.getProperty(CachedOutputStreamBufferPool.BUS_PROPERTY);
+            if (pool instanceof CachedOutputStreamBufferPool) {
+                bufferPool = (CachedOutputStreamBufferPool)pool;
+            }
         }
     }
 
@@ -212,6 +218,7 @@ public class CachedOutputStream extends OutputStream {
         }
         doClose();
         currentStream.close();
+        releasePooledBuffer(currentStream, true);
         if (!maybeDeleteTempFile(currentStream)) {
             postClose();
         }
@@ -254,6 +261,7 @@ public class CachedOutputStream extends OutputStream {
                     if (copyOldContent && byteOut.size() > 0) {
                         byteOut.writeTo(out);
                     }
+                    releasePooledBuffer(byteOut, false);
                 } else {
                     throw new IOException("Unknown format of currentStream");
                 }
@@ -394,6 +402,9 @@ public class CachedOutputStream extends OutputStream {
      * @return the underlying output stream
      */
     public OutputStream getOut() {
+        if (currentStream instanceof PooledByteArrayOutputStream) {
+            ((PooledByteArrayOutputStream)currentStream).markShared();
+        }
         return currentStream;
     }
 
@@ -469,6 +480,10 @@ public class CachedOutputStream extends OutputStream {
             bout.writeTo(currentStream);
             inmem = false;
             streamList.add(currentStream);
+            releasePooledBuffer(bout, false);
+            if (bufferPool != null) {
+                bufferPool.spilled();
+            }
         } catch (Exception ex) {
             //Could be IOException or SecurityException or other issues.
             //Don't care what, just keep it in memory.
@@ -482,6 +497,12 @@ public class CachedOutputStream extends OutputStream {
         }
     }
 
+    private static void releasePooledBuffer(OutputStream out, boolean retainContent) {
+        if (out instanceof PooledByteArrayOutputStream) {
+            ((PooledByteArrayOutputStream)out).releaseBuffer(retainContent);
+        }
+    }
+
     public File getTempFile() {
         return tempFile != null && tempFile.exists() ? tempFile : null;
     }
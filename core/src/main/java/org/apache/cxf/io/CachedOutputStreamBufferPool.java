@@ -0,0 +1,209 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.io;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.common.logging.LogUtils;
+import org.apache.cxf.management.InstrumentationManager;
+import org.apache.cxf.management.ManagedComponent;
+import org.apache.cxf.management.ManagementConstants;
+import org.apache.cxf.management.annotation.ManagedAttribute;
+import org.apache.cxf.management.annotation.ManagedOperation;
+import org.apache.cxf.management.annotation.ManagedResource;
+
+/**
+ * A bounded pool of reusable in-memory buffers for {@link CachedOutputStream}.
+ *
+ * Once a pool is registered on a bus (under the {@link #BUS_PROPERTY} property),
+ * every CachedOutputStream created while that bus is the thread default bus
+ * starts writing into a pooled buffer instead of allocating a new one. The buffer
+ * is handed back when the stream is closed, spills to a temporary file or is reset,
+ * unless an InputStream sharing the buffer has been created in the meantime.
+ */
+@ManagedResource(componentName = "CachedOutputStreamBufferPool",
+                 description = "The pool of buffers used by CachedOutputStream",
+                 currencyTimeLimit = 15, persistPolicy = "OnUpdate", persistPeriod = 200)
+public class CachedOutputStreamBufferPool implements ManagedComponent {
+    public static final String BUS_PROPERTY = "bus.io.CachedOutputStream.BufferPool";
+    public static final int DEFAULT_BUFFER_SIZE = 16 * 1024;
+    public static final int DEFAULT_MAX_BUFFERS = 256;
+
+    private static final Logger LOG = LogUtils.getLogger(CachedOutputStreamBufferPool.class);
+    private static final String TYPE_VALUE = "CachedOutputStreamBufferPool";
+
+    private final Queue<byte[]> buffers = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooled = new AtomicInteger();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong spills = new AtomicLong();
+    private final AtomicLong discarded = new AtomicLong();
+
+    private volatile int bufferSize;
+    private volatile int maxBuffers;
+    private String busId = Bus.DEFAULT_BUS_ID;
+
+    public CachedOutputStreamBufferPool() {
+        this(DEFAULT_BUFFER_SIZE, DEFAULT_MAX_BUFFERS);
+    }
+
+    public CachedOutputStreamBufferPool(int bufferSize, int maxBuffers) {
+        this.bufferSize = bufferSize;
+        this.maxBuffers = maxBuffers;
+    }
+
+    public CachedOutputStreamBufferPool(Bus bus) {
+        this();
+        setBus(bus);
+    }
+
+    /**
+     * Makes this pool the buffer pool of all the CachedOutputStreams created on the bus
+     * and registers it with the bus InstrumentationManager, if any.
+     */
+    public final void setBus(Bus bus) {
+        if (bus == null) {
+            return;
+        }
+        busId = bus.getId();
+        bus.setProperty(BUS_PROPERTY, this);
+        InstrumentationManager manager = bus.getExtension(InstrumentationManager.class);
+        if (manager != null) {
+            try {
+                manager.register(this);
+            } catch (JMException jmex) {
+                LOG.log(Level.WARNING, jmex.getMessage(), jmex);
+            }
+        }
+    }
+
+    /**
+     * Returns a buffer of at least {@link #getBufferSize()} bytes, reusing a pooled one if available.
+     */
+    public byte[] acquire() {
+        byte[] buf = buffers.poll();
+        if (buf != null) {
+            pooled.decrementAndGet();
+            if (buf.length == bufferSize) {
+                hits.incrementAndGet();
+                return buf;
+            }
+        }
+        misses.incrementAndGet();
+        return new byte[bufferSize];
+    }
+
+    /**
+     * Hands a buffer obtained from {@link #acquire()} back to the pool. Buffers are dropped
+     * if the pool is full or if the buffer size has been changed since the buffer was acquired.
+     */
+    public void release(byte[] buf) {
+        if (buf == null) {
+            return;
+        }
+        if (buf.length != bufferSize) {
+            discarded.incrementAndGet();
+            return;
+        }
+        if (pooled.incrementAndGet() > maxBuffers) {
+            pooled.decrementAndGet();
+            discarded.incrementAndGet();
+            return;
+        }
+        buffers.offer(buf);
+    }
+
+    void discarded() {
+        discarded.incrementAndGet();
+    }
+
+    void spilled() {
+        spills.incrementAndGet();
+    }
+
+    @ManagedAttribute(description = "The size of the pooled buffers")
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+        clear();
+    }
+
+    @ManagedAttribute(description = "The maximum number of pooled buffers")
+    public int getMaxBuffers() {
+        return maxBuffers;
+    }
+
+    public void setMaxBuffers(int maxBuffers) {
+        this.maxBuffers = maxBuffers;
+    }
+
+    @ManagedAttribute(description = "The number of buffers currently available in the pool")
+    public int getPooledCount() {
+        return pooled.get();
+    }
+
+    @ManagedAttribute(description = "The number of buffers served from the pool")
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    @ManagedAttribute(description = "The number of buffers allocated because the pool was empty")
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    @ManagedAttribute(description = "The number of streams that spilled to a temporary file")
+    public long getSpillCount() {
+        return spills.get();
+    }
+
+    @ManagedAttribute(description = "The number of buffers not returned to the pool")
+    public long getDiscardCount() {
+        return discarded.get();
+    }
+
+    @ManagedOperation(description = "Drop all the pooled buffers")
+    public void clear() {
+        while (buffers.poll() != null) {
+            pooled.decrementAndGet();
+        }
+    }
+
+    public ObjectName getObjectName() throws JMException {
+        StringBuilder buffer = new StringBuilder();
+        buffer.append(ManagementConstants.DEFAULT_DOMAIN_NAME).append(':');
+        buffer.append(ManagementConstants.BUS_ID_PROP).append('=').append(busId).append(',');
+        buffer.append(ManagementConstants.TYPE_PROP).append('=').append(TYPE_VALUE).append(',');
+        buffer.append(ManagementConstants.INSTANCE_ID_PROP).append('=').append(hashCode());
+        return new ObjectName(buffer.toString());
+    }
+}
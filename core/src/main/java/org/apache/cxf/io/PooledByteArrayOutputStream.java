@@ -0,0 +1,86 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.io;
+
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+
+import org.apache.cxf.helpers.LoadingByteArrayOutputStream;
+
+/**
+ * LoadingByteArrayOutputStream that starts on a buffer borrowed from a
+ * {@link CachedOutputStreamBufferPool} and keeps track of whether that buffer
+ * has been exposed, so it is only handed back when nothing else can see it.
+ */
+class PooledByteArrayOutputStream extends LoadingByteArrayOutputStream {
+    private final CachedOutputStreamBufferPool pool;
+    private byte[] pooledBuffer;
+    private boolean shared;
+
+    PooledByteArrayOutputStream(CachedOutputStreamBufferPool pool) {
+        super(0);
+        this.pool = pool;
+        pooledBuffer = pool.acquire();
+        buf = pooledBuffer;
+    }
+
+    @Override
+    public ByteArrayInputStream createInputStream() {
+        // the input stream may outlive this stream, so read it from a copy of the
+        // content and hand the buffer back right away rather than lose it
+        releaseBuffer(true);
+        return super.createInputStream();
+    }
+
+    @Override
+    public byte[] toByteArray() {
+        if (buf == pooledBuffer && count == buf.length) {
+            return Arrays.copyOf(buf, count);
+        }
+        return super.toByteArray();
+    }
+
+    void markShared() {
+        shared = true;
+    }
+
+    /**
+     * Returns the borrowed buffer to the pool.
+     * @param retainContent if true the content written so far is copied out first,
+     *        so it remains readable once the buffer has been recycled
+     */
+    void releaseBuffer(boolean retainContent) {
+        if (pooledBuffer == null) {
+            return;
+        }
+        if (shared) {
+            pool.discarded();
+        } else {
+            if (buf == pooledBuffer) {
+                buf = retainContent ? Arrays.copyOf(buf, count) : new byte[0];
+                if (!retainContent) {
+                    count = 0;
+                }
+            }
+            pool.release(pooledBuffer);
+        }
+        pooledBuffer = null;
+    }
+}
@@ -88,7 +88,8 @@ public final class PhaseChainCache {
                 copy.add(new ModCountCopyOnWriteArrayList<Interceptor<? extends Message>>(p));
                 chain.add(p);
             }
-            last = new ChainHolder(chain, copy);
+            //keep a flattened copy so the clones can share its interceptors
+            last = new ChainHolder(chain.cloneChain(), copy);
             lastData.set(last);
         }
 
@@ -85,8 +85,14 @@ public class PhaseInterceptorChain implements InterceptorChain {
     // interceptors to the end of the list by default.
     private boolean hasAfters[];
 
-
-    private State state;
+    // chains cloned from an unmodified chain share its interceptors as a flattened,
+    // immutable array and only build their own linked list of holders (heads/tails)
+    // once they are modified.  Null once the linked list is in use.
+    private InterceptorHolder flattened[];
+
+    // the state is only changed with the chain monitor held, but volatile so that
+    // getState() does not need to acquire it
+    private volatile State state;
     private Message pausedMessage;
     private MessageObserver faultObserver;
     private PhaseInterceptorIterator iterator;
@@ -109,30 +115,15 @@ public class PhaseInterceptorChain implements InterceptorChain {
         nameMap = src.nameMap;
         phases = src.phases;
 
-        int length = phases.length;
-        hasAfters = new boolean[length];
-        System.arraycopy(src.hasAfters, 0, hasAfters, 0, length);
-
-        heads = new InterceptorHolder[length];
-        tails = new InterceptorHolder[length];
-
-        InterceptorHolder last = null;
-        for (int x = 0; x < length; x++) {
-            InterceptorHolder ih = src.heads[x];
-            while (ih != null
-                && ih.phaseIdx == x) {
-                InterceptorHolder ih2 = new InterceptorHolder(ih);
-                ih2.prev = last;
-                if (last != null) {
-                    last.next = ih2;
-                }
-                if (heads[x] == null) {
-                    heads[x] = ih2;
-                }
-                tails[x] = ih2;
-                last = ih2;
-                ih = ih.next;
-            }
+        if (src.flattened != null) {
+            //src is unmodified, the flattened interceptors and hasAfters can be shared
+            flattened = src.flattened;
+            hasAfters = src.hasAfters;
+        } else {
+            int length = phases.length;
+            hasAfters = new boolean[length];
+            System.arraycopy(src.hasAfters, 0, hasAfters, 0, length);
+            flattened = src.flatten();
         }
     }
 
@@ -178,7 +169,7 @@ public class PhaseInterceptorChain implements InterceptorChain {
 
     }
 
-    public synchronized State getState() {
+    public State getState() {
         return state;
     }
 
@@ -204,12 +195,75 @@ public class PhaseInterceptorChain implements InterceptorChain {
 
     private void updateIterator() {
         if (iterator == null) {
-            iterator = new PhaseInterceptorIterator(heads);
+            iterator = flattened != null
+                ? new PhaseInterceptorIterator(flattened) : new PhaseInterceptorIterator(heads, null);
             outputChainToLog(false);
             //System.out.println(toString());
         }
     }
 
+    private InterceptorHolder[] flatten() {
+        int size = 0;
+        for (InterceptorHolder ih = findFirst(heads); ih != null; ih = ih.next) {
+            size++;
+        }
+        InterceptorHolder[] flat = new InterceptorHolder[size];
+        int idx = 0;
+        for (InterceptorHolder ih = findFirst(heads); ih != null; ih = ih.next) {
+            flat[idx++] = ih;
+        }
+        return flat;
+    }
+
+    /**
+     * Switches a chain sharing a flattened interceptor array to its own linked list
+     * of holders so that it can be modified, keeping the position of the iterator.
+     */
+    private void materialize() {
+        if (flattened == null) {
+            return;
+        }
+        InterceptorHolder[] flat = flattened;
+        int length = phases.length;
+        boolean[] afters = new boolean[length];
+        System.arraycopy(hasAfters, 0, afters, 0, length);
+        hasAfters = afters;
+        heads = new InterceptorHolder[length];
+        tails = new InterceptorHolder[length];
+
+        int current = iterator == null ? 0 : iterator.flatIndex;
+        InterceptorHolder prev = null;
+        InterceptorHolder last = null;
+        for (int x = 0; x < flat.length; x++) {
+            InterceptorHolder ih = new InterceptorHolder(flat[x]);
+            ih.prev = last;
+            if (last != null) {
+                last.next = ih;
+            }
+            if (heads[ih.phaseIdx] == null) {
+                heads[ih.phaseIdx] = ih;
+            }
+            tails[ih.phaseIdx] = ih;
+            last = ih;
+            if (x == current - 1) {
+                prev = ih;
+            }
+        }
+        flattened = null;
+        if (iterator != null) {
+            iterator = new PhaseInterceptorIterator(heads, prev);
+        }
+    }
+
+    private static InterceptorHolder findFirst(InterceptorHolder[] heads) {
+        for (int x = 0; x < heads.length; x++) {
+            if (heads[x] != null) {
+                return heads[x];
+            }
+        }
+        return null;
+    }
+
     public void add(Collection<Interceptor<? extends Message>> newhandlers) {
         add(newhandlers, false);
     }
@@ -508,7 +562,8 @@ public class PhaseInterceptorChain implements InterceptorChain {
     }
 
     public void remove(Interceptor<? extends Message> i) {
-        PhaseInterceptorIterator it = new PhaseInterceptorIterator(heads);
+        materialize();
+        PhaseInterceptorIterator it = new PhaseInterceptorIterator(heads, null);
         while (it.hasNext()) {
             InterceptorHolder holder = it.nextInterceptorHolder();
             if (holder.interceptor == i) {
@@ -526,7 +581,8 @@ public class PhaseInterceptorChain implements InterceptorChain {
         return getIterator();
     }
     public ListIterator<Interceptor<? extends Message>> getIterator() {
-        return new PhaseInterceptorIterator(heads);
+        InterceptorHolder[] flat = flattened;
+        return flat != null ? new PhaseInterceptorIterator(flat) : new PhaseInterceptorIterator(heads, null);
     }
 
     private void remove(InterceptorHolder i) {
@@ -558,6 +614,7 @@ public class PhaseInterceptorChain implements InterceptorChain {
     }
 
     private void insertInterceptor(int phase, PhaseInterceptor<? extends Message> interc, boolean force) {
+        materialize();
         InterceptorHolder ih = new InterceptorHolder(interc, phase);
         if (heads[phase] == null) {
             // no interceptors yet in this phase
@@ -703,23 +760,17 @@ public class PhaseInterceptorChain implements InterceptorChain {
             .append(message)
             .append(". Current flow:\n");
 
-        for (int x = 0; x < phases.length; x++) {
-            if (heads[x] != null) {
-                chain.append("  ");
-                printPhase(x, chain);
-            }
-        }
-        return chain.toString();
-    }
-    private void printPhase(int ph, StringBuilder chain) {
-
-        chain.append(phases[ph].getName())
-            .append(" [");
-        InterceptorHolder i = heads[ph];
-        boolean first = true;
-        while (i != tails[ph].next) {
-            if (first) {
-                first = false;
+        PhaseInterceptorIterator it = flattened != null
+            ? new PhaseInterceptorIterator(flattened) : new PhaseInterceptorIterator(heads, null);
+        int ph = -1;
+        while (it.hasNext()) {
+            InterceptorHolder i = it.nextInterceptorHolder();
+            if (i.phaseIdx != ph) {
+                if (ph != -1) {
+                    chain.append("]\n");
+                }
+                chain.append("  ").append(phases[i.phaseIdx].getName()).append(" [");
+                ph = i.phaseIdx;
             } else {
                 chain.append(", ");
             }
@@ -728,9 +779,11 @@ public class PhaseInterceptorChain implements InterceptorChain {
                 nm = i.interceptor.getId();
             }
             chain.append(nm);
-            i = i.next;
         }
-        chain.append("]\n");
+        if (ph != -1) {
+            chain.append("]\n");
+        }
+        return chain.toString();
     }
 
     private void outputChainToLog(boolean modified) {
@@ -755,28 +808,34 @@ public class PhaseInterceptorChain implements InterceptorChain {
         InterceptorHolder heads[];
         InterceptorHolder prev;
         InterceptorHolder first;
+        // when iterating over a flattened chain, flat holds the interceptors and
+        // flatIndex the index of the next one
+        InterceptorHolder flat[];
+        int flatIndex;
 
-        PhaseInterceptorIterator(InterceptorHolder h[]) {
+        PhaseInterceptorIterator(InterceptorHolder h[], InterceptorHolder p) {
             heads = h;
-            first = findFirst();
+            prev = p;
+            first = findFirst(heads);
         }
 
-        public void reset() {
-            prev = null;
-            first = findFirst();
+        PhaseInterceptorIterator(InterceptorHolder f[]) {
+            flat = f;
         }
 
-        private InterceptorHolder findFirst() {
-            for (int x = 0; x < heads.length; x++) {
-                if (heads[x] != null) {
-                    return heads[x];
-                }
+        public void reset() {
+            if (flat != null) {
+                flatIndex = 0;
+                return;
             }
-            return null;
+            prev = null;
+            first = findFirst(heads);
         }
 
-
         public boolean hasNext() {
+            if (flat != null) {
+                return flatIndex < flat.length;
+            }
             if (prev == null) {
                 return first != null;
             }
@@ -784,20 +843,15 @@ public class PhaseInterceptorChain implements InterceptorChain {
         }
 
         public Interceptor<? extends Message> next() {
-            if (prev == null) {
-                if (first == null) {
-                    throw new NoSuchElementException();
-                }
-                prev = first;
-            } else {
-                if (prev.next == null) {
+            return nextInterceptorHolder().interceptor;
+        }
+        public InterceptorHolder nextInterceptorHolder() {
+            if (flat != null) {
+                if (flatIndex >= flat.length) {
                     throw new NoSuchElementException();
                 }
-                prev = prev.next;
+                return flat[flatIndex++];
             }
-            return prev.interceptor;
-        }
-        public InterceptorHolder nextInterceptorHolder() {
             if (prev == null) {
                 if (first == null) {
                     throw new NoSuchElementException();
@@ -813,9 +867,18 @@ public class PhaseInterceptorChain implements InterceptorChain {
         }
 
         public boolean hasPrevious() {
+            if (flat != null) {
+                return flatIndex > 0;
+            }
             return prev != null;
         }
         public Interceptor<? extends Message> previous() {
+            if (flat != null) {
+                if (flatIndex == 0) {
+                    throw new NoSuchElementException();
+                }
+                return flat[--flatIndex].interceptor;
+            }
             if (prev == null) {
                 throw new NoSuchElementException();
             }
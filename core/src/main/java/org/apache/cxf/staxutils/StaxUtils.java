@@ -117,6 +117,13 @@ public final class StaxUtils {
     public static final String ALLOW_INSECURE_PARSER =
         "org.apache.cxf.stax.allowInsecureParser";
 
+    /**
+     * System property, set it to false to stop handing the buffers of the Woodstox writers
+     * closed with {@link #closeAndRecycle(XMLStreamWriter)} back to Woodstox.
+     */
+    public static final String RECYCLE_WRITER_BUFFERS =
+        "org.apache.cxf.stax.recycleWriterBuffers";
+
     private static final String INNER_ELEMENT_COUNT_SYSTEM_PROP =
         "org.apache.cxf.staxutils.innerElementCountThreshold";
     private static final String INNER_ELEMENT_LEVEL_SYSTEM_PROP =
@@ -128,6 +135,7 @@ public final class StaxUtils {
     private static final XMLInputFactory SAFE_INPUT_FACTORY;
     private static final BlockingQueue<XMLOutputFactory> OUTPUT_FACTORY_POOL;
     private static final XMLOutputFactory SAFE_OUTPUT_FACTORY;
+    private static final boolean RECYCLING_WRITER_BUFFERS;
 
     private static final String XML_NS = "http://www.w3.org/2000/xmlns/";
     private static final String DEF_PREFIXES[] = new String[] {
@@ -197,6 +205,8 @@ public final class StaxUtils {
             //ignore, can always drop down to the pooled factories
         }
         SAFE_OUTPUT_FACTORY = xof;
+        RECYCLING_WRITER_BUFFERS = xof != null && xof.getClass().getName().contains("ctc.wstx")
+            && !"false".equalsIgnoreCase(SystemPropertyAction.getPropertyOrNull(RECYCLE_WRITER_BUFFERS));
 
     }
 
@@ -417,6 +427,42 @@ public final class StaxUtils {
         }
     }
 
+    /**
+     * Returns true if the writers created by {@link #createRecyclingXMLStreamWriter} hand their
+     * internal buffers back to the parser when closed with {@link #closeAndRecycle}, so that the
+     * next writer created on the same thread can use them.
+     */
+    public static boolean isRecyclingWriterBuffers() {
+        return RECYCLING_WRITER_BUFFERS;
+    }
+
+    /**
+     * Creates a writer to be closed with {@link #closeAndRecycle} once the document is written,
+     * which leaves the stream open.
+     */
+    public static XMLStreamWriter createRecyclingXMLStreamWriter(OutputStream out, String encoding) {
+        if (!RECYCLING_WRITER_BUFFERS) {
+            return createXMLStreamWriter(out, encoding);
+        }
+        return createXMLStreamWriter(new UnclosableOutputStream(out), encoding);
+    }
+
+    /**
+     * Closes a writer created by {@link #createRecyclingXMLStreamWriter}, handing its internal
+     * buffers back to the parser. The writer must not be used anymore afterwards.
+     */
+    public static void closeAndRecycle(XMLStreamWriter writer) {
+        if (!RECYCLING_WRITER_BUFFERS) {
+            close(writer);
+            return;
+        }
+        try {
+            WoodstoxHelper.closeCompletely(writer);
+        } catch (Exception e) {
+            //ignore
+        }
+    }
+
     public static XMLStreamWriter createXMLStreamWriter(Result r) {
         if (r instanceof DOMResult) {
             //use our own DOM writer to avoid issues with Sun's
@@ -2230,4 +2276,35 @@ public final class StaxUtils {
         WoodstoxHelper.setProperty(reader, p, v);
     }
 
+    /**
+     * Lets a writer close its output, which makes Woodstox release its buffers, without closing
+     * the stream of the message.
+     */
+    private static final class UnclosableOutputStream extends OutputStream {
+        private final OutputStream out;
+
+        UnclosableOutputStream(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() {
+            // the stream is closed by its owner
+        }
+    }
 }
@@ -21,11 +21,14 @@ package org.apache.cxf.staxutils;
 
 import javax.xml.stream.XMLEventFactory;
 import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
 
 import com.ctc.wstx.stax.WstxEventFactory;
 import com.ctc.wstx.stax.WstxInputFactory;
 import org.codehaus.stax2.XMLStreamReader2;
+import org.codehaus.stax2.XMLStreamWriter2;
 
 /**
  *
@@ -47,4 +50,12 @@ final class WoodstoxHelper {
         ((XMLStreamReader2)reader).setProperty(p, v);
     }
 
+    public static void closeCompletely(XMLStreamWriter writer) throws XMLStreamException {
+        if (writer instanceof XMLStreamWriter2) {
+            ((XMLStreamWriter2)writer).closeCompletely();
+        } else {
+            writer.close();
+        }
+    }
+
 }
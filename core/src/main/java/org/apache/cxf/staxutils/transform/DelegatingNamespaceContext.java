@@ -18,7 +18,7 @@
  */
 package org.apache.cxf.staxutils.transform;
 
-import java.util.Deque;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -31,30 +31,39 @@ import javax.xml.namespace.NamespaceContext;
 public class DelegatingNamespaceContext implements NamespaceContext {
     private NamespaceContext nc;
     private Map<String, String> nsMap;
-    private Deque<Map<String, String>> namespaces;
-    private Deque<Map<String, String>> prefixes;
+    // one entry per level, the innermost level last; the maps of a level are only
+    // created once a prefix is bound at that level
+    private List<Map<String, String>> namespaces;
+    private List<Map<String, String>> prefixes;
 
     public DelegatingNamespaceContext(NamespaceContext nc, Map<String, String> nsMap) {
         this.nc = nc;
         this.nsMap = nsMap;
-        namespaces = new LinkedList<Map<String, String>>();
-        prefixes = new LinkedList<Map<String, String>>();
+        namespaces = new ArrayList<>();
+        prefixes = new ArrayList<>();
     }
 
     public void down() {
-        namespaces.addFirst(new HashMap<String, String>(8));
-        prefixes.addFirst(new HashMap<String, String>(8));
+        namespaces.add(null);
+        prefixes.add(null);
     }
 
     public void up() {
-        namespaces.removeFirst();
-        prefixes.removeFirst();
+        namespaces.remove(namespaces.size() - 1);
+        prefixes.remove(prefixes.size() - 1);
     }
 
     public void addPrefix(String prefix, String ns) {
         if (!namespaces.isEmpty()) {
-            namespaces.getFirst().put(prefix, ns);
-            prefixes.getFirst().put(ns, prefix);
+            int last = namespaces.size() - 1;
+            Map<String, String> nss = namespaces.get(last);
+            if (nss == null) {
+                nss = new HashMap<>(8);
+                namespaces.set(last, nss);
+                prefixes.set(last, new HashMap<String, String>(8));
+            }
+            nss.put(prefix, ns);
+            prefixes.get(last).put(ns, prefix);
         }
     }
 
@@ -79,11 +88,12 @@ public class DelegatingNamespaceContext implements NamespaceContext {
 
     public String getNamespaceURI(String prefix) {
         if (!namespaces.isEmpty()) {
-            Map<String, String> cache = namespaces.getFirst();
-            for (Map<String, String> nss : namespaces) {
-                String ns = nss.get(prefix);
+            Map<String, String> cache = namespaces.get(namespaces.size() - 1);
+            for (int i = namespaces.size() - 1; i >= 0; i--) {
+                Map<String, String> nss = namespaces.get(i);
+                String ns = nss == null ? null : nss.get(prefix);
                 if (ns != null) {
-                    if (cache != nss) {
+                    if (cache != null && cache != nss) {
                         cache.put(prefix, ns);
                     }
                     return ns;
@@ -115,11 +125,12 @@ public class DelegatingNamespaceContext implements NamespaceContext {
         }
 
         if (!prefixes.isEmpty()) {
-            Map<String, String> cache = prefixes.getFirst();
-            for (Map<String, String> pfs : prefixes) {
-                String prefix = pfs.get(ns);
+            Map<String, String> cache = prefixes.get(prefixes.size() - 1);
+            for (int i = prefixes.size() - 1; i >= 0; i--) {
+                Map<String, String> pfs = prefixes.get(i);
+                String prefix = pfs == null ? null : pfs.get(ns);
                 if (prefix != null && ns.equals(getNamespaceURI(prefix))) {
-                    if (pfs != cache) {
+                    if (cache != null && pfs != cache) {
                         cache.put(ns, prefix);
                     }
                     return prefix;
@@ -141,7 +152,11 @@ public class DelegatingNamespaceContext implements NamespaceContext {
 
     public Iterator<String> getPrefixes(String ns) {
         List<String> pl = new LinkedList<String>();
-        for (Map<String, String> nsp : namespaces) {
+        for (int i = namespaces.size() - 1; i >= 0; i--) {
+            Map<String, String> nsp = namespaces.get(i);
+            if (nsp == null) {
+                continue;
+            }
             for (Map.Entry<String, String> nse : nsp.entrySet()) {
                 if (ns.equals(nse.getValue()) && ns.equals(getNamespaceURI(nse.getKey()))) {
                     pl.add(nse.getKey());
@@ -18,10 +18,10 @@
  */
 package org.apache.cxf.staxutils.transform;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -46,14 +46,17 @@ public class InTransformReader extends DepthXMLStreamReader {
 
     private QNamesMap inElementsMap;
     private QNamesMap inAttributesMap;
-    private Map<QName, ElementProperty> inAppendMap = new HashMap<>(5);
-    private Set<QName> inDropSet = new HashSet<>(5);
-    private Map<String, String> nsMap = new HashMap<>(5);
-    private List<ParsingEvent> pushedBackEvents = new LinkedList<ParsingEvent>();
-    private List<List<ParsingEvent>> pushedAheadEvents = new LinkedList<List<ParsingEvent>>();
+    private Map<QName, ElementProperty> inAppendMap;
+    private Set<QName> inDropSet;
+    private Map<String, String> nsMap;
+    private Deque<ParsingEvent> pushedBackEvents = new ArrayDeque<>();
+    // used as a stack, the events of the innermost element last
+    private List<List<ParsingEvent>> pushedAheadEvents = new ArrayList<>();
     private String replaceText;
+    // null while the current event of the underlying reader is passed on as is
     private ParsingEvent currentEvent;
-    private List<Integer> attributesIndexes = new ArrayList<>();
+    private int[] attributesIndexes = new int[8];
+    private int attributesCount;
     private boolean blockOriginalReader = true;
     private boolean attributesIndexed;
     private DelegatingNamespaceContext namespaceContext;
@@ -72,15 +75,19 @@ public class InTransformReader extends DepthXMLStreamReader {
                              List<String> dropESet,
                              Map<String, String> inAMap,
                              boolean blockOriginalReader) {
+        this(reader, new TransformRules(inEMap, appendMap, dropESet, inAMap), blockOriginalReader);
+    }
+
+    public InTransformReader(XMLStreamReader reader,
+                             TransformRules rules,
+                             boolean blockOriginalReader) {
         super(reader);
-        inElementsMap = new QNamesMap(inEMap == null ? 0 : inEMap.size());
-        inAttributesMap = new QNamesMap(inAMap == null ? 0 : inAMap.size());
         this.blockOriginalReader = blockOriginalReader;
-        TransformUtils.convertToQNamesMap(inEMap, inElementsMap, nsMap);
-        TransformUtils.convertToQNamesMap(inAMap, inAttributesMap, null);
-
-        TransformUtils.convertToMapOfElementProperties(appendMap, inAppendMap);
-        TransformUtils.convertToSetOfQNames(dropESet, inDropSet);
+        inElementsMap = rules.getElementsMap();
+        inAttributesMap = rules.getAttributesMap();
+        nsMap = rules.getNamespacesMap();
+        inAppendMap = rules.copyAppendMap();
+        inDropSet = rules.getDropSet();
         namespaceContext = new DelegatingNamespaceContext(
             reader.getNamespaceContext(), nsMap);
     }
@@ -97,7 +104,7 @@ public class InTransformReader extends DepthXMLStreamReader {
 
         if (!pushedBackEvents.isEmpty()) {
             // consume events from the pushed back stack
-            currentEvent = pushedBackEvents.remove(0);
+            currentEvent = pushedBackEvents.removeFirst();
             if (doDebug) {
                 LOG.fine("pushed event available: " + currentEvent);
             }
@@ -111,20 +118,39 @@ public class InTransformReader extends DepthXMLStreamReader {
         if (event == XMLStreamConstants.START_ELEMENT) {
             attributesIndexed = false;
             namespaceContext.down();
-            final QName theName = super.getName();
-            final ElementProperty appendProp = inAppendMap.remove(theName);
-            final boolean replaceContent = appendProp != null && theName.equals(appendProp.getName());
+            final String ns = nullToEmpty(super.getNamespaceURI());
+            final String local = super.getLocalName();
+            // the name of the element is only created if a rule needs it
+            QName theName = null;
+            ElementProperty appendProp = null;
+            if (!inAppendMap.isEmpty()) {
+                theName = super.getName();
+                appendProp = inAppendMap.remove(theName);
+            }
+            final boolean replaceContent = appendProp != null && appendProp.getName().equals(theName);
             if (doDebug) {
-                LOG.fine("read StartElement " + theName + " at " + getDepth());
+                LOG.fine("read StartElement " + super.getName() + " at " + getDepth());
             }
 
-            final boolean dropped = inDropSet.contains(theName);
-            QName expected = inElementsMap.get(theName);
+            boolean dropped = false;
+            if (!inDropSet.isEmpty()) {
+                if (theName == null) {
+                    theName = super.getName();
+                }
+                dropped = inDropSet.contains(theName);
+            }
+            QName expected = inElementsMap.get(ns, local);
             if (expected == null) {
+                if (appendProp == null && !dropped) {
+                    // nothing to transform, pass the element on as is
+                    currentEvent = null;
+                    pushedAheadEvents.add(null);
+                    return event;
+                }
                 expected = theName;
             } else {
-                String prefix = theName.getPrefix();
-                if (prefix.length() == 0 && theName.getNamespaceURI().length() == 0
+                String prefix = nullToEmpty(super.getPrefix());
+                if (prefix.length() == 0 && ns.length() == 0
                     && expected.getNamespaceURI().length() > 0) {
                     prefix = namespaceContext.getPrefix(expected.getNamespaceURI());
                     if (prefix == null) {
@@ -133,7 +159,9 @@ public class InTransformReader extends DepthXMLStreamReader {
                 } else if (prefix.length() > 0 && expected.getNamespaceURI().length() == 0) {
                     prefix = "";
                 }
-                expected = new QName(expected.getNamespaceURI(), expected.getLocalPart(), prefix);
+                if (!prefix.equals(expected.getPrefix())) {
+                    expected = new QName(expected.getNamespaceURI(), expected.getLocalPart(), prefix);
+                }
             }
 
             if (null != appendProp && !replaceContent) {
@@ -145,7 +173,7 @@ public class InTransformReader extends DepthXMLStreamReader {
                     LOG.fine("replacing content with " + replaceText);
                 }
                 currentEvent = TransformUtils.createStartElementEvent(expected);
-                pushedAheadEvents.add(0, null);
+                pushedAheadEvents.add(null);
             } else if (dropped) {
                 if (doDebug) {
                     LOG.fine("shallow-dropping start " + expected);
@@ -155,29 +183,31 @@ public class InTransformReader extends DepthXMLStreamReader {
             } else if (TransformUtils.isEmptyQName(expected)) {
                 // skip the current element (deep drop)
                 if (doDebug) {
-                    LOG.fine("deep-dropping " + theName);
+                    LOG.fine("deep-dropping " + super.getName());
                 }
                 handleDeepDrop();
                 event = next();
             } else {
-                handleDefaultMode(theName, expected);
+                handleDefaultMode(ns, local, expected);
             }
         } else if (event == XMLStreamConstants.END_ELEMENT) {
-            final QName theName = super.getName();
             if (doDebug) {
-                LOG.fine("read EndElement " + theName + " at " + getDepth());
+                LOG.fine("read EndElement " + super.getName() + " at " + getDepth());
             }
 
             namespaceContext.up();
-            final boolean dropped = inDropSet.contains(theName);
+            final boolean dropped = !inDropSet.isEmpty() && inDropSet.contains(super.getName());
             if (!dropped) {
-                List<ParsingEvent> pe = pushedAheadEvents.remove(0);
+                List<ParsingEvent> pe = pushedAheadEvents.remove(pushedAheadEvents.size() - 1);
+                currentEvent = null;
                 if (null != pe) {
                     if (doDebug) {
                         LOG.fine("pushed event found");
                     }
-                    pushedBackEvents.addAll(0, pe);
-                    currentEvent = pushedBackEvents.remove(0);
+                    for (int i = pe.size() - 1; i >= 0; i--) {
+                        pushedBackEvents.addFirst(pe.get(i));
+                    }
+                    currentEvent = pushedBackEvents.removeFirst();
                     event = currentEvent.getEvent();
                 } else {
                     if (doDebug) {
@@ -186,7 +216,7 @@ public class InTransformReader extends DepthXMLStreamReader {
                 }
             } else {
                 if (doDebug) {
-                    LOG.fine("shallow-dropping end " + theName);
+                    LOG.fine("shallow-dropping end " + super.getName());
                 }
                 event = next();
             }
@@ -206,13 +236,13 @@ public class InTransformReader extends DepthXMLStreamReader {
             // ap-post-*
             if (null == appendProp.getText()) {
                 // ap-post-wrap
-                pushedBackEvents.add(0, TransformUtils.createStartElementEvent(appendProp.getName()));
+                pushedBackEvents.addFirst(TransformUtils.createStartElementEvent(appendProp.getName()));
                 currentEvent = TransformUtils.createStartElementEvent(expected);
 
                 List<ParsingEvent> pe = new ArrayList<>(2);
                 pe.add(TransformUtils.createEndElementEvent(appendProp.getName()));
                 pe.add(TransformUtils.createEndElementEvent(expected));
-                pushedAheadEvents.add(0, pe);
+                pushedAheadEvents.add(pe);
             } else {
                 // ap-post-incl
                 currentEvent = TransformUtils.createStartElementEvent(expected);
@@ -222,41 +252,39 @@ public class InTransformReader extends DepthXMLStreamReader {
                 pe.add(TransformUtils.createCharactersEvent(appendProp.getText()));
                 pe.add(TransformUtils.createEndElementEvent(appendProp.getName()));
                 pe.add(TransformUtils.createEndElementEvent(expected));
-                pushedAheadEvents.add(0, pe);
+                pushedAheadEvents.add(pe);
             }
         } else {
             // ap-pre-*
             if (null == appendProp.getText()) {
                 // ap-pre-wrap
-                pushedBackEvents.add(0, TransformUtils.createStartElementEvent(expected));
+                pushedBackEvents.addFirst(TransformUtils.createStartElementEvent(expected));
                 currentEvent = TransformUtils.createStartElementEvent(appendProp.getName());
 
                 List<ParsingEvent> pe = new ArrayList<>(2);
                 pe.add(TransformUtils.createEndElementEvent(expected));
                 pe.add(TransformUtils.createEndElementEvent(appendProp.getName()));
-                pushedAheadEvents.add(0, pe);
+                pushedAheadEvents.add(pe);
             } else {
                 // ap-pre-incl
-                pushedBackEvents.add(0, TransformUtils.createStartElementEvent(expected));
-                pushedBackEvents.add(0, TransformUtils.createEndElementEvent(appendProp.getName()));
-                pushedBackEvents.add(0, TransformUtils.createCharactersEvent(appendProp.getText()));
+                pushedBackEvents.addFirst(TransformUtils.createStartElementEvent(expected));
+                pushedBackEvents.addFirst(TransformUtils.createEndElementEvent(appendProp.getName()));
+                pushedBackEvents.addFirst(TransformUtils.createCharactersEvent(appendProp.getText()));
                 currentEvent = TransformUtils.createStartElementEvent(appendProp.getName());
                 if (doDebug) {
                     LOG.fine("ap-pre-incl " + appendProp.getName() + "=" + appendProp.getText());
                 }
-                pushedAheadEvents.add(0, null);
+                pushedAheadEvents.add(null);
             }
         }
     }
 
-    private void handleDefaultMode(QName name, QName expected) {
+    private void handleDefaultMode(String ns, String local, QName expected) {
         currentEvent = TransformUtils.createStartElementEvent(expected);
-        if (!name.equals(expected)) {
-            List<ParsingEvent> pe = new ArrayList<>(1);
-            pe.add(TransformUtils.createEndElementEvent(expected));
-            pushedAheadEvents.add(0, pe);
+        if (!ns.equals(expected.getNamespaceURI()) || !local.equals(expected.getLocalPart())) {
+            pushedAheadEvents.add(Collections.singletonList(TransformUtils.createEndElementEvent(expected)));
         } else {
-            pushedAheadEvents.add(0, null);
+            pushedAheadEvents.add(null);
         }
     }
 
@@ -288,8 +316,8 @@ public class InTransformReader extends DepthXMLStreamReader {
     }
 
     public String getPrefix() {
-        QName name = readCurrentElement();
-        String prefix = name.getPrefix();
+        String prefix = currentEvent != null
+            ? currentEvent.getName().getPrefix() : nullToEmpty(super.getPrefix());
         if (prefix.length() == 0 && getNamespaceURI().length() > 0) {
             prefix = namespaceContext.getPrefix(getNamespaceURI());
             if (prefix == null) {
@@ -343,14 +371,8 @@ public class InTransformReader extends DepthXMLStreamReader {
         return super.getNamespaceURI();
     }
 
-    private QName readCurrentElement() {
-        if (currentEvent != null) {
-            return currentEvent.getName();
-        }
-        String ns = super.getNamespaceURI();
-        String name = super.getLocalName();
-        String prefix = super.getPrefix();
-        return new QName(ns, name, prefix == null ? "" : prefix);
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
     }
 
     public QName getName() {
@@ -362,7 +384,7 @@ public class InTransformReader extends DepthXMLStreamReader {
             return 0;
         }
         checkAttributeIndexRange(-1);
-        return attributesIndexes.size();
+        return attributesCount;
     }
 
     public String getAttributeLocalName(int arg0) {
@@ -370,7 +392,9 @@ public class InTransformReader extends DepthXMLStreamReader {
             throwIndexException(arg0, 0);
         }
         checkAttributeIndexRange(arg0);
-
+        if (inAttributesMap.size() == 0) {
+            return super.getAttributeLocalName(attributesIndexes[arg0]);
+        }
         return getAttributeName(arg0).getLocalPart();
     }
 
@@ -379,7 +403,7 @@ public class InTransformReader extends DepthXMLStreamReader {
             throwIndexException(arg0, 0);
         }
         checkAttributeIndexRange(arg0);
-        QName aname = super.getAttributeName(attributesIndexes.get(arg0));
+        QName aname = super.getAttributeName(attributesIndexes[arg0]);
         QName expected = inAttributesMap.get(aname);
 
         return expected == null ? aname : expected;
@@ -390,7 +414,9 @@ public class InTransformReader extends DepthXMLStreamReader {
             throwIndexException(arg0, 0);
         }
         checkAttributeIndexRange(arg0);
-
+        if (inAttributesMap.size() == 0) {
+            return nullToEmpty(super.getAttributeNamespace(attributesIndexes[arg0]));
+        }
         return getAttributeName(arg0).getNamespaceURI();
     }
 
@@ -416,7 +442,7 @@ public class InTransformReader extends DepthXMLStreamReader {
             throwIndexException(arg0, 0);
         }
         checkAttributeIndexRange(arg0);
-        return super.getAttributeType(attributesIndexes.get(arg0));
+        return super.getAttributeType(attributesIndexes[arg0]);
     }
 
     public String getAttributeValue(int arg0) {
@@ -424,7 +450,7 @@ public class InTransformReader extends DepthXMLStreamReader {
             throwIndexException(arg0, 0);
         }
         checkAttributeIndexRange(arg0);
-        return super.getAttributeValue(attributesIndexes.get(arg0));
+        return super.getAttributeValue(attributesIndexes[arg0]);
     }
 
     public String getAttributeValue(String namespace, String localName) {
@@ -488,19 +514,22 @@ public class InTransformReader extends DepthXMLStreamReader {
      */
     private void checkAttributeIndexRange(int index) {
         if (!attributesIndexed) {
-            attributesIndexes.clear();
+            attributesCount = 0;
             final int c = super.getAttributeCount();
+            if (c > attributesIndexes.length) {
+                attributesIndexes = new int[c];
+            }
             for (int i = 0; i < c; i++) {
-                QName aname = super.getAttributeName(i);
-                QName expected = inAttributesMap.get(aname);
+                QName expected = inAttributesMap.get(super.getAttributeNamespace(i),
+                                                     super.getAttributeLocalName(i));
                 if (expected == null || !TransformUtils.isEmptyQName(expected)) {
-                    attributesIndexes.add(i);
+                    attributesIndexes[attributesCount++] = i;
                 }
             }
             attributesIndexed = true;
         }
-        if (index >= attributesIndexes.size()) {
-            throwIndexException(index, attributesIndexes.size());
+        if (index >= attributesCount) {
+            throwIndexException(index, attributesCount);
         }
     }
 
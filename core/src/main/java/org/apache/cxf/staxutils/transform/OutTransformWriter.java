@@ -19,9 +19,7 @@
 package org.apache.cxf.staxutils.transform;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -34,20 +32,21 @@ import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamWriter;
 
 import org.apache.cxf.common.util.StringUtils;
-import org.apache.cxf.helpers.DOMUtils;
 import org.apache.cxf.staxutils.DelegatingXMLStreamWriter;
 
 public class OutTransformWriter extends DelegatingXMLStreamWriter {
     private String defaultNamespace;
     private QNamesMap elementsMap;
     private QNamesMap attributesMap;
-    private Map<QName, ElementProperty> appendMap = new HashMap<>(5);
-    private Map<String, String> nsMap = new HashMap<>(5);
-    private List<Set<String>> writtenUris = new LinkedList<Set<String>>();
+    private Map<QName, ElementProperty> appendMap;
+    private Map<String, String> nsMap;
+    // the stacks below keep the innermost element last; a level shares the set of
+    // written namespaces of its parent until it writes a namespace of its own
+    private List<Set<String>> writtenUris = new ArrayList<>();
 
     private Set<QName> dropElements;
-    private List<List<ParsingEvent>> pushedAheadEvents = new LinkedList<List<ParsingEvent>>();
-    private List<QName> elementsStack = new LinkedList<QName>();
+    private List<List<ParsingEvent>> pushedAheadEvents = new ArrayList<>();
+    private List<QName> elementsStack = new ArrayList<>();
     private String replaceNamespace;
     private String replaceText;
     private int currentDepth;
@@ -76,14 +75,20 @@ public class OutTransformWriter extends DelegatingXMLStreamWriter {
                               Map<String, String> outAMap,
                               boolean attributesToElements,
                               String defaultNamespace) {
-        super(writer);
-        elementsMap = new QNamesMap(outEMap == null ? 0 : outEMap.size());
-        attributesMap = new QNamesMap(outAMap == null ? 0 : outAMap.size());
-        TransformUtils.convertToQNamesMap(outEMap, elementsMap, nsMap);
-        TransformUtils.convertToQNamesMap(outAMap, attributesMap, null);
+        this(writer, new TransformRules(outEMap, append, dropEls, outAMap), attributesToElements,
+             defaultNamespace);
+    }
 
-        TransformUtils.convertToMapOfElementProperties(append, appendMap);
-        dropElements = DOMUtils.convertStringsToQNames(dropEls);
+    public OutTransformWriter(XMLStreamWriter writer,
+                              TransformRules rules,
+                              boolean attributesToElements,
+                              String defaultNamespace) {
+        super(writer);
+        elementsMap = rules.getElementsMap();
+        attributesMap = rules.getAttributesMap();
+        nsMap = rules.getNamespacesMap();
+        appendMap = rules.copyAppendMap();
+        dropElements = rules.getDropSet();
         this.attributesToElements = attributesToElements;
         namespaceContext = new DelegatingNamespaceContext(
             writer.getNamespaceContext(), nsMap);
@@ -107,7 +112,7 @@ public class OutTransformWriter extends DelegatingXMLStreamWriter {
 
         uri = value != null ? value : uri;
 
-        if (writtenUris.get(0).contains(uri)
+        if (isWrittenUri(uri)
             && (prefix.length() == 0 || prefix.equals(namespaceContext.getPrefix(uri)))) {
             return;
         }
@@ -122,7 +127,7 @@ public class OutTransformWriter extends DelegatingXMLStreamWriter {
             super.writeNamespace(prefix, uri);
             namespaceContext.addPrefix(prefix, uri);
         }
-        writtenUris.get(0).add(uri);
+        addWrittenUri(uri);
     }
 
 
@@ -140,12 +145,12 @@ public class OutTransformWriter extends DelegatingXMLStreamWriter {
 
         uri = value != null ? value : uri;
 
-        if (writtenUris.get(0).contains(uri) && "".equals(namespaceContext.getPrefix(uri))) {
+        if (isWrittenUri(uri) && "".equals(namespaceContext.getPrefix(uri))) {
             return;
         }
         super.writeDefaultNamespace(uri);
         namespaceContext.addPrefix("", uri);
-        writtenUris.get(0).add(uri);
+        addWrittenUri(uri);
     }
 
     @Override
@@ -171,20 +176,14 @@ public class OutTransformWriter extends DelegatingXMLStreamWriter {
         if (matchesDropped(false)) {
             return;
         }
-        Set<String> s;
-        if (writtenUris.isEmpty()) {
-            s = new HashSet<>();
-        } else {
-            s = new HashSet<>(writtenUris.get(0));
-        }
-        writtenUris.add(0, s);
+        writtenUris.add(writtenUris.isEmpty() ? null : writtenUris.get(writtenUris.size() - 1));
 
         final QName theName = new QName(uri, local, prefix);
-        final ElementProperty appendProp = appendMap.remove(theName);
+        final ElementProperty appendProp = appendMap.isEmpty() ? null : appendMap.remove(theName);
         final boolean replaceContent = appendProp != null && theName.equals(appendProp.getName());
 
-        final boolean dropped = dropElements.contains(theName);
-        QName expected = elementsMap.get(theName);
+        final boolean dropped = !dropElements.isEmpty() && dropElements.contains(theName);
+        QName expected = elementsMap.get(uri, local);
         if (expected == null) {
             expected = theName;
         } else {
@@ -201,7 +200,9 @@ public class OutTransformWriter extends DelegatingXMLStreamWriter {
                 // if the element is demoted to a unqualified element, use an empty prefix.
                 prefix = "";
             }
-            expected = new QName(expected.getNamespaceURI(), expected.getLocalPart(), prefix);
+            if (!prefix.equals(expected.getPrefix())) {
+                expected = new QName(expected.getNamespaceURI(), expected.getLocalPart(), prefix);
+            }
         }
         List<ParsingEvent> pe = null;
         if (appendProp != null && !replaceContent) {
@@ -234,8 +235,8 @@ public class OutTransformWriter extends DelegatingXMLStreamWriter {
                     pe = new ArrayList<>();
                     pe.add(TransformUtils.createEndElementEvent(expected));
                     pe.add(TransformUtils.createEndElementEvent(appendProp.getName()));
-                    pushedAheadEvents.add(0, null);
-                    elementsStack.add(0, appendQName);
+                    pushedAheadEvents.add(null);
+                    elementsStack.add(appendQName);
                 } else {
                     // ap-pre-incl
                     super.writeCharacters(appendProp.getText());
@@ -247,7 +248,7 @@ public class OutTransformWriter extends DelegatingXMLStreamWriter {
             replaceText = appendProp.getText();
         } else if (dropped) {
             // unwrap the current element (shallow drop)
-            elementsStack.add(0, theName);
+            elementsStack.add(theName);
             return;
         } else if (TransformUtils.isEmptyQName(expected)) {
             // skip the current element (deep drop));
@@ -259,8 +260,8 @@ public class OutTransformWriter extends DelegatingXMLStreamWriter {
             // the element is promoted to a qualified element, thus write its declaration
             writeNamespace(expected.getPrefix(), expected.getNamespaceURI());
         }
-        pushedAheadEvents.add(0, pe);
-        elementsStack.add(0, expected);
+        pushedAheadEvents.add(pe);
+        elementsStack.add(expected);
         replaceNamespace = expected.getNamespaceURI().equals(theName.getNamespaceURI())
             ? null : theName.getNamespaceURI();
 
@@ -280,17 +281,17 @@ public class OutTransformWriter extends DelegatingXMLStreamWriter {
                 pe = new ArrayList<>();
                 pe.add(TransformUtils.createEndElementEvent(appendProp.getName()));
                 pe.add(TransformUtils.createEndElementEvent(expected));
-                pushedAheadEvents.add(0, pe);
-                elementsStack.add(0, appendQName);
+                pushedAheadEvents.add(pe);
+                elementsStack.add(appendQName);
             } else {
                 // ap-post-incl
-                pushedAheadEvents.remove(0);
+                pushedAheadEvents.remove(pushedAheadEvents.size() - 1);
                 pe = new ArrayList<>();
                 pe.add(TransformUtils.createStartElementEvent(appendProp.getName()));
                 pe.add(TransformUtils.createCharactersEvent(appendProp.getText()));
                 pe.add(TransformUtils.createEndElementEvent(appendProp.getName()));
                 pe.add(TransformUtils.createEndElementEvent(expected));
-                pushedAheadEvents.add(0, pe);
+                pushedAheadEvents.add(pe);
             }
         }
     }
@@ -323,12 +324,12 @@ public class OutTransformWriter extends DelegatingXMLStreamWriter {
             return;
         }
         if (!writtenUris.isEmpty()) {
-            writtenUris.remove(0);
+            writtenUris.remove(writtenUris.size() - 1);
         }
-        QName theName = elementsStack.remove(0);
-        final boolean dropped = dropElements.contains(theName);
+        QName theName = elementsStack.remove(elementsStack.size() - 1);
+        final boolean dropped = !dropElements.isEmpty() && dropElements.contains(theName);
         if (!dropped) {
-            List<ParsingEvent> pes = pushedAheadEvents.remove(0);
+            List<ParsingEvent> pes = pushedAheadEvents.remove(pushedAheadEvents.size() - 1);
             if (null != pes) {
                 for (ParsingEvent pe : pes) {
                     switch (pe.getEvent()) {
@@ -399,7 +400,26 @@ public class OutTransformWriter extends DelegatingXMLStreamWriter {
 
     private boolean matchesDropped(boolean shallow) {
         return (dropDepth > 0 && dropDepth <= currentDepth)
-            || (shallow && (!elementsStack.isEmpty() && dropElements.contains(elementsStack.get(0))));
+            || (shallow && !dropElements.isEmpty() && !elementsStack.isEmpty()
+                && dropElements.contains(elementsStack.get(elementsStack.size() - 1)));
+    }
+
+    private boolean isWrittenUri(String uri) {
+        Set<String> uris = writtenUris.get(writtenUris.size() - 1);
+        return uris != null && uris.contains(uri);
+    }
+
+    private void addWrittenUri(String uri) {
+        int last = writtenUris.size() - 1;
+        Set<String> uris = writtenUris.get(last);
+        if (uris == null) {
+            uris = new HashSet<>();
+            writtenUris.set(last, uris);
+        } else if (last > 0 && uris == writtenUris.get(last - 1)) {
+            uris = new HashSet<>(uris);
+            writtenUris.set(last, uris);
+        }
+        uris.add(uri);
     }
 
 
@@ -415,7 +435,7 @@ public class OutTransformWriter extends DelegatingXMLStreamWriter {
             return;
         }
 
-        QName expected = attributesMap.get(new QName(uri, local, prefix));
+        QName expected = attributesMap.get(uri, local);
         if (expected != null) {
             if (TransformUtils.isEmptyQName(expected)) {
                 return;
@@ -436,7 +456,7 @@ public class OutTransformWriter extends DelegatingXMLStreamWriter {
             return;
         }
         String uri = XMLConstants.NULL_NS_URI;
-        QName expected = attributesMap.get(new QName("", local));
+        QName expected = attributesMap.get("", local);
         if (expected != null) {
             if (TransformUtils.isEmptyQName(expected)) {
                 return;
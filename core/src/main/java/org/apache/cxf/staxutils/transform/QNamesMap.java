@@ -19,40 +19,77 @@
 
 package org.apache.cxf.staxutils.transform;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import javax.xml.namespace.QName;
 
+/**
+ * Maps names to their replacement, indexed by namespace and local name so that a name can be
+ * looked up without creating a QName for it. Once filled, the map is only read and can be shared
+ * by the readers and writers of all messages.
+ */
 class QNamesMap {
-    private QName[] keys;
-    private QName[] values;
+    private static final int MAX_WILDCARD_NAMES = 1024;
+
+    private final Map<String, Namespace> namespaces;
     private int index;
 
     QNamesMap(int size) {
-        keys = new QName[size];
-        values = new QName[size];
+        namespaces = new HashMap<>(size < 4 ? 4 : size * 2);
     }
 
     public void put(QName key, QName value) {
-        keys[index] = key;
-        values[index] = value;
+        Namespace ns = namespaces.get(key.getNamespaceURI());
+        if (ns == null) {
+            ns = new Namespace();
+            namespaces.put(key.getNamespaceURI(), ns);
+        }
+        if ("*".equals(key.getLocalPart())) {
+            if (ns.wildcard == null) {
+                ns.wildcard = value;
+            }
+        } else if (!ns.names.containsKey(key.getLocalPart())) {
+            ns.names.put(key.getLocalPart(), value);
+        }
         index++;
     }
 
     public QName get(QName key) {
-        for (int i = 0; i < keys.length; i++) {
-            if (keys[i].getNamespaceURI().equals(key.getNamespaceURI())) {
-                if (keys[i].getLocalPart().equals(key.getLocalPart())) {
-                    return values[i];
-                } else if ("*".equals(keys[i].getLocalPart())) {
-                    // assume it is something like {somens}* => * or {somens}* => {anotherns}*
-                    // and return QName(nsuri, lcname) which covers both cases.
-                    return new QName(values[i].getNamespaceURI(), key.getLocalPart());
+        return get(key.getNamespaceURI(), key.getLocalPart());
+    }
+
+    public QName get(String namespaceURI, String localPart) {
+        if (index == 0) {
+            return null;
+        }
+        Namespace ns = namespaces.get(namespaceURI == null ? "" : namespaceURI);
+        if (ns == null) {
+            return null;
+        }
+        QName value = ns.names.get(localPart);
+        if (value == null && ns.wildcard != null) {
+            // assume it is something like {somens}* => * or {somens}* => {anotherns}*
+            // and return QName(nsuri, lcname) which covers both cases.
+            value = ns.wildcardNames.get(localPart);
+            if (value == null) {
+                value = new QName(ns.wildcard.getNamespaceURI(), localPart);
+                if (ns.wildcardNames.size() < MAX_WILDCARD_NAMES) {
+                    ns.wildcardNames.put(localPart, value);
                 }
             }
         }
-        return null;
+        return value;
     }
 
     public int size() {
         return index;
     }
+
+    private static class Namespace {
+        final Map<String, QName> names = new HashMap<>(4);
+        final Map<String, QName> wildcardNames = new ConcurrentHashMap<>(16, 0.75f, 2);
+        QName wildcard;
+    }
 }
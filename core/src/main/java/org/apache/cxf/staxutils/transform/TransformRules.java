@@ -0,0 +1,81 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.staxutils.transform;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.namespace.QName;
+
+import org.apache.cxf.helpers.DOMUtils;
+
+/**
+ * The element, attribute, append and drop rules of a transformation, parsed into lookup tables
+ * once so that they can be shared by the InTransformReader or OutTransformWriter of every message.
+ */
+public final class TransformRules {
+    private final QNamesMap elementsMap;
+    private final QNamesMap attributesMap;
+    private final Map<String, String> nsMap;
+    private final Map<QName, ElementProperty> appendMap;
+    private final Set<QName> dropSet;
+
+    public TransformRules(Map<String, String> elements,
+                          Map<String, String> append,
+                          List<String> dropElements,
+                          Map<String, String> attributes) {
+        elementsMap = new QNamesMap(elements == null ? 0 : elements.size());
+        attributesMap = new QNamesMap(attributes == null ? 0 : attributes.size());
+        Map<String, String> namespaces = new HashMap<>(5);
+        TransformUtils.convertToQNamesMap(elements, elementsMap, namespaces);
+        TransformUtils.convertToQNamesMap(attributes, attributesMap, null);
+        nsMap = namespaces.isEmpty() ? Collections.<String, String>emptyMap() : namespaces;
+
+        Map<QName, ElementProperty> props = new HashMap<>(5);
+        TransformUtils.convertToMapOfElementProperties(append, props);
+        appendMap = props.isEmpty() ? Collections.<QName, ElementProperty>emptyMap() : props;
+        dropSet = DOMUtils.convertStringsToQNames(dropElements);
+    }
+
+    QNamesMap getElementsMap() {
+        return elementsMap;
+    }
+
+    QNamesMap getAttributesMap() {
+        return attributesMap;
+    }
+
+    Map<String, String> getNamespacesMap() {
+        return nsMap;
+    }
+
+    /**
+     * Returns a copy of the append rules, each of them is applied once per message.
+     */
+    Map<QName, ElementProperty> copyAppendMap() {
+        return appendMap.isEmpty() ? appendMap : new HashMap<>(appendMap);
+    }
+
+    Set<QName> getDropSet() {
+        return dropSet;
+    }
+}
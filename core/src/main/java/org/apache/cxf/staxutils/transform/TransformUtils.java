@@ -81,6 +81,18 @@ public final class TransformUtils {
     }
     //CHECKSTYLE:ON
 
+    public static XMLStreamWriter createTransformWriterIfNeeded(XMLStreamWriter writer,
+                                                                OutputStream os,
+                                                                TransformRules rules,
+                                                                boolean attributesToElements,
+                                                                String defaultNamespace) {
+        if (rules != null) {
+            writer = createNewWriterIfNeeded(writer, os);
+            writer = new OutTransformWriter(writer, rules, attributesToElements, defaultNamespace);
+        }
+        return writer;
+    }
+
     public static XMLStreamReader createTransformReaderIfNeeded(XMLStreamReader reader,
                                                                 InputStream is,
                                                                 List<String> inDropElements,
@@ -108,6 +120,16 @@ public final class TransformUtils {
         return reader;
     }
 
+    public static XMLStreamReader createTransformReaderIfNeeded(XMLStreamReader reader,
+                                                                InputStream is,
+                                                                TransformRules rules,
+                                                                boolean blockOriginalReader) {
+        if (rules != null) {
+            reader = new InTransformReader(createNewReaderIfNeeded(reader, is), rules, blockOriginalReader);
+        }
+        return reader;
+    }
+
     protected static void convertToQNamesMap(Map<String, String> map,
                                              QNamesMap elementsMap,
                                              Map<String, String> nsMap) {
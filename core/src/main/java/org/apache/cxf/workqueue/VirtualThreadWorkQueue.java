@@ -0,0 +1,382 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.workqueue;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.cxf.common.classloader.ClassLoaderUtils;
+import org.apache.cxf.common.classloader.ClassLoaderUtils.ClassLoaderHolder;
+import org.apache.cxf.common.injection.NoJSR250Annotations;
+import org.apache.cxf.common.logging.LogUtils;
+
+/**
+ * An AutomaticWorkQueue that runs every work item on its own virtual thread when the
+ * JVM supports them, so that work items blocking on I/O do not tie up pooled threads.
+ * The number of work items running at the same time is capped by the high water mark
+ * and the number of work items waiting for one of them to finish by the queue size.
+ *
+ * When virtual threads are not available, each work item runs on its own daemon thread
+ * instead, so the limits should then stay in the range a thread pool would use. The
+ * WorkQueueManagerImpl does not create this work queue in that case, but an
+ * AutomaticWorkQueueImpl.
+ */
+@NoJSR250Annotations
+public class VirtualThreadWorkQueue implements AutomaticWorkQueue {
+    static final int DEFAULT_HIGH_WATER_MARK = 256;
+    static final int DEFAULT_MAX_QUEUE_SIZE = 256;
+    private static final Logger LOG = LogUtils.getL7dLogger(VirtualThreadWorkQueue.class);
+    private static final Method OF_VIRTUAL;
+    private static final Method BUILDER_NAME;
+    private static final Method BUILDER_FACTORY;
+    static {
+        Method ofVirtual = null;
+        Method name = null;
+        Method factory = null;
+        try {
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            name = builder.getMethod("name", String.class, Long.TYPE);
+            factory = builder.getMethod("factory");
+        } catch (Throwable t) {
+            ofVirtual = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        BUILDER_NAME = name;
+        BUILDER_FACTORY = factory;
+    }
+
+    String name = "default";
+    volatile int highWaterMark;
+    volatile int maxQueueSize;
+
+    final ResizableSemaphore admitted;
+    final ResizableSemaphore running;
+    final AtomicInteger activeCount = new AtomicInteger();
+    final AtomicInteger largestActiveCount = new AtomicInteger();
+    // the work items started and not finished yet, running or waiting
+    final AtomicInteger pending = new AtomicInteger();
+    final Object termination = new Object();
+
+    volatile boolean shutdown;
+    volatile boolean discardRemaining;
+    ThreadFactory threadFactory;
+    ScheduledExecutorService scheduler;
+
+    public VirtualThreadWorkQueue() {
+        this("default");
+    }
+    public VirtualThreadWorkQueue(String name) {
+        this(DEFAULT_HIGH_WATER_MARK, DEFAULT_MAX_QUEUE_SIZE, name);
+    }
+    public VirtualThreadWorkQueue(int highWaterMark, int maxQueueSize, String name) {
+        this.highWaterMark = highWaterMark < 0 ? Integer.MAX_VALUE : highWaterMark;
+        this.maxQueueSize = maxQueueSize < 0 ? DEFAULT_MAX_QUEUE_SIZE : maxQueueSize;
+        this.name = name;
+        this.running = new ResizableSemaphore(this.highWaterMark);
+        this.admitted = new ResizableSemaphore(capacity(this.highWaterMark, this.maxQueueSize));
+    }
+
+    /**
+     * Returns true if work items run on virtual threads, false if they run on platform threads.
+     */
+    public static boolean isVirtualThreadSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    private static int capacity(int hwm, int queueSize) {
+        long c = (long)hwm + queueSize;
+        return c > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int)c;
+    }
+
+    protected synchronized ThreadFactory getThreadFactory() {
+        if (threadFactory == null) {
+            if (OF_VIRTUAL != null) {
+                try {
+                    Object builder = OF_VIRTUAL.invoke(null);
+                    builder = BUILDER_NAME.invoke(builder, name + "-workqueue-", 1L);
+                    threadFactory = (ThreadFactory)BUILDER_FACTORY.invoke(builder);
+                } catch (Throwable t) {
+                    LOG.log(Level.FINE, "Could not create virtual threads, using platform threads", t);
+                }
+            }
+            if (threadFactory == null) {
+                threadFactory = new DaemonThreadFactory(name + "-workqueue-");
+            }
+        }
+        return threadFactory;
+    }
+
+    public void setName(String s) {
+        name = s;
+    }
+    public String getName() {
+        return name;
+    }
+
+    public void execute(Runnable work) {
+        if (work == null) {
+            throw new NullPointerException();
+        }
+        if (shutdown || !admitted.tryAcquire()) {
+            throw new RejectedExecutionException();
+        }
+        start(work);
+    }
+
+    public void execute(Runnable work, long timeout) {
+        if (work == null) {
+            throw new NullPointerException();
+        }
+        try {
+            if (shutdown || !admitted.tryAcquire(timeout, TimeUnit.MILLISECONDS)) {
+                throw new RejectedExecutionException();
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException(ie);
+        }
+        start(work);
+    }
+
+    private void start(final Runnable work) {
+        //Grab the context classloader of this thread.   We'll make sure we use that
+        //on the thread the runnable actually runs on.
+        final ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        Runnable r = new Runnable() {
+            public void run() {
+                try {
+                    running.acquireUninterruptibly();
+                    try {
+                        if (!discardRemaining) {
+                            runWork(work, loader);
+                        }
+                    } finally {
+                        running.release();
+                    }
+                } finally {
+                    admitted.release();
+                    finished();
+                }
+            }
+        };
+        pending.incrementAndGet();
+        try {
+            getThreadFactory().newThread(r).start();
+        } catch (RuntimeException ex) {
+            admitted.release();
+            finished();
+            throw new RejectedExecutionException(ex);
+        }
+    }
+
+    private void finished() {
+        if (pending.decrementAndGet() == 0 && shutdown) {
+            synchronized (termination) {
+                termination.notifyAll();
+            }
+        }
+    }
+
+    void runWork(Runnable work, ClassLoader loader) {
+        int active = activeCount.incrementAndGet();
+        int largest = largestActiveCount.get();
+        while (active > largest && !largestActiveCount.compareAndSet(largest, active)) {
+            largest = largestActiveCount.get();
+        }
+        ClassLoaderHolder orig = ClassLoaderUtils.setThreadContextClassloader(loader);
+        try {
+            work.run();
+        } finally {
+            if (orig != null) {
+                orig.reset();
+            }
+            activeCount.decrementAndGet();
+        }
+    }
+
+    public synchronized void schedule(final Runnable work, final long delay) {
+        if (shutdown) {
+            throw new RejectedExecutionException();
+        }
+        if (scheduler == null) {
+            ScheduledThreadPoolExecutor s
+                = new ScheduledThreadPoolExecutor(1, new DaemonThreadFactory(name + "-workqueue-timer-"));
+            s.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+            scheduler = s;
+        }
+        scheduler.schedule(new Runnable() {
+            public void run() {
+                try {
+                    execute(work);
+                } catch (Exception ex) {
+                    LOG.warning("Executing the scheduled task with exception: " + ex);
+                }
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    // AutomaticWorkQueue interface
+
+    /**
+     * Stops accepting work. If processRemainingWorkItems is true, waits until the running and
+     * waiting work items have finished, so it must not be called from one of them. Otherwise
+     * the waiting work items are discarded and the running ones are left to finish on their own.
+     * Work scheduled for later is discarded either way.
+     */
+    public void shutdown(boolean processRemainingWorkItems) {
+        shutdown = true;
+        if (!processRemainingWorkItems) {
+            discardRemaining = true;
+        }
+        synchronized (this) {
+            if (scheduler != null) {
+                scheduler.shutdown();
+            }
+        }
+        if (processRemainingWorkItems) {
+            awaitTermination();
+        }
+    }
+
+    private void awaitTermination() {
+        synchronized (termination) {
+            while (pending.get() > 0) {
+                try {
+                    termination.wait();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    /**
+     * Gets the maximum number of work items waiting for a running one to finish.
+     */
+    public long getMaxSize() {
+        return maxQueueSize;
+    }
+
+    /**
+     * Gets the number of work items waiting for a running one to finish.
+     */
+    public long getSize() {
+        return Math.max(0, capacity(highWaterMark, maxQueueSize) - admitted.availablePermits()
+                        - activeCount.get());
+    }
+
+    public boolean isEmpty() {
+        return getSize() == 0;
+    }
+
+    public boolean isFull() {
+        return admitted.availablePermits() == 0;
+    }
+
+    /**
+     * Gets the maximum number of work items running at the same time, -1 if unbounded.
+     */
+    public int getHighWaterMark() {
+        return highWaterMark == Integer.MAX_VALUE ? -1 : highWaterMark;
+    }
+
+    public synchronized void setHighWaterMark(int hwm) {
+        int newHwm = hwm < 0 ? Integer.MAX_VALUE : hwm;
+        running.resize(highWaterMark, newHwm);
+        admitted.resize(capacity(highWaterMark, maxQueueSize), capacity(newHwm, maxQueueSize));
+        highWaterMark = newHwm;
+    }
+
+    public synchronized void setQueueSize(int size) {
+        int newSize = size < 0 ? DEFAULT_MAX_QUEUE_SIZE : size;
+        admitted.resize(capacity(highWaterMark, maxQueueSize), capacity(highWaterMark, newSize));
+        maxQueueSize = newSize;
+    }
+
+    public int getActiveCount() {
+        return activeCount.get();
+    }
+
+    public int getLargestActiveCount() {
+        return largestActiveCount.get();
+    }
+
+    public String toString() {
+        StringBuilder buf = new StringBuilder();
+        buf.append(super.toString());
+        buf.append(" [queue size: ");
+        buf.append(getSize());
+        buf.append(", max size: ");
+        buf.append(maxQueueSize);
+        buf.append(", active threads: ");
+        buf.append(getActiveCount());
+        buf.append(", high water mark: ");
+        buf.append(getHighWaterMark());
+        buf.append(", virtual threads: ");
+        buf.append(isVirtualThreadSupported());
+        buf.append("]");
+        return buf.toString();
+    }
+
+    static class ResizableSemaphore extends Semaphore {
+        private static final long serialVersionUID = 4426227418398453227L;
+
+        ResizableSemaphore(int permits) {
+            super(permits);
+        }
+
+        void resize(int oldPermits, int newPermits) {
+            if (newPermits > oldPermits) {
+                release(newPermits - oldPermits);
+            } else if (newPermits < oldPermits) {
+                reducePermits(oldPermits - newPermits);
+            }
+        }
+    }
+
+    static class DaemonThreadFactory implements ThreadFactory {
+        final AtomicInteger threadNumber = new AtomicInteger(1);
+        final String prefix;
+
+        DaemonThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, prefix + threadNumber.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        }
+    }
+}
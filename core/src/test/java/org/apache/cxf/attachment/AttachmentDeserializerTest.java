@@ -476,6 +476,45 @@ public class AttachmentDeserializerTest extends Assert {
         in.close();
     }
 
+    @Test
+    public void testBoundaryLikeContent() throws Exception {
+        String boundary = "uuid:7a555f51-c9bb-4bd4-9929-706899e2f793";
+        String[] contents = {
+            "\r\n--uuid:7a555f51\r\n--uuid:7a555f51-c9bb-4bd4-9929-706899e2f79",
+            "\r\r\n\r\n-",
+            "--uuid:7a555f51-c9bb-4bd4-9929-706899e2f79\r",
+            ""
+        };
+        StringBuilder mime = new StringBuilder("--" + boundary + "\r\n\r\n<root/>");
+        for (String content : contents) {
+            mime.append("\r\n--").append(boundary).append("\r\n")
+                .append("Content-Transfer-Encoding: binary\r\n\r\n").append(content);
+        }
+        mime.append("\r\n--").append(boundary).append("--\r\n");
+        final byte[] messageBytes = mime.toString().getBytes(StandardCharsets.UTF_8);
+
+        for (final int chunk : new int[] {1, 2, 7, 64, 8192}) {
+            InputStream in = new ByteArrayInputStream(messageBytes) {
+                public int read(byte[] b, int off, int len) {
+                    return super.read(b, off, Math.min(len, chunk));
+                }
+            };
+            Message message = new MessageImpl();
+            message.put(Message.CONTENT_TYPE, "multipart/related; boundary=\"" + boundary + "\"");
+            message.setContent(InputStream.class, in);
+            AttachmentDeserializer ad = new AttachmentDeserializer(message);
+            ad.initializeAttachments();
+
+            assertEquals("<root/>", IOUtils.toString(message.getContent(InputStream.class)));
+            int count = 0;
+            for (Attachment a : message.getAttachments()) {
+                assertEquals("chunk " + chunk, contents[count++],
+                             IOUtils.toString(a.getDataHandler().getInputStream()));
+            }
+            assertEquals(contents.length, count);
+        }
+    }
+
     private String getString(InputStream ins) throws Exception {
         try (ByteArrayOutputStream bout = new ByteArrayOutputStream(100)) {
             byte b[] = new byte[100];
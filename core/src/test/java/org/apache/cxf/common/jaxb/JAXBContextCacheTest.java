@@ -0,0 +1,189 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.common.jaxb;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.xml.bind.annotation.XmlRootElement;
+
+import org.apache.cxf.common.jaxb.JAXBContextCache.CachedContextAndSchemas;
+import org.apache.cxf.helpers.IOUtils;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class JAXBContextCacheTest extends Assert {
+    private static final String NS = "http://cxf.apache.org/test";
+
+    private int maxSize;
+    private boolean softReferences;
+
+    @Before
+    public void setUp() {
+        maxSize = JAXBContextCache.getMaxSize();
+        softReferences = JAXBContextCache.isSoftReferences();
+        JAXBContextCache.clearCaches();
+    }
+
+    @After
+    public void tearDown() {
+        JAXBContextCache.setMaxSize(maxSize);
+        JAXBContextCache.setSoftReferences(softReferences);
+        JAXBContextCache.clearCaches();
+    }
+
+    @Test
+    public void testWeakReferencesByDefault() throws Exception {
+        assertFalse(JAXBContextCache.isSoftReferences());
+    }
+
+    @Test
+    public void testExactLookup() throws Exception {
+        long hits = JAXBContextCache.HITS.get();
+        CachedContextAndSchemas c1 = get(NS, true, A.class, B.class);
+        CachedContextAndSchemas c2 = get(NS, true, B.class, A.class);
+        assertSame(c1.getContext(), c2.getContext());
+        assertEquals(hits + 1, JAXBContextCache.HITS.get());
+
+        assertNotSame(c1.getContext(), get("http://cxf.apache.org/other", true, A.class, B.class).getContext());
+        assertNotSame(c1.getContext(), get(NS, true, A.class).getContext());
+        assertEquals(3, JAXBContextCache.getSize());
+    }
+
+    @Test
+    public void testNonExactLookup() throws Exception {
+        CachedContextAndSchemas c1 = get(null, false, A.class, B.class);
+        assertSame(c1.getContext(), get(null, false, A.class).getContext());
+        assertNotSame(c1.getContext(), get(null, false, C.class).getContext());
+    }
+
+    @Test
+    public void testClassLoadersKeptApart() throws Exception {
+        Class<?> otherA = new ClassLoader(getClass().getClassLoader()) {
+            protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+                // the test class as well, as its nested classes are looked up from it
+                if (!name.startsWith(JAXBContextCacheTest.class.getName())) {
+                    return super.loadClass(name, resolve);
+                }
+                Class<?> loaded = findLoadedClass(name);
+                if (loaded != null) {
+                    return loaded;
+                }
+                try (InputStream in = getResourceAsStream(name.replace('.', '/') + ".class")) {
+                    byte[] bytes = IOUtils.readBytesFromStream(in);
+                    return defineClass(name, bytes, 0, bytes.length);
+                } catch (IOException ex) {
+                    throw new ClassNotFoundException(name, ex);
+                }
+            }
+        }.loadClass(A.class.getName());
+        assertNotSame(A.class, otherA);
+        CachedContextAndSchemas c1 = get(NS, true, A.class);
+        CachedContextAndSchemas c2 = get(NS, true, otherA);
+        assertNotSame(c1.getContext(), c2.getContext());
+        assertSame(otherA, c2.getClasses().iterator().next());
+        assertSame(c1.getContext(), get(NS, true, A.class).getContext());
+        assertSame(c2.getContext(), get(NS, true, otherA).getContext());
+        assertEquals(2, JAXBContextCache.getSize());
+    }
+
+    @Test
+    public void testSchemasKept() throws Exception {
+        CachedContextAndSchemas c = get(NS, true, A.class);
+        c.setSchemas(Collections.emptyList());
+        CachedContextAndSchemas c2 = get(NS, true, A.class);
+        assertSame(c.getContext(), c2.getContext());
+        assertNotNull(c2.getSchemas());
+    }
+
+    @Test
+    public void testSingleFlight() throws Exception {
+        final int threads = 8;
+        final CountDownLatch start = new CountDownLatch(1);
+        long misses = JAXBContextCache.MISSES.get();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<CachedContextAndSchemas>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(new Callable<CachedContextAndSchemas>() {
+                    public CachedContextAndSchemas call() throws Exception {
+                        start.await();
+                        return get(NS, true, A.class, B.class, C.class);
+                    }
+                }));
+            }
+            start.countDown();
+            Object context = results.get(0).get().getContext();
+            for (Future<CachedContextAndSchemas> f : results) {
+                assertSame(context, f.get().getContext());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(misses + 1, JAXBContextCache.MISSES.get());
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+        long evictions = JAXBContextCache.EVICTIONS.get();
+        // so that only the bound drops the contexts not held here
+        JAXBContextCache.setSoftReferences(true);
+        JAXBContextCache.setMaxSize(2);
+        CachedContextAndSchemas a = get(NS, true, A.class);
+        get(NS, true, B.class);
+        get(NS, true, A.class);
+        get(NS, true, C.class);
+        assertEquals(2, JAXBContextCache.getSize());
+        assertEquals(evictions + 1, JAXBContextCache.EVICTIONS.get());
+        // B was the least recently used one
+        assertSame(a.getContext(), get(NS, true, A.class).getContext());
+    }
+
+    private static CachedContextAndSchemas get(String ns, boolean exact, Class<?>... cls) throws Exception {
+        Set<Class<?>> classes = new HashSet<Class<?>>();
+        Collections.addAll(classes, cls);
+        return JAXBContextCache.getCachedContextAndSchemas(classes, ns, null, null, exact);
+    }
+
+    @XmlRootElement
+    public static class A {
+    }
+
+    @XmlRootElement
+    public static class B {
+    }
+
+    @XmlRootElement
+    public static class C {
+    }
+}
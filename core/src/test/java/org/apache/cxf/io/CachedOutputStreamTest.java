@@ -22,6 +22,13 @@ import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.BusFactory;
+import org.apache.cxf.bus.extension.ExtensionManagerBus;
+import org.junit.Test;
 
 public class CachedOutputStreamTest extends CachedStreamTestBase {
 
@@ -82,6 +89,88 @@ public class CachedOutputStreamTest extends CachedStreamTestBase {
     protected String readPartiallyFromStreamObject(Object cache, int len) throws IOException {
         return readPartiallyFromStream((InputStream)cache, len);
     }
-}
 
+    @Test
+    public void testBufferPoolReuse() throws IOException {
+        Bus oldbus = BusFactory.getThreadDefaultBus(false);
+        Bus bus = new ExtensionManagerBus();
+        try {
+            CachedOutputStreamBufferPool pool = new CachedOutputStreamBufferPool(bus);
+            BusFactory.setThreadDefaultBus(bus);
+
+            CachedOutputStream cos = new CachedOutputStream(1024);
+            cos.write("Hello World!".getBytes(StandardCharsets.UTF_8));
+            cos.close();
+            // the content has to remain readable once the buffer went back to the pool
+            assertEquals("Hello World!", new String(cos.getBytes(), StandardCharsets.UTF_8));
+            assertEquals("Hello World!", readFromStream(cos.getInputStream()));
+            assertEquals(1, pool.getPooledCount());
+
+            cos = new CachedOutputStream(1024);
+            cos.write("Hello Again!".getBytes(StandardCharsets.UTF_8));
+            cos.close();
+            assertEquals("Hello Again!", readFromStream(cos.getInputStream()));
+            assertEquals(1, pool.getHitCount());
+            assertEquals(1, pool.getMissCount());
+            assertEquals(1, pool.getPooledCount());
+        } finally {
+            BusFactory.setThreadDefaultBus(oldbus);
+            bus.shutdown(true);
+        }
+    }
+
+    @Test
+    public void testBufferPoolSharedBufferNotReused() throws IOException {
+        Bus oldbus = BusFactory.getThreadDefaultBus(false);
+        Bus bus = new ExtensionManagerBus();
+        try {
+            CachedOutputStreamBufferPool pool = new CachedOutputStreamBufferPool(bus);
+            BusFactory.setThreadDefaultBus(bus);
+
+            CachedOutputStream cos = new CachedOutputStream(1024);
+            cos.write("Hello World!".getBytes(StandardCharsets.UTF_8));
+            InputStream in = cos.getInputStream();
+            cos.close();
+            // the input stream reads a copy, so the buffer goes back to the pool
+            assertEquals(1, pool.getPooledCount());
+            assertEquals(0, pool.getDiscardCount());
 
+            CachedOutputStream cos2 = new CachedOutputStream(1024);
+            cos2.write("Something else".getBytes(StandardCharsets.UTF_8));
+            cos2.close();
+            assertEquals(1, pool.getHitCount());
+            assertEquals("Hello World!", readFromStream(in));
+
+            CachedOutputStream cos3 = new CachedOutputStream(1024);
+            OutputStream out = cos3.getOut();
+            out.write("Hello Out!".getBytes(StandardCharsets.UTF_8));
+            cos3.close();
+            assertEquals(0, pool.getPooledCount());
+            assertEquals(1, pool.getDiscardCount());
+        } finally {
+            BusFactory.setThreadDefaultBus(oldbus);
+            bus.shutdown(true);
+        }
+    }
+
+    @Test
+    public void testBufferPoolSpill() throws IOException {
+        Bus oldbus = BusFactory.getThreadDefaultBus(false);
+        Bus bus = new ExtensionManagerBus();
+        try {
+            CachedOutputStreamBufferPool pool = new CachedOutputStreamBufferPool(bus);
+            BusFactory.setThreadDefaultBus(bus);
+
+            CachedOutputStream cos = new CachedOutputStream(4);
+            cos.write("Hello World!".getBytes(StandardCharsets.UTF_8));
+            assertNotNull(cos.getTempFile());
+            assertEquals(1, pool.getSpillCount());
+            assertEquals(1, pool.getPooledCount());
+            assertEquals("Hello World!", readFromStream(cos.getInputStream()));
+            cos.close();
+        } finally {
+            BusFactory.setThreadDefaultBus(oldbus);
+            bus.shutdown(true);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.message;
+
+import java.util.Set;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.bus.extension.ExtensionManagerBus;
+import org.apache.cxf.endpoint.Endpoint;
+import org.apache.cxf.endpoint.EndpointImpl;
+import org.apache.cxf.service.Service;
+import org.apache.cxf.service.ServiceImpl;
+import org.apache.cxf.service.model.BindingInfo;
+import org.apache.cxf.service.model.EndpointInfo;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MessageImplTest extends Assert {
+
+    private Bus bus;
+    private Service service;
+    private EndpointInfo endpointInfo;
+    private Endpoint endpoint;
+    private Exchange exchange;
+    private Message message;
+
+    @Before
+    public void setUp() throws Exception {
+        bus = new ExtensionManagerBus();
+        service = new ServiceImpl();
+        endpointInfo = new EndpointInfo();
+        endpoint = new EndpointImpl(bus, service, endpointInfo);
+        endpointInfo.setBinding(new BindingInfo(null, "http://cxf.apache.org/bindings/test"));
+
+        exchange = new ExchangeImpl();
+        exchange.put(Bus.class, bus);
+        exchange.put(Service.class, service);
+        exchange.put(Endpoint.class, endpoint);
+        message = new MessageImpl();
+        exchange.setInMessage(message);
+    }
+
+    @Test
+    public void testContextualPropertyPrecedence() {
+        bus.setProperty("a", "bus");
+        bus.setProperty("b", "bus");
+        service.put("b", "service");
+        service.put("c", "service");
+        endpointInfo.getBinding().setProperty("c", "binding");
+        endpointInfo.getBinding().setProperty("d", "binding");
+        endpointInfo.setProperty("d", "endpointInfo");
+        endpointInfo.setProperty("e", "endpointInfo");
+        endpoint.put("e", "endpoint");
+        endpoint.put("f", "endpoint");
+        exchange.put("f", "exchange");
+        exchange.put("g", "exchange");
+        message.put("g", "message");
+
+        assertEquals("bus", message.getContextualProperty("a"));
+        assertEquals("service", message.getContextualProperty("b"));
+        assertEquals("binding", message.getContextualProperty("c"));
+        assertEquals("endpointInfo", message.getContextualProperty("d"));
+        assertEquals("endpoint", message.getContextualProperty("e"));
+        assertEquals("exchange", message.getContextualProperty("f"));
+        assertEquals("message", message.getContextualProperty("g"));
+        assertNull(message.getContextualProperty("h"));
+
+        Set<String> keys = message.getContextualPropertyKeys();
+        for (String key : new String[] {"a", "b", "c", "d", "e", "f", "g"}) {
+            assertTrue(key, keys.contains(key));
+        }
+        assertFalse(keys.contains("h"));
+    }
+
+    @Test
+    public void testContextualPropertyUpdates() {
+        bus.setProperty("a", "bus");
+        message.put("b", null);
+        bus.setProperty("b", "bus");
+        assertEquals("bus", message.getContextualProperty("a"));
+        assertNull(message.getContextualProperty("b"));
+        assertNull(message.getContextualProperty("c"));
+
+        message.put("a", "message");
+        exchange.put("c", "exchange");
+        assertEquals("message", message.getContextualProperty("a"));
+        assertEquals("exchange", message.getContextualProperty("c"));
+
+        exchange.put("c", null);
+        assertNull(message.getContextualProperty("c"));
+
+        bus.setProperty("d", "bus");
+        assertNull(message.getContextualProperty("d"));
+        message.resetContextCache();
+        assertEquals("bus", message.getContextualProperty("d"));
+        bus.setProperty("d", "changed");
+        assertEquals("bus", message.getContextualProperty("d"));
+        message.resetContextCache();
+        assertEquals("changed", message.getContextualProperty("d"));
+    }
+
+    @Test
+    public void testExchangeTypedProperties() {
+        assertSame(bus, exchange.get(Bus.class));
+        assertSame(service, exchange.get(Service.class));
+        assertSame(endpoint, exchange.get(Endpoint.class));
+        assertNull(exchange.get(Bus.class.getName()));
+
+        Exchange ex = new ExchangeImpl();
+        assertNull(ex.get(Bus.class));
+        ex.put(Bus.class.getName(), bus);
+        assertSame(bus, ex.get(Bus.class));
+    }
+}
@@ -25,6 +25,8 @@ import java.util.Iterator;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.cxf.common.util.ReflectionUtil;
 import org.apache.cxf.common.util.SortedArraySet;
@@ -348,6 +350,120 @@ public class PhaseInterceptorChainTest extends Assert {
         assertEquals(0, p1.faultInvoked);
     }
 
+    @Test
+    public void testInsertionInClonedChainPass() throws Exception {
+        CountingPhaseInterceptor p1 = new CountingPhaseInterceptor("phase1", "p1");
+        final CountingPhaseInterceptor p2 = new CountingPhaseInterceptor("phase3", "p2");
+        CountingPhaseInterceptor p3 = new CountingPhaseInterceptor("phase3", "p3");
+        AbstractPhaseInterceptor<Message> inserting = new AbstractPhaseInterceptor<Message>("inserting", "phase2") {
+            public void handleMessage(Message m) {
+                m.getInterceptorChain().add(p2);
+            }
+        };
+        chain.add(p1);
+        chain.add(inserting);
+        chain.add(p3);
+        PhaseInterceptorChain template = chain.cloneChain();
+        PhaseInterceptorChain clone = template.cloneChain();
+
+        message.getInterceptorChain();
+        EasyMock.expectLastCall().andReturn(clone).anyTimes();
+        control.replay();
+
+        assertTrue(clone.doIntercept(message));
+        assertEquals(1, p1.invoked);
+        assertEquals(1, p2.invoked);
+        assertEquals(1, p3.invoked);
+        assertEquals(4, countInterceptors(clone));
+
+        // the interceptors of the template are shared, not modified
+        assertEquals(3, countInterceptors(template));
+        assertEquals(3, countInterceptors(template.cloneChain()));
+    }
+
+    @Test
+    public void testAbortWaitsForRunningChain() throws Exception {
+        final CountDownLatch running = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        AbstractPhaseInterceptor<Message> blocking = new AbstractPhaseInterceptor<Message>("blocking", "phase1") {
+            public void handleMessage(Message m) {
+                running.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        chain.add(blocking);
+        control.replay();
+
+        Thread executor = new Thread(new Runnable() {
+            public void run() {
+                chain.doIntercept(message);
+            }
+        });
+        executor.start();
+        assertTrue(running.await(10, TimeUnit.SECONDS));
+        Thread aborter = new Thread(new Runnable() {
+            public void run() {
+                chain.abort();
+            }
+        });
+        aborter.start();
+        for (int i = 0; i < 1000 && aborter.getState() != Thread.State.BLOCKED; i++) {
+            Thread.sleep(10);
+        }
+        // an abort from another thread waits for the running chain
+        assertSame(Thread.State.BLOCKED, aborter.getState());
+        assertSame(InterceptorChain.State.EXECUTING, chain.getState());
+
+        release.countDown();
+        executor.join(10000);
+        aborter.join(10000);
+        assertSame(InterceptorChain.State.ABORTED, chain.getState());
+    }
+
+    @Test
+    public void testSuspendAndResumeClonedChain() throws Exception {
+        CountingPhaseInterceptor p1 = new CountingPhaseInterceptor("phase1", "p1");
+        SuspendedInvocationInterceptor p2 = new SuspendedInvocationInterceptor("phase2", "p2");
+        CountingPhaseInterceptor p3 = new CountingPhaseInterceptor("phase3", "p3");
+        chain.add(p1);
+        chain.add(p2);
+        chain.add(p3);
+        PhaseInterceptorChain clone = chain.cloneChain();
+
+        message.getInterceptorChain();
+        EasyMock.expectLastCall().andReturn(clone).anyTimes();
+        message.remove("suspend.chain.on.current.interceptor");
+        EasyMock.expectLastCall().andReturn(Boolean.TRUE).anyTimes();
+        control.replay();
+
+        try {
+            clone.doIntercept(message);
+            fail("Suspended invocation swallowed");
+        } catch (SuspendedInvocationException ex) {
+            // ignore
+        }
+        assertSame(InterceptorChain.State.PAUSED, clone.getState());
+        assertEquals(1, p1.invoked);
+        assertEquals(0, p3.invoked);
+
+        clone.resume();
+        assertSame(InterceptorChain.State.COMPLETE, clone.getState());
+        assertEquals(1, p1.invoked);
+        assertEquals(1, p3.invoked);
+    }
+
+    private static int countInterceptors(PhaseInterceptorChain c) {
+        int count = 0;
+        for (Iterator<Interceptor<? extends Message>> it = c.iterator(); it.hasNext(); it.next()) {
+            count++;
+        }
+        return count;
+    }
+
     @Test
     public void testWrappedInvocation() throws Exception {
         CountingPhaseInterceptor p1 = new CountingPhaseInterceptor("phase1",
@@ -479,4 +479,27 @@ public class StaxUtilsTest extends Assert {
         //System.out.println(sw.toString());
         assertEquals(innerXml, sw.toString());
     }
+
+    @Test
+    public void testRecyclingWriter() throws Exception {
+        final boolean[] closed = new boolean[1];
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+        for (int i = 0; i < 3; i++) {
+            XMLStreamWriter writer = StaxUtils.createRecyclingXMLStreamWriter(out, "UTF-8");
+            writer.writeStartElement("root");
+            writer.writeAttribute("n", Integer.toString(i));
+            writer.writeCharacters("\u00e9t\u00e9");
+            writer.writeEndDocument();
+            writer.flush();
+            StaxUtils.closeAndRecycle(writer);
+        }
+        assertFalse(closed[0]);
+        assertEquals("<root n=\"0\">\u00e9t\u00e9</root><root n=\"1\">\u00e9t\u00e9</root>"
+                     + "<root n=\"2\">\u00e9t\u00e9</root>", out.toString("UTF-8"));
+    }
 }
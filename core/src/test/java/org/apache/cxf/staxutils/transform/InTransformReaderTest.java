@@ -87,6 +87,26 @@ public class InTransformReaderTest extends Assert {
                 "<ns:test xmlns:ns=\"http://foo\"><ns:a>1 2 3</ns:a></ns:test>", value);
     }
 
+    @Test
+    public void testReadWithSharedRules() throws Exception {
+        Map<String, String> elements = new HashMap<>();
+        elements.put("{http://bar}*", "{http://foo}*");
+        elements.put("{http://bar}b", "{http://foo}c");
+        TransformRules rules = new TransformRules(elements,
+                                                  Collections.singletonMap("{http://bar}a", "{http://bar}a=1 2 3"),
+                                                  null, null);
+        for (int i = 0; i < 2; i++) {
+            InputStream is = new ByteArrayInputStream(
+                "<ns:test xmlns:ns=\"http://bar\"><ns:a>1</ns:a><ns:b/></ns:test>".getBytes());
+            XMLStreamReader reader = new InTransformReader(StaxUtils.createXMLStreamReader(is), rules, false);
+
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            StaxUtils.copy(reader, bos);
+            assertEquals("<ns:test xmlns:ns=\"http://foo\"><ns:a>1 2 3</ns:a><ns:c/></ns:test>",
+                         bos.toString());
+        }
+    }
+
     @Test
     public void testReadWithParentDefaultNamespace() throws Exception {
         InputStream is = new ByteArrayInputStream(
@@ -0,0 +1,231 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.workqueue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.cxf.bus.extension.ExtensionManagerBus;
+import org.apache.cxf.bus.managers.WorkQueueManagerImpl;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class VirtualThreadWorkQueueTest extends Assert {
+
+    VirtualThreadWorkQueue workqueue;
+
+    @After
+    public void tearDown() throws Exception {
+        if (workqueue != null) {
+            workqueue.shutdown(false);
+            workqueue = null;
+        }
+    }
+
+    @Test
+    public void testExecute() throws Exception {
+        workqueue = new VirtualThreadWorkQueue("test");
+        final CountDownLatch done = new CountDownLatch(1);
+        final AtomicReference<ClassLoader> loader = new AtomicReference<ClassLoader>();
+        ClassLoader cl = new ClassLoader() { };
+        ClassLoader orig = Thread.currentThread().getContextClassLoader();
+        Thread.currentThread().setContextClassLoader(cl);
+        try {
+            workqueue.execute(new Runnable() {
+                public void run() {
+                    loader.set(Thread.currentThread().getContextClassLoader());
+                    done.countDown();
+                }
+            });
+        } finally {
+            Thread.currentThread().setContextClassLoader(orig);
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertSame(cl, loader.get());
+    }
+
+    @Test
+    public void testConcurrencyAndQueueLimits() throws Exception {
+        workqueue = new VirtualThreadWorkQueue(2, 1, "test");
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch started = new CountDownLatch(2);
+        final AtomicInteger ran = new AtomicInteger();
+        Runnable blocking = new Runnable() {
+            public void run() {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    // ignore
+                }
+                ran.incrementAndGet();
+            }
+        };
+        workqueue.execute(blocking);
+        workqueue.execute(blocking);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        workqueue.execute(blocking);
+        assertTrue(workqueue.isFull());
+        assertEquals(2, workqueue.getActiveCount());
+        try {
+            workqueue.execute(blocking);
+            fail("Expected RejectedExecutionException");
+        } catch (RejectedExecutionException ex) {
+            // expected
+        }
+        try {
+            workqueue.execute(blocking, 50);
+            fail("Expected RejectedExecutionException");
+        } catch (RejectedExecutionException ex) {
+            // expected
+        }
+
+        release.countDown();
+        for (int x = 0; x < 50 && ran.get() < 3; x++) {
+            Thread.sleep(100);
+        }
+        assertEquals(3, ran.get());
+        assertEquals(2, workqueue.getLargestActiveCount());
+        assertTrue(workqueue.isEmpty());
+    }
+
+    @Test
+    public void testSchedule() throws Exception {
+        workqueue = new VirtualThreadWorkQueue("test");
+        final CountDownLatch done = new CountDownLatch(1);
+        long start = System.currentTimeMillis();
+        workqueue.schedule(new Runnable() {
+            public void run() {
+                done.countDown();
+            }
+        }, 100);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertTrue(System.currentTimeMillis() - start >= 100);
+    }
+
+    @Test
+    public void testShutdownProcessesRemainingWork() throws Exception {
+        workqueue = new VirtualThreadWorkQueue(1, 5, "test");
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch started = new CountDownLatch(1);
+        final AtomicInteger ran = new AtomicInteger();
+        workqueue.execute(new Runnable() {
+            public void run() {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    // ignore
+                }
+                ran.incrementAndGet();
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        workqueue.execute(new Runnable() {
+            public void run() {
+                ran.incrementAndGet();
+            }
+        });
+        final CountDownLatch shutdown = new CountDownLatch(1);
+        Thread t = new Thread(new Runnable() {
+            public void run() {
+                workqueue.shutdown(true);
+                shutdown.countDown();
+            }
+        });
+        t.start();
+        // shutdown(true) waits for the running and the waiting work item
+        assertFalse(shutdown.await(200, TimeUnit.MILLISECONDS));
+        assertTrue(workqueue.isShutdown());
+        release.countDown();
+        assertTrue(shutdown.await(5, TimeUnit.SECONDS));
+        assertEquals(2, ran.get());
+        assertEquals(0, workqueue.getActiveCount());
+    }
+
+    @Test
+    public void testShutdownDiscardsWaitingWork() throws Exception {
+        workqueue = new VirtualThreadWorkQueue(1, 5, "test");
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch started = new CountDownLatch(1);
+        final AtomicInteger ran = new AtomicInteger();
+        workqueue.execute(new Runnable() {
+            public void run() {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    // ignore
+                }
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        workqueue.execute(new Runnable() {
+            public void run() {
+                ran.incrementAndGet();
+            }
+        });
+        workqueue.shutdown(false);
+        assertTrue(workqueue.isShutdown());
+        release.countDown();
+        try {
+            workqueue.execute(new Runnable() {
+                public void run() {
+                }
+            });
+            fail("Expected RejectedExecutionException");
+        } catch (RejectedExecutionException ex) {
+            // expected
+        }
+        for (int x = 0; x < 50 && !workqueue.isEmpty(); x++) {
+            Thread.sleep(100);
+        }
+        assertEquals(0, ran.get());
+    }
+
+    @Test
+    public void testNamedVirtualThreadQueues() {
+        ExtensionManagerBus bus = new ExtensionManagerBus();
+        try {
+            bus.setProperty(WorkQueueManagerImpl.VIRTUAL_THREAD_QUEUES, "default, http-conduit");
+            WorkQueueManagerImpl manager = new WorkQueueManagerImpl(bus);
+            // without virtual threads the named work queues are thread pools
+            Class<?> type = VirtualThreadWorkQueue.isVirtualThreadSupported()
+                ? VirtualThreadWorkQueue.class : AutomaticWorkQueueImpl.class;
+            assertSame(type, manager.getNamedWorkQueue("http-conduit").getClass());
+            assertSame(manager.getNamedWorkQueue("http-conduit"), manager.getNamedWorkQueue("http-conduit"));
+            assertSame(type, manager.getAutomaticWorkQueue().getClass());
+            assertNull(manager.getNamedWorkQueue("udp-conduit"));
+            manager.getNamedWorkQueue("http-conduit").execute(new Runnable() {
+                public void run() {
+                }
+            });
+            manager.shutdown(false);
+            assertTrue(manager.getNamedWorkQueue("http-conduit").isShutdown());
+        } finally {
+            bus.shutdown(false);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.maven_plugin.marshallers;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.cxf.common.util.Compiler;
+import org.apache.cxf.jaxb.StaxMarshaller;
+import org.apache.cxf.jaxb.StaxMarshallerGenerator;
+import org.apache.cxf.jaxb.StaxMarshallerSupport;
+import org.apache.maven.artifact.DependencyResolutionRequiredException;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * Generates and compiles a StAX marshaller for each of the compiled JAXB beans, such as the ones
+ * generated by wsdl2java, which the JAXB databinding can then use instead of JAXB to read and write them,
+ * when jaxb.useGeneratedMarshallers is set. The beans the generator cannot handle are left to JAXB.
+ */
+@Mojo(name = "stax-marshallers", defaultPhase = LifecyclePhase.PROCESS_CLASSES, threadSafe = true,
+      requiresDependencyResolution = ResolutionScope.COMPILE)
+public class StaxMarshallerMojo extends AbstractMojo {
+
+    @Parameter(required = true, property = "project")
+    MavenProject project;
+
+    /**
+     * Path where the generated sources should be placed
+     */
+    @Parameter(required = true, defaultValue = "${project.build.directory}/generated-sources/cxf-stax",
+               property = "cxf.staxSourceRoot")
+    File sourceRoot;
+
+    /**
+     * The packages of the beans to generate marshallers for, all of them by default.
+     */
+    @Parameter
+    String[] packages;
+
+    @Parameter(property = "cxf.stax.skip", defaultValue = "false")
+    boolean skip;
+
+    public void execute() throws MojoExecutionException {
+        File classesDir = new File(project.getBuild().getOutputDirectory());
+        if (skip || !classesDir.isDirectory()) {
+            return;
+        }
+        List<String> classPath;
+        List<URL> urls = new ArrayList<>();
+        try {
+            classPath = new ArrayList<>(project.getCompileClasspathElements());
+            for (String element : classPath) {
+                urls.add(new File(element).toURI().toURL());
+            }
+            // the generated marshallers depend on the databinding, whether the project does or not
+            classPath.add(new File(StaxMarshaller.class.getProtectionDomain().getCodeSource().getLocation()
+                                       .toURI()).getAbsolutePath());
+        } catch (DependencyResolutionRequiredException | IOException | URISyntaxException e) {
+            throw new MojoExecutionException(e.getMessage(), e);
+        }
+
+        try (URLClassLoader loader = new URLClassLoader(urls.toArray(new URL[urls.size()]),
+                                                        getClass().getClassLoader())) {
+            List<Class<?>> classes = new ArrayList<>();
+            collectClasses(classesDir, "", loader, classes);
+            StaxMarshallerGenerator generator = new StaxMarshallerGenerator(classes);
+            if (generator.getClasses().isEmpty()) {
+                getLog().info("No JAXB bean to generate a marshaller for");
+                return;
+            }
+            List<File> files = generator.generate(sourceRoot);
+            Compiler compiler = new Compiler();
+            compiler.setOutputDir(classesDir);
+            compiler.setClassPath(String.join(File.pathSeparator, classPath));
+            if (!compiler.compileFiles(files)) {
+                throw new MojoExecutionException("Could not compile the generated marshallers: "
+                                                 + compiler.getErrors());
+            }
+            getLog().info("Generated " + files.size() + " marshallers in " + sourceRoot);
+        } catch (IOException e) {
+            throw new MojoExecutionException(e.getMessage(), e);
+        }
+    }
+
+    private void collectClasses(File dir, String pkg, ClassLoader loader, List<Class<?>> classes) {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File f : files) {
+            String name = f.getName();
+            if (f.isDirectory()) {
+                collectClasses(f, pkg.isEmpty() ? name : pkg + '.' + name, loader, classes);
+            } else if (name.endsWith(".class") && isIncluded(pkg)
+                && !name.endsWith(StaxMarshallerSupport.CLASS_SUFFIX + ".class")) {
+                String className = name.substring(0, name.length() - 6);
+                try {
+                    classes.add(Class.forName(pkg.isEmpty() ? className : pkg + '.' + className, false, loader));
+                } catch (Throwable t) {
+                    getLog().debug("Could not load " + className, t);
+                }
+            }
+        }
+    }
+
+    private boolean isIncluded(String pkg) {
+        if (packages == null || packages.length == 0) {
+            return true;
+        }
+        for (String p : packages) {
+            if (p.equals(pkg)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,93 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.binding.soap;
+
+import java.io.ByteArrayInputStream;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.w3c.dom.Element;
+
+import org.apache.cxf.interceptor.Fault;
+import org.apache.cxf.staxutils.StaxUtils;
+
+/**
+ * An inbound SOAP header kept as the serialized XML of its element, which is only parsed into
+ * a DOM Element when the object or the element of the header is asked for. The serialized
+ * element declares all the namespaces in scope and carries the attributes of the enclosing
+ * soap:Header element, so it can be parsed on its own.
+ */
+public class LazySoapHeader extends SoapHeader {
+    private byte[] content;
+    private Element element;
+    private boolean objectSet;
+
+    public LazySoapHeader(QName q, byte[] content) {
+        super(q, null);
+        this.content = content;
+        setDirection(Direction.DIRECTION_IN);
+    }
+
+    /**
+     * Returns true if the header element has been parsed into a DOM Element.
+     */
+    public boolean isParsed() {
+        return element != null;
+    }
+
+    /**
+     * Returns the header element, parsing it if needed.
+     */
+    public Element getElement() {
+        if (element == null) {
+            try {
+                element = StaxUtils.read(new ByteArrayInputStream(content)).getDocumentElement();
+            } catch (XMLStreamException e) {
+                throw new Fault(e);
+            }
+            content = null;
+        }
+        return element;
+    }
+
+    /**
+     * Returns a reader over the header element which does not parse it into a DOM Element
+     * if that has not already been done.
+     */
+    public XMLStreamReader createXMLStreamReader() {
+        if (element != null) {
+            return StaxUtils.createXMLStreamReader(element);
+        }
+        return StaxUtils.createXMLStreamReader(new ByteArrayInputStream(content));
+    }
+
+    @Override
+    public Object getObject() {
+        return objectSet ? super.getObject() : getElement();
+    }
+
+    @Override
+    public void setObject(Object object) {
+        objectSet = true;
+        super.setObject(object);
+    }
+}
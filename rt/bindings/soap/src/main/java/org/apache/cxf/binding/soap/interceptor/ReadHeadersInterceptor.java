@@ -19,10 +19,13 @@
 
 package org.apache.cxf.binding.soap.interceptor;
 
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.logging.Logger;
@@ -32,6 +35,9 @@ import javax.xml.stream.XMLEventFactory;
 import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.Namespace;
 import javax.xml.stream.events.XMLEvent;
 
 import org.w3c.dom.Attr;
@@ -42,6 +48,7 @@ import org.w3c.dom.Node;
 
 import org.apache.cxf.Bus;
 import org.apache.cxf.annotations.SchemaValidation.SchemaValidationType;
+import org.apache.cxf.binding.soap.LazySoapHeader;
 import org.apache.cxf.binding.soap.Soap11;
 import org.apache.cxf.binding.soap.Soap12;
 import org.apache.cxf.binding.soap.SoapFault;
@@ -73,6 +80,12 @@ public class ReadHeadersInterceptor extends AbstractSoapInterceptor {
     public static final String BODY_EVENTS = "body.events";
     public static final String ENVELOPE_PREFIX = "envelope.prefix";
     public static final String BODY_PREFIX = "body.prefix";
+    /**
+     * Set to true to keep the SOAP headers serialized and only parse them when they are asked
+     * for, unless a DOM document or a SAAJ message is already being built for the message.
+     * By default the headers are parsed into a DOM document up front.
+     */
+    public static final String LAZY_HEADERS = "org.apache.cxf.binding.soap.lazyHeaders";
     /**
      *
      */
@@ -186,6 +199,7 @@ public class ReadHeadersInterceptor extends AbstractSoapInterceptor {
                 Node nd = message.getContent(Node.class);
                 W3CDOMStreamWriter writer = message.get(W3CDOMStreamWriter.class);
                 Document doc = null;
+                List<LazySoapHeader> lazyHeaders = Collections.emptyList();
                 if (writer != null) {
                     StaxUtils.copy(filteredReader, writer);
                     doc = writer.getDocument();
@@ -201,8 +215,10 @@ public class ReadHeadersInterceptor extends AbstractSoapInterceptor {
                         // add the Envelope-Level declarations
                         addCurrentNamespaceDecls(xmlReader, bodyNC);
                     }
-                    HeadersProcessor processor = new HeadersProcessor(soapVersion);
+                    HeadersProcessor processor = new HeadersProcessor(soapVersion,
+                        MessageUtils.getContextualBoolean(message, LAZY_HEADERS, false));
                     doc = processor.process(filteredReader);
+                    lazyHeaders = processor.getLazyHeaders();
                     if (doc != null) {
                         message.setContent(Node.class, doc);
                     } else {
@@ -246,21 +262,8 @@ public class ReadHeadersInterceptor extends AbstractSoapInterceptor {
                                 }
                             }
 
-                            HeaderProcessor p = bus == null ? null : bus.getExtension(HeaderManager.class)
-                                .getHeaderProcessor(hel.getNamespaceURI());
-
-                            Object obj;
-                            DataBinding dataBinding = null;
-                            if (p == null || p.getDataBinding() == null) {
-                                obj = hel;
-                            } else {
-                                dataBinding = p.getDataBinding();
-                                DataReader<Node> dataReader = dataBinding.createReader(Node.class);
-                                dataReader.setAttachments(message.getAttachments());
-                                dataReader.setProperty(DataReader.ENDPOINT, message.getExchange().getEndpoint());
-                                dataReader.setProperty(Message.class.getName(), message);
-                                obj = dataReader.read(hel);
-                            }
+                            DataBinding dataBinding = getHeaderDataBinding(hel.getNamespaceURI());
+                            Object obj = dataBinding == null ? hel : readHeader(message, dataBinding, hel);
 
                             SoapHeader shead = new SoapHeader(new QName(hel.getNamespaceURI(),
                                                                         hel.getLocalName()), obj, dataBinding);
@@ -282,6 +285,14 @@ public class ReadHeadersInterceptor extends AbstractSoapInterceptor {
                         }
                     }
                 }
+                for (LazySoapHeader shead : lazyHeaders) {
+                    DataBinding dataBinding = getHeaderDataBinding(shead.getName().getNamespaceURI());
+                    if (dataBinding != null) {
+                        shead.setObject(readHeader(message, dataBinding, shead.getElement()));
+                        shead.setDataBinding(dataBinding);
+                    }
+                    message.getHeaders().add(shead);
+                }
 
                 if (ServiceUtils.isSchemaValidationEnabled(SchemaValidationType.IN, message)) {
                     message.getInterceptorChain().add(new CheckClosingTagsInterceptor());
@@ -303,6 +314,19 @@ public class ReadHeadersInterceptor extends AbstractSoapInterceptor {
     }
     //CHECKSTYLE:ON
 
+    private DataBinding getHeaderDataBinding(String ns) {
+        HeaderProcessor p = bus == null ? null : bus.getExtension(HeaderManager.class).getHeaderProcessor(ns);
+        return p == null ? null : p.getDataBinding();
+    }
+
+    private static Object readHeader(SoapMessage message, DataBinding dataBinding, Element hel) {
+        DataReader<Node> dataReader = dataBinding.createReader(Node.class);
+        dataReader.setAttachments(message.getAttachments());
+        dataReader.setProperty(DataReader.ENDPOINT, message.getExchange().getEndpoint());
+        dataReader.setProperty(Message.class.getName(), message);
+        return dataReader.read(hel);
+    }
+
     private void addCurrentNamespaceDecls(XMLStreamReader xmlReader, Map<String, String> bodyNsMap) {
         for (int i = 0; i < xmlReader.getNamespaceCount(); i++) {
             String nsuri = xmlReader.getNamespaceURI(i);
@@ -320,6 +344,8 @@ public class ReadHeadersInterceptor extends AbstractSoapInterceptor {
      * memory usage as low as possible (there's no reason for building the DOM doc
      * here if there's actually no header in the message, but we need to figure that
      * out while parsing the stream).
+     * In lazy mode no document is created at all, every header is kept as a
+     * LazySoapHeader holding its serialized element instead.
      */
     private static class HeadersProcessor {
         private static XMLEventFactory eventFactory;
@@ -327,7 +353,14 @@ public class ReadHeadersInterceptor extends AbstractSoapInterceptor {
         private final String header;
         private final String body;
         private final String envelope;
+        private final String mustUnderstand;
+        private final String role;
+        private final boolean lazy;
         private final List<XMLEvent> events = new ArrayList<>(8);
+        private final List<LazySoapHeader> lazyHeaders = new ArrayList<>();
+        private int headerDepth;
+        private Map<String, String> headerNamespaces;
+        private List<Attribute> headerAttributes;
         private List<XMLEvent> envEvents;
         private List<XMLEvent> bodyEvents;
         private StreamToDOMContext context;
@@ -346,7 +379,10 @@ public class ReadHeadersInterceptor extends AbstractSoapInterceptor {
             }
         }
 
-        HeadersProcessor(SoapVersion version) {
+        HeadersProcessor(SoapVersion version, boolean lazy) {
+            this.lazy = lazy;
+            this.mustUnderstand = version.getAttrNameMustUnderstand();
+            this.role = version.getAttrNameRole();
             this.header = version.getHeader().getLocalPart();
             this.ns = version.getEnvelope().getNamespaceURI();
             this.envelope = version.getEnvelope().getLocalPart();
@@ -361,6 +397,12 @@ public class ReadHeadersInterceptor extends AbstractSoapInterceptor {
                 switch (event) {
                 case XMLStreamConstants.START_ELEMENT:
                     read++;
+                    if (headerDepth > 0 && read == headerDepth + 1) {
+                        // the header block is read up to and including its end element
+                        lazyHeaders.add(readLazyHeader(reader));
+                        read--;
+                        break;
+                    }
                     addEvent(eventFactory.createStartElement(new QName(reader.getNamespaceURI(), reader
                                                             .getLocalName(), reader.getPrefix()), null, null));
                     for (int i = 0; i < reader.getNamespaceCount(); i++) {
@@ -373,6 +415,9 @@ public class ReadHeadersInterceptor extends AbstractSoapInterceptor {
                                                          reader.getAttributeLocalName(i),
                                                          reader.getAttributeValue(i)));
                     }
+                    if (lazy && headerDepth == 0 && doc == null && isHeader(lastStartElementQName)) {
+                        headerDepth = read;
+                    }
                     if (doc != null) {
                         //go on parsing the stream directly till the end and stop generating events
                         StaxUtils.readDocElements(doc, parent, reader, context);
@@ -414,8 +459,7 @@ public class ReadHeadersInterceptor extends AbstractSoapInterceptor {
         private void addEvent(XMLEvent event) {
             if (event.isStartElement()) {
                 lastStartElementQName = event.asStartElement().getName();
-                if (header.equals(lastStartElementQName.getLocalPart())
-                    && ns.equals(lastStartElementQName.getNamespaceURI())) {
+                if (!lazy && isHeader(lastStartElementQName)) {
                     // process all events recorded so far
                     context = new StreamToDOMContext(true, false, false);
                     doc = DOMUtils.createDocument();
@@ -456,6 +500,96 @@ public class ReadHeadersInterceptor extends AbstractSoapInterceptor {
             }
         }
 
+        private boolean isHeader(QName name) {
+            return header.equals(name.getLocalPart()) && ns.equals(name.getNamespaceURI());
+        }
+
+        /**
+         * Serializes the header block the reader is positioned on, declaring the namespaces
+         * of the Envelope and Header elements on it and adding the attributes of the Header
+         * element it doesn't have, like the DOM processing does.
+         */
+        private LazySoapHeader readLazyHeader(XMLStreamReader reader) throws XMLStreamException {
+            if (headerNamespaces == null) {
+                headerNamespaces = new LinkedHashMap<>();
+                headerAttributes = new ArrayList<>();
+                boolean inHeader = false;
+                for (XMLEvent ev : events) {
+                    if (ev.isStartElement()) {
+                        inHeader = isHeader(ev.asStartElement().getName());
+                    } else if (ev.isNamespace()) {
+                        Namespace nsEvent = (Namespace)ev;
+                        headerNamespaces.put(nsEvent.getPrefix() == null ? "" : nsEvent.getPrefix(),
+                                             nsEvent.getNamespaceURI());
+                    } else if (inHeader && ev.isAttribute()) {
+                        headerAttributes.add((Attribute)ev);
+                    }
+                }
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+            XMLStreamWriter writer = StaxUtils.createXMLStreamWriter(out, StandardCharsets.UTF_8.name());
+            QName name = new QName(StringUtils.isEmpty(reader.getNamespaceURI()) ? "" : reader.getNamespaceURI(),
+                                   reader.getLocalName(),
+                                   StringUtils.isEmpty(reader.getPrefix()) ? "" : reader.getPrefix());
+            writer.writeStartElement(name.getPrefix(), name.getLocalPart(), name.getNamespaceURI());
+            Map<String, String> namespaces = new LinkedHashMap<>(headerNamespaces);
+            for (int i = 0; i < reader.getNamespaceCount(); i++) {
+                String prefix = reader.getNamespacePrefix(i);
+                String uri = reader.getNamespaceURI(i);
+                namespaces.put(prefix == null ? "" : prefix, uri == null ? "" : uri);
+            }
+            for (Map.Entry<String, String> entry : namespaces.entrySet()) {
+                if (entry.getKey().isEmpty()) {
+                    writer.writeDefaultNamespace(entry.getValue());
+                } else {
+                    writer.writeNamespace(entry.getKey(), entry.getValue());
+                }
+            }
+            for (int i = 0; i < reader.getAttributeCount(); i++) {
+                writeAttribute(writer, reader.getAttributeName(i), reader.getAttributeValue(i));
+            }
+            String mu = reader.getAttributeValue(ns, mustUnderstand);
+            String act = reader.getAttributeValue(ns, role);
+            for (Attribute attr : headerAttributes) {
+                QName attrName = attr.getName();
+                if (reader.getAttributeValue(attrName.getNamespaceURI(), attrName.getLocalPart()) == null) {
+                    writeAttribute(writer, attrName, attr.getValue());
+                    if (ns.equals(attrName.getNamespaceURI())) {
+                        if (mustUnderstand.equals(attrName.getLocalPart())) {
+                            mu = attr.getValue();
+                        } else if (role.equals(attrName.getLocalPart())) {
+                            act = attr.getValue();
+                        }
+                    }
+                }
+            }
+            reader.next();
+            StaxUtils.copy(reader, writer, true);
+            writer.writeEndElement();
+            writer.close();
+
+            LazySoapHeader shead = new LazySoapHeader(new QName(name.getNamespaceURI(), name.getLocalPart()),
+                                                      out.toByteArray());
+            if (!StringUtils.isEmpty(act)) {
+                shead.setActor(act);
+            }
+            shead.setMustUnderstand(Boolean.valueOf(mu) || "1".equals(mu));
+            return shead;
+        }
+
+        private static void writeAttribute(XMLStreamWriter writer, QName name, String value)
+            throws XMLStreamException {
+            if (StringUtils.isEmpty(name.getNamespaceURI())) {
+                writer.writeAttribute(name.getLocalPart(), value);
+            } else {
+                writer.writeAttribute(name.getPrefix(), name.getNamespaceURI(), name.getLocalPart(), value);
+            }
+        }
+
+        public List<LazySoapHeader> getLazyHeaders() {
+            return lazyHeaders;
+        }
+
         public List<XMLEvent> getBodyAttributeAndNamespaceEvents() {
             if (bodyEvents == null) {
                 return Collections.emptyList();
@@ -25,11 +25,14 @@ import java.util.List;
 import java.util.Map;
 import java.util.logging.Logger;
 
+import javax.xml.XMLConstants;
 import javax.xml.namespace.QName;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.events.Namespace;
 import javax.xml.xpath.XPathConstants;
 
+import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
@@ -40,6 +43,7 @@ import org.apache.cxf.binding.soap.SoapFault;
 import org.apache.cxf.binding.soap.SoapMessage;
 import org.apache.cxf.common.i18n.Message;
 import org.apache.cxf.common.logging.LogUtils;
+import org.apache.cxf.common.util.StringUtils;
 import org.apache.cxf.helpers.DOMUtils;
 import org.apache.cxf.helpers.XPathUtils;
 import org.apache.cxf.interceptor.ClientFaultConverter;
@@ -98,7 +102,12 @@ public class Soap12FaultInInterceptor extends AbstractSoapInterceptor {
                                           false, false);
                 fault = (Element)xu.getValue("//s:Fault", bodyNode, XPathConstants.NODE);
             } else {
-                fault = StaxUtils.read(new FragmentStreamReader(reader));
+                Document doc = StaxUtils.read(new FragmentStreamReader(reader));
+                // the QNames of the codes may use prefixes declared on the Body or Envelope
+                addNamespaceDecls(doc.getDocumentElement(), message.get(ReadHeadersInterceptor.BODY_EVENTS));
+                addNamespaceDecls(doc.getDocumentElement(),
+                                  message.get(ReadHeadersInterceptor.ENVELOPE_EVENTS));
+                fault = doc;
             }
             fault = DOMUtils.getDomElement(fault);
             Element el = (Element)xu.getValue("//s:Fault/s:Code/s:Value",
@@ -162,4 +171,20 @@ public class Soap12FaultInInterceptor extends AbstractSoapInterceptor {
         return fault;
     }
 
+    private static void addNamespaceDecls(Element el, Object events) {
+        if (el == null || !(events instanceof List)) {
+            return;
+        }
+        for (Object ev : (List<?>)events) {
+            if (ev instanceof Namespace) {
+                Namespace ns = (Namespace)ev;
+                String prefix = StringUtils.isEmpty(ns.getPrefix()) ? null : ns.getPrefix();
+                if (prefix != null && el.lookupNamespaceURI(prefix) == null) {
+                    el.setAttributeNS(XMLConstants.XMLNS_ATTRIBUTE_NS_URI,
+                                      XMLConstants.XMLNS_ATTRIBUTE + ":" + prefix, ns.getNamespaceURI());
+                }
+            }
+        }
+    }
+
 }
@@ -51,6 +51,7 @@ import org.w3c.dom.Node;
 
 import org.apache.cxf.Bus;
 import org.apache.cxf.attachment.AttachmentDataSource;
+import org.apache.cxf.binding.soap.LazySoapHeader;
 import org.apache.cxf.binding.soap.Soap11;
 import org.apache.cxf.binding.soap.Soap12;
 import org.apache.cxf.binding.soap.SoapFault;
@@ -202,6 +203,9 @@ public class SAAJInInterceptor extends AbstractSoapInterceptor {
                 SOAPBody body = soapMessage.getSOAPBody();
                 events = (List<XMLEvent>)message.get(ReadHeadersInterceptor.BODY_EVENTS);
                 applyEvents(events, body);
+                if (node == null) {
+                    addLazyHeaders(soapMessage, message);
+                }
             }
             message.setContent(Node.class, soapMessage.getSOAPPart());
 
@@ -263,6 +267,26 @@ public class SAAJInInterceptor extends AbstractSoapInterceptor {
         }
     }
 
+    /**
+     * Copies the headers ReadHeadersInterceptor did not parse into the SAAJ header, in order.
+     */
+    private static void addLazyHeaders(SOAPMessage soapMessage, SoapMessage message)
+        throws SOAPException, XMLStreamException {
+        SOAPHeader header = null;
+        for (Header h : message.getHeaders()) {
+            if (h instanceof LazySoapHeader) {
+                if (header == null) {
+                    header = soapMessage.getSOAPPart().getEnvelope().getHeader();
+                    if (header == null) {
+                        header = soapMessage.getSOAPPart().getEnvelope().addHeader();
+                    }
+                }
+                StaxUtils.copy(((LazySoapHeader)h).createXMLStreamReader(),
+                               new SAAJStreamWriter(soapMessage.getSOAPPart(), header));
+            }
+        }
+    }
+
     private static void adjustPrefixes(SOAPEnvelope env, String envPrefix, String bodyPrefix) throws SOAPException {
         SAAJUtils.adjustPrefix(env, envPrefix);
         SAAJUtils.adjustPrefix(env.getBody(), bodyPrefix);
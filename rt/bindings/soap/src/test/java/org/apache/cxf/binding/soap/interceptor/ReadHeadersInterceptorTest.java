@@ -22,11 +22,22 @@ package org.apache.cxf.binding.soap.interceptor;
 import java.io.ByteArrayInputStream;
 import java.util.Map;
 
+import javax.xml.namespace.QName;
+import javax.xml.soap.SOAPMessage;
 import javax.xml.stream.XMLStreamReader;
 
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import org.apache.cxf.binding.soap.LazySoapHeader;
 import org.apache.cxf.binding.soap.Soap11;
+import org.apache.cxf.binding.soap.SoapHeader;
 import org.apache.cxf.binding.soap.SoapMessage;
+import org.apache.cxf.binding.soap.saaj.SAAJInInterceptor;
+import org.apache.cxf.headers.Header;
 import org.apache.cxf.helpers.CastUtils;
+import org.apache.cxf.helpers.DOMUtils;
+import org.apache.cxf.message.ExchangeImpl;
 import org.apache.cxf.staxutils.StaxUtils;
 
 import org.junit.Assert;
@@ -45,6 +56,17 @@ public class ReadHeadersInterceptorTest extends Assert {
             + "<ns2:payload xmlns:ns2='urn:tmp:foo'/>"
             + "</soap:Body>"
             + "</soap:Envelope>").getBytes();
+    private static final byte[] TEST_SOAP_HEADERS =
+        ("<soap:Envelope xmlns:soap='http://schemas.xmlsoap.org/soap/envelope/'"
+            + " xmlns:xs='http://www.w3.org/2001/XMLSchema' xmlns:bar='tmp:bar'>"
+            + "<soap:Header bar:common='c'>"
+            + "<bar:first soap:mustUnderstand='1' soap:actor='urn:actor'>xs:string</bar:first>"
+            + "<second xmlns='urn:tmp:second'><child bar:attr='a'/></second>"
+            + "</soap:Header>"
+            + "<soap:Body>"
+            + "<ns2:payload xmlns:ns2='urn:tmp:foo'/>"
+            + "</soap:Body>"
+            + "</soap:Envelope>").getBytes();
 
     private ReadHeadersInterceptor interceptor;
 
@@ -74,9 +96,82 @@ public class ReadHeadersInterceptorTest extends Assert {
 
     }
 
+    @Test
+    public void testLazyHeaders() throws Exception {
+        SoapMessage message = setUpMessage(TEST_SOAP_HEADERS);
+        message.put(ReadHeadersInterceptor.LAZY_HEADERS, Boolean.TRUE);
+        interceptor.handleMessage(message);
+        assertNull(message.getContent(Node.class));
+        assertEquals(2, message.getHeaders().size());
+
+        LazySoapHeader first = (LazySoapHeader)message.getHeaders().get(0);
+        LazySoapHeader second = (LazySoapHeader)message.getHeaders().get(1);
+        assertEquals(new QName("tmp:bar", "first"), first.getName());
+        assertTrue(first.isMustUnderstand());
+        assertEquals("urn:actor", first.getActor());
+        assertEquals(new QName("urn:tmp:second", "second"), second.getName());
+        assertFalse(second.isMustUnderstand());
+        assertFalse(first.isParsed());
+        assertFalse(second.isParsed());
+
+        Element el = (Element)first.getObject();
+        assertTrue(first.isParsed());
+        assertFalse(second.isParsed());
+        assertEquals("first", el.getLocalName());
+        assertEquals("c", el.getAttributeNS("tmp:bar", "common"));
+        assertEquals(new QName("http://www.w3.org/2001/XMLSchema", "string"),
+                     DOMUtils.createQName(el.getTextContent(), el));
+
+        el = DOMUtils.getFirstElement(second.getElement());
+        assertEquals("child", el.getLocalName());
+        assertEquals("urn:tmp:second", el.getNamespaceURI());
+        assertEquals("a", el.getAttributeNS("tmp:bar", "attr"));
+
+        XMLStreamReader reader = message.getContent(XMLStreamReader.class);
+        assertEquals("Body", reader.getLocalName());
+    }
+
+    @Test
+    public void testEagerHeaders() throws Exception {
+        SoapMessage message = setUpMessage(TEST_SOAP_HEADERS);
+        interceptor.handleMessage(message);
+        assertNotNull(message.getContent(Node.class));
+        assertEquals(2, message.getHeaders().size());
+        for (Header h : message.getHeaders()) {
+            assertFalse(h instanceof LazySoapHeader);
+            assertTrue(h.getObject() instanceof Element);
+        }
+        assertTrue(((SoapHeader)message.getHeaders().get(0)).isMustUnderstand());
+        assertEquals("Body", message.getContent(XMLStreamReader.class).getLocalName());
+    }
+
+    @Test
+    public void testLazyHeadersInSAAJ() throws Exception {
+        SoapMessage message = setUpMessage(TEST_SOAP_HEADERS);
+        message.put(ReadHeadersInterceptor.LAZY_HEADERS, Boolean.TRUE);
+        message.setExchange(new ExchangeImpl());
+        interceptor.handleMessage(message);
+        new SAAJInInterceptor().handleMessage(message);
+
+        SOAPMessage soapMessage = message.getContent(SOAPMessage.class);
+        Element el = DOMUtils.getFirstElement(soapMessage.getSOAPHeader());
+        assertEquals("first", el.getLocalName());
+        el = DOMUtils.getNextElement(el);
+        assertEquals("second", el.getLocalName());
+        assertNull(DOMUtils.getNextElement(el));
+        assertEquals(2, message.getHeaders().size());
+        for (Header h : message.getHeaders()) {
+            assertFalse(h instanceof LazySoapHeader);
+        }
+    }
+
     private SoapMessage setUpMessage() throws Exception {
+        return setUpMessage(TEST_SOAP);
+    }
+
+    private SoapMessage setUpMessage(byte[] soap) throws Exception {
         SoapMessage message = new SoapMessage(Soap11.getInstance());
-        message.setContent(XMLStreamReader.class, StaxUtils.createXMLStreamReader(new ByteArrayInputStream(TEST_SOAP)));
+        message.setContent(XMLStreamReader.class, StaxUtils.createXMLStreamReader(new ByteArrayInputStream(soap)));
         return message;
     }
 
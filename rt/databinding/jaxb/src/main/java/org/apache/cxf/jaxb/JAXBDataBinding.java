@@ -60,6 +60,8 @@ import javax.xml.transform.dom.DOMSource;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 import org.xml.sax.InputSource;
+import org.apache.cxf.Bus;
+import org.apache.cxf.BusFactory;
 import org.apache.cxf.common.injection.NoJSR250Annotations;
 import org.apache.cxf.common.jaxb.JAXBBeanInfo;
 import org.apache.cxf.common.jaxb.JAXBContextCache;
@@ -108,6 +110,13 @@ public class JAXBDataBinding extends AbstractInterceptorProvidingDataBinding
 
     public static final String JAXB_SCAN_PACKAGES = "jaxb.scanPackages";
 
+    /**
+     * Set to true to go through the marshallers generated by the {@link StaxMarshallerGenerator},
+     * when there are some, rather than through JAXB. As they do not report validation events, they
+     * are only used when {@link #SET_VALIDATION_EVENT_HANDLER} is false as well.
+     */
+    public static final String USE_GENERATED_MARSHALLERS = "jaxb.useGeneratedMarshallers";
+
     private static final Logger LOG = LogUtils.getLogger(JAXBDataBinding.class);
 
     private static final Class<?> SUPPORTED_READER_FORMATS[] = new Class<?>[] {Node.class,
@@ -207,6 +216,9 @@ public class JAXBDataBinding extends AbstractInterceptorProvidingDataBinding
     private boolean scanPackages = true;
     private boolean qualifiedSchemas;
 
+    private final JAXBMarshallerPool marshallerPool = new JAXBMarshallerPool();
+    private Bus configuredBus;
+
     public JAXBDataBinding() {
     }
 
@@ -247,6 +259,32 @@ public class JAXBDataBinding extends AbstractInterceptorProvidingDataBinding
 
     public final void setContext(JAXBContext ctx) {
         context = ctx;
+        marshallerPool.clear();
+    }
+
+    /**
+     * Returns the pool of the Marshallers and Unmarshallers created from the context.
+     */
+    public JAXBMarshallerPool getMarshallerPool() {
+        return marshallerPool;
+    }
+
+    public int getMarshallerPoolSize() {
+        return marshallerPool.getMaxSize();
+    }
+
+    /**
+     * Sets the maximum number of pooled Marshallers, and of pooled Unmarshallers, 0 disables
+     * the pooling.
+     */
+    public void setMarshallerPoolSize(int size) {
+        marshallerPool.setMaxSize(size);
+    }
+
+    @Override
+    public void setBus(Bus bus) {
+        super.setBus(bus);
+        configuredBus = bus;
     }
 
     @SuppressWarnings("unchecked")
@@ -302,6 +340,11 @@ public class JAXBDataBinding extends AbstractInterceptorProvidingDataBinding
         inInterceptors.addIfAbsent(JAXBAttachmentSchemaValidationHack.INSTANCE);
         inFaultInterceptors.addIfAbsent(JAXBAttachmentSchemaValidationHack.INSTANCE);
 
+        Bus bus = configuredBus != null ? configuredBus : BusFactory.getThreadDefaultBus(false);
+        if (bus != null) {
+            marshallerPool.register(bus, service);
+        }
+
         // context is already set, don't redo it
         if (context != null) {
             return;
@@ -522,6 +565,7 @@ public class JAXBDataBinding extends AbstractInterceptorProvidingDataBinding
 
     public void setConfiguredXmlAdapters(List<XmlAdapter<?, ?>> adpters) {
         this.adapters = adpters;
+        marshallerPool.clear();
     }
 
     /**
@@ -544,6 +588,7 @@ public class JAXBDataBinding extends AbstractInterceptorProvidingDataBinding
      */
     public void setMarshallerProperties(Map<String, Object> marshallerProperties) {
         this.marshallerProperties = marshallerProperties;
+        marshallerPool.clear();
     }
 
 
@@ -567,6 +612,7 @@ public class JAXBDataBinding extends AbstractInterceptorProvidingDataBinding
      */
     public void setUnmarshallerProperties(Map<String, Object> unmarshallerProperties) {
         this.unmarshallerProperties = unmarshallerProperties;
+        marshallerPool.clear();
     }
 
     /**
@@ -583,6 +629,7 @@ public class JAXBDataBinding extends AbstractInterceptorProvidingDataBinding
      */
     public void setUnmarshallerListener(Unmarshaller.Listener unmarshallerListener) {
         this.unmarshallerListener = unmarshallerListener;
+        marshallerPool.clear();
     }
     /**
      * Returns the Marshaller.Listener that will be registered on the Marshallers
@@ -598,8 +645,35 @@ public class JAXBDataBinding extends AbstractInterceptorProvidingDataBinding
      */
     public void setMarshallerListener(Marshaller.Listener marshallerListener) {
         this.marshallerListener = marshallerListener;
+        marshallerPool.clear();
     }
 
+    /**
+     * Returns true if none of the settings only a JAXB Marshaller or Unmarshaller can honour
+     * is configured on the databinding, so that the generated marshallers may be used. The
+     * readers and writers also check the validation event handler of the message.
+     */
+    public boolean isGeneratedMarshallersAllowed() {
+        if (!adapters.isEmpty() || marshallerListener != null || unmarshallerListener != null
+            || getDeclaredNamespaceMappings() != null || getContextualNamespaceMap() != null) {
+            return false;
+        }
+        return (marshallerProperties == null || marshallerProperties.isEmpty())
+            && (unmarshallerProperties == null || unmarshallerProperties.isEmpty());
+    }
+
+
+    @Override
+    public void setNamespaceMap(Map<String, String> namespaceMap) {
+        super.setNamespaceMap(namespaceMap);
+        marshallerPool.clear();
+    }
+
+    @Override
+    public void setContextualNamespaceMap(Map<String, String> contextualNamespaceMap) {
+        super.setContextualNamespaceMap(contextualNamespaceMap);
+        marshallerPool.clear();
+    }
 
     public ValidationEventHandler getValidationEventHandler() {
         return validationEventHandler;
@@ -0,0 +1,338 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.jaxb;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.namespace.QName;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.buslifecycle.BusLifeCycleListener;
+import org.apache.cxf.buslifecycle.BusLifeCycleManager;
+import org.apache.cxf.common.logging.LogUtils;
+import org.apache.cxf.endpoint.Server;
+import org.apache.cxf.endpoint.ServerLifeCycleListener;
+import org.apache.cxf.endpoint.ServerLifeCycleManager;
+import org.apache.cxf.management.InstrumentationManager;
+import org.apache.cxf.management.ManagedComponent;
+import org.apache.cxf.management.ManagementConstants;
+import org.apache.cxf.management.annotation.ManagedAttribute;
+import org.apache.cxf.management.annotation.ManagedOperation;
+import org.apache.cxf.management.annotation.ManagedResource;
+import org.apache.cxf.service.Service;
+
+/**
+ * A bounded pool of the Marshallers and Unmarshallers of a {@link JAXBDataBinding}, which are
+ * costly to create. The pooled instances keep the settings of the databinding they were created
+ * with, the per message settings (event handler, schema, attachment marshaller) are cleared when
+ * they are handed back. The databinding clears the pool whenever its settings or its context
+ * change. A maximum size of 0 disables the pooling.
+ * <p>
+ * Once registered with the InstrumentationManager of a bus, the pool stays registered until the
+ * bus shuts down, until a server of the service it was registered for is stopped, or until
+ * {@link #unregister()} is called, whichever comes first. Restarting a stopped server does not
+ * register the pool again.
+ */
+@ManagedResource(componentName = "JAXBMarshallerPool",
+                 description = "The pool of the Marshallers and Unmarshallers of a JAXB databinding",
+                 currencyTimeLimit = 15, persistPolicy = "OnUpdate", persistPeriod = 200)
+public class JAXBMarshallerPool implements ManagedComponent {
+    public static final int DEFAULT_MAX_SIZE = 16;
+
+    private static final Logger LOG = LogUtils.getL7dLogger(JAXBMarshallerPool.class);
+    private static final String TYPE_VALUE = "JAXBMarshallerPool";
+
+    private final Pool<Marshaller> marshallers = new Pool<>();
+    private final Pool<Unmarshaller> unmarshallers = new Pool<>();
+    private volatile int maxSize;
+    private String busId = Bus.DEFAULT_BUS_ID;
+    private QName serviceName;
+    private Registration registration;
+
+    public JAXBMarshallerPool() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    public JAXBMarshallerPool(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Registers the pool with the InstrumentationManager of the bus, if any, for the given
+     * service. Does nothing if the pool is registered already.
+     */
+    public synchronized void register(Bus bus, Service service) {
+        if (registration != null) {
+            return;
+        }
+        InstrumentationManager manager = bus.getExtension(InstrumentationManager.class);
+        if (manager == null) {
+            return;
+        }
+        busId = bus.getId();
+        serviceName = service.getName();
+        try {
+            manager.register(this);
+        } catch (JMException jmex) {
+            LOG.log(Level.WARNING, jmex.getMessage(), jmex);
+            return;
+        }
+        registration = new Registration(bus, manager, service);
+    }
+
+    /**
+     * Unregisters the pool from the InstrumentationManager it was registered with, if any.
+     */
+    public synchronized void unregister() {
+        if (registration == null) {
+            return;
+        }
+        Registration r = registration;
+        registration = null;
+        r.close();
+        try {
+            r.manager.unregister(this);
+        } catch (JMException jmex) {
+            LOG.log(Level.FINE, jmex.getMessage(), jmex);
+        }
+    }
+
+    public synchronized boolean isRegistered() {
+        return registration != null;
+    }
+
+    /**
+     * Returns a pooled Marshaller, null if there is none.
+     */
+    public Marshaller pollMarshaller() {
+        return marshallers.poll(maxSize);
+    }
+
+    /**
+     * Returns a pooled Unmarshaller, null if there is none.
+     */
+    public Unmarshaller pollUnmarshaller() {
+        return unmarshallers.poll(maxSize);
+    }
+
+    /**
+     * Clears the per message settings of the Marshaller and hands it back to the pool, unless
+     * the pool is full.
+     */
+    public void release(Marshaller m) {
+        try {
+            m.setEventHandler(null);
+            m.setSchema(null);
+            m.setAttachmentMarshaller(null);
+        } catch (JAXBException | RuntimeException ex) {
+            marshallers.discarded.incrementAndGet();
+            return;
+        }
+        marshallers.offer(m, maxSize);
+    }
+
+    /**
+     * Clears the per message settings of the Unmarshaller and hands it back to the pool, unless
+     * the pool is full.
+     */
+    public void release(Unmarshaller u) {
+        try {
+            u.setEventHandler(null);
+            u.setSchema(null);
+            u.setAttachmentUnmarshaller(null);
+        } catch (JAXBException | RuntimeException ex) {
+            unmarshallers.discarded.incrementAndGet();
+            return;
+        }
+        unmarshallers.offer(u, maxSize);
+    }
+
+    @ManagedAttribute(description = "The maximum number of pooled Marshallers, and of pooled Unmarshallers")
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    @ManagedAttribute(description = "The maximum number of pooled Marshallers, and of pooled Unmarshallers")
+    public void setMaxSize(int maxSize) {
+        boolean shrinks = maxSize < this.maxSize;
+        this.maxSize = maxSize;
+        if (shrinks) {
+            clear();
+        }
+    }
+
+    @ManagedAttribute(description = "The number of Marshallers currently available in the pool")
+    public int getAvailableMarshallers() {
+        return marshallers.pooled.get();
+    }
+
+    @ManagedAttribute(description = "The number of Marshallers served from the pool")
+    public long getMarshallerHits() {
+        return marshallers.hits.get();
+    }
+
+    @ManagedAttribute(description = "The number of Marshallers created because the pool was empty")
+    public long getMarshallerMisses() {
+        return marshallers.misses.get();
+    }
+
+    @ManagedAttribute(description = "The number of Marshallers dropped because the pool was full")
+    public long getDiscardedMarshallers() {
+        return marshallers.discarded.get();
+    }
+
+    @ManagedAttribute(description = "The number of Unmarshallers currently available in the pool")
+    public int getAvailableUnmarshallers() {
+        return unmarshallers.pooled.get();
+    }
+
+    @ManagedAttribute(description = "The number of Unmarshallers served from the pool")
+    public long getUnmarshallerHits() {
+        return unmarshallers.hits.get();
+    }
+
+    @ManagedAttribute(description = "The number of Unmarshallers created because the pool was empty")
+    public long getUnmarshallerMisses() {
+        return unmarshallers.misses.get();
+    }
+
+    @ManagedAttribute(description = "The number of Unmarshallers dropped because the pool was full")
+    public long getDiscardedUnmarshallers() {
+        return unmarshallers.discarded.get();
+    }
+
+    @ManagedOperation(description = "Drop all the pooled Marshallers and Unmarshallers")
+    public void clear() {
+        marshallers.clear();
+        unmarshallers.clear();
+    }
+
+    public ObjectName getObjectName() throws JMException {
+        StringBuilder buffer = new StringBuilder();
+        buffer.append(ManagementConstants.DEFAULT_DOMAIN_NAME).append(':');
+        buffer.append(ManagementConstants.BUS_ID_PROP).append('=').append(busId).append(',');
+        buffer.append(ManagementConstants.TYPE_PROP).append('=').append(TYPE_VALUE).append(',');
+        if (serviceName != null) {
+            buffer.append(ManagementConstants.SERVICE_NAME_PROP).append('=')
+                .append(ObjectName.quote(serviceName.toString())).append(',');
+        }
+        buffer.append(ManagementConstants.INSTANCE_ID_PROP).append('=').append(hashCode());
+        return new ObjectName(buffer.toString());
+    }
+
+    /**
+     * Ties the registration of the pool to the life cycle of the bus and of the servers of the
+     * service. The listeners are removed again when the pool is unregistered, so that neither
+     * manager keeps the pool, its (Un)Marshallers and their JAXBContext reachable.
+     */
+    private final class Registration implements BusLifeCycleListener, ServerLifeCycleListener {
+        final InstrumentationManager manager;
+        final Service service;
+        final BusLifeCycleManager busLifeCycleManager;
+        final ServerLifeCycleManager serverLifeCycleManager;
+
+        Registration(Bus bus, InstrumentationManager manager, Service service) {
+            this.manager = manager;
+            this.service = service;
+            busLifeCycleManager = bus.getExtension(BusLifeCycleManager.class);
+            if (busLifeCycleManager != null) {
+                busLifeCycleManager.registerLifeCycleListener(this);
+            }
+            serverLifeCycleManager = bus.getExtension(ServerLifeCycleManager.class);
+            if (serverLifeCycleManager != null) {
+                serverLifeCycleManager.registerListener(this);
+            }
+        }
+
+        void close() {
+            if (busLifeCycleManager != null) {
+                busLifeCycleManager.unregisterLifeCycleListener(this);
+            }
+            if (serverLifeCycleManager != null) {
+                serverLifeCycleManager.unRegisterListener(this);
+            }
+        }
+
+        public void initComplete() {
+            // nothing
+        }
+
+        public void preShutdown() {
+            unregister();
+        }
+
+        public void postShutdown() {
+            // nothing
+        }
+
+        public void startServer(Server server) {
+            // nothing
+        }
+
+        public void stopServer(Server server) {
+            if (server.getEndpoint() != null && server.getEndpoint().getService() == service) {
+                unregister();
+            }
+        }
+    }
+
+    private static final class Pool<T> {
+        final Queue<T> instances = new ConcurrentLinkedQueue<>();
+        final AtomicInteger pooled = new AtomicInteger();
+        final AtomicLong hits = new AtomicLong();
+        final AtomicLong misses = new AtomicLong();
+        final AtomicLong discarded = new AtomicLong();
+
+        T poll(int maxSize) {
+            T t = maxSize > 0 ? instances.poll() : null;
+            if (t == null) {
+                misses.incrementAndGet();
+            } else {
+                pooled.decrementAndGet();
+                hits.incrementAndGet();
+            }
+            return t;
+        }
+
+        void offer(T t, int maxSize) {
+            if (pooled.incrementAndGet() > maxSize) {
+                pooled.decrementAndGet();
+                discarded.incrementAndGet();
+                return;
+            }
+            instances.offer(t);
+        }
+
+        void clear() {
+            while (instances.poll() != null) {
+                pooled.decrementAndGet();
+            }
+        }
+    }
+}
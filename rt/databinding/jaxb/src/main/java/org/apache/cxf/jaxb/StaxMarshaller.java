@@ -0,0 +1,44 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.jaxb;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * Reads and writes the instances of a JAXB bean straight from and to StAX, without going through
+ * a JAXB Marshaller or Unmarshaller. Implementations are generated at build time by the
+ * {@link StaxMarshallerGenerator} and are named after the bean class with a
+ * {@link StaxMarshallerSupport#CLASS_SUFFIX} suffix.
+ */
+public interface StaxMarshaller<T> {
+
+    /**
+     * Writes the bean as an element of the given name.
+     */
+    void write(T obj, QName name, XMLStreamWriter writer) throws XMLStreamException;
+
+    /**
+     * Reads the bean from the element the reader is positioned on, leaving the reader on the
+     * event following the end of that element, as an Unmarshaller does.
+     */
+    T read(XMLStreamReader reader) throws XMLStreamException;
+}
@@ -0,0 +1,572 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.jaxb;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlEnum;
+import javax.xml.bind.annotation.XmlNsForm;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlSchema;
+import javax.xml.bind.annotation.XmlSchemaType;
+import javax.xml.bind.annotation.XmlSeeAlso;
+import javax.xml.bind.annotation.XmlTransient;
+import javax.xml.bind.annotation.XmlType;
+
+import org.apache.cxf.common.logging.LogUtils;
+
+/**
+ * Generates the source of a {@link StaxMarshaller} for each of the JAXB beans it is given which
+ * it can fully handle, typically the beans generated by wsdl2java or xjc. These are beans using
+ * field access, without super classes, whose fields are of simple types, enums, other such beans,
+ * or lists of those. The others, and the beans depending on them, are left to JAXB.
+ *
+ * The generated sources are meant to be compiled next to the beans, as the marshallers access the
+ * fields of the beans directly.
+ */
+public class StaxMarshallerGenerator {
+    private static final Logger LOG = LogUtils.getL7dLogger(StaxMarshallerGenerator.class);
+
+    private static final String DEFAULT = "##default";
+    private static final String SUPPORT = "StaxMarshallerSupport";
+    private static final Pattern DEFAULT_NAME = Pattern.compile("[a-z]+[0-9]*([A-Z][a-z]+[0-9]*)*");
+    private static final Map<Class<?>, String[]> SIMPLE_TYPES = new HashMap<>();
+    static {
+        simpleType("%s", "%s", String.class);
+        simpleType("Integer.toString(%s)", SUPPORT + ".parseInt(%s)", Integer.TYPE, Integer.class);
+        simpleType("Long.toString(%s)", SUPPORT + ".parseLong(%s)", Long.TYPE, Long.class);
+        simpleType("Short.toString(%s)", SUPPORT + ".parseShort(%s)", Short.TYPE, Short.class);
+        simpleType("Byte.toString(%s)", SUPPORT + ".parseByte(%s)", Byte.TYPE, Byte.class);
+        simpleType("Boolean.toString(%s)", SUPPORT + ".parseBoolean(%s)", Boolean.TYPE, Boolean.class);
+        simpleType(SUPPORT + ".printDouble(%s)", SUPPORT + ".parseDouble(%s)", Double.TYPE, Double.class);
+        simpleType(SUPPORT + ".printFloat(%s)", SUPPORT + ".parseFloat(%s)", Float.TYPE, Float.class);
+        simpleType("%s.toPlainString()", "new java.math.BigDecimal(%s.trim())", BigDecimal.class);
+        simpleType("%s.toString()", "new java.math.BigInteger(%s.trim())", BigInteger.class);
+    }
+
+    private final Map<Class<?>, List<Property>> beans = new LinkedHashMap<>();
+
+    public StaxMarshallerGenerator(Collection<Class<?>> classes) {
+        for (Class<?> cls : classes) {
+            try {
+                List<Property> properties = introspect(cls, classes);
+                if (properties != null) {
+                    beans.put(cls, properties);
+                }
+            } catch (LinkageError e) {
+                skip(cls, "it could not be introspected: " + e);
+            }
+        }
+        // drop the beans referring to the beans left to JAXB, until there are none
+        boolean removed = true;
+        while (removed) {
+            removed = false;
+            for (Iterator<Map.Entry<Class<?>, List<Property>>> it = beans.entrySet().iterator(); it.hasNext();) {
+                Map.Entry<Class<?>, List<Property>> entry = it.next();
+                for (Property p : entry.getValue()) {
+                    if (!isSimpleType(p.type) && !beans.containsKey(p.type)) {
+                        skip(entry.getKey(), "it refers to " + p.type.getName());
+                        it.remove();
+                        removed = true;
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    private static void simpleType(String print, String parse, Class<?>... types) {
+        for (Class<?> type : types) {
+            SIMPLE_TYPES.put(type, new String[] {print, parse});
+        }
+    }
+
+    /**
+     * Returns the beans a marshaller is generated for.
+     */
+    public Set<Class<?>> getClasses() {
+        return beans.keySet();
+    }
+
+    /**
+     * Writes the source of the marshallers under the directory, returning the files written.
+     */
+    public List<File> generate(File sourceDir) throws IOException {
+        List<File> files = new ArrayList<>(beans.size());
+        for (Class<?> cls : beans.keySet()) {
+            String pkg = cls.getPackage() == null ? "" : cls.getPackage().getName();
+            File dir = pkg.isEmpty() ? sourceDir : new File(sourceDir, pkg.replace('.', File.separatorChar));
+            if (!dir.isDirectory() && !dir.mkdirs()) {
+                throw new IOException("Could not create " + dir);
+            }
+            File file = new File(dir, getMarshallerName(cls) + ".java");
+            try (Writer writer = new OutputStreamWriter(Files.newOutputStream(file.toPath()),
+                                                        StandardCharsets.UTF_8)) {
+                writer.write(generate(cls));
+            }
+            files.add(file);
+        }
+        return files;
+    }
+
+    /**
+     * Returns the source of the marshaller of the bean.
+     */
+    public String generate(Class<?> cls) {
+        List<Property> properties = beans.get(cls);
+        if (properties == null) {
+            throw new IllegalArgumentException(cls.getName() + " is left to JAXB");
+        }
+        String type = cls.getCanonicalName();
+        StringBuilder b = new StringBuilder(4096);
+        if (cls.getPackage() != null) {
+            b.append("package ").append(cls.getPackage().getName()).append(";\n\n");
+        }
+        b.append("import javax.xml.namespace.QName;\n")
+            .append("import javax.xml.stream.XMLStreamException;\n")
+            .append("import javax.xml.stream.XMLStreamReader;\n")
+            .append("import javax.xml.stream.XMLStreamWriter;\n\n")
+            .append("import org.apache.cxf.jaxb.StaxMarshaller;\n")
+            .append("import org.apache.cxf.jaxb.StaxMarshallerSupport;\n\n")
+            .append("/**\n * Generated by the ").append(StaxMarshallerGenerator.class.getName())
+            .append(", do not edit.\n */\n")
+            .append("public final class ").append(getMarshallerName(cls))
+            .append(" implements StaxMarshaller<").append(type).append("> {\n");
+        for (Property p : properties) {
+            if (!isSimpleType(p.type)) {
+                b.append("    private static final QName ").append(p.constant()).append(" = new QName(")
+                    .append(literal(p.namespace)).append(", ").append(literal(p.name)).append(");\n");
+            }
+        }
+        b.append('\n');
+
+        b.append("    public void write(").append(type)
+            .append(" obj, QName name, XMLStreamWriter writer) throws XMLStreamException {\n")
+            .append("        " + SUPPORT + ".writeStartElement(writer, name);\n");
+        for (Property p : properties) {
+            if (p.attribute) {
+                writeAttribute(b, p);
+            }
+        }
+        for (Property p : properties) {
+            if (!p.attribute) {
+                writeElement(b, p);
+            }
+        }
+        b.append("        writer.writeEndElement();\n    }\n\n");
+
+        b.append("    public ").append(type)
+            .append(" read(XMLStreamReader reader) throws XMLStreamException {\n")
+            .append("        ").append(type).append(" obj = new ").append(type).append("();\n")
+            .append("        String value;\n");
+        for (Property p : properties) {
+            if (p.attribute) {
+                b.append("        value = " + SUPPORT + ".getAttributeValue(reader, ")
+                    .append(literal(p.namespace)).append(", ").append(literal(p.name)).append(");\n")
+                    .append("        if (value != null) {\n")
+                    .append("            obj.").append(p.field).append(" = ").append(parse(p.type, "value"))
+                    .append(";\n        }\n");
+            }
+        }
+        b.append("        reader.next();\n")
+            .append("        while (" + SUPPORT + ".nextElement(reader)) {\n")
+            .append("            String ns = " + SUPPORT + ".getNamespaceURI(reader);\n")
+            .append("            String local = reader.getLocalName();\n")
+            .append("            ");
+        for (Property p : properties) {
+            if (!p.attribute) {
+                readElement(b, p);
+            }
+        }
+        b.append("{\n                " + SUPPORT + ".skipElement(reader);\n            }\n")
+            .append("        }\n")
+            .append("        reader.next();\n")
+            .append("        return obj;\n    }\n}\n");
+        return b.toString();
+    }
+
+    private static void writeAttribute(StringBuilder b, Property p) {
+        String value = "obj." + p.field;
+        String indent = "        ";
+        if (!p.type.isPrimitive()) {
+            b.append("        if (").append(value).append(" != null) {\n");
+            indent = "            ";
+        }
+        b.append(indent).append(SUPPORT + ".writeAttribute(writer, ").append(literal(p.namespace))
+            .append(", ").append(literal(p.name)).append(", ").append(print(p.type, value)).append(");\n");
+        if (!p.type.isPrimitive()) {
+            b.append("        }\n");
+        }
+    }
+
+    private static void writeElement(StringBuilder b, Property p) {
+        String indent = "        ";
+        String value = "obj." + p.field;
+        if (p.list) {
+            b.append("        if (").append(value).append(" != null) {\n")
+                .append("            for (").append(p.type.getCanonicalName()).append(" item : ")
+                .append(value).append(") {\n");
+            indent = "                ";
+            value = "item";
+        }
+        if (p.type.isPrimitive()) {
+            writeValue(b, p, indent, value);
+        } else {
+            b.append(indent).append("if (").append(value).append(" != null) {\n");
+            writeValue(b, p, indent + "    ", value);
+            if (p.nillable) {
+                b.append(indent).append("} else {\n")
+                    .append(indent).append("    " + SUPPORT + ".writeNil(writer, ")
+                    .append(literal(p.namespace)).append(", ").append(literal(p.name)).append(");\n");
+            }
+            b.append(indent).append("}\n");
+        }
+        if (p.list) {
+            b.append("            }\n        }\n");
+        }
+    }
+
+    private static void writeValue(StringBuilder b, Property p, String indent, String value) {
+        if (isSimpleType(p.type)) {
+            b.append(indent).append(SUPPORT + ".writeElement(writer, ").append(literal(p.namespace))
+                .append(", ").append(literal(p.name)).append(", ").append(print(p.type, value)).append(");\n");
+        } else {
+            b.append(indent).append(getMarshaller(p.type)).append(".write(")
+                .append(value).append(", ").append(p.constant()).append(", writer);\n");
+        }
+    }
+
+    private static void readElement(StringBuilder b, Property p) {
+        b.append("if (").append(literal(p.name)).append(".equals(local) && ")
+            .append(literal(p.namespace)).append(".equals(ns)) {\n");
+        String target = "obj." + p.field + " = ";
+        if (p.list) {
+            b.append("                if (obj.").append(p.field).append(" == null) {\n")
+                .append("                    obj.").append(p.field).append(" = new java.util.ArrayList<")
+                .append(p.type.getCanonicalName()).append(">();\n")
+                .append("                }\n");
+            target = "obj." + p.field + ".add(";
+        }
+        String end = p.list ? ");\n" : ";\n";
+        if (isSimpleType(p.type)) {
+            b.append("                value = " + SUPPORT + ".readText(reader);\n")
+                .append("                if (value != null) {\n")
+                .append("                    ").append(target).append(parse(p.type, "value")).append(end)
+                .append("                }\n");
+        } else {
+            b.append("                if (!" + SUPPORT + ".skipNil(reader)) {\n")
+                .append("                    ").append(target).append(getMarshaller(p.type))
+                .append(".read(reader)").append(end)
+                .append("                }\n");
+        }
+        b.append("            } else ");
+    }
+
+    private static String print(Class<?> type, String value) {
+        if (type.isEnum()) {
+            return value + ".value()";
+        }
+        return String.format(SIMPLE_TYPES.get(type)[0], value);
+    }
+
+    private static String parse(Class<?> type, String value) {
+        if (type.isEnum()) {
+            return type.getCanonicalName() + ".fromValue(" + value + ".trim())";
+        }
+        return String.format(SIMPLE_TYPES.get(type)[1], value);
+    }
+
+    private static boolean isSimpleType(Class<?> type) {
+        return SIMPLE_TYPES.containsKey(type) || isEnumType(type);
+    }
+
+    private static boolean isEnumType(Class<?> type) {
+        if (!type.isEnum() || type.getAnnotation(XmlEnum.class) == null) {
+            return false;
+        }
+        try {
+            Method value = type.getMethod("value");
+            Method fromValue = type.getMethod("fromValue", String.class);
+            return value.getReturnType() == String.class && Modifier.isStatic(fromValue.getModifiers());
+        } catch (NoSuchMethodException ex) {
+            return false;
+        }
+    }
+
+    static String getMarshallerName(Class<?> cls) {
+        String name = cls.getName();
+        return name.substring(name.lastIndexOf('.') + 1) + StaxMarshallerSupport.CLASS_SUFFIX;
+    }
+
+    // the marshallers of the nested beans are the ones StaxMarshallerSupport keeps per class
+    private static String getMarshaller(Class<?> cls) {
+        return SUPPORT + ".getMarshaller(" + cls.getCanonicalName() + ".class)";
+    }
+
+    private static String literal(String s) {
+        StringBuilder b = new StringBuilder(s.length() + 2).append('"');
+        for (char c : s.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                b.append('\\').append(c);
+            } else if (c < 0x20 || c > 0x7e) {
+                b.append(String.format("\\u%04x", (int)c));
+            } else {
+                b.append(c);
+            }
+        }
+        return b.append('"').toString();
+    }
+
+    private static void skip(Class<?> cls, String reason) {
+        if (LOG.isLoggable(Level.FINE)) {
+            LOG.fine("No marshaller is generated for " + cls.getName() + " as " + reason);
+        }
+    }
+
+    private static List<Property> introspect(Class<?> cls, Collection<Class<?>> classes) {
+        if (cls.getAnnotation(XmlType.class) == null && cls.getAnnotation(XmlRootElement.class) == null
+            || cls.isInterface() || cls.isEnum() || cls.isArray()) {
+            return null;
+        }
+        String reason = checkClass(cls, classes);
+        if (reason != null) {
+            skip(cls, reason);
+            return null;
+        }
+        XmlType xmlType = cls.getAnnotation(XmlType.class);
+        XmlSchema schema = cls.getPackage() == null ? null : cls.getPackage().getAnnotation(XmlSchema.class);
+        String typeNs = xmlType == null ? DEFAULT : xmlType.namespace();
+        if (DEFAULT.equals(typeNs)) {
+            typeNs = schema == null ? "" : schema.namespace();
+        }
+        String elementNs = schema != null && schema.elementFormDefault() == XmlNsForm.QUALIFIED ? typeNs : "";
+        String attributeNs = schema != null && schema.attributeFormDefault() == XmlNsForm.QUALIFIED ? typeNs : "";
+
+        Map<String, Property> properties = new LinkedHashMap<>();
+        for (Field f : cls.getDeclaredFields()) {
+            int mod = f.getModifiers();
+            if (Modifier.isStatic(mod) || Modifier.isTransient(mod) || f.getAnnotation(XmlTransient.class) != null) {
+                continue;
+            }
+            for (Annotation a : f.getAnnotations()) {
+                Class<?> at = a.annotationType();
+                if (at.getName().startsWith("javax.xml.bind.annotation.") && at != XmlElement.class
+                    && at != XmlAttribute.class && at != XmlSchemaType.class) {
+                    skip(cls, f.getName() + " is annotated with " + at.getSimpleName());
+                    return null;
+                }
+            }
+            if (Modifier.isPrivate(mod) || Modifier.isFinal(mod)) {
+                skip(cls, f.getName() + " is not accessible");
+                return null;
+            }
+            Property p = introspect(f, elementNs, attributeNs, classes);
+            if (p == null) {
+                skip(cls, "the type of " + f.getName() + " is not supported");
+                return null;
+            }
+            properties.put(f.getName(), p);
+        }
+
+        List<Property> ordered = new ArrayList<>(properties.size());
+        if (xmlType != null && !Arrays.equals(xmlType.propOrder(), new String[] {""})) {
+            for (String name : xmlType.propOrder()) {
+                Property p = properties.remove(name);
+                if (p == null || p.attribute) {
+                    skip(cls, "its property order does not match its fields");
+                    return null;
+                }
+                ordered.add(p);
+            }
+            for (Property p : properties.values()) {
+                if (!p.attribute) {
+                    skip(cls, "its property order does not match its fields");
+                    return null;
+                }
+            }
+        }
+        ordered.addAll(properties.values());
+        for (int i = 0; i < ordered.size(); i++) {
+            ordered.get(i).index = i;
+        }
+        return ordered;
+    }
+
+    private static String checkClass(Class<?> cls, Collection<Class<?>> classes) {
+        if (Modifier.isAbstract(cls.getModifiers()) || Modifier.isPrivate(cls.getModifiers())
+            || cls.getEnclosingClass() != null && !Modifier.isStatic(cls.getModifiers())
+            || cls.isAnonymousClass() || cls.isLocalClass()) {
+            return "it cannot be instantiated";
+        }
+        if (cls.getSuperclass() != Object.class || cls.getAnnotation(XmlSeeAlso.class) != null) {
+            return "it is part of a class hierarchy";
+        }
+        for (Class<?> c : classes) {
+            if (c.getSuperclass() == cls) {
+                return "it is part of a class hierarchy";
+            }
+        }
+        XmlAccessorType access = cls.getAnnotation(XmlAccessorType.class);
+        if (access == null && cls.getPackage() != null) {
+            access = cls.getPackage().getAnnotation(XmlAccessorType.class);
+        }
+        if (access == null || access.value() != XmlAccessType.FIELD) {
+            return "it does not use field access";
+        }
+        XmlType xmlType = cls.getAnnotation(XmlType.class);
+        if (xmlType != null && (xmlType.factoryClass() != XmlType.DEFAULT.class
+            || !xmlType.factoryMethod().isEmpty())) {
+            return "it is created by a factory";
+        }
+        for (Annotation a : cls.getAnnotations()) {
+            if (isOrderOrAdapter(a)) {
+                return "it is annotated with " + a.annotationType().getSimpleName();
+            }
+        }
+        if (cls.getPackage() != null) {
+            for (Annotation a : cls.getPackage().getAnnotations()) {
+                if (isOrderOrAdapter(a)) {
+                    return "its package is annotated with " + a.annotationType().getSimpleName();
+                }
+            }
+        }
+        for (Method m : cls.getDeclaredMethods()) {
+            for (Annotation a : m.getAnnotations()) {
+                if (a.annotationType().getName().startsWith("javax.xml.bind.annotation.")) {
+                    return "its method " + m.getName() + " is annotated with "
+                        + a.annotationType().getSimpleName();
+                }
+            }
+        }
+        try {
+            Constructor<?> c = cls.getDeclaredConstructor();
+            if (Modifier.isPrivate(c.getModifiers())) {
+                return "it has no accessible default constructor";
+            }
+        } catch (NoSuchMethodException ex) {
+            return "it has no default constructor";
+        }
+        return null;
+    }
+
+    private static boolean isOrderOrAdapter(Annotation a) {
+        String name = a.annotationType().getName();
+        return name.startsWith("javax.xml.bind.annotation.adapters.")
+            || "javax.xml.bind.annotation.XmlAccessorOrder".equals(name);
+    }
+
+    private static Property introspect(Field f, String elementNs, String attributeNs,
+                                       Collection<Class<?>> classes) {
+        Property p = new Property();
+        p.field = f.getName();
+        p.type = f.getType();
+        if (List.class.isAssignableFrom(p.type)) {
+            Type t = f.getGenericType();
+            if (!p.type.isAssignableFrom(ArrayList.class) || !(t instanceof ParameterizedType)
+                || !(((ParameterizedType)t).getActualTypeArguments()[0] instanceof Class)) {
+                return null;
+            }
+            p.list = true;
+            p.type = (Class<?>)((ParameterizedType)t).getActualTypeArguments()[0];
+        }
+        if (!isSimpleType(p.type) && !classes.contains(p.type)) {
+            return null;
+        }
+
+        XmlAttribute attribute = f.getAnnotation(XmlAttribute.class);
+        XmlElement element = f.getAnnotation(XmlElement.class);
+        String name = DEFAULT;
+        if (attribute != null) {
+            if (p.list || !isSimpleType(p.type)) {
+                return null;
+            }
+            p.attribute = true;
+            name = attribute.name();
+            p.namespace = DEFAULT.equals(attribute.namespace()) ? attributeNs : attribute.namespace();
+        } else {
+            p.namespace = elementNs;
+            if (element != null) {
+                if (element.type() != XmlElement.DEFAULT.class || !"\u0000".equals(element.defaultValue())) {
+                    return null;
+                }
+                name = element.name();
+                p.nillable = element.nillable();
+                if (!DEFAULT.equals(element.namespace())) {
+                    p.namespace = element.namespace();
+                }
+            }
+        }
+        if (DEFAULT.equals(name)) {
+            // only the names JAXB keeps as they are
+            if (!DEFAULT_NAME.matcher(p.field).matches()) {
+                return null;
+            }
+            name = p.field;
+        }
+        p.name = name;
+        return p;
+    }
+
+    private static class Property {
+        String field;
+        Class<?> type;
+        boolean list;
+        boolean attribute;
+        boolean nillable;
+        String namespace;
+        String name;
+        int index;
+
+        String constant() {
+            // fields only differing in case would otherwise get the same constant
+            return "QNAME_" + index + "_" + field.toUpperCase(Locale.ENGLISH);
+        }
+    }
+}
@@ -0,0 +1,266 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.jaxb;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.xml.XMLConstants;
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.apache.cxf.common.logging.LogUtils;
+import org.apache.cxf.common.util.StringUtils;
+import org.apache.cxf.staxutils.StaxUtils;
+
+/**
+ * Finds the {@link StaxMarshaller} generated for a class, and holds the helpers the generated
+ * marshallers share.
+ */
+public final class StaxMarshallerSupport {
+    public static final String CLASS_SUFFIX = "_StaxMarshaller";
+
+    private static final Logger LOG = LogUtils.getL7dLogger(StaxMarshallerSupport.class);
+    private static final String XSI_PREFIX = "xsi";
+
+    private static final ClassValue<StaxMarshaller<?>> MARSHALLERS = new ClassValue<StaxMarshaller<?>>() {
+        protected StaxMarshaller<?> computeValue(Class<?> type) {
+            ClassLoader loader = type.getClassLoader();
+            if (loader == null || type.isArray() || type.isPrimitive()) {
+                return null;
+            }
+            try {
+                Class<?> cls = Class.forName(type.getName() + CLASS_SUFFIX, true, loader);
+                if (StaxMarshaller.class.isAssignableFrom(cls)) {
+                    return (StaxMarshaller<?>)cls.newInstance();
+                }
+            } catch (ClassNotFoundException ex) {
+                //not generated, JAXB is used
+            } catch (Throwable t) {
+                LOG.log(Level.FINE, "Could not load the marshaller generated for " + type.getName(), t);
+            }
+            return null;
+        }
+    };
+
+    private StaxMarshallerSupport() {
+        //utility class
+    }
+
+    /**
+     * Returns the marshaller generated for the class, null if there is none.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> StaxMarshaller<T> getMarshaller(Class<T> cls) {
+        return (StaxMarshaller<T>)MARSHALLERS.get(cls);
+    }
+
+    public static void writeStartElement(XMLStreamWriter writer, QName name) throws XMLStreamException {
+        writeStartElement(writer, name.getNamespaceURI(), name.getLocalPart());
+    }
+
+    public static void writeStartElement(XMLStreamWriter writer, String ns, String local)
+        throws XMLStreamException {
+        if (ns.isEmpty()) {
+            writer.writeStartElement(local);
+            NamespaceContext nc = writer.getNamespaceContext();
+            String defaultNs = nc == null ? null : nc.getNamespaceURI(XMLConstants.DEFAULT_NS_PREFIX);
+            if (!StringUtils.isEmpty(defaultNs)) {
+                writer.writeDefaultNamespace("");
+                writer.setDefaultNamespace("");
+            }
+            return;
+        }
+        String prefix = writer.getPrefix(ns);
+        if (prefix == null) {
+            prefix = StaxUtils.getUniquePrefix(writer);
+            writer.writeStartElement(prefix, local, ns);
+            writer.writeNamespace(prefix, ns);
+            writer.setPrefix(prefix, ns);
+        } else {
+            writer.writeStartElement(prefix, local, ns);
+        }
+    }
+
+    public static void writeAttribute(XMLStreamWriter writer, String ns, String local, String value)
+        throws XMLStreamException {
+        if (ns.isEmpty()) {
+            writer.writeAttribute(local, value);
+        } else {
+            writer.writeAttribute(getPrefix(writer, ns, null), ns, local, value);
+        }
+    }
+
+    public static void writeElement(XMLStreamWriter writer, String ns, String local, String value)
+        throws XMLStreamException {
+        writeStartElement(writer, ns, local);
+        writer.writeCharacters(value);
+        writer.writeEndElement();
+    }
+
+    public static void writeNil(XMLStreamWriter writer, String ns, String local) throws XMLStreamException {
+        writeStartElement(writer, ns, local);
+        String prefix = getPrefix(writer, XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI, XSI_PREFIX);
+        writer.writeAttribute(prefix, XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI, "nil", "true");
+        writer.writeEndElement();
+    }
+
+    private static String getPrefix(XMLStreamWriter writer, String ns, String preferred)
+        throws XMLStreamException {
+        String prefix = writer.getPrefix(ns);
+        if (StringUtils.isEmpty(prefix)) {
+            NamespaceContext nc = writer.getNamespaceContext();
+            if (preferred != null && (nc == null || nc.getNamespaceURI(preferred) == null
+                || nc.getNamespaceURI(preferred).isEmpty())) {
+                prefix = preferred;
+            } else {
+                prefix = StaxUtils.getUniquePrefix(writer);
+            }
+            writer.writeNamespace(prefix, ns);
+            writer.setPrefix(prefix, ns);
+        }
+        return prefix;
+    }
+
+    /**
+     * Moves the reader to the next child element start, or to the end of the current element,
+     * returning true in the former case.
+     */
+    public static boolean nextElement(XMLStreamReader reader) throws XMLStreamException {
+        int event = reader.getEventType();
+        while (event != XMLStreamConstants.START_ELEMENT && event != XMLStreamConstants.END_ELEMENT) {
+            event = reader.next();
+        }
+        return event == XMLStreamConstants.START_ELEMENT;
+    }
+
+    public static String getNamespaceURI(XMLStreamReader reader) {
+        String ns = reader.getNamespaceURI();
+        return ns == null ? "" : ns;
+    }
+
+    public static String getAttributeValue(XMLStreamReader reader, String ns, String local) {
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            if (local.equals(reader.getAttributeLocalName(i))) {
+                String attNs = reader.getAttributeNamespace(i);
+                if (ns.equals(attNs == null ? "" : attNs)) {
+                    return reader.getAttributeValue(i);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Skips the current element if it is nil, returning true in that case.
+     */
+    public static boolean skipNil(XMLStreamReader reader) throws XMLStreamException {
+        String nil = reader.getAttributeValue(XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI, "nil");
+        if (nil != null && ("true".equals(nil.trim()) || "1".equals(nil.trim()))) {
+            skipElement(reader);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Reads the text of the current element, null if it is nil, and moves past its end.
+     */
+    public static String readText(XMLStreamReader reader) throws XMLStreamException {
+        if (skipNil(reader)) {
+            return null;
+        }
+        String text = reader.getElementText();
+        reader.next();
+        return text;
+    }
+
+    /**
+     * Moves past the end of the current element.
+     */
+    public static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 0;
+        while (true) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT && depth-- == 0) {
+                reader.next();
+                return;
+            }
+        }
+    }
+
+    public static boolean parseBoolean(String s) {
+        String v = s.trim();
+        return "true".equals(v) || "1".equals(v);
+    }
+
+    public static int parseInt(String s) {
+        return Integer.parseInt(s.trim());
+    }
+
+    public static long parseLong(String s) {
+        return Long.parseLong(s.trim());
+    }
+
+    public static short parseShort(String s) {
+        return Short.parseShort(s.trim());
+    }
+
+    public static byte parseByte(String s) {
+        return Byte.parseByte(s.trim());
+    }
+
+    public static double parseDouble(String s) {
+        String v = s.trim();
+        if ("INF".equals(v)) {
+            return Double.POSITIVE_INFINITY;
+        } else if ("-INF".equals(v)) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        return Double.parseDouble(v);
+    }
+
+    public static float parseFloat(String s) {
+        return (float)parseDouble(s);
+    }
+
+    public static String printDouble(double d) {
+        if (d == Double.POSITIVE_INFINITY) {
+            return "INF";
+        } else if (d == Double.NEGATIVE_INFINITY) {
+            return "-INF";
+        }
+        return Double.toString(d);
+    }
+
+    public static String printFloat(float f) {
+        if (f == Float.POSITIVE_INFINITY) {
+            return "INF";
+        } else if (f == Float.NEGATIVE_INFINITY) {
+            return "-INF";
+        }
+        return Float.toString(f);
+    }
+}
@@ -24,6 +24,8 @@ import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import javax.xml.XMLConstants;
+import javax.xml.bind.JAXBElement;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.PropertyException;
 import javax.xml.bind.UnmarshalException;
@@ -32,6 +34,9 @@ import javax.xml.bind.ValidationEvent;
 import javax.xml.bind.ValidationEventHandler;
 import javax.xml.bind.annotation.adapters.XmlAdapter;
 import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 import org.apache.cxf.common.i18n.Message;
 import org.apache.cxf.common.jaxb.JAXBUtils;
@@ -41,9 +46,13 @@ import org.apache.cxf.interceptor.Fault;
 import org.apache.cxf.jaxb.JAXBDataBase;
 import org.apache.cxf.jaxb.JAXBDataBinding;
 import org.apache.cxf.jaxb.JAXBEncoderDecoder;
+import org.apache.cxf.jaxb.StaxMarshaller;
+import org.apache.cxf.jaxb.StaxMarshallerSupport;
+import org.apache.cxf.jaxb.UnmarshallerAwareXMLReader;
 import org.apache.cxf.jaxb.UnmarshallerEventHandler;
 import org.apache.cxf.message.MessageUtils;
 import org.apache.cxf.service.model.MessagePartInfo;
+import org.apache.cxf.staxutils.DepthXMLStreamReader;
 
 public class DataReaderImpl<T> extends JAXBDataBase implements DataReader<T> {
     private static final Logger LOG = LogUtils.getLogger(JAXBDataBinding.class);
@@ -51,6 +60,7 @@ public class DataReaderImpl<T> extends JAXBDataBase implements DataReader<T> {
     boolean unwrapJAXBElement = true;
     ValidationEventHandler veventHandler;
     boolean setEventHandler = true;
+    boolean useGeneratedMarshallers;
 
     public DataReaderImpl(JAXBDataBinding binding, boolean unwrap) {
         super(binding.getContext());
@@ -96,6 +106,8 @@ public class DataReaderImpl<T> extends JAXBDataBase implements DataReader<T> {
             }
             setEventHandler = MessageUtils.getContextualBoolean(m,
                     JAXBDataBinding.SET_VALIDATION_EVENT_HANDLER, true);
+            useGeneratedMarshallers = MessageUtils.getContextualBoolean(m,
+                    JAXBDataBinding.USE_GENERATED_MARSHALLERS, false);
 
             Object unwrapProperty = m.get(JAXBDataBinding.UNWRAP_JAXB_ELEMENT);
             if (unwrapProperty == null) {
@@ -107,31 +119,21 @@ public class DataReaderImpl<T> extends JAXBDataBase implements DataReader<T> {
         }
     }
 
-    private Unmarshaller createUnmarshaller() {
+    /**
+     * Returns an Unmarshaller from the pool of the databinding, or a new one if the pool is
+     * empty or can't be used for this input.
+     */
+    private Unmarshaller createUnmarshaller(T input) {
         try {
-            Unmarshaller um = null;
-            um = context.createUnmarshaller();
-            if (databinding.getUnmarshallerListener() != null) {
-                um.setListener(databinding.getUnmarshallerListener());
+            Unmarshaller um = isPoolable(input) ? databinding.getMarshallerPool().pollUnmarshaller() : null;
+            if (um == null) {
+                um = newUnmarshaller();
             }
             if (setEventHandler) {
                 um.setEventHandler(new WSUIDValidationHandler(veventHandler));
             }
-            if (databinding.getUnmarshallerProperties() != null) {
-                for (Map.Entry<String, Object> propEntry
-                    : databinding.getUnmarshallerProperties().entrySet()) {
-                    try {
-                        um.setProperty(propEntry.getKey(), propEntry.getValue());
-                    } catch (PropertyException pe) {
-                        LOG.log(Level.INFO, "PropertyException setting Marshaller properties", pe);
-                    }
-                }
-            }
             um.setSchema(schema);
             um.setAttachmentUnmarshaller(getAttachmentUnmarshaller());
-            for (XmlAdapter<?, ?> adapter : databinding.getConfiguredXmlAdapters()) {
-                um.setAdapter(adapter);
-            }
             return um;
         } catch (JAXBException ex) {
             if (ex instanceof javax.xml.bind.UnmarshalException) {
@@ -143,6 +145,42 @@ public class DataReaderImpl<T> extends JAXBDataBase implements DataReader<T> {
         }
     }
 
+    /**
+     * Creates an Unmarshaller with the settings of the databinding, which are the same for
+     * every message.
+     */
+    private Unmarshaller newUnmarshaller() throws JAXBException {
+        Unmarshaller um = context.createUnmarshaller();
+        if (databinding.getUnmarshallerListener() != null) {
+            um.setListener(databinding.getUnmarshallerListener());
+        }
+        if (databinding.getUnmarshallerProperties() != null) {
+            for (Map.Entry<String, Object> propEntry
+                : databinding.getUnmarshallerProperties().entrySet()) {
+                try {
+                    um.setProperty(propEntry.getKey(), propEntry.getValue());
+                } catch (PropertyException pe) {
+                    LOG.log(Level.INFO, "PropertyException setting Marshaller properties", pe);
+                }
+            }
+        }
+        for (XmlAdapter<?, ?> adapter : databinding.getConfiguredXmlAdapters()) {
+            um.setAdapter(adapter);
+        }
+        return um;
+    }
+
+    private void releaseUnmarshaller(Unmarshaller um, T input) {
+        if (isPoolable(input)) {
+            databinding.getMarshallerPool().release(um);
+        }
+    }
+
+    private boolean isPoolable(T input) {
+        // the reader may keep the unmarshaller, and the context may have been set on this reader only
+        return context == databinding.getContext() && !(input instanceof UnmarshallerAwareXMLReader);
+    }
+
     public Object read(MessagePartInfo part, T reader) {
         boolean honorJaxbAnnotation = honorJAXBAnnotations(part);
         Annotation[] anns = null;
@@ -167,34 +205,85 @@ public class DataReaderImpl<T> extends JAXBDataBase implements DataReader<T> {
             }
         }
 
-        Unmarshaller um = createUnmarshaller();
+        StaxMarshaller<?> marshaller = getGeneratedMarshaller(part, reader);
+        if (marshaller != null) {
+            Object obj = readGenerated(marshaller, part, (XMLStreamReader)reader);
+            onCompleteUnmarshalling();
+            return obj;
+        }
+
+        Unmarshaller um = createUnmarshaller(reader);
+        boolean reusable = false;
         try {
             Object obj = JAXBEncoderDecoder.unmarshall(um, reader, part,
                                                  unwrapJAXBElement);
+            reusable = true;
             onCompleteUnmarshalling();
 
             return obj;
         } finally {
             JAXBUtils.closeUnmarshaller(um);
+            if (reusable) {
+                releaseUnmarshaller(um, reader);
+            }
         }
     }
 
     public Object read(QName name, T input, Class<?> type) {
-        Unmarshaller um = createUnmarshaller();
+        Unmarshaller um = createUnmarshaller(input);
+        boolean reusable = false;
 
         try {
             Object obj = JAXBEncoderDecoder.unmarshall(um, input,
                                              name, type,
                                              unwrapJAXBElement);
+            reusable = true;
             onCompleteUnmarshalling();
 
             return obj;
         } finally {
             JAXBUtils.closeUnmarshaller(um);
+            if (reusable) {
+                releaseUnmarshaller(um, input);
+            }
         }
 
     }
 
+    /**
+     * Returns the marshaller generated for the type of the part, if there is one and nothing
+     * requires the JAXB Unmarshaller. Unlike the Unmarshaller, the generated marshaller does
+     * not report unexpected elements to the validation event handler, it skips them.
+     */
+    private StaxMarshaller<?> getGeneratedMarshaller(MessagePartInfo part, T input) {
+        if (!useGeneratedMarshallers || setEventHandler || part == null || part.getTypeClass() == null
+            || !(input instanceof XMLStreamReader) || schema != null
+            || !databinding.isGeneratedMarshallersAllowed()) {
+            return null;
+        }
+        XMLStreamReader reader = (XMLStreamReader)input;
+        if (reader instanceof DepthXMLStreamReader) {
+            reader = ((DepthXMLStreamReader)reader).getReader();
+        }
+        if (reader instanceof UnmarshallerAwareXMLReader
+            || reader.getEventType() != XMLStreamConstants.START_ELEMENT
+            || reader.getAttributeValue(XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI, "type") != null) {
+            return null;
+        }
+        return StaxMarshallerSupport.getMarshaller(part.getTypeClass());
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes" })
+    private Object readGenerated(StaxMarshaller<?> marshaller, MessagePartInfo part, XMLStreamReader reader) {
+        QName name = reader.getName();
+        try {
+            Object obj = marshaller.read(reader);
+            return unwrapJAXBElement ? obj : new JAXBElement(name, part.getTypeClass(), obj);
+        } catch (XMLStreamException | RuntimeException ex) {
+            throw new Fault(new Message("UNMARSHAL_ERROR", LOG, ex.getMessage()), ex);
+        }
+    }
+
     private void onCompleteUnmarshalling() {
         if (setEventHandler && veventHandler instanceof UnmarshallerEventHandler) {
             try {
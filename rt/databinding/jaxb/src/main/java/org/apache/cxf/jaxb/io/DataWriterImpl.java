@@ -38,6 +38,8 @@ import javax.xml.bind.ValidationEvent;
 import javax.xml.bind.ValidationEventHandler;
 import javax.xml.bind.annotation.adapters.XmlAdapter;
 import javax.xml.bind.attachment.AttachmentMarshaller;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
 
 import org.apache.cxf.common.i18n.Message;
 import org.apache.cxf.common.jaxb.JAXBUtils;
@@ -48,7 +50,10 @@ import org.apache.cxf.interceptor.Fault;
 import org.apache.cxf.jaxb.JAXBDataBase;
 import org.apache.cxf.jaxb.JAXBDataBinding;
 import org.apache.cxf.jaxb.JAXBEncoderDecoder;
+import org.apache.cxf.jaxb.MarshallerAwareXMLWriter;
 import org.apache.cxf.jaxb.MarshallerEventHandler;
+import org.apache.cxf.jaxb.StaxMarshaller;
+import org.apache.cxf.jaxb.StaxMarshallerSupport;
 import org.apache.cxf.jaxb.attachment.JAXBAttachmentMarshaller;
 import org.apache.cxf.message.MessageUtils;
 import org.apache.cxf.service.model.MessagePartInfo;
@@ -56,9 +61,16 @@ import org.apache.ws.commons.schema.XmlSchemaElement;
 
 public class DataWriterImpl<T> extends JAXBDataBase implements DataWriter<T> {
     private static final Logger LOG = LogUtils.getLogger(JAXBDataBinding.class);
+    private static final ValidationEventHandler WARNINGS_ONLY_HANDLER = new ValidationEventHandler() {
+        public boolean handleEvent(ValidationEvent event) {
+            //continue on warnings only
+            return event.getSeverity() == ValidationEvent.WARNING;
+        }
+    };
 
     ValidationEventHandler veventHandler;
     boolean setEventHandler = true;
+    boolean useGeneratedMarshallers;
     private JAXBDataBinding databinding;
 
     public DataWriterImpl(JAXBDataBinding binding) {
@@ -79,6 +91,8 @@ public class DataWriterImpl<T> extends JAXBDataBase implements DataWriter<T> {
             }
             setEventHandler = MessageUtils.getContextualBoolean(m,
                     JAXBDataBinding.SET_VALIDATION_EVENT_HANDLER, true);
+            useGeneratedMarshallers = MessageUtils.getContextualBoolean(m,
+                    JAXBDataBinding.USE_GENERATED_MARSHALLERS, false);
         }
     }
 
@@ -122,65 +136,75 @@ public class DataWriterImpl<T> extends JAXBDataBase implements DataWriter<T> {
             Collection<?> col = (Collection<?>)elValue;
             elValue = col.toArray((Object[])Array.newInstance(cls.getComponentType(), col.size()));
         }
-        Marshaller marshaller;
         try {
+            Marshaller marshaller = newMarshaller();
+            setMessageSettings(marshaller);
+            return marshaller;
+        } catch (JAXBException ex) {
+            throw marshalFault(ex);
+        }
+    }
 
-            marshaller = context.createMarshaller();
-            marshaller.setProperty(Marshaller.JAXB_ENCODING, StandardCharsets.UTF_8.name());
-            marshaller.setProperty(Marshaller.JAXB_FRAGMENT, true);
-            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.FALSE);
-            marshaller.setListener(databinding.getMarshallerListener());
-            if (setEventHandler) {
-                ValidationEventHandler h = veventHandler;
-                if (veventHandler == null) {
-                    h = new ValidationEventHandler() {
-                        public boolean handleEvent(ValidationEvent event) {
-                            //continue on warnings only
-                            return event.getSeverity() == ValidationEvent.WARNING;
-                        }
-                    };
-                }
-                marshaller.setEventHandler(h);
-            }
+    /**
+     * Returns a Marshaller from the pool of the databinding, or a new one if the pool is empty
+     * or can't be used for this output.
+     */
+    private Marshaller acquireMarshaller(Object elValue, MessagePartInfo part, T output) {
+        if (!isPoolable(output)) {
+            return createMarshaller(elValue, part);
+        }
+        Marshaller marshaller = databinding.getMarshallerPool().pollMarshaller();
+        if (marshaller == null) {
+            return createMarshaller(elValue, part);
+        }
+        try {
+            setMessageSettings(marshaller);
+        } catch (JAXBException ex) {
+            throw marshalFault(ex);
+        }
+        return marshaller;
+    }
 
-            final Map<String, String> nspref = databinding.getDeclaredNamespaceMappings();
-            final Map<String, String> nsctxt = databinding.getContextualNamespaceMap();
-            // set the prefix mapper if either of the prefix map is configured
-            if (nspref != null || nsctxt != null) {
-                Object mapper = JAXBUtils.setNamespaceMapper(nspref != null ? nspref : nsctxt, marshaller);
-                if (nsctxt != null) {
-                    setContextualNamespaceDecls(mapper, nsctxt);
-                }
-            }
-            if (databinding.getMarshallerProperties() != null) {
-                for (Map.Entry<String, Object> propEntry
-                    : databinding.getMarshallerProperties().entrySet()) {
-                    try {
-                        marshaller.setProperty(propEntry.getKey(), propEntry.getValue());
-                    } catch (PropertyException pe) {
-                        LOG.log(Level.INFO, "PropertyException setting Marshaller properties", pe);
-                    }
-                }
-            }
+    private void releaseMarshaller(Marshaller marshaller, T output) {
+        if (isPoolable(output)) {
+            databinding.getMarshallerPool().release(marshaller);
+        }
+    }
 
-            marshaller.setSchema(schema);
-            AttachmentMarshaller atmarsh = getAttachmentMarshaller();
-            marshaller.setAttachmentMarshaller(atmarsh);
+    private boolean isPoolable(T output) {
+        // the writer may keep the marshaller, and the context may have been set on this writer only
+        return context == databinding.getContext() && !(output instanceof MarshallerAwareXMLWriter);
+    }
+
+    /**
+     * Creates a Marshaller with the settings of the databinding, which are the same for
+     * every message.
+     */
+    private Marshaller newMarshaller() throws JAXBException {
+        Marshaller marshaller = context.createMarshaller();
+        marshaller.setProperty(Marshaller.JAXB_ENCODING, StandardCharsets.UTF_8.name());
+        marshaller.setProperty(Marshaller.JAXB_FRAGMENT, true);
+        marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.FALSE);
+        marshaller.setListener(databinding.getMarshallerListener());
 
-            if (schema != null
-                && atmarsh instanceof JAXBAttachmentMarshaller) {
-                //we need a special even handler for XOP attachments
-                marshaller.setEventHandler(new MtomValidationHandler(marshaller.getEventHandler(),
-                                                            (JAXBAttachmentMarshaller)atmarsh));
+        final Map<String, String> nspref = databinding.getDeclaredNamespaceMappings();
+        final Map<String, String> nsctxt = databinding.getContextualNamespaceMap();
+        // set the prefix mapper if either of the prefix map is configured
+        if (nspref != null || nsctxt != null) {
+            Object mapper = JAXBUtils.setNamespaceMapper(nspref != null ? nspref : nsctxt, marshaller);
+            if (nsctxt != null) {
+                setContextualNamespaceDecls(mapper, nsctxt);
             }
-        } catch (JAXBException ex) {
-            if (ex instanceof javax.xml.bind.MarshalException) {
-                javax.xml.bind.MarshalException marshalEx = (javax.xml.bind.MarshalException)ex;
-                Message faultMessage = new Message("MARSHAL_ERROR", LOG, marshalEx.getLinkedException()
-                    .getMessage());
-                throw new Fault(faultMessage, ex);
+        }
+        if (databinding.getMarshallerProperties() != null) {
+            for (Map.Entry<String, Object> propEntry
+                : databinding.getMarshallerProperties().entrySet()) {
+                try {
+                    marshaller.setProperty(propEntry.getKey(), propEntry.getValue());
+                } catch (PropertyException pe) {
+                    LOG.log(Level.INFO, "PropertyException setting Marshaller properties", pe);
+                }
             }
-            throw new Fault(new Message("MARSHAL_ERROR", LOG, ex.getMessage()), ex);
         }
         for (XmlAdapter<?, ?> adapter : databinding.getConfiguredXmlAdapters()) {
             marshaller.setAdapter(adapter);
@@ -188,6 +212,36 @@ public class DataWriterImpl<T> extends JAXBDataBase implements DataWriter<T> {
         return marshaller;
     }
 
+    /**
+     * Sets the event handler, schema and attachment marshaller of the current message.
+     */
+    private void setMessageSettings(Marshaller marshaller) throws JAXBException {
+        if (setEventHandler) {
+            marshaller.setEventHandler(veventHandler == null ? WARNINGS_ONLY_HANDLER : veventHandler);
+        }
+
+        marshaller.setSchema(schema);
+        AttachmentMarshaller atmarsh = getAttachmentMarshaller();
+        marshaller.setAttachmentMarshaller(atmarsh);
+
+        if (schema != null
+            && atmarsh instanceof JAXBAttachmentMarshaller) {
+            //we need a special even handler for XOP attachments
+            marshaller.setEventHandler(new MtomValidationHandler(marshaller.getEventHandler(),
+                                                        (JAXBAttachmentMarshaller)atmarsh));
+        }
+    }
+
+    private static Fault marshalFault(JAXBException ex) {
+        if (ex instanceof javax.xml.bind.MarshalException) {
+            javax.xml.bind.MarshalException marshalEx = (javax.xml.bind.MarshalException)ex;
+            Message faultMessage = new Message("MARSHAL_ERROR", LOG, marshalEx.getLinkedException()
+                .getMessage());
+            return new Fault(faultMessage, ex);
+        }
+        return new Fault(new Message("MARSHAL_ERROR", LOG, ex.getMessage()), ex);
+    }
+
     //REVISIT should this go into JAXBUtils?
     private static void setContextualNamespaceDecls(Object mapper, Map<String, String> nsctxt) {
         try {
@@ -221,15 +275,21 @@ public class DataWriterImpl<T> extends JAXBDataBase implements DataWriter<T> {
                 && part != null
                 && Boolean.TRUE.equals(part.getProperty(JAXBDataBinding.class.getName()
                                                         + ".CUSTOM_EXCEPTION"))) {
-                JAXBEncoderDecoder.marshallException(createMarshaller(obj, part),
+                Marshaller marshaller = acquireMarshaller(obj, part, output);
+                JAXBEncoderDecoder.marshallException(marshaller,
                                                      (Exception)obj,
                                                      part,
                                                      output);
+                releaseMarshaller(marshaller, output);
                 onCompleteMarshalling();
             } else {
                 Annotation[] anns = getJAXBAnnotation(part);
                 if (!honorJaxbAnnotation || anns.length == 0) {
-                    JAXBEncoderDecoder.marshall(createMarshaller(obj, part), obj, part, output);
+                    if (!writeGenerated(obj, part, output)) {
+                        Marshaller marshaller = acquireMarshaller(obj, part, output);
+                        JAXBEncoderDecoder.marshall(marshaller, obj, part, output);
+                        releaseMarshaller(marshaller, output);
+                    }
                     onCompleteMarshalling();
                 } else if (honorJaxbAnnotation && anns.length > 0) {
                     //RpcLit will use the JAXB Bridge to marshall part message when it is
@@ -246,13 +306,42 @@ public class DataWriterImpl<T> extends JAXBDataBase implements DataWriter<T> {
                 }
             }
         } else if (needToRender(part)) {
-            JAXBEncoderDecoder.marshallNullElement(createMarshaller(null, part),
-                                                   output, part);
+            Marshaller marshaller = acquireMarshaller(null, part, output);
+            JAXBEncoderDecoder.marshallNullElement(marshaller, output, part);
+            releaseMarshaller(marshaller, output);
 
             onCompleteMarshalling();
         }
     }
 
+    /**
+     * Writes the object with the marshaller generated for its class, if there is one and
+     * nothing requires the JAXB Marshaller, returning true in that case.
+     */
+    private boolean writeGenerated(Object obj, MessagePartInfo part, T output) {
+        if (!useGeneratedMarshallers || setEventHandler || obj == null || part == null
+            || part.getConcreteName() == null
+            || part.getTypeClass() != null && part.getTypeClass() != obj.getClass()) {
+            return false;
+        }
+        if (!(output instanceof XMLStreamWriter) || output instanceof MarshallerAwareXMLWriter
+            || schema != null || !databinding.isGeneratedMarshallersAllowed()) {
+            return false;
+        }
+        @SuppressWarnings("unchecked")
+        StaxMarshaller<Object> marshaller
+            = (StaxMarshaller<Object>)StaxMarshallerSupport.getMarshaller(obj.getClass());
+        if (marshaller == null) {
+            return false;
+        }
+        try {
+            marshaller.write(obj, part.getConcreteName(), (XMLStreamWriter)output);
+        } catch (XMLStreamException | RuntimeException ex) {
+            throw new Fault(new Message("MARSHAL_ERROR", LOG, ex.getMessage()), ex);
+        }
+        return true;
+    }
+
     private void checkPart(MessagePartInfo part, Object object) {
         if (part == null || part.getTypeClass() == null || object == null) {
             return;
@@ -0,0 +1,230 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.jaxb;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Collections;
+
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.bind.ValidationEvent;
+import javax.xml.bind.ValidationEventHandler;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.BusFactory;
+import org.apache.cxf.bus.extension.ExtensionManagerBus;
+import org.apache.cxf.databinding.DataReader;
+import org.apache.cxf.databinding.DataWriter;
+import org.apache.cxf.endpoint.Endpoint;
+import org.apache.cxf.endpoint.Server;
+import org.apache.cxf.endpoint.ServerLifeCycleManager;
+import org.apache.cxf.jaxb.attachment.JAXBAttachmentMarshaller;
+import org.apache.cxf.management.InstrumentationManager;
+import org.apache.cxf.service.Service;
+import org.apache.cxf.service.ServiceImpl;
+import org.apache.cxf.service.model.ServiceInfo;
+import org.apache.cxf.staxutils.StaxUtils;
+import org.apache.hello_world_soap_http.types.GreetMe;
+import org.easymock.EasyMock;
+import org.easymock.IMocksControl;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class JAXBMarshallerPoolTest extends Assert {
+    private JAXBDataBinding databinding;
+    private JAXBMarshallerPool pool;
+
+    @Before
+    public void setUp() throws Exception {
+        databinding = new JAXBDataBinding(GreetMe.class);
+        pool = databinding.getMarshallerPool();
+    }
+
+    @Test
+    public void testMarshallersAreReused() throws Exception {
+        String first = write("hello");
+        assertEquals(1, pool.getMarshallerMisses());
+        assertEquals(0, pool.getMarshallerHits());
+        assertEquals(1, pool.getAvailableMarshallers());
+
+        String second = write("hello");
+        assertEquals(first, second);
+        assertEquals(1, pool.getMarshallerMisses());
+        assertEquals(1, pool.getMarshallerHits());
+        assertEquals(1, pool.getAvailableMarshallers());
+    }
+
+    @Test
+    public void testUnmarshallersAreReused() throws Exception {
+        String xml = write("hello");
+        assertEquals("hello", read(xml).getRequestType());
+        assertEquals("world", read(write("world")).getRequestType());
+        assertEquals(1, pool.getUnmarshallerMisses());
+        assertEquals(1, pool.getUnmarshallerHits());
+        assertEquals(1, pool.getAvailableUnmarshallers());
+    }
+
+    @Test
+    public void testMessageSettingsAreCleared() throws Exception {
+        ValidationEventHandler handler = new ValidationEventHandler() {
+            public boolean handleEvent(ValidationEvent event) {
+                return true;
+            }
+        };
+        Marshaller m = databinding.getContext().createMarshaller();
+        m.setEventHandler(handler);
+        m.setAttachmentMarshaller(new JAXBAttachmentMarshaller(null, 0));
+        pool.release(m);
+        Marshaller pooled = pool.pollMarshaller();
+        assertSame(m, pooled);
+        assertNotSame(handler, pooled.getEventHandler());
+        assertNull(pooled.getAttachmentMarshaller());
+        assertNull(pooled.getSchema());
+
+        Unmarshaller u = databinding.getContext().createUnmarshaller();
+        u.setEventHandler(handler);
+        pool.release(u);
+        Unmarshaller pooledU = pool.pollUnmarshaller();
+        assertSame(u, pooledU);
+        assertNotSame(handler, pooledU.getEventHandler());
+        assertNull(pooledU.getAttachmentUnmarshaller());
+    }
+
+    @Test
+    public void testPoolIsBounded() throws Exception {
+        databinding.setMarshallerPoolSize(1);
+        pool.release(databinding.getContext().createMarshaller());
+        pool.release(databinding.getContext().createMarshaller());
+        assertEquals(1, pool.getAvailableMarshallers());
+        assertEquals(1, pool.getDiscardedMarshallers());
+
+        databinding.setMarshallerPoolSize(0);
+        assertEquals(0, pool.getAvailableMarshallers());
+        assertNull(pool.pollMarshaller());
+        write("hello");
+        assertEquals(0, pool.getAvailableMarshallers());
+        assertEquals(2, pool.getDiscardedMarshallers());
+    }
+
+    @Test
+    public void testSettingsChangesClearThePool() throws Exception {
+        write("hello");
+        assertEquals(1, pool.getAvailableMarshallers());
+        databinding.setMarshallerProperties(Collections.<String, Object>singletonMap(
+            Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE));
+        assertEquals(0, pool.getAvailableMarshallers());
+
+        write("hello");
+        assertEquals(1, pool.getAvailableMarshallers());
+        databinding.setContext(databinding.getContext());
+        assertEquals(0, pool.getAvailableMarshallers());
+    }
+
+    @Test
+    public void testUnregisteredOnBusShutdown() throws Exception {
+        IMocksControl control = EasyMock.createControl();
+        InstrumentationManager manager = control.createMock(InstrumentationManager.class);
+        manager.register(pool);
+        EasyMock.expectLastCall().andReturn(pool.getObjectName());
+        manager.unregister(pool);
+        EasyMock.expectLastCall();
+        control.replay();
+
+        Bus bus = new ExtensionManagerBus();
+        bus.setExtension(manager, InstrumentationManager.class);
+        databinding.setBus(bus);
+        databinding.initialize(createService());
+        databinding.initialize(createService());
+        assertTrue(pool.isRegistered());
+
+        bus.shutdown(true);
+        assertFalse(pool.isRegistered());
+        control.verify();
+    }
+
+    @Test
+    public void testUnregisteredWhenServerStops() throws Exception {
+        IMocksControl control = EasyMock.createNiceControl();
+        InstrumentationManager manager = control.createMock(InstrumentationManager.class);
+        manager.unregister(pool);
+        EasyMock.expectLastCall().times(1);
+        Service service = createService();
+        Server other = createServer(control, createService());
+        Server server = createServer(control, service);
+        control.replay();
+
+        Bus bus = new ExtensionManagerBus();
+        bus.setExtension(manager, InstrumentationManager.class);
+        Bus orig = BusFactory.getAndSetThreadDefaultBus(bus);
+        try {
+            databinding.initialize(service);
+        } finally {
+            BusFactory.setThreadDefaultBus(orig);
+        }
+        assertTrue(pool.isRegistered());
+
+        ServerLifeCycleManager serverLifeCycleManager = bus.getExtension(ServerLifeCycleManager.class);
+        serverLifeCycleManager.stopServer(other);
+        assertTrue(pool.isRegistered());
+        serverLifeCycleManager.stopServer(server);
+        assertFalse(pool.isRegistered());
+
+        // the listeners are gone, shutting the bus down does not unregister the pool again
+        bus.shutdown(true);
+        control.verify();
+    }
+
+    private static Service createService() {
+        ServiceInfo si = new ServiceInfo();
+        si.setName(new QName("http://apache.org/hello_world_soap_http", "SOAPService"));
+        return new ServiceImpl(si);
+    }
+
+    private static Server createServer(IMocksControl control, Service service) {
+        Endpoint endpoint = control.createMock(Endpoint.class);
+        EasyMock.expect(endpoint.getService()).andReturn(service).anyTimes();
+        Server server = control.createMock(Server.class);
+        EasyMock.expect(server.getEndpoint()).andReturn(endpoint).anyTimes();
+        return server;
+    }
+
+    private String write(String value) throws Exception {
+        GreetMe greetMe = new GreetMe();
+        greetMe.setRequestType(value);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        XMLStreamWriter writer = StaxUtils.createXMLStreamWriter(out);
+        DataWriter<XMLStreamWriter> dw = databinding.createWriter(XMLStreamWriter.class);
+        dw.write(greetMe, writer);
+        writer.flush();
+        return out.toString("UTF-8");
+    }
+
+    private GreetMe read(String xml) throws Exception {
+        XMLStreamReader reader = StaxUtils.createXMLStreamReader(new ByteArrayInputStream(xml.getBytes("UTF-8")));
+        reader.nextTag();
+        DataReader<XMLStreamReader> dr = databinding.createReader(XMLStreamReader.class);
+        return (GreetMe)dr.read(reader);
+    }
+}
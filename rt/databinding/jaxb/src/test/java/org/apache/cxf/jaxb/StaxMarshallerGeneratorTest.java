@@ -0,0 +1,266 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.jaxb;
+
+import java.io.File;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.apache.cxf.common.util.Compiler;
+import org.apache.cxf.databinding.DataReader;
+import org.apache.cxf.databinding.DataWriter;
+import org.apache.cxf.interceptor.Fault;
+import org.apache.cxf.jaxb.fortest.QualifiedBean;
+import org.apache.cxf.jaxb.fortest.stax.Customer;
+import org.apache.cxf.jaxb.fortest.stax.Item;
+import org.apache.cxf.jaxb.fortest.stax.Order;
+import org.apache.cxf.jaxb.fortest.stax.Shipment;
+import org.apache.cxf.jaxb.fortest.stax.Status;
+import org.apache.cxf.jaxb.fortest.stax.address.Address;
+import org.apache.cxf.message.ExchangeImpl;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
+import org.apache.cxf.service.model.MessagePartInfo;
+import org.apache.cxf.staxutils.StaxUtils;
+import org.apache.hello_world_doc_lit_bare.types.TradePriceData;
+import org.apache.hello_world_soap_http.types.GreetMe;
+import org.apache.hello_world_soap_http.types.TestNillable;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class StaxMarshallerGeneratorTest extends Assert {
+    private static final QName ORDER = new QName("http://cxf.apache.org/jaxb/stax", "order");
+
+    @BeforeClass
+    public static void compileMarshallers() throws Exception {
+        StaxMarshallerGenerator generator = new StaxMarshallerGenerator(Arrays.<Class<?>>asList(
+            Order.class, Customer.class, Item.class, Status.class, Shipment.class, Address.class));
+        File classes = new File(Order.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        File sources = new File(classes.getParentFile(), "generated/src/test/stax");
+        Compiler compiler = new Compiler();
+        compiler.setOutputDir(classes);
+        assertTrue(compiler.getErrors().toString(), compiler.compileFiles(generator.generate(sources)));
+    }
+
+    @Test
+    public void testSupportedClasses() {
+        StaxMarshallerGenerator generator = new StaxMarshallerGenerator(Arrays.<Class<?>>asList(
+            Order.class, Customer.class, Item.class, Status.class, GreetMe.class, TestNillable.class,
+            TradePriceData.class, QualifiedBean.class));
+        assertEquals(new HashSet<>(Arrays.asList(Order.class, Customer.class, Item.class, GreetMe.class,
+                                                 TestNillable.class, TradePriceData.class)),
+                     generator.getClasses());
+
+        // an order is left to JAXB when its customers are
+        generator = new StaxMarshallerGenerator(Arrays.<Class<?>>asList(Order.class, Item.class));
+        assertEquals(new HashSet<>(Arrays.asList(Item.class)), generator.getClasses());
+    }
+
+    @Test
+    public void testReadByJAXB() throws Exception {
+        StaxMarshaller<Order> marshaller = StaxMarshallerSupport.getMarshaller(Order.class);
+        assertNotNull(marshaller);
+        StringWriter out = new StringWriter();
+        XMLStreamWriter writer = StaxUtils.createXMLStreamWriter(out);
+        marshaller.write(createOrder(), ORDER, writer);
+        writer.flush();
+
+        Object read = JAXBContext.newInstance(Order.class).createUnmarshaller()
+            .unmarshal(new StringReader(out.toString()));
+        assertOrder((Order)read);
+    }
+
+    @Test
+    public void testWrittenByJAXB() throws Exception {
+        StringWriter out = new StringWriter();
+        JAXBContext.newInstance(Order.class).createMarshaller().marshal(createOrder(), out);
+
+        XMLStreamReader reader = StaxUtils.createXMLStreamReader(new StringReader(out.toString()));
+        reader.nextTag();
+        assertOrder(StaxMarshallerSupport.getMarshaller(Order.class).read(reader));
+        assertEquals(XMLStreamConstants.END_DOCUMENT, reader.getEventType());
+    }
+
+    @Test
+    public void testUnknownElementsAndNil() throws Exception {
+        String xml = "<o:order xmlns:o='http://cxf.apache.org/jaxb/stax' "
+            + "xmlns:xsi='http://www.w3.org/2001/XMLSchema-instance'>"
+            + "<o:unknown><o:note>skipped</o:note></o:unknown>"
+            + "<o:customer><o:Name>Jane</o:Name></o:customer>"
+            + "<o:note xsi:nil='true'/><o:express> 1 </o:express><after/></o:order>";
+        XMLStreamReader reader = StaxUtils.createXMLStreamReader(new StringReader("<a>" + xml + "</a>"));
+        reader.nextTag();
+        reader.nextTag();
+        Order order = StaxMarshallerSupport.getMarshaller(Order.class).read(reader);
+        assertEquals("Jane", order.getCustomer().getName());
+        assertNull(order.getNote());
+        assertTrue(order.isExpress());
+        assertNull(order.getTotal());
+        assertEquals(XMLStreamConstants.END_ELEMENT, reader.getEventType());
+        assertEquals("a", reader.getLocalName());
+    }
+
+    @Test
+    public void testDataBinding() throws Exception {
+        JAXBDataBinding db = new JAXBDataBinding(Order.class);
+        MessagePartInfo part = new MessagePartInfo(ORDER, null);
+        part.setElement(true);
+        part.setElementQName(ORDER);
+        part.setTypeClass(Order.class);
+
+        Message message = createMessage(true, false);
+        StringWriter out = new StringWriter();
+        XMLStreamWriter writer = StaxUtils.createXMLStreamWriter(out);
+        DataWriter<XMLStreamWriter> dw = db.createWriter(XMLStreamWriter.class);
+        dw.setProperty(Message.class.getName(), message);
+        dw.write(createOrder(), part, writer);
+        writer.flush();
+
+        XMLStreamReader reader = StaxUtils.createXMLStreamReader(new StringReader(out.toString()));
+        reader.nextTag();
+        DataReader<XMLStreamReader> dr = db.createReader(XMLStreamReader.class);
+        dr.setProperty(Message.class.getName(), message);
+        assertOrder((Order)dr.read(part, reader));
+    }
+
+    @Test
+    public void testDataBindingFallsBackToJAXB() throws Exception {
+        JAXBDataBinding db = new JAXBDataBinding(Order.class);
+        MessagePartInfo part = new MessagePartInfo(ORDER, null);
+        part.setElement(true);
+        part.setElementQName(ORDER);
+        part.setTypeClass(Order.class);
+        String xml = "<o:order xmlns:o='http://cxf.apache.org/jaxb/stax'>"
+            + "<o:unknown/><o:customer><o:Name>Jane</o:Name></o:customer></o:order>";
+
+        // the generated marshallers are only used when asked for
+        assertEquals("Jane", read(db, part, xml, createMessage(false, false)).getCustomer().getName());
+        assertEquals("Jane", read(db, part, xml, createMessage(true, false)).getCustomer().getName());
+        // and not while the validation event handler has to see the unexpected element
+        try {
+            read(db, part, xml, createMessage(true, true));
+            fail("the unexpected element is reported by JAXB");
+        } catch (Fault f) {
+            // expected
+        }
+    }
+
+    private static Order read(JAXBDataBinding db, MessagePartInfo part, String xml, Message message)
+        throws Exception {
+        XMLStreamReader reader = StaxUtils.createXMLStreamReader(new StringReader(xml));
+        reader.nextTag();
+        DataReader<XMLStreamReader> dr = db.createReader(XMLStreamReader.class);
+        dr.setProperty(Message.class.getName(), message);
+        return (Order)dr.read(part, reader);
+    }
+
+    private static Message createMessage(boolean useGeneratedMarshallers, boolean setEventHandler) {
+        Message message = new MessageImpl();
+        message.setExchange(new ExchangeImpl());
+        message.put(JAXBDataBinding.USE_GENERATED_MARSHALLERS, useGeneratedMarshallers);
+        message.put(JAXBDataBinding.SET_VALIDATION_EVENT_HANDLER, setEventHandler);
+        return message;
+    }
+
+    @Test
+    public void testBeanOfAnotherPackage() throws Exception {
+        Shipment shipment = new Shipment();
+        shipment.setTo(createAddress("Main Street", "Springfield"));
+        shipment.setTO(createAddress("Elm Street", "Shelbyville"));
+
+        StringWriter out = new StringWriter();
+        XMLStreamWriter writer = StaxUtils.createXMLStreamWriter(out);
+        StaxMarshallerSupport.getMarshaller(Shipment.class)
+            .write(shipment, new QName("http://cxf.apache.org/jaxb/stax", "shipment"), writer);
+        writer.flush();
+        assertShipment((Shipment)JAXBContext.newInstance(Shipment.class).createUnmarshaller()
+                       .unmarshal(new StringReader(out.toString())));
+
+        out = new StringWriter();
+        JAXBContext.newInstance(Shipment.class).createMarshaller().marshal(shipment, out);
+        XMLStreamReader reader = StaxUtils.createXMLStreamReader(new StringReader(out.toString()));
+        reader.nextTag();
+        assertShipment(StaxMarshallerSupport.getMarshaller(Shipment.class).read(reader));
+    }
+
+    private static Address createAddress(String street, String city) {
+        Address address = new Address();
+        address.setStreet(street);
+        address.setCity(city);
+        return address;
+    }
+
+    private static void assertShipment(Shipment shipment) {
+        assertEquals("Main Street", shipment.getTo().getStreet());
+        assertEquals("Springfield", shipment.getTo().getCity());
+        assertEquals("Elm Street", shipment.getTO().getStreet());
+        assertEquals("Shelbyville", shipment.getTO().getCity());
+    }
+
+    private static Order createOrder() {
+        Order order = new Order();
+        order.setId(42L);
+        Customer customer = new Customer();
+        customer.setName("Jane & <Doe>");
+        customer.getEmail().add("jane@example.com");
+        customer.getEmail().add("doe@example.com");
+        order.setCustomer(customer);
+        order.setStatus(Status.SHIPPED);
+        for (int i = 1; i <= 2; i++) {
+            Item item = new Item();
+            item.setSku("sku" + i);
+            item.setQuantity(i);
+            item.setPrice(i * 2.5f);
+            item.setGift(i == 2 ? Boolean.TRUE : null);
+            order.getItem().add(item);
+        }
+        order.setTotal(new BigDecimal("12.50"));
+        order.setExpress(true);
+        return order;
+    }
+
+    private static void assertOrder(Order order) {
+        assertEquals(Long.valueOf(42), order.getId());
+        assertEquals("Jane & <Doe>", order.getCustomer().getName());
+        assertEquals(Arrays.asList("jane@example.com", "doe@example.com"), order.getCustomer().getEmail());
+        assertEquals(Status.SHIPPED, order.getStatus());
+        assertEquals(2, order.getItem().size());
+        Item item = order.getItem().get(1);
+        assertEquals("sku2", item.getSku());
+        assertEquals(2, item.getQuantity());
+        assertEquals(5f, item.getPrice(), 0f);
+        assertEquals(Boolean.TRUE, item.isGift());
+        assertNull(order.getItem().get(0).isGift());
+        assertNull(order.getNote());
+        assertEquals(new BigDecimal("12.50"), order.getTotal());
+        assertNull(order.getDiscount());
+        assertTrue(order.isExpress());
+    }
+}
@@ -0,0 +1,65 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.jaxb.fortest.stax;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlType;
+
+@XmlAccessorType(XmlAccessType.FIELD)
+@XmlType(name = "Item", propOrder = {
+    "sku",
+    "quantity",
+    "price"
+})
+public class Item {
+    @XmlElement(required = true)
+    protected String sku;
+    protected int quantity;
+    protected float price;
+    @XmlAttribute(name = "gift")
+    protected Boolean gift;
+
+    public String getSku() {
+        return sku;
+    }
+    public void setSku(String value) {
+        this.sku = value;
+    }
+    public int getQuantity() {
+        return quantity;
+    }
+    public void setQuantity(int value) {
+        this.quantity = value;
+    }
+    public float getPrice() {
+        return price;
+    }
+    public void setPrice(float value) {
+        this.price = value;
+    }
+    public Boolean isGift() {
+        return gift;
+    }
+    public void setGift(Boolean value) {
+        this.gift = value;
+    }
+}
@@ -0,0 +1,106 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.jaxb.fortest.stax;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlType;
+
+@XmlAccessorType(XmlAccessType.FIELD)
+@XmlType(name = "", propOrder = {
+    "customer",
+    "status",
+    "item",
+    "note",
+    "total",
+    "discount",
+    "express"
+})
+@XmlRootElement(name = "order")
+public class Order {
+    @XmlElement(required = true)
+    protected Customer customer;
+    @XmlElement(required = true)
+    protected Status status;
+    protected List<Item> item;
+    @XmlElement(nillable = true)
+    protected String note;
+    @XmlElement(required = true)
+    protected BigDecimal total;
+    protected Double discount;
+    protected boolean express;
+    @XmlAttribute(name = "id")
+    protected Long id;
+
+    public Customer getCustomer() {
+        return customer;
+    }
+    public void setCustomer(Customer value) {
+        this.customer = value;
+    }
+    public Status getStatus() {
+        return status;
+    }
+    public void setStatus(Status value) {
+        this.status = value;
+    }
+    public List<Item> getItem() {
+        if (item == null) {
+            item = new ArrayList<Item>();
+        }
+        return this.item;
+    }
+    public String getNote() {
+        return note;
+    }
+    public void setNote(String value) {
+        this.note = value;
+    }
+    public BigDecimal getTotal() {
+        return total;
+    }
+    public void setTotal(BigDecimal value) {
+        this.total = value;
+    }
+    public Double getDiscount() {
+        return discount;
+    }
+    public void setDiscount(Double value) {
+        this.discount = value;
+    }
+    public boolean isExpress() {
+        return express;
+    }
+    public void setExpress(boolean value) {
+        this.express = value;
+    }
+    public Long getId() {
+        return id;
+    }
+    public void setId(Long value) {
+        this.id = value;
+    }
+}
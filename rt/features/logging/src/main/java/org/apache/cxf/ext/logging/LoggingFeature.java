@@ -21,7 +21,10 @@ package org.apache.cxf.ext.logging;
 import org.apache.cxf.Bus;
 import org.apache.cxf.annotations.Provider;
 import org.apache.cxf.annotations.Provider.Type;
+import org.apache.cxf.buslifecycle.BusLifeCycleListener;
+import org.apache.cxf.buslifecycle.BusLifeCycleManager;
 import org.apache.cxf.common.injection.NoJSR250Annotations;
+import org.apache.cxf.ext.logging.event.AsyncLogEventSender;
 import org.apache.cxf.ext.logging.event.LogEventSender;
 import org.apache.cxf.ext.logging.event.PrettyLoggingFilter;
 import org.apache.cxf.ext.logging.slf4j.Slf4jEventSender;
@@ -51,6 +54,18 @@ public class LoggingFeature extends AbstractFeature {
     private LoggingOutInterceptor out;
     private PrettyLoggingFilter inPrettyFilter;
     private PrettyLoggingFilter outPrettyFilter;
+    private boolean async;
+    private AsyncLogEventSender inAsyncSender;
+    private AsyncLogEventSender outAsyncSender;
+    private final BusLifeCycleListener shutdownListener = new BusLifeCycleListener() {
+        public void initComplete() {
+        }
+        public void preShutdown() {
+        }
+        public void postShutdown() {
+            closeAsyncSenders();
+        }
+    };
 
     public LoggingFeature() {
         LogEventSender sender = new Slf4jVerboseEventSender();
@@ -62,6 +77,9 @@ public class LoggingFeature extends AbstractFeature {
 
     @Override
     protected void initializeProvider(InterceptorProvider provider, Bus bus) {
+        if (async) {
+            initializeAsyncSenders(bus);
+        }
 
         provider.getInInterceptors().add(in);
         provider.getInFaultInterceptors().add(in);
@@ -70,6 +88,26 @@ public class LoggingFeature extends AbstractFeature {
         provider.getOutFaultInterceptors().add(out);
     }
 
+    private synchronized void initializeAsyncSenders(Bus bus) {
+        if (inAsyncSender == null) {
+            inAsyncSender = new AsyncLogEventSender(inPrettyFilter);
+            outAsyncSender = new AsyncLogEventSender(outPrettyFilter);
+            in.sender = inAsyncSender;
+            out.sender = outAsyncSender;
+        }
+        BusLifeCycleManager manager = bus.getExtension(BusLifeCycleManager.class);
+        if (manager != null) {
+            manager.registerLifeCycleListener(shutdownListener);
+        }
+    }
+
+    private synchronized void closeAsyncSenders() {
+        if (inAsyncSender != null) {
+            inAsyncSender.close();
+            outAsyncSender.close();
+        }
+    }
+
     public void setLimit(int limit) {
         in.setLimit(limit);
         out.setLimit(limit);
@@ -117,4 +155,28 @@ public class LoggingFeature extends AbstractFeature {
     public void setVerbose(boolean verbose) {
         setSender(verbose ? new Slf4jVerboseEventSender() : new Slf4jEventSender());
     }
+
+    /**
+     * Pass the log events on to the senders from a background thread?
+     * The events are then queued in an {@link AsyncLogEventSender} and dropped when its buffer
+     * is full. The background threads stop when the bus shuts down, the events logged
+     * afterwards are passed on by the request thread. Must be set before the feature is
+     * initialized.
+     * @param async defaults to false
+     */
+    public void setAsync(boolean async) {
+        this.async = async;
+    }
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    AsyncLogEventSender getInAsyncSender() {
+        return inAsyncSender;
+    }
+
+    AsyncLogEventSender getOutAsyncSender() {
+        return outAsyncSender;
+    }
 }
@@ -116,7 +116,7 @@ public class LoggingOutInterceptor extends AbstractLoggingInterceptor {
         public void write(char[] cbuf, int off, int len) throws IOException {
             super.write(cbuf, off, len);
             if (out2 != null && count < lim) {
-                out2.write(cbuf, off, len);
+                out2.write(cbuf, off, Math.min(len, lim - count));
             }
             count += len;
         }
@@ -124,7 +124,7 @@ public class LoggingOutInterceptor extends AbstractLoggingInterceptor {
         public void write(String str, int off, int len) throws IOException {
             super.write(str, off, len);
             if (out2 != null && count < lim) {
-                out2.write(str, off, len);
+                out2.write(str, off, Math.min(len, lim - count));
             }
             count += len;
         }
@@ -138,6 +138,7 @@ public class LoggingOutInterceptor extends AbstractLoggingInterceptor {
 
             String payload = shouldLogContent(event) ? getPayload(event, w2) : CONTENT_SUPPRESSED;
             event.setPayload(payload);
+            event.setTruncated(count > lim);
             sender.send(event);
             message.setContent(Writer.class, out);
             super.close();
@@ -0,0 +1,279 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.ext.logging.event;
+
+import java.io.Closeable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Hands the log events over to a background thread that passes them on to the next sender,
+ * so that formatting and writing the events does not add to the latency of the requests.
+ * The events are queued in a bounded ring buffer; when it is full the event is dropped and
+ * counted, or the request thread waits for room if blocking is enabled.
+ * <p>
+ * The next sender is called from a single thread, in the order the events were queued.
+ * Wrapping a {@link PrettyLoggingFilter} moves the pretty printing off the request thread too.
+ * <p>
+ * The background thread is a daemon thread, started with the first event. {@link #close()}
+ * stops it once the queued events are passed on; this is final, the events sent afterwards
+ * are passed on to the next sender right away by the thread sending them. The
+ * {@link org.apache.cxf.ext.logging.LoggingFeature} closes the senders it creates when the
+ * bus shuts down.
+ */
+public class AsyncLogEventSender implements LogEventSender, Closeable {
+    public static final int DEFAULT_CAPACITY = 8192;
+    public static final int DEFAULT_BATCH_SIZE = 256;
+    private static final Logger LOG = LoggerFactory.getLogger(AsyncLogEventSender.class);
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long BLOCKED_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final LogEventSender next;
+    private final AtomicReferenceArray<LogEvent> ring;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final Object consumerLock = new Object();
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private volatile boolean blockWhenFull;
+    private volatile boolean waiting;
+    private volatile boolean closed;
+    private Thread writer;
+
+    public AsyncLogEventSender(LogEventSender next) {
+        this(next, DEFAULT_CAPACITY);
+    }
+
+    public AsyncLogEventSender(LogEventSender next, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.next = next;
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.ring = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    @Override
+    public void send(LogEvent event) {
+        if (closed) {
+            deliver(event);
+            return;
+        }
+        startWriter();
+        while (!offer(event)) {
+            if (!blockWhenFull || closed) {
+                dropped.incrementAndGet();
+                return;
+            }
+            wakeWriter();
+            LockSupport.parkNanos(BLOCKED_PARK_NANOS);
+        }
+        if (closed) {
+            // the writer may have stopped before the event was queued
+            flush();
+        } else {
+            wakeWriter();
+        }
+    }
+
+    private boolean offer(LogEvent event) {
+        long h;
+        do {
+            h = head.get();
+            if (h - tail.get() > mask) {
+                return false;
+            }
+        } while (!head.compareAndSet(h, h + 1));
+        ring.lazySet((int)h & mask, event);
+        return true;
+    }
+
+    private void wakeWriter() {
+        if (waiting) {
+            waiting = false;
+            LockSupport.unpark(writer);
+        }
+    }
+
+    private synchronized void startWriter() {
+        if (writer == null) {
+            writer = new Thread(new Runnable() {
+                public void run() {
+                    drain();
+                }
+            }, "cxf-async-log-event-sender");
+            writer.setDaemon(true);
+            writer.start();
+        }
+    }
+
+    void drain() {
+        LogEvent[] batch = new LogEvent[Math.min(batchSize, ring.length())];
+        while (true) {
+            if (deliverBatch(batch) > 0) {
+                continue;
+            }
+            long t = tail.get();
+            if (t < head.get()) {
+                // claimed by a request thread which has not stored the event yet
+                Thread.yield();
+            } else if (closed) {
+                return;
+            } else {
+                waiting = true;
+                if (t == head.get() && !closed) {
+                    LockSupport.parkNanos(this, MAX_PARK_NANOS);
+                }
+                waiting = false;
+            }
+        }
+    }
+
+    /**
+     * Passes on all the queued events from the calling thread, once the sender is closed.
+     */
+    private void flush() {
+        LogEvent[] batch = new LogEvent[Math.min(batchSize, ring.length())];
+        while (deliverBatch(batch) > 0 || tail.get() < head.get()) {
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Takes the next events off the buffer and passes them on. The lock keeps the events in
+     * order when the writer and a thread flushing after close both take events.
+     */
+    private int deliverBatch(LogEvent[] batch) {
+        synchronized (consumerLock) {
+            long t = tail.get();
+            int n = 0;
+            while (n < batch.length && t + n < head.get()) {
+                int index = (int)(t + n) & mask;
+                LogEvent event = ring.get(index);
+                if (event == null) {
+                    break;
+                }
+                ring.lazySet(index, null);
+                batch[n++] = event;
+            }
+            if (n > 0) {
+                tail.set(t + n);
+                for (int i = 0; i < n; i++) {
+                    deliver(batch[i]);
+                    batch[i] = null;
+                }
+            }
+            return n;
+        }
+    }
+
+    private void deliver(LogEvent event) {
+        try {
+            next.send(event);
+            sent.incrementAndGet();
+        } catch (RuntimeException ex) {
+            failed.incrementAndGet();
+            LOG.warn("Could not send the log event", ex);
+        }
+    }
+
+    /**
+     * Stops the background thread once the queued events are passed on to the next sender,
+     * which the events sent afterwards then go to directly. Events still queued when the
+     * thread does not stop in time are passed on by the calling thread. A closed sender
+     * cannot be started again.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        Thread w;
+        synchronized (this) {
+            w = writer;
+        }
+        if (w != null && w != Thread.currentThread()) {
+            LockSupport.unpark(w);
+            try {
+                w.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Wait for room in the buffer instead of dropping the event when it is full?
+     * @param blockWhenFull defaults to false
+     */
+    public void setBlockWhenFull(boolean blockWhenFull) {
+        this.blockWhenFull = blockWhenFull;
+    }
+
+    public boolean isBlockWhenFull() {
+        return blockWhenFull;
+    }
+
+    /**
+     * Sets the maximum number of events taken off the buffer at once; must be set
+     * before the first event is sent.
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public int getCapacity() {
+        return ring.length();
+    }
+
+    public int getQueuedCount() {
+        return (int)Math.max(0, head.get() - tail.get());
+    }
+
+    public long getSentCount() {
+        return sent.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public long getFailedCount() {
+        return failed.get();
+    }
+}
@@ -0,0 +1,220 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.ext.logging;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.bus.extension.ExtensionManagerBus;
+import org.apache.cxf.ext.logging.event.AsyncLogEventSender;
+import org.apache.cxf.ext.logging.event.LogEvent;
+import org.apache.cxf.ext.logging.event.LogEventSender;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AsyncLogEventSenderTest extends Assert {
+
+    @Test
+    public void testEventsSentInOrder() throws Exception {
+        final List<String> received = Collections.synchronizedList(new ArrayList<String>());
+        AsyncLogEventSender sender = new AsyncLogEventSender(new LogEventSender() {
+            public void send(LogEvent event) {
+                received.add(event.getPayload());
+            }
+        }, 16);
+        sender.setBatchSize(4);
+        sender.setBlockWhenFull(true);
+        for (int i = 0; i < 1000; i++) {
+            sender.send(event(Integer.toString(i)));
+        }
+        sender.close();
+
+        assertEquals(1000, received.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(Integer.toString(i), received.get(i));
+        }
+        assertEquals(1000, sender.getSentCount());
+        assertEquals(0, sender.getDroppedCount());
+        assertEquals(0, sender.getQueuedCount());
+
+        sender.send(event("after close"));
+        assertEquals("after close", received.get(1000));
+    }
+
+    @Test
+    public void testDropWhenFull() throws Exception {
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        AsyncLogEventSender sender = new AsyncLogEventSender(new LogEventSender() {
+            public void send(LogEvent event) {
+                blocked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }, 4);
+        assertEquals(4, sender.getCapacity());
+
+        sender.send(event("first"));
+        assertTrue(blocked.await(10, TimeUnit.SECONDS));
+        for (int i = 0; i < 10; i++) {
+            sender.send(event(Integer.toString(i)));
+        }
+        assertEquals(4, sender.getQueuedCount());
+        assertEquals(6, sender.getDroppedCount());
+
+        release.countDown();
+        sender.close();
+        assertEquals(5, sender.getSentCount());
+    }
+
+    @Test
+    public void testFailingSender() throws Exception {
+        AsyncLogEventSender sender = new AsyncLogEventSender(new LogEventSender() {
+            public void send(LogEvent event) {
+                throw new IllegalStateException(event.getPayload());
+            }
+        });
+        sender.send(event("a"));
+        sender.send(event("b"));
+        sender.close();
+        assertEquals(2, sender.getFailedCount());
+        assertEquals(0, sender.getSentCount());
+    }
+
+    @Test
+    public void testSendRacingClose() throws Exception {
+        for (int round = 0; round < 200; round++) {
+            final AtomicLong received = new AtomicLong();
+            final AsyncLogEventSender sender = new AsyncLogEventSender(new LogEventSender() {
+                public void send(LogEvent event) {
+                    received.incrementAndGet();
+                }
+            }, 1 << 16);
+            final CountDownLatch start = new CountDownLatch(1);
+            Thread[] threads = new Thread[4];
+            for (int i = 0; i < threads.length; i++) {
+                threads[i] = new Thread(new Runnable() {
+                    public void run() {
+                        try {
+                            start.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        for (int j = 0; j < 1000; j++) {
+                            sender.send(event(Integer.toString(j)));
+                        }
+                    }
+                });
+                threads[i].start();
+            }
+            start.countDown();
+            while (sender.getSentCount() == 0) {
+                Thread.yield();
+            }
+            sender.close();
+            for (Thread t : threads) {
+                t.join();
+            }
+            assertEquals(0, sender.getDroppedCount());
+            assertEquals(4000, received.get());
+            assertEquals(4000, sender.getSentCount());
+            assertEquals(0, sender.getQueuedCount());
+        }
+    }
+
+    @Test
+    public void testLifecycle() throws Exception {
+        final List<Thread> threads = Collections.synchronizedList(new ArrayList<Thread>());
+        AsyncLogEventSender sender = new AsyncLogEventSender(new LogEventSender() {
+            public void send(LogEvent event) {
+                threads.add(Thread.currentThread());
+            }
+        });
+        assertFalse(sender.isClosed());
+        sender.send(event("queued"));
+        sender.close();
+        assertTrue(sender.isClosed());
+        assertEquals(1, threads.size());
+        assertNotSame(Thread.currentThread(), threads.get(0));
+        assertFalse(threads.get(0).isAlive());
+
+        sender.send(event("direct"));
+        assertEquals(2, threads.size());
+        assertSame(Thread.currentThread(), threads.get(1));
+
+        // closing again, or closing a sender which never started its thread, is harmless
+        sender.close();
+        AsyncLogEventSender unused = new AsyncLogEventSender(new LogEventSender() {
+            public void send(LogEvent event) {
+            }
+        });
+        unused.close();
+        assertTrue(unused.isClosed());
+    }
+
+    @Test
+    public void testFeatureClosesSendersOnBusShutdown() throws Exception {
+        final List<String> received = Collections.synchronizedList(new ArrayList<String>());
+        LoggingFeature feature = new LoggingFeature();
+        feature.setSender(new LogEventSender() {
+            public void send(LogEvent event) {
+                received.add(event.getPayload());
+            }
+        });
+        Bus bus = new ExtensionManagerBus();
+        feature.initialize(bus);
+        assertNull(feature.getInAsyncSender());
+
+        feature = new LoggingFeature();
+        feature.setAsync(true);
+        feature.setSender(new LogEventSender() {
+            public void send(LogEvent event) {
+                received.add(event.getPayload());
+            }
+        });
+        feature.initialize(bus);
+        AsyncLogEventSender in = feature.getInAsyncSender();
+        AsyncLogEventSender out = feature.getOutAsyncSender();
+        assertNotNull(in);
+        assertNotNull(out);
+        in.send(event("in"));
+        out.send(event("out"));
+
+        bus.shutdown(true);
+        assertTrue(in.isClosed());
+        assertTrue(out.isClosed());
+        assertEquals(2, received.size());
+        assertTrue(received.contains("in"));
+        assertTrue(received.contains("out"));
+    }
+
+    private static LogEvent event(String payload) {
+        LogEvent event = new LogEvent();
+        event.setPayload(payload);
+        return event;
+    }
+}
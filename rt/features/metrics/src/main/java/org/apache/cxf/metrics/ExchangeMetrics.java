@@ -34,6 +34,7 @@ public class ExchangeMetrics {
     Exchange exchange;
     boolean started;
     long startTime = -1;
+    long[] phaseStartTimes;
 
     public ExchangeMetrics(Exchange e) {
         exchange = e;
@@ -55,6 +56,20 @@ public class ExchangeMetrics {
         }
     }
 
+    /**
+     * Records that the exchange enters the given phase now.
+     */
+    public void mark(MetricsPhase phase) {
+        if (started) {
+            if (phaseStartTimes == null) {
+                phaseStartTimes = new long[MetricsPhase.values().length];
+            }
+            if (phaseStartTimes[phase.ordinal()] == 0) {
+                phaseStartTimes[phase.ordinal()] = System.nanoTime();
+            }
+        }
+    }
+
     public void stop() {
         started = false;
         if (startTime == -1) {
@@ -70,10 +85,39 @@ public class ExchangeMetrics {
         if (out != null) {
             outSize = out.getCount();
         }
-        long l = System.nanoTime() - startTime;
+        long now = System.nanoTime();
+        long l = now - startTime;
+        if (phaseStartTimes != null) {
+            stopPhases(now);
+        }
         for (MetricsContext ctx : contexts) {
             ctx.stop(l, inSize, outSize, exchange);
         }
     }
 
+    /**
+     * Splits the time from the start to now at the marks. The first phase marked starts with
+     * the exchange, so that the times of the phases add up to the total time.
+     */
+    private void stopPhases(long now) {
+        MetricsPhase[] phases = MetricsPhase.values();
+        int first = 0;
+        while (first < phases.length && phaseStartTimes[first] == 0) {
+            first++;
+        }
+        long end = now;
+        for (int i = phases.length - 1; i >= first; i--) {
+            long begin = i == first ? startTime : phaseStartTimes[i];
+            if ((i == first || begin != 0) && begin <= end) {
+                for (MetricsContext ctx : contexts) {
+                    if (ctx instanceof PhaseMetricsContext) {
+                        ((PhaseMetricsContext)ctx).phase(phases[i], end - begin, exchange);
+                    }
+                }
+                end = begin;
+            }
+        }
+        phaseStartTimes = null;
+    }
+
 }
@@ -33,6 +33,7 @@ import org.apache.cxf.endpoint.Endpoint;
 import org.apache.cxf.endpoint.Server;
 import org.apache.cxf.feature.AbstractFeature;
 import org.apache.cxf.interceptor.InterceptorProvider;
+import org.apache.cxf.interceptor.ServiceInvokerInterceptor;
 import org.apache.cxf.metrics.interceptors.CountingOutInterceptor;
 import org.apache.cxf.metrics.interceptors.MetricsMessageClientOutInterceptor;
 import org.apache.cxf.metrics.interceptors.MetricsMessageInInterceptor;
@@ -40,6 +41,8 @@ import org.apache.cxf.metrics.interceptors.MetricsMessageInOneWayInterceptor;
 import org.apache.cxf.metrics.interceptors.MetricsMessageInPostInvokeInterceptor;
 import org.apache.cxf.metrics.interceptors.MetricsMessageInPreInvokeInterceptor;
 import org.apache.cxf.metrics.interceptors.MetricsMessageOutInterceptor;
+import org.apache.cxf.metrics.interceptors.MetricsMessagePhaseInterceptor;
+import org.apache.cxf.phase.Phase;
 
 /**
  *
@@ -75,6 +78,7 @@ public class MetricsFeature extends AbstractFeature {
         provider.getOutInterceptors().add(out);
         provider.getOutFaultInterceptors().add(countingOut);
         provider.getOutFaultInterceptors().add(out);
+        addPhaseInterceptors(provider);
     }
 
     @Override
@@ -112,7 +116,23 @@ public class MetricsFeature extends AbstractFeature {
         provider.getOutInterceptors().add(new MetricsMessageClientOutInterceptor(providers));
         provider.getOutFaultInterceptors().add(countingOut);
         provider.getOutFaultInterceptors().add(out);
+        addPhaseInterceptors(provider);
     }
+
+    private void addPhaseInterceptors(InterceptorProvider provider) {
+        MetricsMessagePhaseInterceptor invoke
+            = new MetricsMessagePhaseInterceptor(Phase.INVOKE, MetricsPhase.INVOKE, providers);
+        invoke.addBefore(ServiceInvokerInterceptor.class.getName());
+        MetricsMessagePhaseInterceptor preStream
+            = new MetricsMessagePhaseInterceptor(Phase.PRE_STREAM, MetricsPhase.PRE_STREAM, providers);
+
+        provider.getInInterceptors().add(
+            new MetricsMessagePhaseInterceptor(Phase.PRE_LOGICAL, MetricsPhase.PRE_LOGICAL, providers));
+        provider.getInInterceptors().add(invoke);
+        provider.getOutInterceptors().add(preStream);
+        provider.getOutFaultInterceptors().add(preStream);
+    }
+
     private void createDefaultProvidersIfNeeded(Bus bus) {
         if (providers == null) {
             ConfiguredBeanLocator b = bus.getExtension(ConfiguredBeanLocator.class);
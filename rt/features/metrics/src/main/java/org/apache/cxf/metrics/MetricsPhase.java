@@ -0,0 +1,55 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.metrics;
+
+/**
+ * The stretches of a server side exchange whose time is recorded separately, each named
+ * after the interceptor chain phase it starts with. A stretch ends where the next one starts
+ * or, for the last one, when the response has been sent. When a stretch is skipped, as the
+ * invocation is on a fault, its time is part of the stretch before.
+ */
+public enum MetricsPhase {
+    /**
+     * From RECEIVE to PRE_LOGICAL: reading, decoding and unmarshalling the request.
+     */
+    RECEIVE("Receive"),
+    /**
+     * From PRE_LOGICAL to INVOKE: the logical and pre invoke interceptors.
+     */
+    PRE_LOGICAL("Pre Logical"),
+    /**
+     * From INVOKE to PRE_STREAM: the invocation of the service and the start of the out chain.
+     */
+    INVOKE("Invoke"),
+    /**
+     * From PRE_STREAM to the end of SEND: marshalling and writing the response.
+     */
+    PRE_STREAM("Pre Stream");
+
+    private final String displayName;
+
+    MetricsPhase(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
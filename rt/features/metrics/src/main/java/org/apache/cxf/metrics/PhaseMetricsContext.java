@@ -0,0 +1,38 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.metrics;
+
+import org.apache.cxf.message.Exchange;
+
+/**
+ * A MetricsContext that also records the time spent in each {@link MetricsPhase} of the
+ * server side exchanges.
+ */
+public interface PhaseMetricsContext extends MetricsContext {
+
+    /**
+     * Called for each phase the exchange went through, right before {@link #stop}.
+     *
+     * @param phase
+     * @param timeInNS
+     * @param m
+     */
+    void phase(MetricsPhase phase, long timeInNS, Exchange m);
+}
@@ -25,17 +25,19 @@ import java.util.concurrent.TimeUnit;
 
 import com.codahale.metrics.Counter;
 import com.codahale.metrics.Meter;
+import com.codahale.metrics.Metric;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
 
 import org.apache.cxf.message.Exchange;
 import org.apache.cxf.message.FaultMode;
-import org.apache.cxf.metrics.MetricsContext;
+import org.apache.cxf.metrics.MetricsPhase;
+import org.apache.cxf.metrics.PhaseMetricsContext;
 
 /**
  *
  */
-public class CodahaleMetricsContext implements MetricsContext, Closeable {
+public class CodahaleMetricsContext implements PhaseMetricsContext, Closeable {
     protected Counter inFlight;
     protected Timer totals;
     protected Timer uncheckedApplicationFaults;
@@ -44,6 +46,7 @@ public class CodahaleMetricsContext implements MetricsContext, Closeable {
     protected Timer logicalRuntimeFaults;
     protected Meter incomingData;
     protected Meter outgoingData;
+    protected Timer[] phases;
 
     protected final String baseName;
     protected final MetricRegistry registry;
@@ -60,6 +63,28 @@ public class CodahaleMetricsContext implements MetricsContext, Closeable {
         inFlight = registry.counter(baseName + "Attribute=In Flight");
         incomingData = registry.meter(baseName + "Attribute=Data Read");
         outgoingData = registry.meter(baseName + "Attribute=Data Written");
+        phases = new Timer[MetricsPhase.values().length];
+    }
+
+    private String getPhaseName(MetricsPhase phase) {
+        return baseName + "Attribute=Phase " + phase.getDisplayName();
+    }
+
+    /**
+     * Returns a timer keeping every value in an {@link HdrReservoir}, which unlike the default
+     * reservoir does not decay.
+     */
+    private Timer hdrTimer(String name) {
+        Metric metric = registry.getMetrics().get(name);
+        if (metric instanceof Timer) {
+            return (Timer)metric;
+        }
+        try {
+            return registry.register(name, new Timer(new HdrReservoir()));
+        } catch (IllegalArgumentException ex) {
+            // registered meanwhile
+            return registry.timer(name);
+        }
     }
 
     @Override
@@ -72,6 +97,9 @@ public class CodahaleMetricsContext implements MetricsContext, Closeable {
         registry.remove(baseName + "Attribute=In Flight");
         registry.remove(baseName + "Attribute=Data Read");
         registry.remove(baseName + "Attribute=Data Written");
+        for (MetricsPhase phase : MetricsPhase.values()) {
+            registry.remove(getPhaseName(phase));
+        }
     }
 
 
@@ -79,6 +107,10 @@ public class CodahaleMetricsContext implements MetricsContext, Closeable {
         inFlight.inc();
     }
 
+    public void phase(MetricsPhase phase, long timeInNS, Exchange ex) {
+        getPhase(phase).update(timeInNS, TimeUnit.NANOSECONDS);
+    }
+
     public void stop(long timeInNS, long inSize, long outSize, Exchange ex) {
         totals.update(timeInNS, TimeUnit.NANOSECONDS);
 
@@ -147,6 +179,21 @@ public class CodahaleMetricsContext implements MetricsContext, Closeable {
         return outgoingData;
     }
 
+    /**
+     * Returns the timer of the given phase, which keeps every value so that the high
+     * percentiles are exact to 1%. The timer is created on first use, so that contexts which
+     * never see a phase, such as most client contexts, don't pay for its reservoir.
+     */
+    public Timer getPhase(MetricsPhase phase) {
+        Timer timer = phases[phase.ordinal()];
+        if (timer == null) {
+            // racing threads get the same timer from the registry
+            timer = hdrTimer(getPhaseName(phase));
+            phases[phase.ordinal()] = timer;
+        }
+        return timer;
+    }
+
     public String getBaseName() {
         return baseName;
     }
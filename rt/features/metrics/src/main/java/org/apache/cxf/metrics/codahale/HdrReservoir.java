@@ -0,0 +1,238 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.metrics.codahale;
+
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.codahale.metrics.Reservoir;
+import com.codahale.metrics.Snapshot;
+
+/**
+ * A Reservoir keeping every value, in the way of an HdrHistogram: the values are counted in
+ * buckets whose width grows with the value, so that each bucket stands for its values within
+ * 1%. Recording a value only increments a counter, and unlike the sampling reservoirs
+ * the rare slow requests setting the high percentiles are never sampled away.
+ * <p>
+ * Values up to 2^40 (about 18 minutes in nanoseconds) are told apart, larger ones are counted
+ * as 2^40. Negative values are counted as 0.
+ * <p>
+ * The values never decay: unlike the exponentially decaying reservoir Codahale timers use by
+ * default, which favors the last five minutes, the snapshot covers every value recorded since
+ * the reservoir was created or last {@link #reset()}. The percentiles therefore react slowly
+ * to a change in latency on a long running server; reset the reservoir, e.g. from a scheduled
+ * reporter, to look at recent values only.
+ */
+public class HdrReservoir implements Reservoir {
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_BITS = 40;
+    private static final long MAX_VALUE = 1L << MAX_BITS;
+    private static final int BUCKETS = (MAX_BITS - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+    @Override
+    public int size() {
+        return (int)Math.min(Integer.MAX_VALUE, count.get());
+    }
+
+    @Override
+    public void update(long value) {
+        long v = Math.min(Math.max(value, 0), MAX_VALUE);
+        counts.incrementAndGet(index(v));
+        count.incrementAndGet();
+        long m = max.get();
+        while (v > m && !max.compareAndSet(m, v)) {
+            m = max.get();
+        }
+        m = min.get();
+        while (v < m && !min.compareAndSet(m, v)) {
+            m = min.get();
+        }
+    }
+
+    /**
+     * Clears the recorded values.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        count.set(0);
+        min.set(Long.MAX_VALUE);
+        max.set(Long.MIN_VALUE);
+    }
+
+    static int index(long v) {
+        if (v < SUB_BUCKETS) {
+            return (int)v;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(v) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int)(v >>> shift) - SUB_BUCKETS;
+    }
+
+    static long lowestValue(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        return (long)(SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+    }
+
+    static long middleValue(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        return lowestValue(index) + ((1L << shift) >> 1);
+    }
+
+    @Override
+    public Snapshot getSnapshot() {
+        long[] c = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            c[i] = counts.get(i);
+            total += c[i];
+        }
+        return new HdrSnapshot(c, total, min.get(), max.get());
+    }
+
+    static class HdrSnapshot extends Snapshot {
+        private final long[] counts;
+        private final long total;
+        private final long min;
+        private final long max;
+
+        HdrSnapshot(long[] counts, long total, long min, long max) {
+            this.counts = counts;
+            this.total = total;
+            this.min = total == 0 ? 0 : min;
+            this.max = total == 0 ? 0 : max;
+        }
+
+        @Override
+        public double getValue(double quantile) {
+            if (quantile < 0.0 || quantile > 1.0 || Double.isNaN(quantile)) {
+                throw new IllegalArgumentException(quantile + " is not in [0..1]");
+            }
+            if (total == 0) {
+                return 0.0;
+            }
+            long rank = Math.max(1, (long)Math.ceil(quantile * total));
+            if (rank >= total) {
+                return max;
+            }
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(Math.max(middleValue(i), min), max);
+                }
+            }
+            return max;
+        }
+
+        /**
+         * Returns one value for each bucket holding values, not each value recorded.
+         */
+        @Override
+        public long[] getValues() {
+            int n = 0;
+            for (long c : counts) {
+                if (c > 0) {
+                    n++;
+                }
+            }
+            long[] values = new long[n];
+            n = 0;
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] > 0) {
+                    values[n++] = middleValue(i);
+                }
+            }
+            return values;
+        }
+
+        @Override
+        public int size() {
+            return (int)Math.min(Integer.MAX_VALUE, total);
+        }
+
+        @Override
+        public long getMax() {
+            return max;
+        }
+
+        @Override
+        public long getMin() {
+            return min;
+        }
+
+        @Override
+        public double getMean() {
+            if (total == 0) {
+                return 0.0;
+            }
+            double sum = 0;
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] > 0) {
+                    sum += (double)counts[i] * middleValue(i);
+                }
+            }
+            return sum / total;
+        }
+
+        @Override
+        public double getStdDev() {
+            if (total <= 1) {
+                return 0.0;
+            }
+            double mean = getMean();
+            double sum = 0;
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] > 0) {
+                    double diff = middleValue(i) - mean;
+                    sum += counts[i] * diff * diff;
+                }
+            }
+            return Math.sqrt(sum / (total - 1));
+        }
+
+        @Override
+        public void dump(OutputStream output) {
+            try (PrintWriter out = new PrintWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8))) {
+                for (int i = 0; i < counts.length; i++) {
+                    if (counts[i] > 0) {
+                        out.printf("%d %d%n", middleValue(i), counts[i]);
+                    }
+                }
+            }
+        }
+    }
+}
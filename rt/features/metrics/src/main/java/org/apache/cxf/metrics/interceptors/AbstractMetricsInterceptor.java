@@ -49,6 +49,10 @@ public abstract class AbstractMetricsInterceptor extends AbstractPhaseIntercepto
         super(phase);
         providers = p;
     }
+    public AbstractMetricsInterceptor(String id, String phase, MetricsProvider p[]) {
+        super(id, phase);
+        providers = p;
+    }
 
     protected Collection<? extends MetricsProvider> getMetricProviders(Bus bus) {
         if (providers != null) {
@@ -24,6 +24,7 @@ import org.apache.cxf.interceptor.AttachmentInInterceptor;
 import org.apache.cxf.interceptor.Fault;
 import org.apache.cxf.message.Message;
 import org.apache.cxf.metrics.ExchangeMetrics;
+import org.apache.cxf.metrics.MetricsPhase;
 import org.apache.cxf.metrics.MetricsProvider;
 import org.apache.cxf.phase.Phase;
 
@@ -42,6 +43,7 @@ public class MetricsMessageInInterceptor extends AbstractMetricsInterceptor {
                 message.getExchange().put(CountingInputStream.class, newIn);
             }
             ctx.start();
+            ctx.mark(MetricsPhase.RECEIVE);
         }
     }
     public void handleFault(Message message) {
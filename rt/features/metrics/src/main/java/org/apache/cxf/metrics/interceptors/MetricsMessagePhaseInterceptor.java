@@ -0,0 +1,46 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.metrics.interceptors;
+
+import org.apache.cxf.interceptor.Fault;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.metrics.ExchangeMetrics;
+import org.apache.cxf.metrics.MetricsPhase;
+import org.apache.cxf.metrics.MetricsProvider;
+
+/**
+ * Records when a server side exchange enters one of the {@link MetricsPhase}s.
+ */
+public class MetricsMessagePhaseInterceptor extends AbstractMetricsInterceptor {
+    private final MetricsPhase metricsPhase;
+
+    public MetricsMessagePhaseInterceptor(String phase, MetricsPhase metricsPhase, MetricsProvider p[]) {
+        super(MetricsMessagePhaseInterceptor.class.getName() + "." + metricsPhase.name(), phase, p);
+        this.metricsPhase = metricsPhase;
+    }
+
+    public void handleMessage(Message message) throws Fault {
+        if (!isRequestor(message)) {
+            ExchangeMetrics ctx = getExchangeMetrics(message, false);
+            if (ctx != null) {
+                ctx.mark(metricsPhase);
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.ExchangeImpl;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ExchangeMetricsTest extends Assert {
+
+    @Test
+    public void testPhasesAddUpToTotal() throws Exception {
+        RecordingContext ctx = new RecordingContext();
+        ExchangeMetrics metrics = new ExchangeMetrics(new ExchangeImpl()).addContext(ctx);
+        metrics.start();
+        sleep();
+        metrics.mark(MetricsPhase.RECEIVE);
+        sleep();
+        metrics.mark(MetricsPhase.PRE_LOGICAL);
+        sleep();
+        metrics.mark(MetricsPhase.INVOKE);
+        sleep();
+        metrics.mark(MetricsPhase.PRE_STREAM);
+        sleep();
+        metrics.stop();
+
+        assertEquals(MetricsPhase.values().length, ctx.phases.size());
+        assertEquals(ctx.total, sum(ctx.phases));
+        for (long time : ctx.phases.values()) {
+            assertTrue(time > 0);
+        }
+        // the first phase starts with the exchange, not with its mark
+        assertTrue(ctx.phases.get(MetricsPhase.RECEIVE) >= TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    @Test
+    public void testSkippedPhaseIsPartOfThePhaseBefore() throws Exception {
+        RecordingContext ctx = new RecordingContext();
+        ExchangeMetrics metrics = new ExchangeMetrics(new ExchangeImpl()).addContext(ctx);
+        metrics.start();
+        metrics.mark(MetricsPhase.RECEIVE);
+        sleep();
+        metrics.mark(MetricsPhase.PRE_LOGICAL);
+        sleep();
+        // a fault, the exchange never reaches INVOKE
+        metrics.mark(MetricsPhase.PRE_STREAM);
+        sleep();
+        metrics.stop();
+
+        assertEquals(3, ctx.phases.size());
+        assertFalse(ctx.phases.containsKey(MetricsPhase.INVOKE));
+        assertEquals(ctx.total, sum(ctx.phases));
+    }
+
+    @Test
+    public void testNoPhasesWithoutMarks() throws Exception {
+        RecordingContext ctx = new RecordingContext();
+        ExchangeMetrics metrics = new ExchangeMetrics(new ExchangeImpl()).addContext(ctx);
+        metrics.start();
+        metrics.stop();
+        assertTrue(ctx.phases.isEmpty());
+        assertTrue(ctx.total >= 0);
+    }
+
+    private static long sum(Map<MetricsPhase, Long> phases) {
+        long sum = 0;
+        for (long time : phases.values()) {
+            sum += time;
+        }
+        return sum;
+    }
+
+    private static void sleep() throws InterruptedException {
+        Thread.sleep(1);
+    }
+
+    private static class RecordingContext implements PhaseMetricsContext {
+        final Map<MetricsPhase, Long> phases = new EnumMap<MetricsPhase, Long>(MetricsPhase.class);
+        long total = -1;
+
+        public void start(Exchange m) {
+        }
+
+        public void stop(long timeInNS, long inSize, long outSize, Exchange m) {
+            total = timeInNS;
+        }
+
+        public void phase(MetricsPhase phase, long timeInNS, Exchange m) {
+            assertEquals("phases are recorded before the total", -1, total);
+            phases.put(phase, timeInNS);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.metrics.codahale;
+
+import java.util.concurrent.TimeUnit;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+
+import org.apache.cxf.metrics.MetricsPhase;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CodahaleMetricsContextTest extends Assert {
+    private static final String BASE_NAME = "org.apache.cxf:type=Metrics,";
+
+    @Test
+    public void testPhaseTimersCreatedOnFirstUse() throws Exception {
+        MetricRegistry registry = new MetricRegistry();
+        CodahaleMetricsContext ctx = new CodahaleMetricsContext(BASE_NAME, registry);
+        for (MetricsPhase phase : MetricsPhase.values()) {
+            assertFalse(registry.getMetrics().containsKey(phaseName(phase)));
+        }
+
+        ctx.phase(MetricsPhase.INVOKE, TimeUnit.MILLISECONDS.toNanos(1), null);
+        Timer timer = ctx.getPhase(MetricsPhase.INVOKE);
+        assertSame(timer, registry.getMetrics().get(phaseName(MetricsPhase.INVOKE)));
+        assertEquals(1, timer.getSnapshot().size());
+        assertFalse(registry.getMetrics().containsKey(phaseName(MetricsPhase.RECEIVE)));
+
+        ctx.close();
+        assertFalse(registry.getMetrics().containsKey(phaseName(MetricsPhase.INVOKE)));
+    }
+
+    private static String phaseName(MetricsPhase phase) {
+        return BASE_NAME + "Attribute=Phase " + phase.getDisplayName();
+    }
+}
@@ -0,0 +1,138 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.metrics.codahale;
+
+import com.codahale.metrics.Snapshot;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HdrReservoirTest extends Assert {
+    private static final long MAX_VALUE = 1L << 40;
+
+    @Test
+    public void testBucketBoundaries() {
+        assertEquals(0, HdrReservoir.index(0));
+        assertEquals(63, HdrReservoir.index(63));
+        assertEquals(64, HdrReservoir.index(64));
+        assertEquals(127, HdrReservoir.index(127));
+        assertEquals(128, HdrReservoir.index(128));
+        assertEquals(128, HdrReservoir.index(129));
+        assertEquals(129, HdrReservoir.index(130));
+        assertEquals(63, HdrReservoir.lowestValue(63));
+        assertEquals(64, HdrReservoir.lowestValue(64));
+        assertEquals(127, HdrReservoir.lowestValue(127));
+        assertEquals(128, HdrReservoir.lowestValue(128));
+        assertEquals(130, HdrReservoir.lowestValue(129));
+
+        int last = HdrReservoir.index(MAX_VALUE);
+        assertEquals(MAX_VALUE, HdrReservoir.lowestValue(last));
+        assertEquals(last - 1, HdrReservoir.index(MAX_VALUE - 1));
+    }
+
+    @Test
+    public void testIndexRoundTrip() {
+        int last = HdrReservoir.index(MAX_VALUE);
+        for (int i = 0; i <= last; i++) {
+            long lowest = HdrReservoir.lowestValue(i);
+            assertEquals(i, HdrReservoir.index(lowest));
+            if (i > 0) {
+                assertEquals(i - 1, HdrReservoir.index(lowest - 1));
+            }
+            long middle = HdrReservoir.middleValue(i);
+            assertEquals(i, HdrReservoir.index(middle));
+        }
+    }
+
+    @Test
+    public void testBucketsWithinOnePercent() {
+        long[] values = {1, 63, 64, 65, 100, 127, 128, 129, 1000, 12345, 1L << 20, 987654321L,
+                         (1L << 40) - 1, 1L << 40};
+        for (long v : values) {
+            long middle = HdrReservoir.middleValue(HdrReservoir.index(v));
+            assertEquals(Long.toString(v), v, middle, v * 0.01);
+        }
+    }
+
+    @Test
+    public void testUniformQuantiles() {
+        HdrReservoir reservoir = new HdrReservoir();
+        for (long v = 1; v <= 100000; v++) {
+            reservoir.update(v * 1000);
+        }
+        Snapshot snapshot = reservoir.getSnapshot();
+        assertEquals(100000, snapshot.size());
+        assertEquals(1000, snapshot.getMin());
+        assertEquals(100000000, snapshot.getMax());
+        assertEquals(50000000, snapshot.getMedian(), 500000);
+        assertEquals(75000000, snapshot.get75thPercentile(), 750000);
+        assertEquals(99000000, snapshot.get99thPercentile(), 990000);
+        assertEquals(99900000, snapshot.get999thPercentile(), 999000);
+        assertEquals(50000500, snapshot.getMean(), 500000);
+        // the standard deviation of a uniform distribution is its width / sqrt(12)
+        assertEquals(100000000 / Math.sqrt(12), snapshot.getStdDev(), 290000);
+    }
+
+    @Test
+    public void testRareSlowValuesAreKept() {
+        HdrReservoir reservoir = new HdrReservoir();
+        for (int i = 0; i < 99900; i++) {
+            reservoir.update(1000000);
+        }
+        for (int i = 0; i < 100; i++) {
+            reservoir.update(1000000000);
+        }
+        Snapshot snapshot = reservoir.getSnapshot();
+        assertEquals(1000000, snapshot.get99thPercentile(), 10000);
+        assertEquals(1000000, snapshot.getValue(0.999), 10000);
+        assertEquals(1000000000, snapshot.getValue(0.9991), 10000000);
+        assertEquals(1000000000, snapshot.getMax());
+        assertEquals(2, snapshot.getValues().length);
+    }
+
+    @Test
+    public void testOutOfRangeValues() {
+        HdrReservoir reservoir = new HdrReservoir();
+        reservoir.update(-5);
+        reservoir.update(Long.MAX_VALUE);
+        Snapshot snapshot = reservoir.getSnapshot();
+        assertEquals(0, snapshot.getMin());
+        assertEquals(MAX_VALUE, snapshot.getMax());
+        assertEquals(0, snapshot.getValue(0.5), 0);
+        assertEquals(MAX_VALUE, snapshot.getValue(1.0), 0);
+    }
+
+    @Test
+    public void testEmptyAndReset() {
+        HdrReservoir reservoir = new HdrReservoir();
+        Snapshot snapshot = reservoir.getSnapshot();
+        assertEquals(0, snapshot.size());
+        assertEquals(0, snapshot.getMax());
+        assertEquals(0, snapshot.getMedian(), 0);
+        assertEquals(0, snapshot.getMean(), 0);
+
+        reservoir.update(42);
+        assertEquals(1, reservoir.size());
+        assertEquals(42, reservoir.getSnapshot().getMedian(), 0);
+        reservoir.reset();
+        assertEquals(0, reservoir.size());
+        assertEquals(0, reservoir.getSnapshot().getMax());
+        assertEquals(0, reservoir.getSnapshot().getValues().length);
+    }
+}
@@ -0,0 +1,380 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.throttling;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.cxf.interceptor.Fault;
+import org.apache.cxf.interceptor.Interceptor;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.phase.AbstractPhaseInterceptor;
+import org.apache.cxf.phase.Phase;
+import org.apache.cxf.service.model.BindingOperationInfo;
+import org.apache.cxf.service.model.EndpointInfo;
+
+/**
+ * Limits the number of requests in flight per endpoint, or per operation, and works the limit
+ * out from the observed latencies: the limit shrinks when the latency of the requests grows
+ * beyond its long term average, as it does when a backend slows down, and grows back when
+ * the latency recovers while the limit is being used. Requests beyond the limit are rejected
+ * at once with a 503 and a Retry-After header.
+ *
+ * The limit of each endpoint or operation is kept in its own lock-free counter, the limits
+ * are only recomputed once per sample window, by the thread which closes the window.
+ *
+ * The ThrottlingFeature also adds the {@link #getReleaseInterceptor() release interceptor}, which
+ * gives back the permits of one-way requests and of requests failing in the inbound chain.
+ */
+public class AdaptiveThrottlingManager implements ThrottlingManager {
+    private static final String THROTTLED_KEY = "THROTTLED";
+    private static final String RESOURCE_OPERATION_NAME = "org.apache.cxf.resource.operation.name";
+    // the long term average latency is taken over about 600 windows
+    private static final double LONG_LATENCY_DECAY = 1.0 / 600;
+
+    private final ConcurrentMap<String, Limiter> limiters = new ConcurrentHashMap<>();
+    private final ReleaseInterceptor release = new ReleaseInterceptor();
+
+    private boolean perOperation;
+    private int initialLimit = 20;
+    private int minLimit = 1;
+    private int maxLimit = 1000;
+    private double smoothing = 0.2;
+    private double tolerance = 1.5;
+    private long sampleWindow = 1000;
+    private int minSamples = 10;
+    private long retryAfter = 1000;
+
+    @Override
+    public List<String> getDecisionPhases() {
+        // the operation is only known once the request has been read
+        return Collections.singletonList(perOperation ? Phase.PRE_LOGICAL : Phase.PRE_STREAM);
+    }
+
+    @Override
+    public ThrottleResponse getThrottleResponse(String phase, Message m) {
+        if (m.containsKey(THROTTLED_KEY)) {
+            return null;
+        }
+        m.put(THROTTLED_KEY, true);
+        Exchange ex = m.getExchange();
+        if (perOperation && ex.isOneWay()) {
+            // there is no response to measure the latency with
+            return null;
+        }
+        Limiter limiter = getLimiter(getKey(ex));
+        if (!limiter.tryAcquire()) {
+            return new ThrottleResponse(503, retryAfter);
+        }
+        ex.put(ThrottlingCounter.class, new Permit(limiter));
+        return null;
+    }
+
+    /**
+     * Returns the interceptor to add to the inbound chain next to the decision interceptors.
+     */
+    public Interceptor<Message> getReleaseInterceptor() {
+        return release;
+    }
+
+    protected String getKey(Exchange ex) {
+        EndpointInfo ei = ex.getEndpoint() == null ? null : ex.getEndpoint().getEndpointInfo();
+        String key = ei == null ? "" : ei.getAddress();
+        if (perOperation) {
+            BindingOperationInfo bop = ex.getBindingOperationInfo();
+            if (bop != null) {
+                key += "#" + bop.getName();
+            } else if (ex.get(RESOURCE_OPERATION_NAME) != null) {
+                key += "#" + ex.get(RESOURCE_OPERATION_NAME);
+            }
+        }
+        return key;
+    }
+
+    Limiter getLimiter(String key) {
+        Limiter limiter = limiters.get(key);
+        if (limiter == null) {
+            limiter = new Limiter(initialLimit);
+            Limiter existing = limiters.putIfAbsent(key, limiter);
+            if (existing != null) {
+                limiter = existing;
+            }
+        }
+        return limiter;
+    }
+
+    /**
+     * Returns the current limit of every endpoint, or operation, requests were received for.
+     */
+    public Map<String, Integer> getLimits() {
+        Map<String, Integer> limits = new HashMap<>();
+        for (Map.Entry<String, Limiter> e : limiters.entrySet()) {
+            limits.put(e.getKey(), e.getValue().getLimit());
+        }
+        return limits;
+    }
+
+    /**
+     * Returns the number of requests in flight of every endpoint, or operation.
+     */
+    public Map<String, Integer> getInFlight() {
+        Map<String, Integer> inFlight = new HashMap<>();
+        for (Map.Entry<String, Limiter> e : limiters.entrySet()) {
+            inFlight.put(e.getKey(), e.getValue().inFlight.get());
+        }
+        return inFlight;
+    }
+
+    public boolean isPerOperation() {
+        return perOperation;
+    }
+
+    /**
+     * Limits the requests of every operation on their own, instead of the requests of every endpoint.
+     * The decision is then taken once the request has been read.
+     */
+    public void setPerOperation(boolean perOperation) {
+        this.perOperation = perOperation;
+    }
+
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    public void setInitialLimit(int initialLimit) {
+        this.initialLimit = initialLimit;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public void setMinLimit(int minLimit) {
+        this.minLimit = minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public void setMaxLimit(int maxLimit) {
+        this.maxLimit = maxLimit;
+    }
+
+    public double getSmoothing() {
+        return smoothing;
+    }
+
+    /**
+     * Sets how far, between 0 and 1, the limit moves towards the newly computed limit at every window.
+     */
+    public void setSmoothing(double smoothing) {
+        this.smoothing = smoothing;
+    }
+
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    /**
+     * Sets how many times the long term average latency the latency may reach before the limit shrinks.
+     */
+    public void setTolerance(double tolerance) {
+        this.tolerance = tolerance;
+    }
+
+    public long getSampleWindow() {
+        return sampleWindow;
+    }
+
+    /**
+     * Sets the time in milliseconds the latencies are averaged over before the limit is recomputed.
+     */
+    public void setSampleWindow(long sampleWindow) {
+        this.sampleWindow = sampleWindow;
+    }
+
+    public int getMinSamples() {
+        return minSamples;
+    }
+
+    public void setMinSamples(int minSamples) {
+        this.minSamples = minSamples;
+    }
+
+    public long getRetryAfter() {
+        return retryAfter;
+    }
+
+    /**
+     * Sets the delay in milliseconds rejected clients are asked to wait before retrying.
+     */
+    public void setRetryAfter(long retryAfter) {
+        this.retryAfter = retryAfter;
+    }
+
+    class Limiter {
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicLong samples = new AtomicLong();
+        final AtomicLong latencySum = new AtomicLong();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        final AtomicBoolean updating = new AtomicBoolean();
+        volatile double limit;
+        volatile long windowStart = System.nanoTime();
+        // the long term average latency, in nanoseconds
+        double longLatency;
+
+        Limiter(int limit) {
+            this.limit = limit;
+        }
+
+        int getLimit() {
+            return (int)limit;
+        }
+
+        boolean tryAcquire() {
+            int current = inFlight.get();
+            while (current < (int)limit) {
+                if (inFlight.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+                current = inFlight.get();
+            }
+            return false;
+        }
+
+        void release(long latency) {
+            int current = inFlight.getAndDecrement();
+            int max = maxInFlight.get();
+            while (current > max && !maxInFlight.compareAndSet(max, current)) {
+                max = maxInFlight.get();
+            }
+            samples.incrementAndGet();
+            latencySum.addAndGet(latency);
+            long now = System.nanoTime();
+            if (now - windowStart >= TimeUnit.MILLISECONDS.toNanos(sampleWindow)
+                && samples.get() >= minSamples
+                && updating.compareAndSet(false, true)) {
+                try {
+                    long count = samples.getAndSet(0);
+                    long sum = latencySum.getAndSet(0);
+                    int inUse = maxInFlight.getAndSet(0);
+                    windowStart = now;
+                    if (count > 0) {
+                        update((double)sum / count, inUse);
+                    }
+                } finally {
+                    updating.set(false);
+                }
+            }
+        }
+
+        private void update(double shortLatency, int inUse) {
+            if (longLatency == 0) {
+                longLatency = shortLatency;
+            } else {
+                longLatency = longLatency * (1 - LONG_LATENCY_DECAY) + shortLatency * LONG_LATENCY_DECAY;
+                if (longLatency > 2 * shortLatency) {
+                    // the latency has recovered, let the long term average follow faster
+                    longLatency = longLatency * 0.9 + shortLatency * 0.1;
+                }
+            }
+            double current = limit;
+            double gradient = Math.max(0.5, Math.min(1.0, tolerance * longLatency / shortLatency));
+            double newLimit = current * gradient + Math.sqrt(current);
+            if (inUse < current / 2) {
+                // the limit is not what holds the requests back, do not grow it any further
+                newLimit = Math.min(newLimit, current);
+            }
+            newLimit = current * (1 - smoothing) + newLimit * smoothing;
+            limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        }
+    }
+
+    /**
+     * Gives the request back to its limiter, along with its latency, once the response is sent.
+     */
+    static class Permit extends ThrottlingCounter {
+        private final Limiter limiter;
+        private final long start = System.nanoTime();
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        Permit(Limiter limiter) {
+            this.limiter = limiter;
+        }
+
+        @Override
+        public int incrementAndGet() {
+            return limiter.inFlight.get();
+        }
+
+        @Override
+        public int decrementAndGet() {
+            if (released.compareAndSet(false, true)) {
+                limiter.release(System.nanoTime() - start);
+            }
+            return limiter.inFlight.get();
+        }
+
+        void cancel() {
+            if (released.compareAndSet(false, true)) {
+                limiter.inFlight.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Gives the permit of a one-way request back, as no response will be sent for it, and the
+     * permit of a request whose inbound chain fails, in case no fault is sent for it either.
+     */
+    static class ReleaseInterceptor extends AbstractPhaseInterceptor<Message> {
+        ReleaseInterceptor() {
+            super(Phase.PRE_LOGICAL);
+        }
+
+        @Override
+        public void handleMessage(Message message) throws Fault {
+            Exchange ex = message.getExchange();
+            ThrottlingCounter permit = ex.get(ThrottlingCounter.class);
+            if (ex.isOneWay() && permit instanceof Permit) {
+                ex.remove(ThrottlingCounter.class);
+                ((Permit)permit).cancel();
+            }
+        }
+
+        @Override
+        public void handleFault(Message message) {
+            // the latency up to the fault is as good a sample as the one the fault response gives
+            ThrottlingCounter permit = message.getExchange().get(ThrottlingCounter.class);
+            if (permit instanceof Permit) {
+                permit.decrementAndGet();
+            }
+        }
+    }
+}
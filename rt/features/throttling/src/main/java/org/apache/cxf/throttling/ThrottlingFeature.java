@@ -49,6 +49,9 @@ public class ThrottlingFeature extends AbstractFeature {
         for (String p : m.getDecisionPhases()) {
             provider.getInInterceptors().add(new ThrottlingInterceptor(p, m));
         }
+        if (m instanceof AdaptiveThrottlingManager) {
+            provider.getInInterceptors().add(((AdaptiveThrottlingManager)m).getReleaseInterceptor());
+        }
         provider.getOutInterceptors().add(new ThrottlingResponseInterceptor());
         provider.getOutFaultInterceptors().add(new ThrottlingResponseInterceptor());
     }
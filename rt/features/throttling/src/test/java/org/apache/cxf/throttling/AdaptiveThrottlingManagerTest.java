@@ -0,0 +1,292 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.throttling;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.cxf.bus.managers.PhaseManagerImpl;
+import org.apache.cxf.helpers.CastUtils;
+import org.apache.cxf.interceptor.AbstractBasicInterceptorProvider;
+import org.apache.cxf.interceptor.Fault;
+import org.apache.cxf.interceptor.InterceptorProvider;
+import org.apache.cxf.message.Exchange;
+import org.apache.cxf.message.ExchangeImpl;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
+import org.apache.cxf.phase.AbstractPhaseInterceptor;
+import org.apache.cxf.phase.Phase;
+import org.apache.cxf.phase.PhaseInterceptorChain;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AdaptiveThrottlingManagerTest extends Assert {
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void testAdmission() {
+        AdaptiveThrottlingManager manager = new AdaptiveThrottlingManager();
+        manager.setInitialLimit(3);
+        manager.setRetryAfter(2000);
+
+        List<Message> admitted = new ArrayList<>();
+        for (int x = 0; x < 3; x++) {
+            Message m = createMessage(null);
+            assertNull(manager.getThrottleResponse(manager.getDecisionPhases().get(0), m));
+            assertNotNull(m.getExchange().get(ThrottlingCounter.class));
+            admitted.add(m);
+        }
+        // a decision is only taken once per message
+        assertNull(manager.getThrottleResponse(manager.getDecisionPhases().get(0), admitted.get(0)));
+        assertEquals(Integer.valueOf(3), manager.getInFlight().get(""));
+
+        Message rejected = createMessage(null);
+        ThrottleResponse rsp = manager.getThrottleResponse(manager.getDecisionPhases().get(0), rejected);
+        assertNotNull(rsp);
+        assertEquals(503, rsp.getResponseCode());
+        assertEquals(2000, rsp.getDelay());
+        assertNull(rejected.getExchange().get(ThrottlingCounter.class));
+        assertEquals(Integer.valueOf(3), manager.getInFlight().get(""));
+
+        admitted.get(0).getExchange().get(ThrottlingCounter.class).decrementAndGet();
+        assertEquals(Integer.valueOf(2), manager.getInFlight().get(""));
+        assertNull(manager.getThrottleResponse(manager.getDecisionPhases().get(0), createMessage(null)));
+        assertEquals(Integer.valueOf(3), manager.getInFlight().get(""));
+    }
+
+    @Test
+    public void testPerOperation() {
+        AdaptiveThrottlingManager manager = new AdaptiveThrottlingManager();
+        manager.setPerOperation(true);
+        manager.setInitialLimit(1);
+        String phase = manager.getDecisionPhases().get(0);
+
+        assertNull(manager.getThrottleResponse(phase, createMessage("a")));
+        assertNull(manager.getThrottleResponse(phase, createMessage("b")));
+        assertEquals(503, manager.getThrottleResponse(phase, createMessage("a")).getResponseCode());
+        assertEquals(503, manager.getThrottleResponse(phase, createMessage("b")).getResponseCode());
+        assertEquals(Integer.valueOf(1), manager.getInFlight().get("#a"));
+        assertEquals(Integer.valueOf(1), manager.getInFlight().get("#b"));
+        assertEquals(Integer.valueOf(1), manager.getLimits().get("#a"));
+
+        // one-way operations are not limited, as they have no response to measure the latency with
+        Message oneWay = createMessage("c");
+        oneWay.getExchange().setOneWay(true);
+        assertNull(manager.getThrottleResponse(phase, oneWay));
+        assertNull(oneWay.getExchange().get(ThrottlingCounter.class));
+        assertNull(manager.getInFlight().get("#c"));
+    }
+
+    @Test
+    public void testLimitFollowsLatency() {
+        AdaptiveThrottlingManager manager = new AdaptiveThrottlingManager();
+        manager.setInitialLimit(50);
+        manager.setMaxLimit(100);
+        manager.setSampleWindow(0);
+        manager.setMinSamples(1);
+        AdaptiveThrottlingManager.Limiter limiter = manager.getLimiter("");
+
+        for (int x = 0; x < 20; x++) {
+            runWindow(limiter, 10 * MS);
+        }
+        int steady = limiter.getLimit();
+        assertTrue("limit " + steady, steady >= 50);
+
+        // the backend slows down
+        for (int x = 0; x < 20; x++) {
+            runWindow(limiter, 100 * MS);
+        }
+        int slow = limiter.getLimit();
+        assertTrue("limit " + slow + " after " + steady, slow < steady / 2);
+        assertTrue(slow >= manager.getMinLimit());
+
+        // and recovers
+        for (int x = 0; x < 50; x++) {
+            runWindow(limiter, 10 * MS);
+        }
+        int recovered = limiter.getLimit();
+        assertTrue("limit " + recovered + " after " + slow, recovered > 2 * slow);
+        assertTrue(recovered <= manager.getMaxLimit());
+    }
+
+    @Test
+    public void testLimitDoesNotGrowWhenUnused() {
+        AdaptiveThrottlingManager manager = new AdaptiveThrottlingManager();
+        manager.setInitialLimit(50);
+        manager.setSampleWindow(0);
+        manager.setMinSamples(1);
+        AdaptiveThrottlingManager.Limiter limiter = manager.getLimiter("");
+        for (int x = 0; x < 100; x++) {
+            assertTrue(limiter.tryAcquire());
+            limiter.release(10 * MS);
+        }
+        assertEquals(50, limiter.getLimit());
+    }
+
+    @Test
+    public void testRetryAfter() {
+        Message out = createMessage(null);
+        out.getExchange().put(ThrottleResponse.class, new ThrottleResponse(503, 3000));
+        new ThrottlingResponseInterceptor().handleMessage(out);
+        assertEquals(503, out.get(Message.RESPONSE_CODE));
+        Map<String, List<String>> headers = CastUtils.cast((Map<?, ?>)out.get(Message.PROTOCOL_HEADERS));
+        assertEquals("3", headers.get("Retry-After").get(0));
+    }
+
+    @Test
+    public void testOneWayReleased() {
+        AdaptiveThrottlingManager manager = new AdaptiveThrottlingManager();
+        manager.setInitialLimit(1);
+        Message m = createMessage(null);
+        assertNull(manager.getThrottleResponse(manager.getDecisionPhases().get(0), m));
+        assertEquals(Integer.valueOf(1), manager.getInFlight().get(""));
+
+        // the release interceptor is added once, by the feature, not to every chain
+        assertFalse(m.getInterceptorChain().iterator().hasNext());
+        manager.getReleaseInterceptor().handleMessage(m);
+        assertEquals(Integer.valueOf(1), manager.getInFlight().get(""));
+
+        m.getExchange().setOneWay(true);
+        manager.getReleaseInterceptor().handleMessage(m);
+        assertEquals(Integer.valueOf(0), manager.getInFlight().get(""));
+        assertNull(m.getExchange().get(ThrottlingCounter.class));
+        assertNull(manager.getThrottleResponse(manager.getDecisionPhases().get(0), createMessage(null)));
+    }
+
+    @Test
+    public void testFaultReleased() {
+        AdaptiveThrottlingManager manager = new AdaptiveThrottlingManager();
+        manager.setInitialLimit(1);
+        Message m = createMessage(null);
+        assertNull(manager.getThrottleResponse(manager.getDecisionPhases().get(0), m));
+
+        Message fault = new MessageImpl();
+        m.getExchange().setOutFaultMessage(fault);
+        fault.setExchange(m.getExchange());
+        new ThrottlingResponseInterceptor().handleMessage(fault);
+        assertEquals(Integer.valueOf(0), manager.getInFlight().get(""));
+        // a permit is only given back once
+        new ThrottlingResponseInterceptor().handleMessage(fault);
+        assertEquals(Integer.valueOf(0), manager.getInFlight().get(""));
+        assertNull(manager.getThrottleResponse(manager.getDecisionPhases().get(0), createMessage(null)));
+    }
+
+    @Test
+    public void testInboundFaultReleased() {
+        AdaptiveThrottlingManager manager = new AdaptiveThrottlingManager();
+        manager.setInitialLimit(1);
+        InterceptorProvider provider = new AbstractBasicInterceptorProvider() { };
+        new ThrottlingFeature(manager).initialize(provider, null);
+
+        Message m = createMessage(null);
+        PhaseInterceptorChain chain = (PhaseInterceptorChain)m.getInterceptorChain();
+        chain.add(provider.getInInterceptors());
+        chain.add(new AbstractPhaseInterceptor<Message>(Phase.USER_LOGICAL) {
+            public void handleMessage(Message message) {
+                assertEquals(Integer.valueOf(1), manager.getInFlight().get(""));
+                throw new Fault(new IllegalStateException("failed"));
+            }
+        });
+        // no fault observer, so no fault is sent that could give the permit back
+        assertFalse(chain.doIntercept(m));
+        assertNotNull(m.getContent(Exception.class));
+        assertEquals(Integer.valueOf(0), manager.getInFlight().get(""));
+        assertNull(manager.getThrottleResponse(manager.getDecisionPhases().get(0), createMessage(null)));
+    }
+
+    @Test
+    public void testConcurrentAdmission() throws Exception {
+        final AdaptiveThrottlingManager manager = new AdaptiveThrottlingManager();
+        manager.setInitialLimit(10);
+        manager.setMinLimit(10);
+        manager.setMaxLimit(10);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final AtomicInteger rejected = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int t = 0; t < 16; t++) {
+                results.add(executor.submit(new Callable<Integer>() {
+                    public Integer call() {
+                        int admitted = 0;
+                        for (int x = 0; x < 2000; x++) {
+                            Message m = createMessage(null);
+                            if (manager.getThrottleResponse(manager.getDecisionPhases().get(0), m) != null) {
+                                rejected.incrementAndGet();
+                                continue;
+                            }
+                            admitted++;
+                            int r = running.incrementAndGet();
+                            int max = maxRunning.get();
+                            while (r > max && !maxRunning.compareAndSet(max, r)) {
+                                max = maxRunning.get();
+                            }
+                            Thread.yield();
+                            running.decrementAndGet();
+                            m.getExchange().get(ThrottlingCounter.class).decrementAndGet();
+                        }
+                        return admitted;
+                    }
+                }));
+            }
+            int admitted = 0;
+            for (Future<Integer> f : results) {
+                admitted += f.get(60, TimeUnit.SECONDS);
+            }
+            assertEquals(16 * 2000, admitted + rejected.get());
+            assertTrue(admitted > 0);
+            assertTrue("max running " + maxRunning.get(), maxRunning.get() <= 10);
+            assertEquals(Integer.valueOf(0), manager.getInFlight().get(""));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void runWindow(AdaptiveThrottlingManager.Limiter limiter, long latency) {
+        int n = limiter.getLimit();
+        for (int x = 0; x < n; x++) {
+            assertTrue(limiter.tryAcquire());
+        }
+        for (int x = 0; x < n; x++) {
+            limiter.release(latency);
+        }
+    }
+
+    private static Message createMessage(String operation) {
+        Exchange ex = new ExchangeImpl();
+        if (operation != null) {
+            ex.put("org.apache.cxf.resource.operation.name", operation);
+        }
+        Message m = new MessageImpl();
+        ex.setInMessage(m);
+        m.setExchange(ex);
+        m.setInterceptorChain(new PhaseInterceptorChain(new PhaseManagerImpl().getInPhases()));
+        return m;
+    }
+}
@@ -40,6 +40,7 @@ import org.apache.cxf.jaxrs.model.ClassResourceInfo;
 import org.apache.cxf.jaxrs.model.OperationResourceInfo;
 import org.apache.cxf.jaxrs.model.Parameter;
 import org.apache.cxf.jaxrs.model.ParameterType;
+import org.apache.cxf.jaxrs.model.URITemplateTree;
 import org.apache.cxf.jaxrs.utils.InjectionUtils;
 import org.apache.cxf.jaxrs.utils.JAXRSUtils;
 import org.apache.cxf.service.Service;
@@ -58,6 +59,7 @@ import org.apache.cxf.service.model.ServiceInfo;
 public class JAXRSServiceImpl extends AbstractAttributedInterceptorProvider implements Service, Configurable {
     private static final long serialVersionUID = 6765400202555126993L;
     private List<ClassResourceInfo> classResourceInfos;
+    private volatile URITemplateTree<ClassResourceInfo> classResourceInfoTree;
     private DataBinding dataBinding;
     private Executor executor;
     private Invoker invoker;
@@ -109,6 +111,19 @@ public class JAXRSServiceImpl extends AbstractAttributedInterceptorProvider impl
         return classResourceInfos;
     }
 
+    /**
+     * Returns the tree of the URITemplates of the root resources, created on the first call
+     * and created again once the root resources or their templates have changed.
+     */
+    public URITemplateTree<ClassResourceInfo> getClassResourceInfoTree() {
+        URITemplateTree<ClassResourceInfo> tree = classResourceInfoTree;
+        if (tree == null || !tree.isCreatedFrom(classResourceInfos)) {
+            tree = URITemplateTree.createClassResourceTree(classResourceInfos);
+            classResourceInfoTree = tree;
+        }
+        return tree;
+    }
+
     public List<ServiceInfo> getServiceInfos() {
         if (!createServiceModel) {
             return Collections.emptyList();
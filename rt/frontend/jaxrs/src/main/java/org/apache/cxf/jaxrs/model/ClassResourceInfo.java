@@ -49,6 +49,8 @@ import org.apache.cxf.message.Message;
 public class ClassResourceInfo extends BeanResourceInfo {
 
     private URITemplate uriTemplate;
+    // set once the resource is in a URITemplateTree, which must then see template changes
+    private volatile boolean inTemplateTree;
     private MethodDispatcher methodDispatcher;
     private ResourceProvider resourceProvider;
     private ConcurrentHashMap<SubresourceKey, ClassResourceInfo> subResources
@@ -225,6 +227,13 @@ public class ClassResourceInfo extends BeanResourceInfo {
 
     public void setURITemplate(URITemplate u) {
         uriTemplate = u;
+        if (inTemplateTree) {
+            URITemplateTree.templateChanged();
+        }
+    }
+
+    void addedToTemplateTree() {
+        inTemplateTree = true;
     }
 
     public MethodDispatcher getMethodDispatcher() {
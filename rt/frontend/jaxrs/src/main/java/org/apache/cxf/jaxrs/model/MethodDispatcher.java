@@ -31,6 +31,7 @@ public class MethodDispatcher {
     private Map<Method, OperationResourceInfo> methodToOri =
         new LinkedHashMap<Method, OperationResourceInfo>();
     private ConcurrentHashMap<Method, Method> proxyMethodMap = new ConcurrentHashMap<Method, Method>();
+    private volatile URITemplateTree<OperationResourceInfo> oriTree;
 
     public MethodDispatcher() {
 
@@ -52,6 +53,7 @@ public class MethodDispatcher {
         }
 
         oriToMethod.put(o, primary);
+        oriTree = null;
     }
 
     public OperationResourceInfo getOperationResourceInfo(Method method) {
@@ -62,6 +64,19 @@ public class MethodDispatcher {
         return oriToMethod.keySet();
     }
 
+    /**
+     * Returns the tree of the URITemplates of the bound operations, created on the first call
+     * and created again once the operations or their templates have changed.
+     */
+    public URITemplateTree<OperationResourceInfo> getOperationResourceInfoTree() {
+        URITemplateTree<OperationResourceInfo> tree = oriTree;
+        if (tree == null || !tree.isCreatedFrom(getOperationResourceInfos())) {
+            tree = URITemplateTree.createOperationResourceTree(getOperationResourceInfos());
+            oriTree = tree;
+        }
+        return tree;
+    }
+
     public Method getMethod(OperationResourceInfo op) {
         return oriToMethod.get(op);
     }
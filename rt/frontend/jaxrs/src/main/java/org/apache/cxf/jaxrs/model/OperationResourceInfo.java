@@ -40,6 +40,8 @@ import org.apache.cxf.jaxrs.utils.ResourceUtils;
 
 public class OperationResourceInfo {
     private URITemplate uriTemplate;
+    // set once the resource is in a URITemplateTree, which must then see template changes
+    private volatile boolean inTemplateTree;
     private ClassResourceInfo classResourceInfo;
     private Method methodToInvoke;
     private Method annotatedMethod;
@@ -185,6 +187,13 @@ public class OperationResourceInfo {
 
     public void setURITemplate(URITemplate u) {
         uriTemplate = u;
+        if (inTemplateTree) {
+            URITemplateTree.templateChanged();
+        }
+    }
+
+    void addedToTemplateTree() {
+        inTemplateTree = true;
     }
 
     public ClassResourceInfo getClassResourceInfo() {
@@ -44,17 +44,21 @@ public final class URITemplate {
     private static final String CHARACTERS_TO_ESCAPE = ".*+$()";
     private static final String SLASH = "/";
     private static final String SLASH_QUOTE = "/;";
+    private static final String REGEX_CHARACTERS = "\\[]{}?|^";
 
     private final String template;
     private final List<String> variables = new ArrayList<>();
     private final List<String> customVariables = new ArrayList<>();
     private final Pattern templateRegexPattern;
     private final String literals;
+    private final String literalPrefix;
     private final List<UriChunk> uriChunks;
 
     public URITemplate(String theTemplate) {
         template = theTemplate;
         StringBuilder literalChars = new StringBuilder();
+        StringBuilder prefixChars = new StringBuilder();
+        boolean prefixDone = false;
         StringBuilder patternBuilder = new StringBuilder();
         CurlyBraceTokenizer tok = new CurlyBraceTokenizer(template);
         uriChunks = new ArrayList<>();
@@ -67,7 +71,11 @@ public final class URITemplate {
                 String substr = escapeCharacters(encodedValue);
                 literalChars.append(substr);
                 patternBuilder.append(substr);
+                if (!prefixDone) {
+                    prefixChars.append(encodedValue);
+                }
             } else if (chunk instanceof Variable) {
+                prefixDone = true;
                 Variable var = (Variable)chunk;
                 variables.add(var.getName());
                 if (var.getPattern() != null) {
@@ -81,6 +89,7 @@ public final class URITemplate {
             }
         }
         literals = literalChars.toString();
+        literalPrefix = createLiteralPrefix(prefixChars, prefixDone);
 
         int endPos = patternBuilder.length() - 1;
         boolean endsWithSlash = (endPos >= 0) ? patternBuilder.charAt(endPos) == '/' : false;
@@ -96,6 +105,32 @@ public final class URITemplate {
         return literals;
     }
 
+    /**
+     * Returns the characters every path matched by this template starts with,
+     * that is the literal characters preceding the first template variable.
+     * The prefix is only valid for paths which contain no matrix parameters.
+     *
+     * @return literal prefix, empty if it can not be determined
+     */
+    public String getLiteralPrefix() {
+        return literalPrefix;
+    }
+
+    private static String createLiteralPrefix(StringBuilder prefixChars, boolean hasVariables) {
+        for (int i = 0; i < prefixChars.length(); i++) {
+            if (REGEX_CHARACTERS.indexOf(prefixChars.charAt(i)) != -1) {
+                // not matched literally by the template regex
+                return "";
+            }
+        }
+        int endPos = prefixChars.length() - 1;
+        if (!hasVariables && endPos >= 0 && prefixChars.charAt(endPos) == '/') {
+            // the trailing slash is optional, see the pattern built by the constructor
+            prefixChars.deleteCharAt(endPos);
+        }
+        return prefixChars.toString();
+    }
+
     public String getValue() {
         return template;
     }
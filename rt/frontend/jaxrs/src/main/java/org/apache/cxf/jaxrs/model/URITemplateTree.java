@@ -0,0 +1,206 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.jaxrs.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Radix tree of the literal prefixes of the URITemplates of a set of resources,
+ * used to find the resources whose templates may match a given path without
+ * running every template regex against it.
+ *
+ * The tree only narrows down the candidates: a template whose prefix is found
+ * still has to be matched with {@link URITemplate#match(String, javax.ws.rs.core.MultivaluedMap)}.
+ * Candidates are always returned in the original order, so that selecting among them
+ * gives exactly the same result as selecting among all the resources.
+ *
+ * @param <T> ClassResourceInfo or OperationResourceInfo
+ */
+public final class URITemplateTree<T> {
+    // counts the URITemplates set on resources that are in a tree, trees are created again
+    // after any such change
+    private static final AtomicLong TEMPLATE_CHANGES = new AtomicLong();
+
+    private final List<T> resources;
+    private final Collection<? extends T> source;
+    private final long templateChanges;
+    private final Node root = new Node("");
+
+    private URITemplateTree(Collection<? extends T> source, List<T> resources, List<URITemplate> templates,
+                            long templateChanges) {
+        this.source = source;
+        this.resources = resources;
+        this.templateChanges = templateChanges;
+        for (int i = 0; i < resources.size(); i++) {
+            URITemplate template = templates.get(i);
+            insert(template == null ? "" : template.getLiteralPrefix(), i);
+        }
+    }
+
+    public static URITemplateTree<ClassResourceInfo> createClassResourceTree(
+        Collection<ClassResourceInfo> cris) {
+        long changes = TEMPLATE_CHANGES.get();
+        List<ClassResourceInfo> resources = new ArrayList<>(cris);
+        List<URITemplate> templates = new ArrayList<>(resources.size());
+        for (ClassResourceInfo cri : resources) {
+            cri.addedToTemplateTree();
+            templates.add(cri.getURITemplate());
+        }
+        return new URITemplateTree<ClassResourceInfo>(cris, resources, templates, changes);
+    }
+
+    public static URITemplateTree<OperationResourceInfo> createOperationResourceTree(
+        Collection<OperationResourceInfo> oris) {
+        long changes = TEMPLATE_CHANGES.get();
+        List<OperationResourceInfo> resources = new ArrayList<>(oris);
+        List<URITemplate> templates = new ArrayList<>(resources.size());
+        for (OperationResourceInfo ori : resources) {
+            ori.addedToTemplateTree();
+            templates.add(ori.getURITemplate());
+        }
+        return new URITemplateTree<OperationResourceInfo>(oris, resources, templates, changes);
+    }
+
+    /**
+     * Returns true if the tree was created from this collection of resources, still holding
+     * as many resources, and no URITemplate has been set on a resource since. This check takes
+     * constant time, so resources replaced or reordered in place in the collection are not
+     * noticed: add or remove them instead.
+     */
+    public boolean isCreatedFrom(Collection<? extends T> current) {
+        return current == source && current.size() == resources.size()
+            && TEMPLATE_CHANGES.get() == templateChanges;
+    }
+
+    /**
+     * Records that the URITemplate of a resource in a tree has changed.
+     */
+    static void templateChanged() {
+        TEMPLATE_CHANGES.incrementAndGet();
+    }
+
+    /**
+     * Returns the resources whose templates may match the path, in their original order.
+     */
+    public List<T> getCandidates(String path) {
+        if (path == null || path.indexOf(';') != -1) {
+            // matrix parameters are stripped by URITemplate before matching again
+            return resources;
+        }
+        int[] found = new int[resources.size()];
+        int count = 0;
+        Node node = root;
+        int pos = 0;
+        while (node != null) {
+            for (int idx : node.indexes) {
+                found[count++] = idx;
+            }
+            pos += node.label.length();
+            node = pos < path.length() ? node.findChild(path, pos) : null;
+        }
+        if (count == resources.size()) {
+            return resources;
+        }
+        Arrays.sort(found, 0, count);
+        List<T> candidates = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            candidates.add(resources.get(found[i]));
+        }
+        return candidates;
+    }
+
+    private void insert(String prefix, int index) {
+        Node node = root;
+        int pos = 0;
+        while (pos < prefix.length()) {
+            Node child = node.getChild(prefix.charAt(pos));
+            if (child == null) {
+                child = new Node(prefix.substring(pos));
+                node.addChild(child);
+                node = child;
+                break;
+            }
+            int common = commonLength(child.label, prefix, pos);
+            if (common < child.label.length()) {
+                child = node.split(child, common);
+            }
+            pos += common;
+            node = child;
+        }
+        node.indexes = Arrays.copyOf(node.indexes, node.indexes.length + 1);
+        node.indexes[node.indexes.length - 1] = index;
+    }
+
+    private static int commonLength(String label, String prefix, int pos) {
+        int len = Math.min(label.length(), prefix.length() - pos);
+        int i = 0;
+        while (i < len && label.charAt(i) == prefix.charAt(pos + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static final class Node {
+        private static final Node[] NO_CHILDREN = new Node[0];
+        private static final int[] NO_INDEXES = new int[0];
+
+        private String label;
+        private Node[] children = NO_CHILDREN;
+        private int[] indexes = NO_INDEXES;
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        Node getChild(char ch) {
+            for (Node child : children) {
+                if (child.label.charAt(0) == ch) {
+                    return child;
+                }
+            }
+            return null;
+        }
+
+        Node findChild(String path, int pos) {
+            Node child = getChild(path.charAt(pos));
+            return child != null && path.startsWith(child.label, pos) ? child : null;
+        }
+
+        void addChild(Node child) {
+            children = Arrays.copyOf(children, children.length + 1);
+            children[children.length - 1] = child;
+        }
+
+        Node split(Node child, int at) {
+            Node middle = new Node(child.label.substring(0, at));
+            child.label = child.label.substring(at);
+            middle.children = new Node[] {child};
+            for (int i = 0; i < children.length; i++) {
+                if (children[i] == child) {
+                    children[i] = middle;
+                }
+            }
+            return middle;
+        }
+    }
+}
@@ -31,6 +31,7 @@ import java.lang.reflect.Type;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
@@ -120,6 +121,7 @@ import org.apache.cxf.jaxrs.model.BeanParamInfo;
 import org.apache.cxf.jaxrs.model.BeanResourceInfo;
 import org.apache.cxf.jaxrs.model.ClassResourceInfo;
 import org.apache.cxf.jaxrs.model.ClassResourceInfoComparator;
+import org.apache.cxf.jaxrs.model.MethodDispatcher;
 import org.apache.cxf.jaxrs.model.MethodInvocationInfo;
 import org.apache.cxf.jaxrs.model.OperationResourceInfo;
 import org.apache.cxf.jaxrs.model.OperationResourceInfoComparator;
@@ -150,6 +152,7 @@ public final class JAXRSUtils {
     public static final String PARTIAL_HIERARCHICAL_MEDIA_SUBTYPE_CHECK =
         "media.subtype.partial.check";
     public static final String DOC_LOCATION = "wadl.location";
+    public static final String RESOURCE_PATH_TREE = "resource.path.tree";
     public static final String MEDIA_TYPE_Q_PARAM = "q";
     public static final String MEDIA_TYPE_QS_PARAM = "qs";
     private static final String MEDIA_TYPE_DISTANCE_PARAM = "d";
@@ -312,7 +315,7 @@ public final class JAXRSUtils {
             new TreeMap<ClassResourceInfo, MultivaluedMap<String, String>>(
                 new ClassResourceInfoComparator(message));
 
-        for (ClassResourceInfo cri : resources) {
+        for (ClassResourceInfo cri : getCandidateResourceClasses(resources, path, message)) {
             MultivaluedMap<String, String> map = new MetadataMap<String, String>();
             if (cri.getURITemplate().match(path, map)) {
                 candidateList.put(cri, map);
@@ -358,6 +361,21 @@ public final class JAXRSUtils {
 
         return null;
     }
+
+    private static List<ClassResourceInfo> getCandidateResourceClasses(List<ClassResourceInfo> resources,
+                                                                       String path,
+                                                                       Message message) {
+        if (message != null && message.getExchange() != null
+            && MessageUtils.getContextualBoolean(message, RESOURCE_PATH_TREE, false)) {
+            Service service = message.getExchange().getService();
+            if (service instanceof JAXRSServiceImpl
+                && ((JAXRSServiceImpl)service).getClassResourceInfos() == resources) {
+                return ((JAXRSServiceImpl)service).getClassResourceInfoTree().getCandidates(path);
+            }
+        }
+        return resources;
+    }
+
     public static OperationResourceInfo findTargetMethod(
         Map<ClassResourceInfo, MultivaluedMap<String, String>> matchedResources,
         Message message,
@@ -397,6 +415,7 @@ public final class JAXRSUtils {
         int pathMatched = 0;
         int methodMatched = 0;
         int consumeMatched = 0;
+        final boolean usePathTree = MessageUtils.getContextualBoolean(message, RESOURCE_PATH_TREE, false);
 
         List<OperationResourceInfo> finalPathSubresources = null;
         for (Map.Entry<ClassResourceInfo, MultivaluedMap<String, String>> rEntry : matchedResources.entrySet()) {
@@ -413,7 +432,11 @@ public final class JAXRSUtils {
 
             }
 
-            for (OperationResourceInfo ori : resource.getMethodDispatcher().getOperationResourceInfos()) {
+            MethodDispatcher dispatcher = resource.getMethodDispatcher();
+            Collection<OperationResourceInfo> oris = usePathTree
+                ? dispatcher.getOperationResourceInfoTree().getCandidates(path)
+                : dispatcher.getOperationResourceInfos();
+            for (OperationResourceInfo ori : oris) {
                 boolean added = false;
 
                 URITemplate uriTemplate = ori.getURITemplate();
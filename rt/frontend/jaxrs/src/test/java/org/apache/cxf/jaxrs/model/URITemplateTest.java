@@ -740,4 +740,15 @@ public class URITemplateTest extends Assert {
         //System.out.println(ut.encodeLiteralCharacters());
         assertEquals("a%20{digit:[0-9]}%20b", ut.encodeLiteralCharacters(false));
     }
+
+    @Test
+    public void testLiteralPrefix() {
+        assertEquals("/books/", new URITemplate("/books/{id}").getLiteralPrefix());
+        assertEquals("/books", new URITemplate("/books/").getLiteralPrefix());
+        assertEquals("/books/a%20b", new URITemplate("/books/a b").getLiteralPrefix());
+        assertEquals("/books/a.b/", new URITemplate("/books/a.b/{id}/c").getLiteralPrefix());
+        assertEquals("/", new URITemplate("/{id:.*}").getLiteralPrefix());
+        assertEquals("", new URITemplate("/").getLiteralPrefix());
+        assertEquals("/books/a%3Fb", new URITemplate("/books/a?b").getLiteralPrefix());
+    }
 }
@@ -0,0 +1,123 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.jaxrs.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.cxf.jaxrs.impl.MetadataMap;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class URITemplateTreeTest extends Assert {
+
+    @Test
+    public void testCandidates() {
+        List<ClassResourceInfo> cris = createResources("/books/{id}", "/books/special", "/bookstore/",
+                                                       "/{any}", "/music/{id}", "/books");
+        URITemplateTree<ClassResourceInfo> tree = URITemplateTree.createClassResourceTree(cris);
+
+        assertEquals(templates("/books/{id}", "/books/special", "/{any}", "/books"),
+                     templates(tree.getCandidates("/books/special")));
+        assertEquals(templates("/books/{id}", "/{any}", "/books"),
+                     templates(tree.getCandidates("/books/1")));
+        assertEquals(templates("/bookstore/", "/{any}", "/books"),
+                     templates(tree.getCandidates("/bookstore")));
+        assertEquals(templates("/{any}", "/music/{id}"),
+                     templates(tree.getCandidates("/music/1")));
+        assertEquals(templates("/{any}"),
+                     templates(tree.getCandidates("/films")));
+        assertTrue(tree.getCandidates("").isEmpty());
+    }
+
+    @Test
+    public void testMatrixParametersReturnAll() {
+        List<ClassResourceInfo> cris = createResources("/books/{id}", "/music/{id}");
+        URITemplateTree<ClassResourceInfo> tree = URITemplateTree.createClassResourceTree(cris);
+        assertEquals(cris, tree.getCandidates("/books;a=b/1"));
+        assertEquals(cris, tree.getCandidates(null));
+    }
+
+    @Test
+    public void testCandidatesIncludeAllMatches() {
+        String[] values = {"/", "/a", "/a/", "/a/{b}", "/a/b", "/a/b/{c}", "/ab", "/a b", "/{x:a|b}/c",
+                           "/a/{b}/c", "/a.b", "/a/b/c/d"};
+        List<ClassResourceInfo> cris = createResources(values);
+        URITemplateTree<ClassResourceInfo> tree = URITemplateTree.createClassResourceTree(cris);
+        String[] paths = {"/", "/a", "/a/", "/a/b", "/a/b/", "/a/b/c", "/a/b/c/d/e", "/ab", "/a%20b",
+                          "/b/c", "/a.b", "/axb", "/c"};
+        for (String path : paths) {
+            List<ClassResourceInfo> candidates = tree.getCandidates(path);
+            for (ClassResourceInfo cri : cris) {
+                if (cri.getURITemplate().match(path, new MetadataMap<String, String>())) {
+                    assertTrue(cri.getURITemplate().getValue() + " should be a candidate for " + path,
+                               candidates.contains(cri));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testIsCreatedFrom() {
+        List<ClassResourceInfo> cris = createResources("/books/{id}", "/music/{id}");
+        URITemplateTree<ClassResourceInfo> tree = URITemplateTree.createClassResourceTree(cris);
+        assertTrue(tree.isCreatedFrom(cris));
+        assertFalse(tree.isCreatedFrom(new ArrayList<>(cris)));
+
+        cris.addAll(createResources("/films/{id}"));
+        assertFalse(tree.isCreatedFrom(cris));
+        tree = URITemplateTree.createClassResourceTree(cris);
+        assertEquals(templates("/films/{id}"), templates(tree.getCandidates("/films/1")));
+
+        cris.get(0).setURITemplate(new URITemplate("/films"));
+        assertFalse(tree.isCreatedFrom(cris));
+        tree = URITemplateTree.createClassResourceTree(cris);
+        assertTrue(tree.isCreatedFrom(cris));
+
+        // resources that are in no tree yet do not invalidate it
+        createResources("/other").get(0).setURITemplate(new URITemplate("/other/{id}"));
+        assertTrue(tree.isCreatedFrom(cris));
+
+        cris.remove(2);
+        assertFalse(tree.isCreatedFrom(cris));
+    }
+
+    private static List<ClassResourceInfo> createResources(String... values) {
+        List<ClassResourceInfo> cris = new ArrayList<>();
+        for (String value : values) {
+            ClassResourceInfo cri = new ClassResourceInfo(Object.class);
+            cri.setURITemplate(new URITemplate(value));
+            cris.add(cri);
+        }
+        return cris;
+    }
+
+    private static List<String> templates(String... values) {
+        return Arrays.asList(values);
+    }
+
+    private static List<String> templates(List<ClassResourceInfo> cris) {
+        List<String> values = new ArrayList<>();
+        for (ClassResourceInfo cri : cris) {
+            values.add(cri.getURITemplate().getValue());
+        }
+        return values;
+    }
+}
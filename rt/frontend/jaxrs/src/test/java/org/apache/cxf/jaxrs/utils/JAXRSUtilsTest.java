@@ -104,6 +104,7 @@ import org.apache.cxf.message.Exchange;
 import org.apache.cxf.message.ExchangeImpl;
 import org.apache.cxf.message.Message;
 import org.apache.cxf.message.MessageImpl;
+import org.apache.cxf.service.Service;
 import org.apache.cxf.transport.http.AbstractHTTPDestination;
 import org.easymock.EasyMock;
 
@@ -366,6 +367,67 @@ public class JAXRSUtilsTest extends Assert {
 
     }
 
+    @Test
+    public void testFindTargetResourceClassWithPathTree() throws Exception {
+        JAXRSServiceFactoryBean sf = new JAXRSServiceFactoryBean();
+        sf.setResourceClasses(org.apache.cxf.jaxrs.resources.BookStoreNoSubResource.class,
+                              org.apache.cxf.jaxrs.resources.BookStoreTemplates.class);
+        sf.create();
+        List<ClassResourceInfo> resources = ((JAXRSServiceImpl)sf.getService()).getClassResourceInfos();
+
+        String[][] requests = {{"/bookstore/1/books/123", "GET", "application/xml"},
+                               {"/bookstore/1/books/123", "GET", "application/json"},
+                               {"/bookstore/1/books", "GET", "application/xml"},
+                               {"/bookstore/1/books", "POST", "application/xml"},
+                               {"/bookstore/1/books/123", "DELETE", "application/xml"},
+                               {"/1/2/", "GET", "*/*"},
+                               {"/2", "POST", "*/*"},
+                               {"/3/4", "PUT", "*/*"}};
+        for (String[] request : requests) {
+            OperationResourceInfo expected =
+                findTargetMethod(resources, createMessage2(), createMessage2(), request);
+            assertNotNull(expected);
+
+            Message selectMessage = createMessage2();
+            selectMessage.put(JAXRSUtils.RESOURCE_PATH_TREE, true);
+            selectMessage.getExchange().put(Service.class, sf.getService());
+            Message m = createMessage2();
+            m.put(JAXRSUtils.RESOURCE_PATH_TREE, true);
+            assertSame(request[0], expected, findTargetMethod(resources, selectMessage, m, request));
+        }
+    }
+
+    @Test
+    public void testFindTargetResourceClassWithPathTreeAfterAddingResource() throws Exception {
+        JAXRSServiceFactoryBean sf = new JAXRSServiceFactoryBean();
+        sf.setResourceClasses(org.apache.cxf.jaxrs.resources.BookStoreNoSubResource.class);
+        sf.create();
+        List<ClassResourceInfo> resources = ((JAXRSServiceImpl)sf.getService()).getClassResourceInfos();
+
+        String[] request = {"/2", "POST", "*/*"};
+        Message selectMessage = createMessage2();
+        selectMessage.put(JAXRSUtils.RESOURCE_PATH_TREE, true);
+        selectMessage.getExchange().put(Service.class, sf.getService());
+        assertNull(JAXRSUtils.selectResourceClass(resources, request[0], selectMessage));
+
+        resources.add(ResourceUtils.createClassResourceInfo(
+            org.apache.cxf.jaxrs.resources.BookStoreTemplates.class,
+            org.apache.cxf.jaxrs.resources.BookStoreTemplates.class, true, true));
+        OperationResourceInfo ori = findTargetMethod(resources, selectMessage, createMessage2(), request);
+        assertNotNull(ori);
+        assertEquals("updateBookStoreInfo", ori.getMethodToInvoke().getName());
+    }
+
+    private static OperationResourceInfo findTargetMethod(List<ClassResourceInfo> resources,
+                                                          Message selectMessage,
+                                                          Message m,
+                                                          String[] request) {
+        Map<ClassResourceInfo, MultivaluedMap<String, String>> mResources =
+            JAXRSUtils.selectResourceClass(resources, request[0], selectMessage);
+        return mResources == null ? null : JAXRSUtils.findTargetMethod(mResources, m, request[1],
+            new MetadataMap<String, String>(), "*/*", JAXRSUtils.parseMediaTypes(request[2]));
+    }
+
     private List<MediaType> getTypes(String types) {
         return JAXRSUtils.parseMediaTypes(types);
     }
@@ -34,6 +34,7 @@ import javax.xml.soap.SOAPElement;
 import javax.xml.soap.SOAPException;
 import javax.xml.soap.SOAPHeader;
 import javax.xml.soap.SOAPMessage;
+import javax.xml.stream.XMLStreamConstants;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
 import javax.xml.transform.dom.DOMSource;
@@ -43,7 +44,10 @@ import javax.xml.ws.handler.MessageContext;
 import javax.xml.ws.handler.soap.SOAPHandler;
 import javax.xml.ws.handler.soap.SOAPMessageContext;
 
+import org.w3c.dom.Element;
+
 import org.apache.cxf.binding.soap.HeaderUtil;
+import org.apache.cxf.binding.soap.LazySoapHeader;
 import org.apache.cxf.binding.soap.SoapMessage;
 import org.apache.cxf.binding.soap.interceptor.AbstractSoapInterceptor;
 import org.apache.cxf.binding.soap.interceptor.SoapInterceptor;
@@ -52,6 +56,7 @@ import org.apache.cxf.binding.soap.saaj.SAAJInInterceptor;
 import org.apache.cxf.binding.soap.saaj.SAAJOutInterceptor;
 import org.apache.cxf.binding.soap.saaj.SAAJUtils;
 import org.apache.cxf.endpoint.Endpoint;
+import org.apache.cxf.headers.Header;
 import org.apache.cxf.helpers.CastUtils;
 import org.apache.cxf.interceptor.Fault;
 import org.apache.cxf.interceptor.Interceptor;
@@ -62,6 +67,7 @@ import org.apache.cxf.jaxws.handler.HandlerChainInvoker;
 import org.apache.cxf.message.Exchange;
 import org.apache.cxf.message.Message;
 import org.apache.cxf.message.MessageImpl;
+import org.apache.cxf.message.MessageUtils;
 import org.apache.cxf.phase.Phase;
 import org.apache.cxf.staxutils.StaxUtils;
 import org.apache.cxf.transport.MessageObserver;
@@ -70,6 +76,14 @@ import org.apache.cxf.ws.addressing.Names;
 public class SOAPHandlerInterceptor extends
         AbstractProtocolHandlerInterceptor<SoapMessage> implements
         SoapInterceptor {
+    /**
+     * Contextual property which, if set to true, lets the handlers of an incoming message run
+     * without a SAAJ SOAPMessage being created for it. The SOAPMessage is then only created if
+     * a handler asks for it; the headers are available through getHeaders without it. Defaults
+     * to false.
+     */
+    public static final String LAZY_SAAJ = "org.apache.cxf.jaxws.handler.soap.lazySAAJ";
+
     private static final SAAJOutInterceptor SAAJ_OUT = new SAAJOutInterceptor();
 
     AbstractSoapInterceptor ending = new AbstractSoapInterceptor(
@@ -251,8 +265,17 @@ public class SOAPHandlerInterceptor extends
 
         Exchange exch = message.getExchange();
         setupBindingOperationInfo(exch, sm);
-        SOAPMessage msg = sm.getMessage();
-        if (msg != null) {
+        SOAPMessage msg = isLazySAAJ(message) ? sm.getExistingMessage() : sm.getMessage();
+        if (msg == null && !isOutbound(message)) {
+            // the SOAPMessage is only created if a handler asks for it
+            message.put(MessageContext.REFERENCE_PARAMETERS, getReferenceParameters(message));
+            if (isRequestor(message)) {
+                XMLStreamReader reader = moveToBodyElement(message);
+                if (reader != null && message.getVersion().getFault().equals(reader.getName())) {
+                    return null;
+                }
+            }
+        } else if (msg != null) {
             try {
                 List<SOAPElement> params = new ArrayList<>();
                 message.put(MessageContext.REFERENCE_PARAMETERS, params);
@@ -314,12 +337,72 @@ public class SOAPHandlerInterceptor extends
         }
     }
 
+    private static boolean isLazySAAJ(SoapMessage message) {
+        return MessageUtils.getContextualBoolean(message, LAZY_SAAJ, false);
+    }
+
+    private static List<Element> getReferenceParameters(SoapMessage message) {
+        List<Element> params = new ArrayList<>();
+        for (Header h : message.getHeaders()) {
+            if (h.getDirection() != Header.Direction.DIRECTION_IN) {
+                continue;
+            }
+            String isRefParam = null;
+            Element el = null;
+            if (h instanceof LazySoapHeader && !((LazySoapHeader)h).isParsed()) {
+                // look at the attribute without parsing the header
+                try {
+                    XMLStreamReader reader = ((LazySoapHeader)h).createXMLStreamReader();
+                    reader.nextTag();
+                    isRefParam = reader.getAttributeValue(Names.WSA_NAMESPACE_NAME, "IsReferenceParameter");
+                    reader.close();
+                } catch (XMLStreamException e) {
+                    throw new Fault(e);
+                }
+            } else if (h instanceof LazySoapHeader) {
+                el = ((LazySoapHeader)h).getElement();
+            } else if (h.getObject() instanceof Element) {
+                el = (Element)h.getObject();
+            }
+            if (el != null && el.hasAttributeNS(Names.WSA_NAMESPACE_NAME, "IsReferenceParameter")) {
+                isRefParam = el.getAttributeNS(Names.WSA_NAMESPACE_NAME, "IsReferenceParameter");
+            }
+            if ("1".equals(isRefParam) || Boolean.parseBoolean(isRefParam)) {
+                params.add(el == null ? ((LazySoapHeader)h).getElement() : el);
+            }
+        }
+        return params;
+    }
+
+    /**
+     * Moves the reader of the incoming message past any white space to the first element in
+     * the soap:Body, which the data binding skips over as well, and returns it if there is one.
+     */
+    private static XMLStreamReader moveToBodyElement(Message message) {
+        XMLStreamReader reader = message.getContent(XMLStreamReader.class);
+        if (reader == null) {
+            return null;
+        }
+        try {
+            int event = reader.getEventType();
+            while (event != XMLStreamConstants.START_ELEMENT && event != XMLStreamConstants.END_ELEMENT
+                && reader.hasNext()) {
+                event = reader.next();
+            }
+            return event == XMLStreamConstants.START_ELEMENT ? reader : null;
+        } catch (XMLStreamException e) {
+            throw new Fault(e);
+        }
+    }
+
     protected QName getOpQName(Exchange ex, Object data) {
         SOAPMessageContextImpl sm = (SOAPMessageContextImpl)data;
         try {
-            SOAPMessage msg = sm.getMessage();
+            SoapMessage message = (SoapMessage)sm.getWrappedMessage();
+            SOAPMessage msg = isLazySAAJ(message) ? sm.getExistingMessage() : sm.getMessage();
             if (msg == null) {
-                return null;
+                XMLStreamReader reader = isOutbound(message) ? null : moveToBodyElement(message);
+                return reader == null ? null : reader.getName();
             }
             SOAPBody body = SAAJUtils.getBody(msg);
             if (body == null) {
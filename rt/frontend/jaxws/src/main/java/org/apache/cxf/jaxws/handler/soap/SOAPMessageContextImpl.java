@@ -38,9 +38,14 @@ import javax.xml.ws.WebServiceException;
 import javax.xml.ws.handler.MessageContext;
 import javax.xml.ws.handler.soap.SOAPMessageContext;
 
+import org.w3c.dom.Element;
+
+import org.apache.cxf.binding.soap.LazySoapHeader;
+import org.apache.cxf.binding.soap.SoapHeader;
 import org.apache.cxf.binding.soap.SoapMessage;
 import org.apache.cxf.binding.soap.saaj.SAAJInInterceptor;
 import org.apache.cxf.common.jaxb.JAXBUtils;
+import org.apache.cxf.headers.Header;
 import org.apache.cxf.helpers.CastUtils;
 import org.apache.cxf.jaxws.context.WrappedMessageContext;
 import org.apache.cxf.message.Message;
@@ -64,12 +69,7 @@ public class SOAPMessageContextImpl extends WrappedMessageContext implements SOA
     }
 
     public SOAPMessage getMessage() {
-        SOAPMessage message = null;
-        if (getWrappedMessage().getContent(Object.class) instanceof SOAPMessage) {
-            message = (SOAPMessage)getWrappedMessage().getContent(Object.class);
-        } else {
-            message = getWrappedMessage().getContent(SOAPMessage.class);
-        }
+        SOAPMessage message = getExistingMessage();
 
         //Only happens to non-Dispatch/Provider case.
         if (null == message) {
@@ -83,8 +83,25 @@ public class SOAPMessageContextImpl extends WrappedMessageContext implements SOA
         return message;
     }
 
+    /**
+     * Returns the SOAPMessage of the message if there is one, without creating it.
+     */
+    SOAPMessage getExistingMessage() {
+        if (getWrappedMessage().getContent(Object.class) instanceof SOAPMessage) {
+            return (SOAPMessage)getWrappedMessage().getContent(Object.class);
+        }
+        return getWrappedMessage().getContent(SOAPMessage.class);
+    }
+
     public Object[] getHeaders(QName name, JAXBContext context, boolean allRoles) {
-        SOAPMessage msg = getMessage();
+        SOAPMessage msg = getExistingMessage();
+        if (msg == null) {
+            Object[] headers = getReadHeaders(name, context, allRoles);
+            if (headers != null) {
+                return headers;
+            }
+            msg = getMessage();
+        }
         SOAPHeader header;
         try {
             header = msg.getSOAPPart().getEnvelope().getHeader();
@@ -109,6 +126,35 @@ public class SOAPMessageContextImpl extends WrappedMessageContext implements SOA
         }
     }
 
+    /**
+     * Unmarshals the matching headers read off the wire, without creating the SOAPMessage.
+     * Returns null if the element of a matching header is not available any more.
+     */
+    private Object[] getReadHeaders(QName name, JAXBContext context, boolean allRoles) {
+        List<Object> ret = new ArrayList<>();
+        try {
+            for (Header h : getWrappedSoapMessage().getHeaders()) {
+                if (h.getDirection() != Header.Direction.DIRECTION_IN || !name.equals(h.getName())) {
+                    continue;
+                }
+                String actor = h instanceof SoapHeader ? ((SoapHeader)h).getActor() : null;
+                if (!allRoles && !roles.contains(actor)) {
+                    continue;
+                }
+                if (h instanceof LazySoapHeader) {
+                    ret.add(JAXBUtils.unmarshall(context, ((LazySoapHeader)h).createXMLStreamReader()));
+                } else if (h.getObject() instanceof Element) {
+                    ret.add(JAXBUtils.unmarshall(context, (Element)h.getObject()));
+                } else {
+                    return null;
+                }
+            }
+        } catch (JAXBException e) {
+            throw new WebServiceException(e);
+        }
+        return ret.toArray(new Object[ret.size()]);
+    }
+
     public Set<String> getRoles() {
         return roles;
     }
@@ -23,11 +23,15 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlValue;
 import javax.xml.namespace.QName;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.soap.MessageFactory;
@@ -53,6 +57,7 @@ import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 
+import org.apache.cxf.binding.soap.LazySoapHeader;
 import org.apache.cxf.binding.soap.Soap11;
 import org.apache.cxf.binding.soap.SoapMessage;
 import org.apache.cxf.binding.soap.SoapVersion;
@@ -447,6 +452,118 @@ public class SOAPHandlerInterceptorTest extends Assert {
         assertEquals("sendReceiveData", qn.getLocalPart());
     }
 
+    @Test
+    public void testSOAPMessageBuiltInBoundByDefault() throws Exception {
+        @SuppressWarnings("rawtypes")
+        List<Handler> list = new ArrayList<>();
+        list.add(new SOAPHandler<SOAPMessageContext>() {
+            public boolean handleMessage(SOAPMessageContext smc) {
+                return true;
+            }
+
+            public boolean handleFault(SOAPMessageContext smc) {
+                return true;
+            }
+
+            public Set<QName> getHeaders() {
+                return null;
+            }
+
+            public void close(MessageContext messageContext) {
+            }
+        });
+        HandlerChainInvoker invoker = new HandlerChainInvoker(list);
+
+        IMocksControl control = createNiceControl();
+        Binding binding = control.createMock(Binding.class);
+        Exchange exchange = control.createMock(Exchange.class);
+        expect(binding.getHandlerChain()).andReturn(list).anyTimes();
+        expect(exchange.get(HandlerChainInvoker.class)).andReturn(invoker).anyTimes();
+        // This is to set direction to inbound
+        expect(exchange.getOutMessage()).andReturn(null);
+
+        SoapMessage message = new SoapMessage(new MessageImpl());
+        message.setExchange(exchange);
+        XMLStreamReader reader = preparemXMLStreamReader("resources/greetMeRpcLitReq.xml");
+        message.setContent(XMLStreamReader.class, reader);
+        control.replay();
+
+        SOAPHandlerInterceptor li = new SOAPHandlerInterceptor(binding);
+        li.handleMessage(message);
+        control.verify();
+
+        // the handler never asked for it, but the SOAPMessage is built unless lazySAAJ is set
+        assertNotNull(message.getContent(SOAPMessage.class));
+        assertNotSame(reader, message.getContent(XMLStreamReader.class));
+    }
+
+    @Test
+    public void testGetHeadersInBoundWithoutSOAPMessage() throws Exception {
+        final QName headerName = new QName("http://apache.org/hello_world_rpclit/types", "header1");
+        final List<Object> headers = new ArrayList<>();
+        @SuppressWarnings("rawtypes")
+        List<Handler> list = new ArrayList<>();
+        list.add(new SOAPHandler<SOAPMessageContext>() {
+            public boolean handleMessage(SOAPMessageContext smc) {
+                try {
+                    JAXBContext context = JAXBContext.newInstance(Header1.class);
+                    for (Object o : smc.getHeaders(headerName, context, true)) {
+                        headers.add(o);
+                    }
+                } catch (Exception e) {
+                    throw new Fault(e);
+                }
+                return true;
+            }
+
+            public boolean handleFault(SOAPMessageContext smc) {
+                return true;
+            }
+
+            public Set<QName> getHeaders() {
+                return Collections.singleton(headerName);
+            }
+
+            public void close(MessageContext messageContext) {
+            }
+        });
+        HandlerChainInvoker invoker = new HandlerChainInvoker(list);
+
+        IMocksControl control = createNiceControl();
+        Binding binding = control.createMock(Binding.class);
+        Exchange exchange = control.createMock(Exchange.class);
+        expect(binding.getHandlerChain()).andReturn(list).anyTimes();
+        expect(exchange.get(HandlerChainInvoker.class)).andReturn(invoker).anyTimes();
+        // This is to set direction to inbound
+        expect(exchange.getOutMessage()).andReturn(null);
+
+        SoapMessage message = new SoapMessage(new MessageImpl());
+        message.setExchange(exchange);
+        message.put(SOAPHandlerInterceptor.LAZY_SAAJ, Boolean.TRUE);
+        XMLStreamReader reader = preparemXMLStreamReader("resources/greetMeRpcLitReq.xml");
+        message.setContent(XMLStreamReader.class, reader);
+        String header = "<ns2:header1 xmlns:ns2=\"http://apache.org/hello_world_rpclit/types\""
+            + " xmlns:wsa=\"http://www.w3.org/2005/08/addressing\" wsa:IsReferenceParameter=\"true\">"
+            + "value1</ns2:header1>";
+        message.getHeaders().add(new LazySoapHeader(headerName, header.getBytes("UTF-8")));
+        control.replay();
+
+        SOAPHandlerInterceptor li = new SOAPHandlerInterceptor(binding);
+        li.handleMessage(message);
+        control.verify();
+
+        assertEquals(1, headers.size());
+        assertEquals("value1", ((Header1)headers.get(0)).getValue());
+        List<?> params = (List<?>)message.get(MessageContext.REFERENCE_PARAMETERS);
+        assertEquals(1, params.size());
+        assertEquals("header1", ((Element)params.get(0)).getLocalName());
+
+        // no SOAPMessage was created, the body is still read from the original reader
+        assertNull(message.getContent(SOAPMessage.class));
+        assertSame(reader, message.getContent(XMLStreamReader.class));
+        assertEquals("sendReceiveData", reader.getLocalName());
+    }
+
     @Test
     public void testGetUnderstoodHeadersReturnsNull() {
         @SuppressWarnings("rawtypes")
@@ -555,6 +672,20 @@ public class SOAPHandlerInterceptorTest extends Assert {
     }
 
 
+    @XmlRootElement(name = "header1", namespace = "http://apache.org/hello_world_rpclit/types")
+    public static class Header1 {
+        private String value;
+
+        @XmlValue
+        public String getValue() {
+            return value;
+        }
+
+        public void setValue(String value) {
+            this.value = value;
+        }
+    }
+
     private class CachedStream extends CachedOutputStream {
         protected void doFlush() throws IOException {
             currentStream.flush();
@@ -19,15 +19,20 @@
 package org.apache.cxf.service.factory;
 
 import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
 import org.apache.cxf.Bus;
+import org.apache.cxf.BusFactory;
 import org.apache.cxf.endpoint.Server;
 import org.apache.cxf.endpoint.ServerImpl;
 import org.apache.cxf.frontend.ServerFactoryBean;
 import org.apache.cxf.jaxb.JAXBDataBinding;
+import org.apache.cxf.management.InstrumentationManager;
 import org.apache.cxf.message.Message;
 import org.apache.cxf.service.model.EndpointInfo;
 import org.apache.cxf.transport.AbstractTransportFactory;
@@ -55,6 +60,34 @@ public class ServerFactoryTest extends AbstractSimpleFrontendTest {
         assertTrue(server.getDestination() instanceof CustomDestination);
     }
 
+    @Test
+    public void testDefaultDataBindingGetsTheBus() throws Exception {
+        InstrumentationManager manager = (InstrumentationManager)Proxy.newProxyInstance(
+            getClass().getClassLoader(), new Class<?>[] {InstrumentationManager.class},
+            new InvocationHandler() {
+                public Object invoke(Object proxy, Method method, Object[] args) {
+                    return null;
+                }
+            });
+        getBus().setExtension(manager, InstrumentationManager.class);
+
+        ServerFactoryBean svrBean = new ServerFactoryBean();
+        svrBean.setAddress("http://localhost/Hello");
+        svrBean.setServiceClass(HelloService.class);
+        svrBean.setServiceBean(new HelloServiceImpl());
+        svrBean.setBus(getBus());
+        Server server;
+        Bus orig = BusFactory.getAndSetThreadDefaultBus(null);
+        try {
+            server = svrBean.create();
+        } finally {
+            BusFactory.setThreadDefaultBus(orig);
+        }
+        // the marshaller pool is registered with the bus of the factory, not the thread default one
+        JAXBDataBinding db = (JAXBDataBinding)server.getEndpoint().getService().getDataBinding();
+        assertTrue(db.getMarshallerPool().isRegistered());
+    }
+
     public interface TestService<P> {
         int open(P args);
         void close(int handle);
@@ -580,6 +580,7 @@ public class AsyncHTTPConduit extends URLConnectionHTTPConduit {
                 ctx.setAuthSchemeRegistry(asp);
             }
 
+            ctx.setAttribute(AsyncHTTPConduitFactory.LEASE_REQUESTED, System.nanoTime());
             c.execute(new CXFHttpAsyncRequestProducer(entity, outbuf),
                       new CXFHttpAsyncResponseConsumer(this, inbuf, responseCallback),
                       ctx,
@@ -20,28 +20,41 @@
 package org.apache.cxf.transport.http.asyncclient;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.JMException;
 
 import org.apache.cxf.Bus;
 import org.apache.cxf.buslifecycle.BusLifeCycleListener;
 import org.apache.cxf.buslifecycle.BusLifeCycleManager;
 import org.apache.cxf.common.injection.NoJSR250Annotations;
+import org.apache.cxf.common.logging.LogUtils;
 import org.apache.cxf.common.util.SystemPropertyAction;
+import org.apache.cxf.management.InstrumentationManager;
 import org.apache.cxf.service.model.EndpointInfo;
 import org.apache.cxf.transport.http.HTTPConduit;
 import org.apache.cxf.transport.http.HTTPConduitFactory;
 import org.apache.cxf.transport.http.HTTPTransportFactory;
 import org.apache.cxf.transports.http.configuration.HTTPClientPolicy;
 import org.apache.cxf.ws.addressing.EndpointReferenceType;
+import org.apache.http.HttpException;
 import org.apache.http.HttpRequest;
+import org.apache.http.HttpRequestInterceptor;
 import org.apache.http.HttpResponse;
 import org.apache.http.ProtocolException;
 import org.apache.http.client.RedirectStrategy;
 import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.protocol.HttpClientContext;
 import org.apache.http.config.ConnectionConfig;
 import org.apache.http.config.Registry;
 import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.routing.HttpRoute;
 import org.apache.http.cookie.Cookie;
 import org.apache.http.impl.client.BasicCookieStore;
 import org.apache.http.impl.conn.DefaultSchemePortResolver;
@@ -59,6 +72,7 @@ import org.apache.http.nio.conn.SchemeIOSessionStrategy;
 import org.apache.http.nio.conn.ssl.SSLIOSessionStrategy;
 import org.apache.http.nio.reactor.IOReactorException;
 import org.apache.http.nio.reactor.IOSession;
+import org.apache.http.pool.PoolStats;
 import org.apache.http.protocol.HttpContext;
 
 /**
@@ -88,6 +102,10 @@ public class AsyncHTTPConduitFactory implements HTTPConduitFactory {
     //CXF specific
     public static final String USE_POLICY = "org.apache.cxf.transport.http.async.usePolicy";
 
+    // the context attribute holding the time a request started to get a connection
+    static final String LEASE_REQUESTED = "org.apache.cxf.transport.http.async.leaseRequested";
+
+    private static final Logger LOG = LogUtils.getLogger(AsyncHTTPConduitFactory.class);
 
     public enum UseAsyncPolicy {
         ALWAYS, ASYNC_ONLY, NEVER;
@@ -116,6 +134,8 @@ public class AsyncHTTPConduitFactory implements HTTPConduitFactory {
 
     volatile PoolingNHttpClientConnectionManager connectionManager;
     volatile CloseableHttpAsyncClient client;
+    final Map<HttpRoute, ConnectionPoolRouteStatistics> routeStatistics = new ConcurrentHashMap<>();
+    Bus owningBus;
 
     boolean isShutdown;
     UseAsyncPolicy policy;
@@ -144,6 +164,7 @@ public class AsyncHTTPConduitFactory implements HTTPConduitFactory {
 
     public AsyncHTTPConduitFactory(Bus b) {
         this();
+        owningBus = b;
         addListener(b);
         setProperties(b.getProperties());
     }
@@ -274,6 +295,83 @@ public class AsyncHTTPConduitFactory implements HTTPConduitFactory {
             client = null;
         }
         isShutdown = true;
+        for (ConnectionPoolRouteStatistics stats : routeStatistics.values()) {
+            removeRouteStatistics(stats);
+        }
+    }
+
+    /**
+     * Returns the state of the connection pool as a whole, or null if no request was sent yet.
+     */
+    public PoolStats getTotalStats() {
+        PoolingNHttpClientConnectionManager cm = connectionManager;
+        return cm == null ? null : cm.getTotalStats();
+    }
+
+    /**
+     * Returns the state of the pooled connections of every route requests were sent over
+     * recently. They are also registered with the InstrumentationManager of the bus, if any.
+     * The statistics of a route are dropped once it has been idle for longer than
+     * CONNECTION_MAX_IDLE, like its pooled connections.
+     */
+    public Collection<ConnectionPoolRouteStatistics> getRouteStatistics() {
+        return new ArrayList<>(routeStatistics.values());
+    }
+
+    private InstrumentationManager getInstrumentationManager() {
+        return owningBus == null ? null : owningBus.getExtension(InstrumentationManager.class);
+    }
+
+    void connectionLeased(HttpClientContext context) {
+        Object requested = context.removeAttribute(LEASE_REQUESTED);
+        HttpRoute route = context.getAttribute(HttpClientContext.HTTP_ROUTE, HttpRoute.class);
+        if (!(requested instanceof Long) || route == null) {
+            return;
+        }
+        ConnectionPoolRouteStatistics stats = routeStatistics.get(route);
+        if (stats == null) {
+            stats = addRouteStatistics(route);
+        }
+        stats.leased(System.nanoTime() - (Long)requested);
+    }
+
+    private synchronized ConnectionPoolRouteStatistics addRouteStatistics(HttpRoute route) {
+        ConnectionPoolRouteStatistics stats = routeStatistics.get(route);
+        if (stats == null) {
+            // only checked as routes are added, which is when the number of routes grows
+            long now = System.nanoTime();
+            long maxIdle = TimeUnit.MILLISECONDS.toNanos(connectionMaxIdle);
+            for (ConnectionPoolRouteStatistics s : routeStatistics.values()) {
+                if (s.isIdle(now, maxIdle)) {
+                    removeRouteStatistics(s);
+                }
+            }
+            stats = new ConnectionPoolRouteStatistics(this, route,
+                                                      owningBus == null ? Bus.DEFAULT_BUS_ID : owningBus.getId());
+            routeStatistics.put(route, stats);
+            InstrumentationManager manager = getInstrumentationManager();
+            if (manager != null) {
+                try {
+                    manager.register(stats);
+                } catch (JMException jmex) {
+                    LOG.log(Level.WARNING, jmex.getMessage(), jmex);
+                }
+            }
+        }
+        return stats;
+    }
+
+    private void removeRouteStatistics(ConnectionPoolRouteStatistics stats) {
+        if (routeStatistics.remove(stats.getHttpRoute(), stats)) {
+            InstrumentationManager manager = getInstrumentationManager();
+            if (manager != null) {
+                try {
+                    manager.unregister(stats);
+                } catch (JMException jmex) {
+                    LOG.log(Level.FINE, jmex.getMessage(), jmex);
+                }
+            }
+        }
     }
 
     private static void shutdown(CloseableHttpAsyncClient client) {
@@ -361,9 +459,17 @@ public class AsyncHTTPConduitFactory implements HTTPConduitFactory {
             }
         };
 
+        // runs once the request got its connection
+        HttpRequestInterceptor leaseInterceptor = new HttpRequestInterceptor() {
+            public void process(HttpRequest request, HttpContext context) throws HttpException, IOException {
+                connectionLeased(HttpClientContext.adapt(context));
+            }
+        };
+
         HttpAsyncClientBuilder httpAsyncClientBuilder = HttpAsyncClients.custom()
             .setConnectionManager(connectionManager)
             .setRedirectStrategy(redirectStrategy)
+            .addInterceptorFirst(leaseInterceptor)
             .setDefaultCookieStore(new BasicCookieStore() {
                 private static final long serialVersionUID = 1L;
                 public void addCookie(Cookie cookie) {
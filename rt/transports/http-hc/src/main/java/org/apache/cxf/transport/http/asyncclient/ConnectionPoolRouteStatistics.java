@@ -0,0 +1,143 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.transport.http.asyncclient;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.apache.cxf.management.ManagedComponent;
+import org.apache.cxf.management.ManagementConstants;
+import org.apache.cxf.management.annotation.ManagedAttribute;
+import org.apache.cxf.management.annotation.ManagedResource;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+
+/**
+ * The state of the connections the {@link AsyncHTTPConduitFactory} pools for one route,
+ * along with the time the requests sent over that route took to get a connection. That time
+ * includes opening a new connection when no pooled one was available.
+ */
+@ManagedResource(componentName = "AsyncHTTPConnectionPool",
+                 description = "The pooled connections of the async HTTP conduits to one route",
+                 currencyTimeLimit = 15, persistPolicy = "OnUpdate", persistPeriod = 200)
+public class ConnectionPoolRouteStatistics implements ManagedComponent {
+    private static final String TYPE_VALUE = "AsyncHTTPConnectionPool";
+
+    private final AsyncHTTPConduitFactory factory;
+    private final HttpRoute route;
+    private final String busId;
+    private final AtomicLong leases = new AtomicLong();
+    private final AtomicLong totalAcquireTime = new AtomicLong();
+    private final AtomicLong maxAcquireTime = new AtomicLong();
+    private volatile long lastLeased = System.nanoTime();
+
+    ConnectionPoolRouteStatistics(AsyncHTTPConduitFactory factory, HttpRoute route, String busId) {
+        this.factory = factory;
+        this.route = route;
+        this.busId = busId;
+    }
+
+    void leased(long acquireNanos) {
+        lastLeased = System.nanoTime();
+        leases.incrementAndGet();
+        totalAcquireTime.addAndGet(acquireNanos);
+        long max = maxAcquireTime.get();
+        while (acquireNanos > max && !maxAcquireTime.compareAndSet(max, acquireNanos)) {
+            max = maxAcquireTime.get();
+        }
+    }
+
+    /**
+     * Returns true if no request got a connection to the route for longer than the given time
+     * and none is using or waiting for one.
+     */
+    boolean isIdle(long now, long maxIdleNanos) {
+        return now - lastLeased > maxIdleNanos && getLeased() == 0 && getPending() == 0;
+    }
+
+    public HttpRoute getHttpRoute() {
+        return route;
+    }
+
+    private PoolStats getStats() {
+        PoolingNHttpClientConnectionManager connectionManager = factory.connectionManager;
+        return connectionManager == null ? null : connectionManager.getStats(route);
+    }
+
+    @ManagedAttribute(description = "The route of the connections")
+    public String getRoute() {
+        return route.toString();
+    }
+
+    @ManagedAttribute(description = "The number of connections in use")
+    public int getLeased() {
+        PoolStats stats = getStats();
+        return stats == null ? 0 : stats.getLeased();
+    }
+
+    @ManagedAttribute(description = "The number of requests waiting for a connection")
+    public int getPending() {
+        PoolStats stats = getStats();
+        return stats == null ? 0 : stats.getPending();
+    }
+
+    @ManagedAttribute(description = "The number of idle connections")
+    public int getAvailable() {
+        PoolStats stats = getStats();
+        return stats == null ? 0 : stats.getAvailable();
+    }
+
+    @ManagedAttribute(description = "The maximum number of connections")
+    public int getMax() {
+        PoolStats stats = getStats();
+        return stats == null ? 0 : stats.getMax();
+    }
+
+    @ManagedAttribute(description = "The number of requests which got a connection")
+    public long getLeaseCount() {
+        return leases.get();
+    }
+
+    @ManagedAttribute(description = "The average time in milliseconds a request took to get a connection,"
+                                    + " including opening a new one")
+    public double getAverageAcquireTime() {
+        long count = leases.get();
+        return count == 0 ? 0 : (double)totalAcquireTime.get() / count / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @ManagedAttribute(description = "The longest time in milliseconds a request took to get a connection,"
+                                    + " including opening a new one")
+    public long getMaxAcquireTime() {
+        return TimeUnit.NANOSECONDS.toMillis(maxAcquireTime.get());
+    }
+
+    public ObjectName getObjectName() throws JMException {
+        StringBuilder buffer = new StringBuilder();
+        buffer.append(ManagementConstants.DEFAULT_DOMAIN_NAME).append(':');
+        buffer.append(ManagementConstants.BUS_ID_PROP).append('=').append(busId).append(',');
+        buffer.append(ManagementConstants.TYPE_PROP).append('=').append(TYPE_VALUE).append(',');
+        buffer.append(ManagementConstants.NAME_PROP).append('=').append(ObjectName.quote(route.toString()));
+        return new ObjectName(buffer.toString());
+    }
+}
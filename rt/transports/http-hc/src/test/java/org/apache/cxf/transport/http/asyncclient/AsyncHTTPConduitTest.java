@@ -20,6 +20,8 @@
 package org.apache.cxf.transport.http.asyncclient;
 
 import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
@@ -43,6 +45,9 @@ import org.apache.hello_world_soap_http.Greeter;
 import org.apache.hello_world_soap_http.SOAPService;
 import org.apache.hello_world_soap_http.types.GreetMeLaterResponse;
 import org.apache.hello_world_soap_http.types.GreetMeResponse;
+import org.apache.http.HttpHost;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.conn.routing.HttpRoute;
 
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
@@ -190,6 +195,48 @@ public class AsyncHTTPConduitTest extends AbstractBusClientServerTestBase {
         assertEquals("Hello " + request, g.greetMe(request));
     }
     @Test
+    public void testRouteStatistics() throws Exception {
+        updateAddressPort(g, PORT);
+        assertEquals("Hello " + request, g.greetMe(request));
+        AsyncHTTPConduitFactory hcf =
+            (AsyncHTTPConduitFactory)getStaticBus().getExtension(HTTPConduitFactory.class);
+        ConnectionPoolRouteStatistics stats = null;
+        for (ConnectionPoolRouteStatistics s : hcf.getRouteStatistics()) {
+            if (s.getHttpRoute().getTargetHost().getPort() == Integer.parseInt(PORT)) {
+                stats = s;
+            }
+        }
+        assertNotNull(stats);
+        assertTrue(stats.getLeaseCount() > 0);
+        assertTrue(stats.getMax() > 0);
+        assertTrue(stats.getAverageAcquireTime() >= 0);
+        assertEquals(0, stats.getPending());
+        assertNotNull(hcf.getTotalStats());
+    }
+    @Test
+    public void testIdleRouteStatisticsExpire() throws Exception {
+        Map<String, Object> props = new HashMap<>();
+        props.put(AsyncHTTPConduitFactory.CONNECTION_MAX_IDLE, 0);
+        AsyncHTTPConduitFactory hcf = new AsyncHTTPConduitFactory(props);
+        HttpRoute first = new HttpRoute(new HttpHost("localhost", 9001));
+        HttpRoute second = new HttpRoute(new HttpHost("localhost", 9002));
+        hcf.connectionLeased(leasedContext(first));
+        assertEquals(1, hcf.getRouteStatistics().size());
+        hcf.connectionLeased(leasedContext(first));
+        assertEquals(2, hcf.getRouteStatistics().iterator().next().getLeaseCount());
+        Thread.sleep(5);
+        // adding a route drops the statistics of the routes that have been idle for too long
+        hcf.connectionLeased(leasedContext(second));
+        assertEquals(1, hcf.getRouteStatistics().size());
+        assertEquals(second, hcf.getRouteStatistics().iterator().next().getHttpRoute());
+    }
+    private static HttpClientContext leasedContext(HttpRoute route) {
+        HttpClientContext ctx = HttpClientContext.create();
+        ctx.setAttribute(AsyncHTTPConduitFactory.LEASE_REQUESTED, System.nanoTime());
+        ctx.setAttribute(HttpClientContext.HTTP_ROUTE, route);
+        return ctx;
+    }
+    @Test
     public void testCallAsync() throws Exception {
         updateAddressPort(g, PORT);
         GreetMeResponse resp = (GreetMeResponse)g.greetMeAsync(request, new AsyncHandler<GreetMeResponse>() {
@@ -90,6 +90,8 @@ public class NettyHttpServerEngine implements ServerEngine {
 
     private boolean sessionSupport;
 
+    private boolean streaming;
+
     // TODO need to setup configuration about them
     private EventLoopGroup bossGroup;
     private EventLoopGroup workerGroup;
@@ -285,6 +287,20 @@ public class NettyHttpServerEngine implements ServerEngine {
         this.sessionSupport = session;
     }
 
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    /**
+     * If set, request bodies are not aggregated before the request is dispatched: the
+     * content is handed to the application as it arrives, reading from the connection
+     * is suspended while the application falls behind, and large responses are written
+     * out in chunks as they are produced. The maxChunkContentSize does not apply then.
+     */
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
     public int getMaxChunkContentSize() {
         return maxChunkContentSize;
     }
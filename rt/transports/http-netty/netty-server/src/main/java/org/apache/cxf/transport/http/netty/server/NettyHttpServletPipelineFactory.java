@@ -69,6 +69,8 @@ public class NettyHttpServletPipelineFactory extends ChannelInitializer<Channel>
 
     private final NettyHttpServerEngine nettyHttpServerEngine;
 
+    private final boolean streaming;
+
     /**
      * @deprecated use {@link #NettyHttpServletPipelineFactory(TLSServerParameters, boolean, int, Map,
      * NettyHttpServerEngine, EventExecutorGroup)}
@@ -93,6 +95,7 @@ public class NettyHttpServletPipelineFactory extends ChannelInitializer<Channel>
         this.maxChunkContentSize = maxChunkContentSize;
         this.nettyHttpServerEngine = engine;
         this.applicationExecutor = applicationExecutor;
+        this.streaming = engine != null && engine.isStreaming();
     }
 
     public Map<String, NettyHttpContextHandler> getHttpContextHandlerMap() {
@@ -131,7 +134,9 @@ public class NettyHttpServletPipelineFactory extends ChannelInitializer<Channel>
 
     protected NettyHttpServletHandler getServletHandler() {
 
-        NettyHttpServletHandler handler = new NettyHttpServletHandler(this);
+        NettyHttpServletHandler handler = streaming
+            ? new NettyHttpStreamingServletHandler(this, applicationExecutor.next())
+            : new NettyHttpServletHandler(this);
         handler.addInterceptor(new ChannelInterceptor());
         if (supportSession) {
             handler.addInterceptor(new HttpSessionInterceptor(getHttpSessionStore()));
@@ -154,7 +159,9 @@ public class NettyHttpServletPipelineFactory extends ChannelInitializer<Channel>
 
         pipeline.addLast("decoder", new HttpRequestDecoder());
         pipeline.addLast("encoder", new HttpResponseEncoder());
-        pipeline.addLast("aggregator", new HttpObjectAggregator(maxChunkContentSize));
+        if (!streaming) {
+            pipeline.addLast("aggregator", new HttpObjectAggregator(maxChunkContentSize));
+        }
         
         // Remove the following line if you don't want automatic content
         // compression.
@@ -208,7 +215,13 @@ public class NettyHttpServletPipelineFactory extends ChannelInitializer<Channel>
     protected void initChannel(Channel ch) throws Exception {
         ChannelPipeline pipeline = getDefaulHttpChannelPipeline(ch);
 
-        pipeline.addLast(applicationExecutor, "handler", this.getServletHandler());
+        if (streaming) {
+            // the streaming handler reads on the event loop and processes the requests on the
+            // application executor itself
+            pipeline.addLast("handler", this.getServletHandler());
+        } else {
+            pipeline.addLast(applicationExecutor, "handler", this.getServletHandler());
+        }
     }
 
 }
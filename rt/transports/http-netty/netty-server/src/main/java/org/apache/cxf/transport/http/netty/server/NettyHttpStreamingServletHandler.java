@@ -0,0 +1,181 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.transport.http.netty.server;
+
+import java.io.IOException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.cxf.common.i18n.Message;
+import org.apache.cxf.common.logging.LogUtils;
+import org.apache.cxf.interceptor.Fault;
+import org.apache.cxf.transport.http.netty.server.servlet.NettyHttpServletRequest;
+import org.apache.cxf.transport.http.netty.server.servlet.NettyServletResponse;
+import org.apache.cxf.transport.http.netty.server.servlet.NettyStreamingServletInputStream;
+import org.apache.cxf.transport.http.netty.server.servlet.NettyStreamingServletOutputStream;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.EventExecutor;
+
+/**
+ * Handles the requests of a channel without aggregating their content. It runs on the
+ * event loop of the channel and hands the HttpContent chunks over to the request body stream,
+ * while the requests themselves are processed one after another on the application executor
+ * assigned to the channel. A request is dispatched once its content has been received or once
+ * bufferSize bytes of it are waiting, so that small requests do not hold an application thread
+ * while they are still being received.
+ */
+public class NettyHttpStreamingServletHandler extends NettyHttpServletHandler {
+    public static final int DEFAULT_BUFFER_SIZE = 65536;
+
+    private static final Logger LOG =
+            LogUtils.getL7dLogger(NettyHttpStreamingServletHandler.class);
+
+    private final NettyHttpServletPipelineFactory pipelineFactory;
+
+    private final EventExecutor executor;
+
+    private final int bufferSize;
+
+    // the body of the request being received, and the request itself until it is dispatched
+    private NettyStreamingServletInputStream content;
+
+    private Runnable pendingRequest;
+
+    public NettyHttpStreamingServletHandler(NettyHttpServletPipelineFactory pipelineFactory,
+                                            EventExecutor executor) {
+        this(pipelineFactory, executor, DEFAULT_BUFFER_SIZE);
+    }
+
+    public NettyHttpStreamingServletHandler(NettyHttpServletPipelineFactory pipelineFactory,
+                                            EventExecutor executor, int bufferSize) {
+        super(pipelineFactory);
+        this.pipelineFactory = pipelineFactory;
+        this.executor = executor;
+        this.bufferSize = bufferSize;
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (msg instanceof HttpRequest) {
+            HttpRequest request = (HttpRequest) msg;
+            if (HttpHeaders.is100ContinueExpected(request)) {
+                ctx.writeAndFlush(new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.CONTINUE));
+            }
+            NettyHttpContextHandler nettyHttpContextHandler =
+                pipelineFactory.getNettyHttpHandler(request.getUri());
+            if (nettyHttpContextHandler == null) {
+                ReferenceCountUtil.release(msg);
+                throw new RuntimeException(
+                        new Fault(new Message("NO_NETTY_SERVLET_HANDLER_FOUND", LOG, request.getUri())));
+            }
+            content = new NettyStreamingServletInputStream(ctx.channel(), bufferSize);
+            pendingRequest = newRequestTask(ctx, request, nettyHttpContextHandler, content);
+        }
+        if (msg instanceof HttpContent) {
+            NettyStreamingServletInputStream in = content;
+            if (in == null) {
+                // the rest of a request which could not be dispatched
+                ReferenceCountUtil.release(msg);
+                return;
+            }
+            boolean last = msg instanceof LastHttpContent;
+            in.offer((HttpContent) msg);
+            if (last) {
+                content = null;
+            }
+            if (pendingRequest != null && (last || in.available() >= bufferSize)) {
+                executor.execute(pendingRequest);
+                pendingRequest = null;
+            }
+        }
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        if (content != null) {
+            content.fail(new IOException("The connection was closed before the request was received"));
+            if (pendingRequest != null) {
+                content.close();
+            }
+            content = null;
+            pendingRequest = null;
+        }
+        super.channelInactive(ctx);
+    }
+
+    private Runnable newRequestTask(final ChannelHandlerContext ctx, final HttpRequest request,
+                                    final NettyHttpContextHandler nettyHttpContextHandler,
+                                    final NettyStreamingServletInputStream in) {
+        return new Runnable() {
+            public void run() {
+                handleStreamingRequest(ctx, request, nettyHttpContextHandler, in);
+            }
+        };
+    }
+
+    protected void handleStreamingRequest(ChannelHandlerContext ctx, HttpRequest request,
+                                          NettyHttpContextHandler nettyHttpContextHandler,
+                                          NettyStreamingServletInputStream in) {
+        HttpResponse response = new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
+        NettyStreamingServletOutputStream out =
+            new NettyStreamingServletOutputStream(ctx, response, HttpHeaders.isKeepAlive(request), bufferSize);
+        try {
+            interceptOnRequestReceived(ctx, request);
+
+            NettyServletResponse nettyServletResponse = new NettyServletResponse(response, out);
+            NettyHttpServletRequest nettyServletRequest =
+                new NettyHttpServletRequest(request, nettyHttpContextHandler.getContextPath(), ctx, in);
+
+            nettyHttpContextHandler.handle(nettyServletRequest.getRequestURI(), nettyServletRequest,
+                                           nettyServletResponse);
+            interceptOnRequestSuccessed(ctx, response);
+
+            nettyServletResponse.getWriter().flush();
+            out.close();
+        } catch (Throwable t) {
+            LOG.log(Level.SEVERE, "UNEXPECTED_EXCEPCTION_IN_NETTY_SERVLET_HANDLER", t);
+            interceptOnRequestFailed(ctx, t);
+            boolean committed = out.isCommitted();
+            out.discard();
+            if (!committed && ctx.channel().isActive()) {
+                sendError(ctx, HttpResponseStatus.INTERNAL_SERVER_ERROR);
+            } else {
+                ctx.close();
+            }
+        } finally {
+            try {
+                in.close();
+            } catch (IOException ex) {
+                // do nothing here
+            }
+        }
+    }
+
+}
@@ -80,11 +80,16 @@ public class NettyHttpServletRequest implements HttpServletRequest {
     private ChannelHandlerContext channelHandlerContext;
 
     public NettyHttpServletRequest(HttpRequest request, String contextPath, ChannelHandlerContext ctx) {
+        this(request, contextPath, ctx, new NettyServletInputStream((HttpContent)request));
+    }
+
+    public NettyHttpServletRequest(HttpRequest request, String contextPath, ChannelHandlerContext ctx,
+                                   NettyServletInputStream inputStream) {
         this.originalRequest = request;
         this.contextPath = contextPath;
         this.uriParser = new URIParser(contextPath);
         uriParser.parse(request.getUri());
-        this.inputStream = new NettyServletInputStream((HttpContent)request);
+        this.inputStream = inputStream;
         this.reader = new BufferedReader(new InputStreamReader(inputStream));
         this.queryStringDecoder = new QueryStringDecoder(request.getUri());
         // setup the SSL security attributes
@@ -38,24 +38,35 @@ public class NettyServletInputStream extends ServletInputStream {
         this.in = new ByteBufInputStream(byteBuf);
     }
 
+    /**
+     * For subclasses that read the content from elsewhere and override the read methods and
+     * close(). Without an overriding read method the stream is empty.
+     */
+    protected NettyServletInputStream() {
+        this.byteBuf = null;
+        this.in = null;
+    }
+
     @Override
     public int read() throws IOException {
-        return this.in.read();
+        return this.in == null ? -1 : this.in.read();
     }
 
     @Override
     public int read(byte[] buf) throws IOException {
-        return this.in.read(buf);
+        return this.in == null ? -1 : this.in.read(buf);
     }
 
     @Override
     public int read(byte[] buf, int offset, int len) throws IOException {
-        return this.in.read(buf, offset, len);
+        return this.in == null ? -1 : this.in.read(buf, offset, len);
     }
 
     public void close() throws IOException {
         // we need to release the ByteBufInputStream
-        byteBuf.release();
+        if (byteBuf != null) {
+            byteBuf.release();
+        }
     }
 
 }
@@ -36,29 +36,40 @@ public class NettyServletOutputStream extends ServletOutputStream {
         this.out = new ByteBufOutputStream(httpContent.content());
     }
 
+    /**
+     * For subclasses that send the content elsewhere and override the write methods, flush(),
+     * resetBuffer() and getBufferSize(). Without an overriding write method writing fails.
+     */
+    protected NettyServletOutputStream() {
+    }
+
     @Override
     public void write(int b) throws IOException {
-        this.out.write(b);
+        buffer().write(b);
     }
 
     @Override
     public void write(byte[] b) throws IOException {
-        this.out.write(b);
+        buffer().write(b);
     }
 
     @Override
     public void write(byte[] b, int offset, int len) throws IOException {
-        this.out.write(b, offset, len);
+        buffer().write(b, offset, len);
     }
 
     @Override
     public void flush() throws IOException {
-        out.flush();
+        if (out != null) {
+            out.flush();
+        }
         this.flushed = true;
     }
 
     public void resetBuffer() {
-        this.out.buffer().clear();
+        if (out != null) {
+            this.out.buffer().clear();
+        }
     }
 
     public boolean isFlushed() {
@@ -66,7 +77,14 @@ public class NettyServletOutputStream extends ServletOutputStream {
     }
 
     public int getBufferSize() {
-        return this.out.buffer().capacity();
+        return out == null ? 0 : this.out.buffer().capacity();
+    }
+
+    private ByteBufOutputStream buffer() throws IOException {
+        if (out == null) {
+            throw new IOException("No buffer to write the response to");
+        }
+        return out;
     }
 
 
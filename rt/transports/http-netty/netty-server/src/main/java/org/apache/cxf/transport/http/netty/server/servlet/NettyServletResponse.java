@@ -47,8 +47,12 @@ public class NettyServletResponse implements HttpServletResponse {
     private boolean responseCommited;
 
     public NettyServletResponse(HttpResponse response) {
+        this(response, new NettyServletOutputStream((HttpContent)response));
+    }
+
+    public NettyServletResponse(HttpResponse response, NettyServletOutputStream outputStream) {
         this.originalResponse = response;
-        this.outputStream = new NettyServletOutputStream((HttpContent)response);
+        this.outputStream = outputStream;
         this.writer = new PrintWriter(this.outputStream);
     }
 
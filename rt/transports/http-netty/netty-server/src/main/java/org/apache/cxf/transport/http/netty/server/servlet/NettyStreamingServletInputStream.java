@@ -0,0 +1,177 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.transport.http.netty.server.servlet;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.LastHttpContent;
+
+/**
+ * Request body stream fed with the HttpContent chunks of the request as they are decoded.
+ * The chunks are read straight from the ByteBufs Netty decoded them into. Reading from the
+ * channel is suspended while more than bufferSize bytes wait to be read, and resumed once
+ * the reader has caught up to half of it.
+ */
+public class NettyStreamingServletInputStream extends NettyServletInputStream {
+
+    private final Channel channel;
+    private final int highWaterMark;
+    private final int lowWaterMark;
+    private final Deque<ByteBuf> chunks = new ArrayDeque<>();
+    private int buffered;
+    private boolean suspended;
+    private boolean ended;
+    private boolean closed;
+    private IOException failure;
+
+    public NettyStreamingServletInputStream(Channel channel, int bufferSize) {
+        this.channel = channel;
+        this.highWaterMark = bufferSize;
+        this.lowWaterMark = bufferSize / 2;
+    }
+
+    /**
+     * Adds a chunk of the request body, taking over the reference held on it.
+     * Called on the event loop of the channel.
+     */
+    public synchronized void offer(HttpContent content) {
+        ByteBuf buf = content.content();
+        boolean last = content instanceof LastHttpContent;
+        if (closed || failure != null || !buf.isReadable()) {
+            content.release();
+        } else {
+            chunks.add(buf);
+            buffered += buf.readableBytes();
+            if (buffered >= highWaterMark && !last) {
+                suspend();
+            }
+        }
+        if (last) {
+            ended = true;
+            resume();
+        }
+        notifyAll();
+    }
+
+    /**
+     * Fails the pending and the following reads, for instance when the connection is closed
+     * before the whole request body has been received.
+     */
+    public synchronized void fail(IOException ex) {
+        if (!ended) {
+            failure = ex;
+        }
+        notifyAll();
+    }
+
+    public synchronized boolean isEnded() {
+        return ended;
+    }
+
+    @Override
+    public synchronized int available() throws IOException {
+        return buffered;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] buf) throws IOException {
+        return read(buf, 0, buf.length);
+    }
+
+    @Override
+    public synchronized int read(byte[] buf, int offset, int len) throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        if (len == 0) {
+            return 0;
+        }
+        while (chunks.isEmpty()) {
+            if (failure != null) {
+                throw failure;
+            }
+            if (ended) {
+                return -1;
+            }
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+        }
+        ByteBuf chunk = chunks.peek();
+        int n = Math.min(len, chunk.readableBytes());
+        chunk.readBytes(buf, offset, n);
+        if (!chunk.isReadable()) {
+            chunks.poll().release();
+        }
+        buffered -= n;
+        if (buffered <= lowWaterMark) {
+            resume();
+        }
+        return n;
+    }
+
+    /**
+     * Releases the chunks not read yet. The rest of the request body is still read from the
+     * connection, and dropped, so that it can take the next request.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (ByteBuf chunk : chunks) {
+            chunk.release();
+        }
+        chunks.clear();
+        buffered = 0;
+        resume();
+        notifyAll();
+    }
+
+    private void suspend() {
+        if (!suspended) {
+            suspended = true;
+            channel.config().setAutoRead(false);
+        }
+    }
+
+    private void resume() {
+        if (suspended) {
+            suspended = false;
+            channel.config().setAutoRead(true);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.transport.http.netty.server.servlet;
+
+import java.io.IOException;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpHeaders.Names;
+import io.netty.handler.codec.http.HttpResponse;
+
+/**
+ * Response body stream writing into buffers taken from the allocator of the channel, which
+ * are then handed over to the channel as they are. A response that fits in one buffer is sent
+ * in one piece with its Content-Length, a longer one is sent in chunks of bufferSize bytes,
+ * the first of them once the buffer fills up. The application thread waits for a chunk to be
+ * written out whenever the channel is not writable, so that the responses sent to a slow
+ * client do not pile up in memory.
+ */
+public class NettyStreamingServletOutputStream extends NettyServletOutputStream {
+
+    private final ChannelHandlerContext ctx;
+    private final HttpResponse response;
+    private final boolean keepAlive;
+    private final int bufferSize;
+    private ByteBuf buffer;
+    private boolean committed;
+    private boolean closed;
+
+    public NettyStreamingServletOutputStream(ChannelHandlerContext ctx, HttpResponse response,
+                                             boolean keepAlive, int bufferSize) {
+        this.ctx = ctx;
+        this.response = response;
+        this.keepAlive = keepAlive;
+        this.bufferSize = bufferSize;
+    }
+
+    private ByteBuf buffer() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        if (buffer == null) {
+            buffer = ctx.alloc().buffer(bufferSize);
+        }
+        return buffer;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        buffer().writeByte(b);
+        if (buffer.readableBytes() >= bufferSize) {
+            writeChunk();
+        }
+    }
+
+    @Override
+    public void write(byte[] b) throws IOException {
+        write(b, 0, b.length);
+    }
+
+    @Override
+    public void write(byte[] b, int offset, int len) throws IOException {
+        while (len > 0) {
+            ByteBuf buf = buffer();
+            int n = Math.min(len, bufferSize - buf.readableBytes());
+            buf.writeBytes(b, offset, n);
+            offset += n;
+            len -= n;
+            if (buf.readableBytes() >= bufferSize) {
+                writeChunk();
+            }
+        }
+    }
+
+    /**
+     * Writes out what is buffered once the response headers have been sent, a response
+     * that is not committed yet keeps being buffered so that it can still be sent in one piece.
+     */
+    @Override
+    public void flush() throws IOException {
+        if (committed && buffer != null && buffer.isReadable()) {
+            writeChunk();
+        }
+    }
+
+    /**
+     * Completes the response.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        ChannelFuture future;
+        if (!committed) {
+            committed = true;
+            FullHttpResponse full = buffer == null
+                ? new DefaultFullHttpResponse(response.getProtocolVersion(), response.getStatus())
+                : new DefaultFullHttpResponse(response.getProtocolVersion(), response.getStatus(), buffer);
+            full.headers().set(response.headers());
+            HttpHeaders.setContentLength(full, full.content().readableBytes());
+            setKeepAlive(full);
+            future = ctx.writeAndFlush(full);
+        } else if (buffer != null && buffer.isReadable()) {
+            future = ctx.writeAndFlush(new DefaultLastHttpContent(buffer));
+        } else {
+            if (buffer != null) {
+                buffer.release();
+            }
+            future = ctx.writeAndFlush(new DefaultLastHttpContent());
+        }
+        buffer = null;
+        if (!keepAlive) {
+            future.addListener(ChannelFutureListener.CLOSE);
+        }
+    }
+
+    /**
+     * Releases the buffered content without sending it, if the response could not be completed.
+     */
+    public void discard() {
+        closed = true;
+        if (buffer != null) {
+            buffer.release();
+            buffer = null;
+        }
+    }
+
+    public boolean isCommitted() {
+        return committed;
+    }
+
+    @Override
+    public boolean isFlushed() {
+        return committed;
+    }
+
+    @Override
+    public void resetBuffer() {
+        if (buffer != null) {
+            buffer.clear();
+        }
+    }
+
+    @Override
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    private void writeChunk() throws IOException {
+        if (!committed) {
+            committed = true;
+            if (!response.headers().contains(Names.CONTENT_LENGTH)) {
+                HttpHeaders.setTransferEncodingChunked(response);
+            }
+            setKeepAlive(response);
+            ctx.write(response);
+        }
+        ChannelFuture future = ctx.writeAndFlush(new DefaultHttpContent(buffer));
+        buffer = null;
+        if (!ctx.channel().isWritable()) {
+            future.awaitUninterruptibly();
+        }
+        if (future.isDone() && !future.isSuccess()) {
+            throw new IOException(future.cause());
+        }
+    }
+
+    private void setKeepAlive(HttpResponse httpResponse) {
+        if (keepAlive) {
+            httpResponse.headers().set(Names.CONNECTION, HttpHeaders.Values.KEEP_ALIVE);
+        }
+    }
+}
@@ -21,13 +21,19 @@ package org.apache.cxf.transport.http.netty.server;
 
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.net.URLConnection;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
 import org.apache.cxf.Bus;
 import org.apache.cxf.configuration.Configurer;
 import org.apache.cxf.configuration.jsse.TLSServerParameters;
@@ -47,6 +53,8 @@ public class NettyHttpServerEngineTest extends Assert {
         = Integer.valueOf(TestUtil.getPortNumber(NettyHttpServerEngineTest.class, 2));
     private static final int PORT3
         = Integer.valueOf(TestUtil.getPortNumber(NettyHttpServerEngineTest.class, 3));
+    private static final int PORT4
+        = Integer.valueOf(TestUtil.getPortNumber(NettyHttpServerEngineTest.class, 4));
 
 
     private Bus bus;
@@ -146,6 +154,45 @@ public class NettyHttpServerEngineTest extends Assert {
         NettyHttpServerEngineFactory.destroyForPort(PORT3);
     }
 
+    @Test
+    public void testStreaming() throws Exception {
+        String urlStr = "http://localhost:" + PORT4 + "/hello/echo";
+        NettyHttpServerEngine engine =
+            factory.createNettyHttpServerEngine(PORT4, "http");
+        engine.setStreaming(true);
+        engine.addServant(new URL(urlStr), new NettyHttpHandler(null, true) {
+            @Override
+            public void handle(String target, HttpServletRequest request, HttpServletResponse response)
+                throws IOException {
+                IOUtils.copy(request.getInputStream(), response.getOutputStream());
+                response.flushBuffer();
+            }
+        });
+
+        // a small request and response go in one piece, a large one in chunks
+        for (int size : new int[] {100, 1024 * 1024}) {
+            byte[] request = new byte[size];
+            Arrays.fill(request, (byte)'a');
+            HttpURLConnection connection = (HttpURLConnection)new URL(urlStr).openConnection();
+            connection.setDoOutput(true);
+            connection.setChunkedStreamingMode(8192);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(request);
+            }
+            assertEquals(200, connection.getResponseCode());
+            try (InputStream in = connection.getInputStream()) {
+                assertTrue(Arrays.equals(request, IOUtils.readBytesFromStream(in)));
+            }
+            if (size == 100) {
+                assertEquals(size, connection.getContentLength());
+            } else {
+                assertEquals("chunked", connection.getHeaderField("Transfer-Encoding"));
+            }
+        }
+
+        NettyHttpServerEngineFactory.destroyForPort(PORT4);
+    }
+
     @Test
     public void testHttps() throws Exception {
         Map<String, TLSServerParameters> tlsParamsMap = new HashMap<>();
@@ -0,0 +1,460 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.ws.addressing.impl;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.buslifecycle.BusLifeCycleListener;
+import org.apache.cxf.buslifecycle.BusLifeCycleManager;
+import org.apache.cxf.common.logging.LogUtils;
+import org.apache.cxf.management.InstrumentationManager;
+import org.apache.cxf.management.ManagedComponent;
+import org.apache.cxf.management.ManagementConstants;
+import org.apache.cxf.management.annotation.ManagedAttribute;
+import org.apache.cxf.management.annotation.ManagedOperation;
+import org.apache.cxf.management.annotation.ManagedResource;
+import org.apache.cxf.ws.addressing.MessageIdCache;
+
+/**
+ * A MessageIdCache that remembers a message ID for at least the configured time to live
+ * and then forgets it, so that its memory use follows the rate of messages instead of
+ * growing for as long as the endpoint runs.
+ *
+ * The IDs are kept in segments that each cover a fixed slice of the time to live, and a
+ * whole segment is dropped once its slice has expired. When the cache holds more than the
+ * maximum number of IDs, the oldest segments are dropped early, and a segment that fills up
+ * with its share of the maximum size before its slice ends is closed early, so that a burst
+ * cannot grow one segment, or overload its Bloom filter, past that share. Each segment can be fronted
+ * by a Bloom filter, so that looking up a new ID only probes the segments that may hold it.
+ */
+@ManagedResource(componentName = "MessageIdCache",
+                 description = "The recently received WS-Addressing message IDs",
+                 currencyTimeLimit = 15, persistPolicy = "OnUpdate", persistPeriod = 200)
+public class ExpiringMessageIdCache implements MessageIdCache, ManagedComponent {
+    public static final long DEFAULT_TIME_TO_LIVE = 60L * 60L * 1000L;
+    public static final int DEFAULT_SEGMENT_COUNT = 12;
+    public static final int DEFAULT_MAX_SIZE = 1000000;
+
+    private static final Logger LOG = LogUtils.getL7dLogger(ExpiringMessageIdCache.class);
+    private static final String TYPE_VALUE = "MessageIdCache";
+    // gives a Bloom filter false positive rate of about 1%
+    private static final int BLOOM_BITS_PER_ID = 10;
+    private static final int BLOOM_HASHES = 7;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+
+    private long timeToLive = DEFAULT_TIME_TO_LIVE;
+    private int segmentCount = DEFAULT_SEGMENT_COUNT;
+    private int maxSize = DEFAULT_MAX_SIZE;
+    private boolean bloomFilter;
+    private String busId = Bus.DEFAULT_BUS_ID;
+    private Registration registration;
+
+    // a ring of segmentCount + 1 segments, the current one taking the new IDs
+    private Segment[] segments;
+    private int current;
+    private volatile long currentEnd;
+
+    public ExpiringMessageIdCache() {
+    }
+
+    public ExpiringMessageIdCache(long timeToLive, int maxSize) {
+        this.timeToLive = timeToLive;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Registers this cache with the bus InstrumentationManager, if any, until the bus shuts
+     * down. Setting another bus moves the registration to it.
+     */
+    public synchronized void setBus(Bus bus) {
+        if (registration != null) {
+            if (registration.bus == bus) {
+                return;
+            }
+            unregister();
+        }
+        if (bus == null) {
+            return;
+        }
+        busId = bus.getId();
+        InstrumentationManager manager = bus.getExtension(InstrumentationManager.class);
+        if (manager != null) {
+            try {
+                manager.register(this);
+            } catch (JMException jmex) {
+                LOG.log(Level.WARNING, jmex.getMessage(), jmex);
+                return;
+            }
+            registration = new Registration(bus, manager);
+        }
+    }
+
+    /**
+     * Unregisters this cache from the InstrumentationManager it was registered with, if any.
+     */
+    public synchronized void unregister() {
+        if (registration == null) {
+            return;
+        }
+        Registration r = registration;
+        registration = null;
+        BusLifeCycleManager lifeCycleManager = r.bus.getExtension(BusLifeCycleManager.class);
+        if (lifeCycleManager != null) {
+            lifeCycleManager.unregisterLifeCycleListener(r);
+        }
+        try {
+            r.manager.unregister(this);
+        } catch (JMException jmex) {
+            LOG.log(Level.FINE, jmex.getMessage(), jmex);
+        }
+    }
+
+    public synchronized boolean isRegistered() {
+        return registration != null;
+    }
+
+    public boolean checkUniquenessAndCacheId(String messageId) {
+        boolean rotate = false;
+        while (true) {
+            long now = currentTimeMillis();
+            if (rotate || now >= currentEnd || isFull()) {
+                expire(now, rotate);
+                rotate = false;
+            }
+            lock.readLock().lock();
+            try {
+                if (segments == null) {
+                    // cleared in the meantime
+                    continue;
+                }
+                // only the current segment changes while the read lock is held, so the
+                // putIfAbsent below decides between concurrent callers with the same ID
+                Segment latest = segments[current];
+                if (isSegmentFull(latest)) {
+                    rotate = true;
+                    continue;
+                }
+                for (Segment segment : segments) {
+                    if (segment != latest && segment.contains(messageId)) {
+                        duplicates.incrementAndGet();
+                        return false;
+                    }
+                }
+                if (!latest.add(messageId)) {
+                    duplicates.incrementAndGet();
+                    return false;
+                }
+                size.incrementAndGet();
+                return true;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Returns the current time in milliseconds, which tests can override.
+     */
+    protected long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    private void expire(long now, boolean rotate) {
+        lock.writeLock().lock();
+        try {
+            if (segments == null || now - currentEnd >= timeToLive) {
+                // start afresh when nothing in the cache can still be alive
+                drop();
+                currentEnd = now + segmentDuration();
+                return;
+            }
+            while (now >= currentEnd) {
+                current = (current + 1) % segments.length;
+                evict(current);
+                currentEnd += segmentDuration();
+            }
+            if (rotate && isSegmentFull(segments[current])) {
+                // the next segment takes the rest of the slice of the full one
+                current = (current + 1) % segments.length;
+                evict(current);
+            }
+            for (int i = 1; i < segments.length && isFull(); i++) {
+                evict((current + i) % segments.length);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean isFull() {
+        return maxSize > 0 && size.get() > maxSize;
+    }
+
+    private boolean isSegmentFull(Segment segment) {
+        return maxSize > 0 && segment.ids.size() >= segmentCapacity();
+    }
+
+    private int segmentCapacity() {
+        return Math.max(1, maxSize / segmentCount);
+    }
+
+    private void evict(int index) {
+        int count = segments[index].ids.size();
+        if (count > 0) {
+            size.addAndGet(-count);
+            evictions.addAndGet(count);
+            segments[index] = newSegment();
+        }
+    }
+
+    private void drop() {
+        if (segments != null) {
+            for (int i = 0; i < segments.length; i++) {
+                evict(i);
+            }
+        }
+        if (segments == null || segments.length != segmentCount + 1) {
+            segments = new Segment[segmentCount + 1];
+            for (int i = 0; i < segments.length; i++) {
+                segments[i] = newSegment();
+            }
+        }
+        current = 0;
+    }
+
+    private long segmentDuration() {
+        return Math.max(1L, timeToLive / segmentCount);
+    }
+
+    private Segment newSegment() {
+        if (!bloomFilter) {
+            return new Segment(null);
+        }
+        long expected = maxSize > 0 ? segmentCapacity() : 1 << 16;
+        return new Segment(new BloomFilter((int)Math.min(Integer.MAX_VALUE, expected * BLOOM_BITS_PER_ID)));
+    }
+
+    // configuration, changing it clears the cache
+
+    public long getTimeToLive() {
+        return timeToLive;
+    }
+
+    /**
+     * Sets the minimum time in milliseconds for which a message ID is remembered.
+     */
+    public void setTimeToLive(long timeToLive) {
+        this.timeToLive = timeToLive;
+        clear();
+    }
+
+    public int getSegmentCount() {
+        return segmentCount;
+    }
+
+    /**
+     * Sets the number of segments the time to live is divided into. A message ID is remembered
+     * for at most one segment longer than the time to live.
+     */
+    public void setSegmentCount(int segmentCount) {
+        this.segmentCount = segmentCount;
+        clear();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Sets the number of message IDs above which the oldest are forgotten before their time to live,
+     * 0 for no limit.
+     */
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+        clear();
+    }
+
+    public boolean isBloomFilter() {
+        return bloomFilter;
+    }
+
+    /**
+     * Sets whether each segment is fronted by a Bloom filter, sized for the maximum size.
+     */
+    public void setBloomFilter(boolean bloomFilter) {
+        this.bloomFilter = bloomFilter;
+        clear();
+    }
+
+    // management
+
+    @ManagedAttribute(description = "The number of message IDs in the cache")
+    public int getSize() {
+        return size.get();
+    }
+
+    @ManagedAttribute(description = "The number of message IDs forgotten after their time to live "
+        + "or to stay within the maximum size")
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    @ManagedAttribute(description = "The number of duplicate message IDs detected")
+    public long getDuplicateCount() {
+        return duplicates.get();
+    }
+
+    @ManagedOperation(description = "Forget all the message IDs")
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            segments = null;
+            currentEnd = 0;
+            size.set(0);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public ObjectName getObjectName() throws JMException {
+        StringBuilder buffer = new StringBuilder();
+        buffer.append(ManagementConstants.DEFAULT_DOMAIN_NAME).append(':');
+        buffer.append(ManagementConstants.BUS_ID_PROP).append('=').append(busId).append(',');
+        buffer.append(ManagementConstants.TYPE_PROP).append('=').append(TYPE_VALUE).append(',');
+        buffer.append(ManagementConstants.INSTANCE_ID_PROP).append('=').append(hashCode());
+        return new ObjectName(buffer.toString());
+    }
+
+    /**
+     * Unregisters the cache when the bus it is registered with shuts down.
+     */
+    private final class Registration implements BusLifeCycleListener {
+        final Bus bus;
+        final InstrumentationManager manager;
+
+        Registration(Bus bus, InstrumentationManager manager) {
+            this.bus = bus;
+            this.manager = manager;
+            BusLifeCycleManager lifeCycleManager = bus.getExtension(BusLifeCycleManager.class);
+            if (lifeCycleManager != null) {
+                lifeCycleManager.registerLifeCycleListener(this);
+            }
+        }
+
+        public void initComplete() {
+            // nothing
+        }
+
+        public void preShutdown() {
+            unregister();
+        }
+
+        public void postShutdown() {
+            // nothing
+        }
+    }
+
+    private static final class Segment {
+        final Map<String, Boolean> ids = new ConcurrentHashMap<>();
+        final BloomFilter filter;
+
+        Segment(BloomFilter filter) {
+            this.filter = filter;
+        }
+
+        boolean contains(String id) {
+            return (filter == null || filter.mightContain(id)) && ids.containsKey(id);
+        }
+
+        boolean add(String id) {
+            if (ids.putIfAbsent(id, Boolean.TRUE) != null) {
+                return false;
+            }
+            if (filter != null) {
+                filter.add(id);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * A Bloom filter that IDs can be added to concurrently.
+     */
+    private static final class BloomFilter {
+        private final AtomicLongArray bits;
+        private final int size;
+
+        BloomFilter(int size) {
+            this.size = Math.max(64, size);
+            bits = new AtomicLongArray((this.size + 63) / 64);
+        }
+
+        void add(String id) {
+            int h1 = id.hashCode();
+            int h2 = secondHash(id);
+            for (int i = 0; i < BLOOM_HASHES; i++) {
+                int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % size;
+                long mask = 1L << bit;
+                int word = bit >>> 6;
+                long old = bits.get(word);
+                while ((old & mask) == 0 && !bits.compareAndSet(word, old, old | mask)) {
+                    old = bits.get(word);
+                }
+            }
+        }
+
+        boolean mightContain(String id) {
+            int h1 = id.hashCode();
+            int h2 = secondHash(id);
+            for (int i = 0; i < BLOOM_HASHES; i++) {
+                int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % size;
+                if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static int secondHash(String id) {
+            // FNV-1a, so that IDs with the same String hash code still set different bits
+            int h = 0x811c9dc5;
+            for (int i = 0; i < id.length(); i++) {
+                h = (h ^ id.charAt(i)) * 0x01000193;
+            }
+            return h | 1;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.ws.addressing.impl;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.cxf.Bus;
+import org.apache.cxf.bus.extension.ExtensionManagerBus;
+import org.apache.cxf.management.InstrumentationManager;
+import org.easymock.EasyMock;
+import org.easymock.IMocksControl;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ExpiringMessageIdCacheTest extends Assert {
+
+    @Test
+    public void testDuplicatesWithinTimeToLive() {
+        TestCache cache = new TestCache(1000L, 0);
+        assertTrue(cache.checkUniquenessAndCacheId("urn:uuid:1"));
+        assertTrue(cache.checkUniquenessAndCacheId("urn:uuid:2"));
+        assertFalse(cache.checkUniquenessAndCacheId("urn:uuid:1"));
+
+        cache.time += 999L;
+        assertFalse(cache.checkUniquenessAndCacheId("urn:uuid:1"));
+        assertFalse(cache.checkUniquenessAndCacheId("urn:uuid:2"));
+        assertEquals(2, cache.getSize());
+        assertEquals(3, cache.getDuplicateCount());
+        assertEquals(0, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testExpiry() {
+        TestCache cache = new TestCache(1000L, 0);
+        cache.setSegmentCount(10);
+        assertTrue(cache.checkUniquenessAndCacheId("urn:uuid:1"));
+        cache.time += 500L;
+        assertTrue(cache.checkUniquenessAndCacheId("urn:uuid:2"));
+
+        // one segment longer than the time to live at most
+        cache.time += 600L;
+        assertTrue(cache.checkUniquenessAndCacheId("urn:uuid:1"));
+        assertFalse(cache.checkUniquenessAndCacheId("urn:uuid:2"));
+        assertEquals(2, cache.getSize());
+        assertEquals(1, cache.getEvictionCount());
+
+        // nothing survives a long pause
+        cache.time += 5000L;
+        assertTrue(cache.checkUniquenessAndCacheId("urn:uuid:2"));
+        assertEquals(1, cache.getSize());
+        assertEquals(3, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testMaxSize() {
+        TestCache cache = new TestCache(1000L, 100);
+        cache.setSegmentCount(10);
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(cache.checkUniquenessAndCacheId("urn:uuid:" + i));
+            if (i % 10 == 9) {
+                cache.time += 100L;
+            }
+        }
+        assertTrue(cache.getSize() <= 110);
+        assertEquals(1000, cache.getSize() + cache.getEvictionCount());
+        assertFalse(cache.checkUniquenessAndCacheId("urn:uuid:999"));
+    }
+
+    @Test
+    public void testMaxSizeInBurst() {
+        TestCache cache = new TestCache(1000L, 100);
+        cache.setSegmentCount(10);
+        cache.setBloomFilter(true);
+        // all within one segment of time, which closes early once it holds its share
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(cache.checkUniquenessAndCacheId("urn:uuid:" + i));
+            assertTrue(cache.getSize() <= 110);
+        }
+        assertEquals(1000, cache.getSize() + cache.getEvictionCount());
+        for (int i = 900; i < 1000; i++) {
+            assertFalse(cache.checkUniquenessAndCacheId("urn:uuid:" + i));
+        }
+    }
+
+    @Test
+    public void testBloomFilter() {
+        TestCache cache = new TestCache(1000L, 10000);
+        cache.setBloomFilter(true);
+        for (int i = 0; i < 5000; i++) {
+            assertTrue(cache.checkUniquenessAndCacheId("urn:uuid:" + i));
+            if (i % 1000 == 999) {
+                cache.time += 100L;
+            }
+        }
+        for (int i = 0; i < 5000; i++) {
+            assertFalse(cache.checkUniquenessAndCacheId("urn:uuid:" + i));
+        }
+        assertEquals(5000, cache.getSize());
+    }
+
+    @Test
+    public void testConcurrentDuplicates() throws Exception {
+        final ExpiringMessageIdCache cache = new ExpiringMessageIdCache(60000L, 0);
+        final AtomicInteger unique = new AtomicInteger();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread() {
+                public void run() {
+                    for (int i = 0; i < 10000; i++) {
+                        if (cache.checkUniquenessAndCacheId("urn:uuid:" + i)) {
+                            unique.incrementAndGet();
+                        }
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        assertEquals(10000, unique.get());
+        assertEquals(10000, cache.getSize());
+    }
+
+    @Test
+    public void testUnregisteredOnBusShutdown() throws Exception {
+        ExpiringMessageIdCache cache = new ExpiringMessageIdCache();
+        IMocksControl control = EasyMock.createControl();
+        InstrumentationManager manager = control.createMock(InstrumentationManager.class);
+        EasyMock.expect(manager.register(cache)).andReturn(null);
+        manager.unregister(cache);
+        EasyMock.expectLastCall();
+        control.replay();
+
+        Bus bus = new ExtensionManagerBus();
+        bus.setExtension(manager, InstrumentationManager.class);
+        cache.setBus(bus);
+        // registered once per bus
+        cache.setBus(bus);
+        assertTrue(cache.isRegistered());
+
+        bus.shutdown(true);
+        assertFalse(cache.isRegistered());
+        control.verify();
+    }
+
+    @Test
+    public void testRegistrationMovesWithTheBus() throws Exception {
+        ExpiringMessageIdCache cache = new ExpiringMessageIdCache();
+        IMocksControl control = EasyMock.createStrictControl();
+        InstrumentationManager first = control.createMock(InstrumentationManager.class);
+        InstrumentationManager second = control.createMock(InstrumentationManager.class);
+        EasyMock.expect(first.register(cache)).andReturn(null);
+        first.unregister(cache);
+        EasyMock.expectLastCall();
+        EasyMock.expect(second.register(cache)).andReturn(null);
+        second.unregister(cache);
+        EasyMock.expectLastCall();
+        control.replay();
+
+        Bus bus1 = new ExtensionManagerBus();
+        bus1.setExtension(first, InstrumentationManager.class);
+        Bus bus2 = new ExtensionManagerBus();
+        bus2.setExtension(second, InstrumentationManager.class);
+        cache.setBus(bus1);
+        cache.setBus(bus2);
+        // the first bus no longer knows the cache
+        bus1.shutdown(true);
+        assertTrue(cache.isRegistered());
+        cache.unregister();
+        assertFalse(cache.isRegistered());
+        bus2.shutdown(true);
+        control.verify();
+    }
+
+    private static class TestCache extends ExpiringMessageIdCache {
+        private long time = 1000000L;
+
+        TestCache(long timeToLive, int maxSize) {
+            super(timeToLive, maxSize);
+        }
+
+        @Override
+        protected long currentTimeMillis() {
+            return time;
+        }
+    }
+}
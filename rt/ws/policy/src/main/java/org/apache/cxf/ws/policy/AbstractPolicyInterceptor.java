@@ -19,6 +19,8 @@
 
 package org.apache.cxf.ws.policy;
 
+import java.util.List;
+
 import org.apache.cxf.interceptor.Fault;
 import org.apache.cxf.message.Exchange;
 import org.apache.cxf.message.Message;
@@ -27,6 +29,7 @@ import org.apache.cxf.service.model.BindingFaultInfo;
 import org.apache.cxf.service.model.BindingOperationInfo;
 import org.apache.cxf.transport.Conduit;
 import org.apache.cxf.transport.Destination;
+import org.apache.neethi.Assertion;
 
 /**
  *
@@ -86,6 +89,17 @@ public abstract class AbstractPolicyInterceptor extends AbstractPhaseInterceptor
         return bfi;
     }
 
+    /**
+     * Checks the assertions against the alternatives of the effective policy, reusing the
+     * alternatives an EffectivePolicyImpl has already worked out.
+     */
+    protected static List<List<Assertion>> checkEffectivePolicy(AssertionInfoMap aim, EffectivePolicy ep) {
+        if (ep instanceof EffectivePolicyImpl) {
+            return aim.checkAlternatives(((EffectivePolicyImpl)ep).getAlternatives());
+        }
+        return aim.checkEffectivePolicy(ep.getPolicy());
+    }
+
     protected abstract void handle(Message message) throws PolicyException;
 
 }
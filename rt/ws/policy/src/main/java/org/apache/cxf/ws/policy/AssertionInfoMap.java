@@ -26,6 +26,7 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.ResourceBundle;
 import java.util.Set;
 
@@ -56,6 +57,22 @@ public class AssertionInfoMap extends HashMap<QName, Collection<AssertionInfo>>
         }
     }
 
+    /**
+     * Creates a map for the same assertions as the given one, with none of them asserted. Copying
+     * a map is much cheaper than building it from the policy, so a map built once per effective
+     * policy can be copied for every message.
+     */
+    public AssertionInfoMap(AssertionInfoMap template) {
+        super(template.size() < 6 ? 6 : template.size());
+        for (Map.Entry<QName, Collection<AssertionInfo>> e : template.entrySet()) {
+            Collection<AssertionInfo> ail = new ArrayList<>(e.getValue().size());
+            for (AssertionInfo ai : e.getValue()) {
+                ail.add(new AssertionInfo(ai.getAssertion()));
+            }
+            put(e.getKey(), ail);
+        }
+    }
+
     private void putAssertionInfo(Assertion a) {
         if (a instanceof PolicyContainingAssertion) {
             Policy p = ((PolicyContainingAssertion)a).getPolicy();
@@ -139,9 +156,20 @@ public class AssertionInfoMap extends HashMap<QName, Collection<AssertionInfo>>
     }
 
     public List<List<Assertion>> checkEffectivePolicy(Policy policy) {
+        return checkEffectivePolicy(policy.getAlternatives());
+    }
+
+    /**
+     * Checks the given alternatives of the effective policy, which saves normalizing the policy
+     * again when its alternatives are already known.
+     */
+    public List<List<Assertion>> checkAlternatives(List<List<Assertion>> policyAlternatives) {
+        return checkEffectivePolicy(policyAlternatives.iterator());
+    }
+
+    private List<List<Assertion>> checkEffectivePolicy(Iterator<List<Assertion>> alternatives) {
         List<List<Assertion>> validated = new ArrayList<List<Assertion>>(4);
         List<QName> errors = new ArrayList<>();
-        Iterator<List<Assertion>> alternatives = policy.getAlternatives();
         while (alternatives.hasNext()) {
             List<Assertion> pc = alternatives.next();
             if (supportsAlternative(pc, errors)) {
@@ -206,4 +234,31 @@ public class AssertionInfoMap extends HashMap<QName, Collection<AssertionInfo>>
             }
         }
     }
+
+    /**
+     * A map built once from a collection of assertions or a policy, to be copied for each
+     * message for as long as its owner keeps using that same collection or policy.
+     */
+    static final class Template {
+        private final Object source;
+        private final AssertionInfoMap map;
+
+        Template(Collection<? extends Assertion> assertions) {
+            source = assertions;
+            map = new AssertionInfoMap(assertions);
+        }
+
+        Template(Policy p) {
+            source = p;
+            map = new AssertionInfoMap(p);
+        }
+
+        boolean isFor(Object o) {
+            return source == o;
+        }
+
+        AssertionInfoMap newMap() {
+            return new AssertionInfoMap(map);
+        }
+    }
 }
@@ -21,6 +21,7 @@ package org.apache.cxf.ws.policy;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -57,6 +58,10 @@ public class EffectivePolicyImpl implements EffectivePolicy {
     protected Collection<Assertion> chosenAlternative;
     protected List<Interceptor<? extends org.apache.cxf.message.Message>> interceptors;
 
+    private volatile Alternatives policyAlternatives;
+    private volatile AssertionInfoMap.Template alternativeTemplate;
+    private volatile AssertionInfoMap.Template policyTemplate;
+
     public EffectivePolicyImpl() {
     }
 
@@ -72,6 +77,48 @@ public class EffectivePolicyImpl implements EffectivePolicy {
         return chosenAlternative;
     }
 
+    /**
+     * Returns the alternatives of the policy. Unlike Policy.getAlternatives(), which normalizes
+     * the policy on every call, they are worked out once, and the same lists are returned for as
+     * long as the policy does not change.
+     */
+    public final List<List<Assertion>> getAlternatives() {
+        Policy p = getPolicy();
+        Alternatives a = policyAlternatives;
+        if (a == null || a.policy != p) {
+            a = new Alternatives(p);
+            policyAlternatives = a;
+        }
+        return a.list;
+    }
+
+    /**
+     * Returns a new AssertionInfoMap for the chosen alternative, copied from one built the first time.
+     */
+    final AssertionInfoMap createAssertionInfoMap() {
+        Collection<Assertion> alternative = getChosenAlternative();
+        AssertionInfoMap.Template t = alternativeTemplate;
+        if (t == null || !t.isFor(alternative)) {
+            t = new AssertionInfoMap.Template(alternative);
+            alternativeTemplate = t;
+        }
+        return t.newMap();
+    }
+
+    /**
+     * Returns a new AssertionInfoMap for all the assertions of the policy, copied from one built
+     * the first time.
+     */
+    final AssertionInfoMap createPolicyAssertionInfoMap() {
+        Policy p = getPolicy();
+        AssertionInfoMap.Template t = policyTemplate;
+        if (t == null || !t.isFor(p)) {
+            t = new AssertionInfoMap.Template(p);
+            policyTemplate = t;
+        }
+        return t.newMap();
+    }
+
     public void initialise(EndpointPolicy epi, PolicyEngine engine, boolean inbound, Message m) {
         initialise(epi, engine, inbound, false, m);
     }
@@ -279,4 +326,18 @@ public class EffectivePolicyImpl implements EffectivePolicy {
         interceptors = out;
     }
 
+    private static final class Alternatives {
+        final Policy policy;
+        final List<List<Assertion>> list;
+
+        Alternatives(Policy policy) {
+            this.policy = policy;
+            List<List<Assertion>> l = new ArrayList<>();
+            for (Iterator<List<Assertion>> it = policy.getAlternatives(); it.hasNext();) {
+                l.add(Collections.unmodifiableList(it.next()));
+            }
+            list = Collections.unmodifiableList(l);
+        }
+    }
+
 }
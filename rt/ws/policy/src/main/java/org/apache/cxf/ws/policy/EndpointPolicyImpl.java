@@ -52,6 +52,7 @@ public class EndpointPolicyImpl implements EndpointPolicy {
     private Collection<Assertion> chosenAlternative;
 
     private volatile Collection<Assertion> vocabulary;
+    private volatile AssertionInfoMap.Template vocabularyTemplate;
     private Collection<Assertion> faultVocabulary;
     private volatile List<Interceptor<? extends Message>> interceptors;
     private List<Interceptor<? extends Message>> faultInterceptors;
@@ -115,6 +116,19 @@ public class EndpointPolicyImpl implements EndpointPolicy {
         return vocabulary;
     }
 
+    /**
+     * Returns a new AssertionInfoMap for the vocabulary, copied from one built the first time.
+     */
+    final AssertionInfoMap createAssertionInfoMap(Message m) {
+        Collection<Assertion> v = getVocabulary(m);
+        AssertionInfoMap.Template t = vocabularyTemplate;
+        if (t == null || !t.isFor(v)) {
+            t = new AssertionInfoMap.Template(v);
+            vocabularyTemplate = t;
+        }
+        return t.newMap();
+    }
+
     public Collection<Assertion> getFaultVocabulary(Message m) {
         if (vocabulary == null) {
             initializeVocabulary(m);
@@ -20,6 +20,7 @@
 package org.apache.cxf.ws.policy;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -43,11 +44,14 @@ import org.apache.cxf.service.model.EndpointInfo;
 import org.apache.cxf.service.model.ServiceInfo;
 import org.apache.cxf.transport.Conduit;
 import org.apache.cxf.transport.Destination;
+import org.apache.cxf.ws.policy.selector.FirstAlternativeSelector;
+import org.apache.cxf.ws.policy.selector.MaximalAlternativeSelector;
 import org.apache.cxf.ws.policy.selector.MinimalAlternativeSelector;
 import org.apache.neethi.Assertion;
 import org.apache.neethi.Constants;
 import org.apache.neethi.Policy;
 import org.apache.neethi.PolicyComponent;
+import org.apache.neethi.PolicyContainingAssertion;
 import org.apache.neethi.PolicyOperator;
 import org.apache.neethi.PolicyReference;
 import org.apache.neethi.PolicyRegistry;
@@ -58,11 +62,29 @@ import org.apache.neethi.PolicyRegistry;
 @NoJSR250Annotations(unlessNull = "bus")
 public class PolicyEngineImpl implements PolicyEngine, BusExtension {
     private static final Logger LOG = LogUtils.getL7dLogger(PolicyEngineImpl.class);
+    private static final int MAX_CACHED_RESPONSE_POLICIES = 16;
+    private static final Set<Class<?>> MESSAGE_INDEPENDENT_SELECTORS = new HashSet<Class<?>>(Arrays.asList(
+        FirstAlternativeSelector.class, MaximalAlternativeSelector.class, MinimalAlternativeSelector.class));
+    private static final ClassValue<Boolean> IGNORES_MESSAGE = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            // providers that keep the default configurationPresent support their assertions
+            // whatever the message
+            try {
+                return type.getMethod("configurationPresent", Message.class, Assertion.class)
+                    .getDeclaringClass() == AbstractPolicyInterceptorProvider.class;
+            } catch (NoSuchMethodException e) {
+                return Boolean.FALSE;
+            }
+        }
+    };
 
 
     private static final String POLICY_INFO_REQUEST_SERVER = "policy-engine-info-serve-request";
     private static final String POLICY_INFO_FAULT_SERVER = "policy-engine-info-serve-fault";
     private static final String POLICY_INFO_RESPONSE_SERVER = "policy-engine-info-serve-response";
+    private static final String POLICY_INFO_RESPONSE_SERVER_ALTERNATIVES
+        = "policy-engine-info-serve-response-alternatives";
     private static final String POLICY_INFO_ENDPOINT_SERVER = "policy-engine-info-serve-rendpoint";
 
     private static final String POLICY_INFO_REQUEST_CLIENT = "policy-engine-info-client-request";
@@ -240,15 +262,81 @@ public class PolicyEngineImpl implements PolicyEngine, BusExtension {
             }
             return effectivePolicy;
         }
-        EffectivePolicyImpl epi = createOutPolicyInfo();
-        Assertor assertor = PolicyUtils.createAsserter(d);
-        epi.initialise(ei, boi, this, assertor, incoming, m);
-        return epi;
+        // the request alternatives are the same lists for every request to the operation
+        // as long as they come from the cached request policy, so the response policy
+        // chosen for them can be cached as well, unless choosing it depends on the message
+        Map<AlternativesKey, EffectivePolicy> cache = getServerResponsePolicies(ei, boi);
+        AlternativesKey key = new AlternativesKey(incoming);
+        EffectivePolicy effectivePolicy = cache.get(key);
+        if (effectivePolicy == null) {
+            EffectivePolicyImpl epi = createOutPolicyInfo();
+            Assertor assertor = PolicyUtils.createAsserter(d);
+            epi.initialise(ei, boi, this, assertor, incoming, m);
+            if (m != null && cache.size() < MAX_CACHED_RESPONSE_POLICIES
+                && isMessageIndependent(epi.getPolicy())) {
+                cache.put(key, epi);
+            }
+            effectivePolicy = epi;
+        }
+        return effectivePolicy;
+    }
+
+    /**
+     * Returns true if the alternative chosen from the policy is the same for every message. The
+     * selectors of this package only pass the message on to supportsAlternative, which only
+     * passes it on to the configurationPresent method of the interceptor providers, so that is
+     * the case for them as long as none of the providers for the assertions of the policy
+     * overrides configurationPresent.
+     */
+    boolean isMessageIndependent(Policy p) {
+        AlternativeSelector selector = getAlternativeSelector();
+        if (selector != null && !MESSAGE_INDEPENDENT_SELECTORS.contains(selector.getClass())) {
+            return false;
+        }
+        PolicyInterceptorProviderRegistry pipr = bus == null
+            ? null : bus.getExtension(PolicyInterceptorProviderRegistry.class);
+        return pipr == null || p == null || ignoresMessage(pipr, p);
+    }
+
+    private static boolean ignoresMessage(PolicyInterceptorProviderRegistry pipr, Policy p) {
+        for (Iterator<List<Assertion>> it = p.getAlternatives(); it.hasNext();) {
+            for (Assertion a : it.next()) {
+                for (PolicyInterceptorProvider provider : pipr.get(a.getName())) {
+                    if (!IGNORES_MESSAGE.get(provider.getClass())) {
+                        return false;
+                    }
+                }
+                if (a instanceof PolicyContainingAssertion) {
+                    Policy nested = ((PolicyContainingAssertion)a).getPolicy();
+                    if (nested != null && !ignoresMessage(pipr, nested)) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private Map<AlternativesKey, EffectivePolicy> getServerResponsePolicies(EndpointInfo ei,
+                                                                            BindingOperationInfo boi) {
+        Map<AlternativesKey, EffectivePolicy> cache
+            = CastUtils.cast((Map<?, ?>)boi.getProperty(POLICY_INFO_RESPONSE_SERVER_ALTERNATIVES));
+        if (cache == null) {
+            synchronized (ei) {
+                cache = CastUtils.cast((Map<?, ?>)boi.getProperty(POLICY_INFO_RESPONSE_SERVER_ALTERNATIVES));
+                if (cache == null) {
+                    cache = new ConcurrentHashMap<>();
+                    boi.setProperty(POLICY_INFO_RESPONSE_SERVER_ALTERNATIVES, cache);
+                }
+            }
+        }
+        return cache;
     }
 
     public void setEffectiveServerResponsePolicy(EndpointInfo ei, BindingOperationInfo boi,
                                                  EffectivePolicy ep) {
         boi.setProperty(POLICY_INFO_RESPONSE_SERVER, ep);
+        boi.setProperty(POLICY_INFO_RESPONSE_SERVER_ALTERNATIVES, null);
     }
 
     public EffectivePolicy getEffectiveServerFaultPolicy(EndpointInfo ei,
@@ -664,5 +752,43 @@ public class PolicyEngineImpl implements PolicyEngine, BusExtension {
         return new EffectivePolicyImpl();
     }
 
+    /**
+     * Identifies a list of validated request alternatives by the identity of the alternatives
+     * in it, which is cheap and exact, rather than by comparing their assertions.
+     */
+    private static final class AlternativesKey {
+        private final List<List<Assertion>> alternatives;
+        private final int hashCode;
+
+        AlternativesKey(List<List<Assertion>> alternatives) {
+            this.alternatives = alternatives;
+            int h = 1;
+            for (List<Assertion> a : alternatives) {
+                h = 31 * h + System.identityHashCode(a);
+            }
+            hashCode = h;
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
 
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof AlternativesKey)) {
+                return false;
+            }
+            List<List<Assertion>> other = ((AlternativesKey)o).alternatives;
+            if (other.size() != alternatives.size()) {
+                return false;
+            }
+            for (int i = 0; i < alternatives.size(); i++) {
+                if (other.get(i) != alternatives.get(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
 }
@@ -20,7 +20,6 @@
 package org.apache.cxf.ws.policy;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -37,7 +36,6 @@ import org.apache.cxf.service.model.BindingOperationInfo;
 import org.apache.cxf.service.model.EndpointInfo;
 import org.apache.cxf.transport.Conduit;
 import org.apache.cxf.transport.Destination;
-import org.apache.neethi.Assertion;
 import org.apache.neethi.Policy;
 
 /**
@@ -68,7 +66,7 @@ public class PolicyInInterceptor extends AbstractPolicyInterceptor {
         }
 
         List<Interceptor<? extends Message>> interceptors = new ArrayList<Interceptor<? extends Message>>();
-        Collection<Assertion> assertions = new ArrayList<>();
+        AssertionInfoMap aim = null;
 
         // 1. Check overridden policy
         Policy p = (Policy)msg.getContextualProperty(PolicyConstants.POLICY_OVERRIDE);
@@ -81,7 +79,7 @@ public class PolicyInInterceptor extends AbstractPolicyInterceptor {
                                   effectivePolicy.getPolicy());
 
             interceptors.addAll(effectivePolicy.getInterceptors());
-            assertions.addAll(effectivePolicy.getChosenAlternative());
+            aim = new AssertionInfoMap(effectivePolicy.getChosenAlternative());
         } else if (MessageUtils.isRequestor(msg)) {
             // 2. Process client policy
             BindingOperationInfo boi = exchange.getBindingOperationInfo();
@@ -90,7 +88,7 @@ public class PolicyInInterceptor extends AbstractPolicyInterceptor {
                 EndpointPolicy ep = pe.getClientEndpointPolicy(ei, conduit, msg);
                 if (ep != null) {
                     interceptors.addAll(ep.getInterceptors(msg));
-                    assertions.addAll(ep.getVocabulary(msg));
+                    aim = createAssertionInfoMap(ep, msg);
                 }
             } else {
                 // We do not know the underlying message type yet - so we pre-emptively add interceptors
@@ -101,7 +99,10 @@ public class PolicyInInterceptor extends AbstractPolicyInterceptor {
                     interceptors.addAll(ep.getInterceptors());
                     // insert assertions of endpoint's vocabulary into message
                     if (ep.getPolicy() != null) {
-                        msg.put(AssertionInfoMap.class, new AssertionInfoMap(ep.getPolicy()));
+                        AssertionInfoMap responseAim = ep instanceof EffectivePolicyImpl
+                            ? ((EffectivePolicyImpl)ep).createPolicyAssertionInfoMap()
+                            : new AssertionInfoMap(ep.getPolicy());
+                        msg.put(AssertionInfoMap.class, responseAim);
                         msg.getInterceptorChain().add(PolicyVerificationInInterceptor.INSTANCE);
                     }
                 }
@@ -116,7 +117,7 @@ public class PolicyInInterceptor extends AbstractPolicyInterceptor {
             EndpointPolicy ep = pe.getServerEndpointPolicy(ei, destination, msg);
             if (ep != null) {
                 interceptors.addAll(ep.getInterceptors(msg));
-                assertions.addAll(ep.getVocabulary(msg));
+                aim = createAssertionInfoMap(ep, msg);
             }
         }
 
@@ -126,10 +127,17 @@ public class PolicyInInterceptor extends AbstractPolicyInterceptor {
         }
 
         // Insert assertions of endpoint's vocabulary into message
-        if (!assertions.isEmpty()) {
-            msg.put(AssertionInfoMap.class, new AssertionInfoMap(assertions));
+        if (aim != null && !aim.isEmpty()) {
+            msg.put(AssertionInfoMap.class, aim);
             msg.getInterceptorChain().add(PolicyVerificationInInterceptor.INSTANCE);
         }
 
     }
+
+    private static AssertionInfoMap createAssertionInfoMap(EndpointPolicy ep, Message msg) {
+        if (ep instanceof EndpointPolicyImpl) {
+            return ((EndpointPolicyImpl)ep).createAssertionInfoMap(msg);
+        }
+        return new AssertionInfoMap(ep.getVocabulary(msg));
+    }
 }
\ No newline at end of file
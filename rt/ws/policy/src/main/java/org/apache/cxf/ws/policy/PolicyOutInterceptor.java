@@ -19,7 +19,6 @@
 
 package org.apache.cxf.ws.policy;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.logging.Level;
@@ -76,7 +75,8 @@ public class PolicyOutInterceptor extends AbstractPolicyInterceptor {
             return;
         }
 
-        Collection<Assertion> assertions = new ArrayList<>();
+        Collection<Assertion> assertions = null;
+        AssertionInfoMap aim = null;
 
         // 1. Check overridden policy
         Policy p = (Policy)msg.getContextualProperty(PolicyConstants.POLICY_OVERRIDE);
@@ -89,7 +89,8 @@ public class PolicyOutInterceptor extends AbstractPolicyInterceptor {
                                   effectivePolicy.getPolicy());
 
             addInterceptors(effectivePolicy.getInterceptors(), msg);
-            assertions.addAll(effectivePolicy.getChosenAlternative());
+            assertions = effectivePolicy.getChosenAlternative();
+            aim = new AssertionInfoMap(assertions);
         } else if (MessageUtils.isRequestor(msg)) {
             // 2. Process client policy
             Conduit conduit = exchange.getConduit(msg);
@@ -102,7 +103,8 @@ public class PolicyOutInterceptor extends AbstractPolicyInterceptor {
                     LOG, Level.FINEST, "Using effective policy: ", effectivePolicy.getPolicy()
                 );
                 addInterceptors(effectivePolicy.getInterceptors(), msg);
-                assertions.addAll(effectivePolicy.getChosenAlternative());
+                assertions = effectivePolicy.getChosenAlternative();
+                aim = createAssertionInfoMap(effectivePolicy, assertions);
             }
         } else {
             // 3. Process server policy
@@ -117,12 +119,13 @@ public class PolicyOutInterceptor extends AbstractPolicyInterceptor {
                     LOG, Level.FINEST, "Using effective policy: ", effectivePolicy.getPolicy()
                 );
                 addInterceptors(effectivePolicy.getInterceptors(), msg);
-                assertions.addAll(effectivePolicy.getChosenAlternative());
+                assertions = effectivePolicy.getChosenAlternative();
+                aim = createAssertionInfoMap(effectivePolicy, assertions);
             }
         }
 
         // insert assertions of endpoint's fault vocabulary into message
-        if (null != assertions && !assertions.isEmpty()) {
+        if (null != aim && !aim.isEmpty()) {
             if (LOG.isLoggable(Level.FINEST)) {
                 StringBuilder buf = new StringBuilder();
                 buf.append("Chosen alternative: ");
@@ -133,11 +136,19 @@ public class PolicyOutInterceptor extends AbstractPolicyInterceptor {
                 }
                 LOG.finest(buf.toString());
             }
-            msg.put(AssertionInfoMap.class, new AssertionInfoMap(assertions));
+            msg.put(AssertionInfoMap.class, aim);
             msg.getInterceptorChain().add(PolicyVerificationOutInterceptor.INSTANCE);
         }
     }
 
+    private static AssertionInfoMap createAssertionInfoMap(EffectivePolicy ep,
+                                                          Collection<Assertion> assertions) {
+        if (ep instanceof EffectivePolicyImpl) {
+            return ((EffectivePolicyImpl)ep).createAssertionInfoMap();
+        }
+        return new AssertionInfoMap(assertions);
+    }
+
     private static void addInterceptors(List<Interceptor<? extends Message>> interceptors, Message msg) {
         for (Interceptor<? extends Message> oi : interceptors) {
             msg.getInterceptorChain().add(oi);
@@ -99,7 +99,7 @@ public class PolicyVerificationInInterceptor extends AbstractPolicyInterceptor {
             }
         }
         try {
-            List<List<Assertion>> usedAlternatives = aim.checkEffectivePolicy(effectivePolicy.getPolicy());
+            List<List<Assertion>> usedAlternatives = checkEffectivePolicy(aim, effectivePolicy);
             if (usedAlternatives != null && !usedAlternatives.isEmpty() && message.getExchange() != null) {
                 message.getExchange().put("ws-policy.validated.alternatives", usedAlternatives);
             }
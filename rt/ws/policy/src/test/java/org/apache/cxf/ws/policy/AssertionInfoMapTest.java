@@ -215,4 +215,29 @@ public class AssertionInfoMapTest extends Assert {
                    ais[0].getAssertion(), c);
 
     }
+
+    @Test
+    public void testCopy() {
+        Policy nested = new Policy();
+        nested.addAssertion(new PrimitiveAssertion(new QName("http://x.y.z", "b")));
+        Policy p = new Policy();
+        Assertion a = new PrimitiveAssertion(new QName("http://x.y.z", "a"));
+        p.addAssertion(a);
+        p.addAssertion(new PolicyContainingPrimitiveAssertion(
+                           new QName("http://x.y.z", "c"), false, false, nested));
+
+        AssertionInfoMap template = new AssertionInfoMap(p);
+        AssertionInfoMap aim = new AssertionInfoMap(template);
+        assertEquals(template.keySet(), aim.keySet());
+        for (QName name : template.keySet()) {
+            assertEquals(template.get(name).size(), aim.get(name).size());
+        }
+        AssertionInfo ai = aim.getAssertionInfo(a.getName()).iterator().next();
+        assertSame(a, ai.getAssertion());
+        assertNotSame(template.getAssertionInfo(a.getName()).iterator().next(), ai);
+
+        ai.setAsserted(true);
+        assertFalse(template.getAssertionInfo(a.getName()).iterator().next().isAsserted());
+        assertFalse(new AssertionInfoMap(template).getAssertionInfo(a.getName()).iterator().next().isAsserted());
+    }
 }
@@ -37,7 +37,10 @@ import org.apache.cxf.service.model.BindingOperationInfo;
 import org.apache.cxf.service.model.EndpointInfo;
 import org.apache.cxf.transport.Conduit;
 import org.apache.cxf.transport.Destination;
+import org.apache.cxf.ws.policy.builder.primitive.PrimitiveAssertion;
+import org.apache.neethi.All;
 import org.apache.neethi.Assertion;
+import org.apache.neethi.ExactlyOne;
 import org.apache.neethi.Policy;
 import org.easymock.EasyMock;
 import org.easymock.IMocksControl;
@@ -90,6 +93,36 @@ public class EffectivePolicyImplTest extends Assert {
         control.verify();
     }
 
+    @Test
+    public void testAlternatives() {
+        Assertion a = new PrimitiveAssertion(new QName("http://x.y.z", "a"));
+        Assertion b = new PrimitiveAssertion(new QName("http://x.y.z", "b"));
+        All alt1 = new All();
+        alt1.addAssertion(a);
+        All alt2 = new All();
+        alt2.addAssertion(b);
+        ExactlyOne ea = new ExactlyOne();
+        ea.addPolicyComponent(alt1);
+        ea.addPolicyComponent(alt2);
+        Policy p = new Policy();
+        p.addPolicyComponent(ea);
+
+        EffectivePolicyImpl effectivePolicy = new EffectivePolicyImpl();
+        effectivePolicy.setPolicy(p);
+        List<List<Assertion>> alternatives = effectivePolicy.getAlternatives();
+        assertEquals(2, alternatives.size());
+        assertSame(alternatives, effectivePolicy.getAlternatives());
+
+        effectivePolicy.setChosenAlternative(alternatives.get(0));
+        AssertionInfoMap aim = effectivePolicy.createAssertionInfoMap();
+        assertNotSame(aim, effectivePolicy.createAssertionInfoMap());
+        assertEquals(1, aim.getAssertionInfo(a.getName()).size());
+        assertTrue(aim.getAssertionInfo(b.getName()).isEmpty());
+
+        effectivePolicy.setPolicy(new Policy());
+        assertTrue(effectivePolicy.getAlternatives().get(0).isEmpty());
+    }
+
     @Test
     public void testInitialiseFromEndpointPolicy() throws NoSuchMethodException {
         Method m = EffectivePolicyImpl.class.getDeclaredMethod("initialiseInterceptors",
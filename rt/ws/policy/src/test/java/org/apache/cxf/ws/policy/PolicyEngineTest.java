@@ -21,6 +21,7 @@ package org.apache.cxf.ws.policy;
 
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -45,8 +46,11 @@ import org.apache.cxf.service.model.ServiceInfo;
 import org.apache.cxf.transport.Conduit;
 import org.apache.cxf.transport.Destination;
 import org.apache.cxf.ws.policy.builder.primitive.PrimitiveAssertion;
+import org.apache.cxf.ws.policy.selector.MinimalAlternativeSelector;
+import org.apache.neethi.All;
 import org.apache.neethi.Assertion;
 import org.apache.neethi.Constants;
+import org.apache.neethi.ExactlyOne;
 import org.apache.neethi.Policy;
 import org.apache.neethi.PolicyComponent;
 import org.apache.neethi.PolicyReference;
@@ -163,6 +167,100 @@ public class PolicyEngineTest extends Assert {
         control.verify();
     }
 
+    @Test
+    public void testGetEffectiveServerResponsePolicyForAlternatives() throws Exception {
+        Method m = PolicyEngineImpl.class.getDeclaredMethod("createOutPolicyInfo", new Class[] {});
+        engine = EasyMock.createMockBuilder(PolicyEngineImpl.class)
+            .addMockedMethod(m).createMock(control);
+        engine.init();
+        EndpointInfo ei = createMockEndpointInfo();
+        BindingOperationInfo boi = createMockBindingOperationInfo();
+        AssertingDestination destination = control.createMock(AssertingDestination.class);
+        List<Assertion> alternative = new ArrayList<>();
+        List<List<Assertion>> incoming = new ArrayList<>();
+        incoming.add(alternative);
+        EffectivePolicyImpl epi = control.createMock(EffectivePolicyImpl.class);
+        EasyMock.expect(engine.createOutPolicyInfo()).andReturn(epi);
+        epi.initialise(ei, boi, engine, destination, incoming, msg);
+        EasyMock.expectLastCall();
+        control.replay();
+        assertSame(epi, engine.getEffectiveServerResponsePolicy(ei, boi, destination, incoming, msg));
+        // the same alternatives in another list
+        assertSame(epi, engine.getEffectiveServerResponsePolicy(ei, boi, destination,
+                                                                Collections.singletonList(alternative), msg));
+        control.verify();
+
+        control.reset();
+        EffectivePolicyImpl epi2 = control.createMock(EffectivePolicyImpl.class);
+        EasyMock.expect(engine.createOutPolicyInfo()).andReturn(epi2);
+        List<List<Assertion>> other = Collections.singletonList(new ArrayList<Assertion>());
+        epi2.initialise(ei, boi, engine, destination, other, msg);
+        EasyMock.expectLastCall();
+        control.replay();
+        assertSame(epi2, engine.getEffectiveServerResponsePolicy(ei, boi, destination, other, msg));
+        control.verify();
+    }
+
+    @Test
+    public void testServerResponsePolicyDependingOnMessage() throws Exception {
+        Bus bus = new ExtensionManagerBus();
+        try {
+            engine = new PolicyEngineImpl(bus);
+            QName aqn = new QName("http://x.y.z", "a");
+            QName bqn = new QName("http://x.y.z", "b");
+            QName cqn = new QName("http://x.y.z", "c");
+            PolicyInterceptorProviderRegistry reg = bus.getExtension(PolicyInterceptorProviderRegistry.class);
+            reg.register(new TestPolicyInterceptorProvider(Arrays.asList(aqn, cqn)));
+            reg.register(new MessageDependentPolicyInterceptorProvider(bqn));
+
+            // the larger alternative, preferred for responses, is only supported for messages
+            // configured for it
+            Policy p = new Policy();
+            ExactlyOne ea = new ExactlyOne();
+            All all = new All();
+            all.addPolicyComponent(new PrimitiveAssertion(aqn));
+            ea.addPolicyComponent(all);
+            all = new All();
+            all.addPolicyComponent(new PrimitiveAssertion(bqn));
+            all.addPolicyComponent(new PrimitiveAssertion(cqn));
+            ea.addPolicyComponent(all);
+            p.addPolicyComponent(ea);
+            EndpointInfo ei = createMockEndpointInfo();
+            BindingOperationInfo boi = createMockBindingOperationInfo();
+            engine.setServerEndpointPolicy(ei, new EndpointPolicyImpl(p));
+
+            List<List<Assertion>> incoming = Collections.singletonList(Collections.<Assertion>emptyList());
+            Message configured = new MessageImpl();
+            configured.put(MessageDependentPolicyInterceptorProvider.CONFIGURED, Boolean.TRUE);
+            Message unconfigured = new MessageImpl();
+
+            EffectivePolicy ep1 = engine.getEffectiveServerResponsePolicy(ei, boi, null, incoming, configured);
+            EffectivePolicy ep2 = engine.getEffectiveServerResponsePolicy(ei, boi, null, incoming, unconfigured);
+            assertEquals(new HashSet<>(Arrays.asList(bqn, cqn)), getNames(ep1.getChosenAlternative()));
+            assertEquals(Collections.singleton(aqn), getNames(ep2.getChosenAlternative()));
+            EffectivePolicy ep3 = engine.getEffectiveServerResponsePolicy(ei, boi, null, incoming, configured);
+            assertEquals(new HashSet<>(Arrays.asList(bqn, cqn)), getNames(ep3.getChosenAlternative()));
+            assertFalse(engine.isMessageIndependent(ep1.getPolicy()));
+
+            // without the message dependent provider the response policy is cached
+            BindingOperationInfo boi2 = createMockBindingOperationInfo();
+            incoming = Collections.singletonList(Collections.<Assertion>singletonList(new PrimitiveAssertion(aqn)));
+            p = new Policy();
+            p.addPolicyComponent(new PrimitiveAssertion(aqn));
+            engine.setServerEndpointPolicy(ei, new EndpointPolicyImpl(p));
+            ep1 = engine.getEffectiveServerResponsePolicy(ei, boi2, null, incoming, unconfigured);
+            assertTrue(engine.isMessageIndependent(ep1.getPolicy()));
+            assertSame(ep1, engine.getEffectiveServerResponsePolicy(ei, boi2, null, incoming, configured));
+
+            // nor is it with an AlternativeSelector that may look at the message
+            engine.setAlternativeSelector(new MinimalAlternativeSelector() {
+            });
+            assertFalse(engine.isMessageIndependent(ep1.getPolicy()));
+        } finally {
+            bus.shutdown(true);
+        }
+    }
+
     @Test
     public void testSetEffectiveServerResponsePolicy() throws Exception {
         engine = new PolicyEngineImpl();
@@ -675,6 +773,36 @@ public class PolicyEngineTest extends Assert {
         return ids;
     }
 
+    private static Set<QName> getNames(Collection<Assertion> assertions) {
+        Set<QName> names = new HashSet<>();
+        for (Assertion a : assertions) {
+            names.add(a.getName());
+        }
+        return names;
+    }
+
+    static class TestPolicyInterceptorProvider extends AbstractPolicyInterceptorProvider {
+        private static final long serialVersionUID = 1L;
+
+        TestPolicyInterceptorProvider(Collection<QName> types) {
+            super(types);
+        }
+    }
+
+    static class MessageDependentPolicyInterceptorProvider extends AbstractPolicyInterceptorProvider {
+        static final String CONFIGURED = "test.configured";
+        private static final long serialVersionUID = 1L;
+
+        MessageDependentPolicyInterceptorProvider(QName type) {
+            super(type);
+        }
+
+        @Override
+        public boolean configurationPresent(Message msg, Assertion assertion) {
+            return msg != null && Boolean.TRUE.equals(msg.get(CONFIGURED));
+        }
+    }
+
     interface AssertingConduit extends Assertor, Conduit {
     }
 
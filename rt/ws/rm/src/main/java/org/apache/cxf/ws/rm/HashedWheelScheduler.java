@@ -0,0 +1,294 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.ws.rm;
+
+import java.util.Date;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.cxf.common.logging.LogUtils;
+
+/**
+ * Schedules tasks on a hashed timing wheel, driven by a single daemon thread.  Scheduling and
+ * cancelling are constant time and do not contend on a shared lock: new and cancelled tasks are
+ * handed to the wheel thread through lock-free queues, and cancelled tasks are unlinked from the
+ * wheel on its next tick rather than left in place until their time comes, as java.util.Timer
+ * does.  Tasks fire up to one tick late and should be short, typically handing the actual work
+ * on to an executor.
+ */
+public class HashedWheelScheduler {
+    public static final long DEFAULT_TICK_DURATION = 100L;
+    public static final int DEFAULT_WHEEL_SIZE = 512;
+
+    private static final Logger LOG = LogUtils.getL7dLogger(HashedWheelScheduler.class);
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Queue<Timeout> added = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Thread worker;
+    private final long startTime;
+    private volatile boolean stopped;
+    private volatile long lastLag;
+    private volatile long maxLag;
+
+    public HashedWheelScheduler(String name) {
+        this(name, DEFAULT_TICK_DURATION, TimeUnit.MILLISECONDS, DEFAULT_WHEEL_SIZE);
+    }
+
+    public HashedWheelScheduler(String name, long tickDuration, TimeUnit unit, int wheelSize) {
+        if (tickDuration <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("tickDuration and wheelSize must be positive");
+        }
+        tickNanos = unit.toNanos(tickDuration);
+        int size = Integer.highestOneBit(wheelSize);
+        if (size < wheelSize) {
+            size <<= 1;
+        }
+        wheel = new Bucket[size];
+        for (int x = 0; x < size; x++) {
+            wheel[x] = new Bucket();
+        }
+        mask = size - 1;
+        startTime = System.nanoTime();
+        worker = new Thread(this::run, name);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Schedules the task to run once after the given delay in milliseconds.
+     * @throws IllegalStateException if the scheduler has been stopped
+     */
+    public Timeout schedule(Runnable task, long delay) {
+        if (stopped) {
+            throw new IllegalStateException("Scheduler already stopped.");
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0, delay));
+        Timeout timeout = new Timeout(task, deadline);
+        pending.incrementAndGet();
+        added.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Schedules the task to run once at the given time.
+     * @throws IllegalStateException if the scheduler has been stopped
+     */
+    public Timeout schedule(Runnable task, Date time) {
+        return schedule(task, time.getTime() - System.currentTimeMillis());
+    }
+
+    /**
+     * Stops the scheduler, dropping all tasks that have not run yet.
+     */
+    public void stop() {
+        stopped = true;
+        worker.interrupt();
+    }
+
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * @return the number of scheduled tasks that have neither run nor been cancelled
+     */
+    public int getPendingCount() {
+        return pending.get();
+    }
+
+    /**
+     * @return how late in milliseconds the most recently run task fired
+     */
+    public long getLastLag() {
+        return lastLag;
+    }
+
+    /**
+     * @return how late in milliseconds the latest task so far fired
+     */
+    public long getMaxLag() {
+        return maxLag;
+    }
+
+    private void run() {
+        long tick = 0;
+        while (!stopped) {
+            long deadline = startTime + (tick + 1) * tickNanos;
+            long wait = deadline - System.nanoTime();
+            while (wait > 0 && !stopped) {
+                LockSupport.parkNanos(this, wait);
+                wait = deadline - System.nanoTime();
+            }
+            if (stopped) {
+                break;
+            }
+            unlinkCancelled();
+            transferAdded(tick);
+            wheel[(int)(tick & mask)].expire(System.nanoTime());
+            tick++;
+        }
+        pending.set(0);
+        added.clear();
+        cancelled.clear();
+    }
+
+    private void transferAdded(long tick) {
+        for (Timeout timeout = added.poll(); timeout != null; timeout = added.poll()) {
+            if (timeout.isCancelled()) {
+                continue;
+            }
+            long ticks = (timeout.deadline - startTime) / tickNanos;
+            timeout.rounds = (ticks - tick) / wheel.length;
+            wheel[(int)(Math.max(ticks, tick) & mask)].add(timeout);
+        }
+    }
+
+    private void unlinkCancelled() {
+        for (Timeout timeout = cancelled.poll(); timeout != null; timeout = cancelled.poll()) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    private void expired(Timeout timeout, long now) {
+        pending.decrementAndGet();
+        long lag = TimeUnit.NANOSECONDS.toMillis(Math.max(0, now - timeout.deadline));
+        lastLag = lag;
+        if (lag > maxLag) {
+            maxLag = lag;
+        }
+        try {
+            timeout.task.run();
+        } catch (Throwable t) {
+            LOG.log(Level.WARNING, "Scheduled task failed.", t);
+        }
+    }
+
+    /**
+     * A task scheduled on the wheel.
+     */
+    public final class Timeout {
+        private static final int INIT = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final Runnable task;
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(INIT);
+
+        // only touched by the wheel thread
+        private long rounds;
+        private Bucket bucket;
+        private Timeout prev;
+        private Timeout next;
+
+        Timeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Cancels the task if it has not run yet.
+         * @return true if the task will not run because of this call
+         */
+        public boolean cancel() {
+            if (!state.compareAndSet(INIT, CANCELLED)) {
+                return false;
+            }
+            pending.decrementAndGet();
+            if (!stopped) {
+                cancelled.add(this);
+            }
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state.get() == EXPIRED;
+        }
+    }
+
+    private final class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = timeout;
+                tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        void expire(long now) {
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.rounds <= 0) {
+                    remove(timeout);
+                    if (timeout.state.compareAndSet(Timeout.INIT, Timeout.EXPIRED)) {
+                        expired(timeout, now);
+                    }
+                } else if (timeout.isCancelled()) {
+                    remove(timeout);
+                } else {
+                    timeout.rounds--;
+                }
+                timeout = next;
+            }
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.bucket != this) {
+                return;
+            }
+            if (timeout.prev == null) {
+                head = timeout.next;
+            } else {
+                timeout.prev.next = timeout.next;
+            }
+            if (timeout.next == null) {
+                tail = timeout.prev;
+            } else {
+                timeout.next.prev = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+    }
+}
@@ -78,6 +78,21 @@ public class ManagedRMManager implements ManagedComponent {
         return manager.getRetransmissionQueue().countUnacknowledged();
     }
 
+    @ManagedAttribute(description = "Number of Scheduled Resends and Redeliveries", currencyTimeLimit = 10)
+    public int getScheduledResendCount() {
+        return manager.getScheduler().getPendingCount();
+    }
+
+    @ManagedAttribute(description = "Last Scheduling Lag of Resends in Milliseconds", currencyTimeLimit = 10)
+    public long getResendScheduleLag() {
+        return manager.getScheduler().getLastLag();
+    }
+
+    @ManagedAttribute(description = "Maximum Scheduling Lag of Resends in Milliseconds", currencyTimeLimit = 10)
+    public long getMaxResendScheduleLag() {
+        return manager.getScheduler().getMaxLag();
+    }
+
 
 //    @ManagedAttribute(description = "Total Number of Inbound Queued Messages", currencyTimeLimit = 10)
 //    public int getQueuedMessagesInboundCount() {
@@ -119,6 +119,7 @@ public class RMManager {
     private RedeliveryQueue redeliveryQueue;
     private Map<Endpoint, RMEndpoint> reliableEndpoints = new ConcurrentHashMap<Endpoint, RMEndpoint>();
     private AtomicReference<Timer> timer = new AtomicReference<Timer>();
+    private AtomicReference<HashedWheelScheduler> scheduler = new AtomicReference<HashedWheelScheduler>();
     private RMConfiguration configuration;
     private SourcePolicyType sourcePolicy;
     private DestinationPolicyType destinationPolicy;
@@ -220,6 +221,25 @@ public class RMManager {
         return getTimer(true);
     }
 
+    private HashedWheelScheduler getScheduler(boolean create) {
+        HashedWheelScheduler ret = scheduler.get();
+        if (ret == null && create) {
+            HashedWheelScheduler news
+                = new HashedWheelScheduler("RMManager-Scheduler-" + System.identityHashCode(this));
+            if (!scheduler.compareAndSet(null, news)) {
+                news.stop();
+            }
+        }
+        return scheduler.get();
+    }
+
+    /**
+     * @return the scheduler shared by the retransmission and redelivery queues for their resends
+     */
+    public HashedWheelScheduler getScheduler() {
+        return getScheduler(true);
+    }
+
     public BindingFaultFactory getBindingFaultFactory(Binding binding) {
         return new SoapFaultFactory(binding);
     }
@@ -528,6 +548,10 @@ public class RMManager {
             t.purge();
             t.cancel();
         }
+        HashedWheelScheduler s = getScheduler(false);
+        if (s != null) {
+            s.stop();
+        }
 
         // unregistring of this managed bean from the server is done by the bus itself
     }
@@ -0,0 +1,809 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.ws.rm.persistence.file;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+import org.apache.cxf.common.injection.NoJSR250Annotations;
+import org.apache.cxf.common.logging.LogUtils;
+import org.apache.cxf.helpers.IOUtils;
+import org.apache.cxf.io.CachedOutputStream;
+import org.apache.cxf.ws.rm.DestinationSequence;
+import org.apache.cxf.ws.rm.ProtocolVariation;
+import org.apache.cxf.ws.rm.RMUtils;
+import org.apache.cxf.ws.rm.SourceSequence;
+import org.apache.cxf.ws.rm.persistence.PersistenceUtils;
+import org.apache.cxf.ws.rm.persistence.RMMessage;
+import org.apache.cxf.ws.rm.persistence.RMStore;
+import org.apache.cxf.ws.rm.persistence.RMStoreException;
+import org.apache.cxf.ws.rm.v200702.Identifier;
+import org.apache.cxf.ws.rm.v200702.SequenceAcknowledgement;
+
+/**
+ * An RMStore that needs no database. Every change is appended to a journal of memory-mapped
+ * segment files in the configured directory and the current state is kept in memory, from where
+ * it is rebuilt by replaying the journal when the store is initialized.
+ *
+ * Each segment starts with a snapshot of all sequences, so a segment at the head of the journal
+ * is deleted as soon as all messages stored in it have been removed. Removing a sequence also
+ * removes the messages stored for it.
+ *
+ * The records written for one call, such as the update of a sequence and the message stored
+ * with it, follow a group record giving their number. They are only replayed when all of them
+ * are complete, so a crash while writing them never leaves a partial change behind.
+ */
+@NoJSR250Annotations
+public class RMJournalStore implements RMStore {
+
+    public static final String DEFAULT_DIRECTORY_NAME = "rmjournal";
+    public static final int DEFAULT_SEGMENT_SIZE = 16 * 1024 * 1024;
+
+    private static final Logger LOG = LogUtils.getL7dLogger(RMJournalStore.class);
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+    // record length and checksum
+    private static final int HEADER_LENGTH = 8;
+
+    private static final byte SNAPSHOT = 1;
+    private static final byte CREATE_SOURCE_SEQUENCE = 2;
+    private static final byte UPDATE_SOURCE_SEQUENCE = 3;
+    private static final byte REMOVE_SOURCE_SEQUENCE = 4;
+    private static final byte CREATE_DESTINATION_SEQUENCE = 5;
+    private static final byte UPDATE_DESTINATION_SEQUENCE = 6;
+    private static final byte REMOVE_DESTINATION_SEQUENCE = 7;
+    private static final byte STORE_MESSAGE = 8;
+    private static final byte REMOVE_MESSAGES = 9;
+    private static final byte GROUP = 10;
+
+    private File directory = new File(DEFAULT_DIRECTORY_NAME);
+    private int segmentSize = DEFAULT_SEGMENT_SIZE;
+    private boolean forceWrites = true;
+
+    private final SortedMap<Long, Segment> segments = new TreeMap<>();
+    private Segment current;
+
+    private final Map<String, SourceState> sources = new LinkedHashMap<>();
+    private final Map<String, DestinationState> destinations = new LinkedHashMap<>();
+    private final Map<String, SortedMap<Long, StoredMessage>> outboundMessages = new HashMap<>();
+    private final Map<String, SortedMap<Long, StoredMessage>> inboundMessages = new HashMap<>();
+
+    public RMJournalStore() {
+    }
+
+    // configuration
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(File directory) {
+        this.directory = directory;
+    }
+
+    public int getSegmentSize() {
+        return segmentSize;
+    }
+
+    /**
+     * Sets the size in bytes of the segment files. A record larger than this gets a segment of its own.
+     */
+    public void setSegmentSize(int segmentSize) {
+        this.segmentSize = segmentSize;
+    }
+
+    public boolean isForceWrites() {
+        return forceWrites;
+    }
+
+    /**
+     * Sets whether every write is forced to the storage device before the call returns, which
+     * is the default. Without it a write survives a crash of the process, but not of the host.
+     */
+    public void setForceWrites(boolean forceWrites) {
+        this.forceWrites = forceWrites;
+    }
+
+    // lifecycle
+
+    public synchronized void init() {
+        if (current != null) {
+            return;
+        }
+        try {
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                throw new IOException("Could not create directory " + directory);
+            }
+            File[] files = directory.listFiles();
+            for (File f : files == null ? new File[0] : files) {
+                String name = f.getName();
+                if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+                    long id = Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                                                            name.length() - SEGMENT_SUFFIX.length()));
+                    segments.put(id, new Segment(f, map(f, FileChannel.MapMode.READ_ONLY, f.length())));
+                }
+            }
+            for (Segment segment : segments.values()) {
+                replay(segment);
+            }
+            removeOrphanedMessages(outboundMessages, sources);
+            removeOrphanedMessages(inboundMessages, destinations);
+            // never append to a segment that may end with a partially written record
+            startSegment(0);
+            removeDeadSegments();
+        } catch (IOException | RuntimeException ex) {
+            LogUtils.log(LOG, Level.SEVERE, "INITIALIZATION_FAILED_MSG", ex);
+            destroy();
+            throw ex instanceof RMStoreException ? (RMStoreException)ex : new RMStoreException(ex);
+        }
+    }
+
+    public synchronized void destroy() {
+        current = null;
+        segments.clear();
+        sources.clear();
+        destinations.clear();
+        outboundMessages.clear();
+        inboundMessages.clear();
+    }
+
+    // RMStore interface
+
+    public synchronized void createSourceSequence(SourceSequence seq) {
+        Date expiry = seq.getExpires();
+        Identifier osid = seq.getOfferingSequenceIdentifier();
+        SourceState state = new SourceState(seq.getIdentifier().getValue(),
+                                            expiry == null ? 0 : expiry.getTime(),
+                                            osid == null ? null : osid.getValue(),
+                                            seq.getEndpointIdentifier(),
+                                            encodeProtocolVersion(seq.getProtocol()));
+        try {
+            write(state.create());
+        } catch (IOException ex) {
+            throw new RMStoreException(ex);
+        }
+    }
+
+    public synchronized void createDestinationSequence(DestinationSequence seq) {
+        DestinationState state = new DestinationState(seq.getIdentifier().getValue(),
+                                                      seq.getAcksTo().getAddress().getValue(),
+                                                      seq.getEndpointIdentifier(),
+                                                      encodeProtocolVersion(seq.getProtocol()));
+        try {
+            write(state.create());
+        } catch (IOException ex) {
+            throw new RMStoreException(ex);
+        }
+    }
+
+    public synchronized SourceSequence getSourceSequence(Identifier sid) {
+        open();
+        SourceState state = sources.get(sid.getValue());
+        return state == null ? null : state.toSequence();
+    }
+
+    public synchronized DestinationSequence getDestinationSequence(Identifier sid) {
+        open();
+        DestinationState state = destinations.get(sid.getValue());
+        return state == null ? null : state.toSequence();
+    }
+
+    public synchronized void removeSourceSequence(Identifier sid) {
+        write(record(REMOVE_SOURCE_SEQUENCE, sid.getValue()));
+    }
+
+    public synchronized void removeDestinationSequence(Identifier sid) {
+        write(record(REMOVE_DESTINATION_SEQUENCE, sid.getValue()));
+    }
+
+    public synchronized Collection<SourceSequence> getSourceSequences(String endpointIdentifier) {
+        open();
+        Collection<SourceSequence> seqs = new ArrayList<>();
+        for (SourceState state : sources.values()) {
+            if (endpointIdentifier.equals(state.endpointId)) {
+                seqs.add(state.toSequence());
+            }
+        }
+        return seqs;
+    }
+
+    public synchronized Collection<DestinationSequence> getDestinationSequences(String endpointIdentifier) {
+        open();
+        Collection<DestinationSequence> seqs = new ArrayList<>();
+        for (DestinationState state : destinations.values()) {
+            if (endpointIdentifier.equals(state.endpointId)) {
+                seqs.add(state.toSequence());
+            }
+        }
+        return seqs;
+    }
+
+    public synchronized Collection<RMMessage> getMessages(Identifier sid, boolean outbound) {
+        open();
+        SortedMap<Long, StoredMessage> stored
+            = (outbound ? outboundMessages : inboundMessages).get(sid.getValue());
+        Collection<RMMessage> msgs = new ArrayList<>();
+        if (stored == null) {
+            return msgs;
+        }
+        try {
+            for (StoredMessage sm : stored.values()) {
+                RMMessage msg = new RMMessage();
+                msg.setMessageNumber(sm.messageNr);
+                msg.setTo(sm.to);
+                msg.setCreatedTime(sm.createdTime);
+                msg.setContentType(sm.contentType);
+                ByteBuffer content = sm.segment.buffer.duplicate();
+                content.position(sm.contentPosition);
+                byte[] bytes = new byte[sm.contentLength];
+                content.get(bytes);
+                CachedOutputStream cos = new CachedOutputStream();
+                cos.write(bytes);
+                cos.flush();
+                msg.setContent(cos);
+                msgs.add(msg);
+            }
+        } catch (IOException ex) {
+            throw new RMStoreException(ex);
+        }
+        return msgs;
+    }
+
+    public synchronized void persistIncoming(DestinationSequence seq, RMMessage msg) {
+        String id = seq.getIdentifier().getValue();
+        try {
+            InputStream is = PersistenceUtils.getInstance().serialiseAcknowledgment(seq.getAcknowledgment());
+            Record update = new Record(UPDATE_DESTINATION_SEQUENCE, id);
+            update.out.writeLong(seq.getLastMessageNumber());
+            update.out.writeBoolean(seq.isTerminated());
+            writeBytes(update.out, IOUtils.readBytesFromStream(is));
+            if (msg != null && msg.getContent() != null) {
+                write(update.toByteArray(), message(id, msg, false));
+            } else {
+                write(update.toByteArray());
+            }
+        } catch (IOException ex) {
+            throw new RMStoreException(ex);
+        }
+    }
+
+    public synchronized void persistOutgoing(SourceSequence seq, RMMessage msg) {
+        String id = seq.getIdentifier().getValue();
+        try {
+            Record update = new Record(UPDATE_SOURCE_SEQUENCE, id);
+            update.out.writeLong(seq.getCurrentMessageNr());
+            update.out.writeBoolean(seq.isLastMessage());
+            if (msg != null && msg.getContent() != null) {
+                write(update.toByteArray(), message(id, msg, true));
+            } else {
+                write(update.toByteArray());
+            }
+        } catch (IOException ex) {
+            throw new RMStoreException(ex);
+        }
+    }
+
+    public synchronized void removeMessages(Identifier sid, Collection<Long> messageNrs, boolean outbound) {
+        try {
+            Record remove = new Record(REMOVE_MESSAGES, sid.getValue());
+            remove.out.writeBoolean(outbound);
+            remove.out.writeInt(messageNrs.size());
+            for (Long messageNr : messageNrs) {
+                remove.out.writeLong(messageNr);
+            }
+            write(remove.toByteArray());
+        } catch (IOException ex) {
+            throw new RMStoreException(ex);
+        }
+    }
+
+    // journal
+
+    private void open() {
+        if (current == null) {
+            init();
+        }
+    }
+
+    private static byte[] message(String id, RMMessage msg, boolean outbound) throws IOException {
+        CachedOutputStream cos = msg.getContent();
+        try (InputStream msgin = cos.getInputStream()) {
+            Record record = new Record(STORE_MESSAGE, id);
+            record.out.writeBoolean(outbound);
+            record.out.writeLong(msg.getMessageNumber());
+            writeString(record.out, msg.getTo());
+            record.out.writeLong(msg.getCreatedTime());
+            writeString(record.out, msg.getContentType());
+            // the content comes last, so that its position follows from the record length
+            writeBytes(record.out, IOUtils.readBytesFromStream(msgin));
+            return record.toByteArray();
+        } finally {
+            cos.close(); // needed to clean-up tmp file folder
+        }
+    }
+
+    private static byte[] record(byte type, String id) {
+        try {
+            return new Record(type, id).toByteArray();
+        } catch (IOException ex) {
+            throw new RMStoreException(ex);
+        }
+    }
+
+    /**
+     * Appends the records to the current segment, forces them to storage and applies them to the
+     * in-memory state, so that replaying the journal later goes through the same code.
+     */
+    private void write(byte[]... records) {
+        open();
+        try {
+            byte[] group = null;
+            int length = 0;
+            if (records.length > 1) {
+                Record r = new Record(GROUP, "");
+                r.out.writeInt(records.length);
+                group = r.toByteArray();
+                length = HEADER_LENGTH + group.length;
+            }
+            for (byte[] record : records) {
+                length += HEADER_LENGTH + record.length;
+            }
+            if (current.buffer.remaining() < length) {
+                startSegment(length);
+            }
+            MappedByteBuffer buffer = current.buffer;
+            if (group != null) {
+                put(buffer, group);
+            }
+            int[] positions = new int[records.length];
+            for (int i = 0; i < records.length; i++) {
+                positions[i] = put(buffer, records[i]);
+            }
+            if (forceWrites) {
+                buffer.force();
+            }
+            for (int i = 0; i < records.length; i++) {
+                apply(current, positions[i], records[i]);
+            }
+            removeDeadSegments();
+        } catch (IOException ex) {
+            throw new RMStoreException(ex);
+        }
+    }
+
+    /**
+     * Appends the record with its header, returns the position of the record.
+     */
+    private static int put(ByteBuffer buffer, byte[] record) {
+        CRC32 crc = new CRC32();
+        crc.update(record);
+        buffer.putInt(record.length);
+        buffer.putInt((int)crc.getValue());
+        int position = buffer.position();
+        buffer.put(record);
+        return position;
+    }
+
+    private void startSegment(int minimumSize) throws IOException {
+        List<byte[]> snapshot = new ArrayList<>();
+        snapshot.add(record(SNAPSHOT, ""));
+        for (SourceState state : sources.values()) {
+            snapshot.add(state.create());
+            snapshot.add(state.update());
+        }
+        for (DestinationState state : destinations.values()) {
+            snapshot.add(state.create());
+            snapshot.add(state.update());
+        }
+        int size = minimumSize;
+        for (byte[] record : snapshot) {
+            size += HEADER_LENGTH + record.length;
+        }
+
+        long id = segments.isEmpty() ? 1 : segments.lastKey() + 1;
+        File file = new File(directory, SEGMENT_PREFIX + String.format("%019d", id) + SEGMENT_SUFFIX);
+        Segment segment = new Segment(file, map(file, FileChannel.MapMode.READ_WRITE,
+                                                Math.max(size, segmentSize)));
+        for (byte[] record : snapshot) {
+            put(segment.buffer, record);
+        }
+        if (forceWrites) {
+            segment.buffer.force();
+        }
+        segments.put(id, segment);
+        current = segment;
+    }
+
+    private static MappedByteBuffer map(File file, FileChannel.MapMode mode, long size) throws IOException {
+        String access = mode == FileChannel.MapMode.READ_ONLY ? "r" : "rw";
+        try (RandomAccessFile raf = new RandomAccessFile(file, access);
+            FileChannel channel = raf.getChannel()) {
+            // the mapping stays valid after the channel is closed
+            return channel.map(mode, 0, size);
+        }
+    }
+
+    private void removeDeadSegments() {
+        Iterator<Segment> it = segments.values().iterator();
+        while (it.hasNext()) {
+            Segment segment = it.next();
+            // only the head can go, as later segments may remove messages stored in earlier ones
+            if (segment == current || segment.messages > 0) {
+                break;
+            }
+            it.remove();
+            if (!segment.file.delete()) {
+                LogUtils.log(LOG, Level.WARNING, "DELETE_SEGMENT_FAILED_MSG", segment.file);
+            }
+        }
+    }
+
+    private void replay(Segment segment) throws IOException {
+        ByteBuffer buffer = segment.buffer.duplicate();
+        while (true) {
+            int start = buffer.position();
+            byte[] record = read(buffer);
+            if (record == null) {
+                if (buffer.position() != start) {
+                    LogUtils.log(LOG, Level.WARNING, "CORRUPT_RECORD_MSG", new Object[] {segment.file, start});
+                }
+                return;
+            }
+            if (record[0] != GROUP) {
+                apply(segment, buffer.position() - record.length, record);
+                continue;
+            }
+            // the records of a group are applied together or not at all
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+            in.readByte();
+            in.readUTF();
+            int count = in.readInt();
+            byte[][] records = new byte[count][];
+            int[] positions = new int[count];
+            for (int i = 0; i < count; i++) {
+                records[i] = read(buffer);
+                if (records[i] == null) {
+                    LogUtils.log(LOG, Level.WARNING, "CORRUPT_RECORD_MSG", new Object[] {segment.file, start});
+                    return;
+                }
+                positions[i] = buffer.position() - records[i].length;
+            }
+            for (int i = 0; i < count; i++) {
+                apply(segment, positions[i], records[i]);
+            }
+        }
+    }
+
+    /**
+     * Reads the next record, or returns null at the unused rest of the segment, leaving the
+     * position unchanged, or at an incomplete or corrupt record.
+     */
+    private static byte[] read(ByteBuffer buffer) {
+        if (buffer.remaining() < HEADER_LENGTH) {
+            return null;
+        }
+        int start = buffer.position();
+        int length = buffer.getInt();
+        int checksum = buffer.getInt();
+        if (length == 0) {
+            buffer.position(start);
+            return null;
+        }
+        if (length < 0 || length > buffer.remaining()) {
+            return null;
+        }
+        byte[] record = new byte[length];
+        buffer.get(record);
+        CRC32 crc = new CRC32();
+        crc.update(record);
+        return (int)crc.getValue() == checksum ? record : null;
+    }
+
+    private void apply(Segment segment, int position, byte[] record) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+        byte type = in.readByte();
+        String id = in.readUTF();
+        switch (type) {
+        case SNAPSHOT:
+            sources.clear();
+            destinations.clear();
+            break;
+        case CREATE_SOURCE_SEQUENCE:
+            sources.put(id, new SourceState(id, in.readLong(), readString(in), readString(in), in.readUTF()));
+            break;
+        case UPDATE_SOURCE_SEQUENCE: {
+            SourceState state = sources.get(id);
+            if (state != null) {
+                state.currentMessageNr = in.readLong();
+                state.lastMessage = in.readBoolean();
+            }
+            break;
+        }
+        case REMOVE_SOURCE_SEQUENCE:
+            sources.remove(id);
+            removeMessages(outboundMessages.remove(id));
+            break;
+        case CREATE_DESTINATION_SEQUENCE:
+            destinations.put(id, new DestinationState(id, in.readUTF(), readString(in), in.readUTF()));
+            break;
+        case UPDATE_DESTINATION_SEQUENCE: {
+            DestinationState state = destinations.get(id);
+            if (state != null) {
+                state.lastMessageNr = in.readLong();
+                state.terminated = in.readBoolean();
+                state.acknowledgement = readBytes(in);
+            }
+            break;
+        }
+        case REMOVE_DESTINATION_SEQUENCE:
+            destinations.remove(id);
+            removeMessages(inboundMessages.remove(id));
+            break;
+        case STORE_MESSAGE: {
+            boolean outbound = in.readBoolean();
+            StoredMessage sm = new StoredMessage(segment, in.readLong(), readString(in), in.readLong(),
+                                                 readString(in));
+            sm.contentLength = in.readInt();
+            sm.contentPosition = position + record.length - sm.contentLength;
+            Map<String, SortedMap<Long, StoredMessage>> messages
+                = outbound ? outboundMessages : inboundMessages;
+            SortedMap<Long, StoredMessage> stored = messages.get(id);
+            if (stored == null) {
+                stored = new TreeMap<>();
+                messages.put(id, stored);
+            }
+            StoredMessage old = stored.put(sm.messageNr, sm);
+            if (old != null) {
+                old.segment.messages--;
+            }
+            segment.messages++;
+            break;
+        }
+        case REMOVE_MESSAGES: {
+            SortedMap<Long, StoredMessage> stored
+                = (in.readBoolean() ? outboundMessages : inboundMessages).get(id);
+            for (int i = in.readInt(); i > 0; i--) {
+                long messageNr = in.readLong();
+                StoredMessage sm = stored == null ? null : stored.remove(messageNr);
+                if (sm != null) {
+                    sm.segment.messages--;
+                }
+            }
+            break;
+        }
+        default:
+            throw new IOException("Unknown record type " + type);
+        }
+    }
+
+    private static void removeMessages(SortedMap<Long, StoredMessage> stored) {
+        if (stored != null) {
+            for (StoredMessage sm : stored.values()) {
+                sm.segment.messages--;
+            }
+        }
+    }
+
+    private static void removeOrphanedMessages(Map<String, SortedMap<Long, StoredMessage>> messages,
+                                               Map<String, ?> sequences) {
+        // left behind when the removal of their sequence was in a deleted segment
+        Iterator<Map.Entry<String, SortedMap<Long, StoredMessage>>> it = messages.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, SortedMap<Long, StoredMessage>> entry = it.next();
+            if (!sequences.containsKey(entry.getKey())) {
+                removeMessages(entry.getValue());
+                it.remove();
+            }
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        out.writeBoolean(s != null);
+        if (s != null) {
+            out.writeUTF(s);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    protected static String encodeProtocolVersion(ProtocolVariation pv) {
+        return pv.getCodec().getWSRMNamespace() + ' ' + pv.getCodec().getWSANamespace();
+    }
+
+    protected static ProtocolVariation decodeProtocolVersion(String pv) {
+        if (null != pv) {
+            int d = pv.indexOf(' ');
+            if (d > 0) {
+                return ProtocolVariation.findVariant(pv.substring(0, d), pv.substring(d + 1));
+            }
+        }
+        return ProtocolVariation.RM10WSA200408;
+    }
+
+    private static Identifier createIdentifier(String value) {
+        Identifier id = RMUtils.getWSRMFactory().createIdentifier();
+        id.setValue(value);
+        return id;
+    }
+
+    private static final class Record {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+
+        Record(byte type, String id) throws IOException {
+            out.writeByte(type);
+            out.writeUTF(id);
+        }
+
+        byte[] toByteArray() throws IOException {
+            out.flush();
+            return bytes.toByteArray();
+        }
+    }
+
+    private static final class Segment {
+        final File file;
+        final MappedByteBuffer buffer;
+        // the number of stored messages in this segment that have not been removed
+        int messages;
+
+        Segment(File file, MappedByteBuffer buffer) {
+            this.file = file;
+            this.buffer = buffer;
+        }
+    }
+
+    private static final class StoredMessage {
+        final Segment segment;
+        final long messageNr;
+        final String to;
+        final long createdTime;
+        final String contentType;
+        int contentPosition;
+        int contentLength;
+
+        StoredMessage(Segment segment, long messageNr, String to, long createdTime, String contentType) {
+            this.segment = segment;
+            this.messageNr = messageNr;
+            this.to = to;
+            this.createdTime = createdTime;
+            this.contentType = contentType;
+        }
+    }
+
+    private static final class SourceState {
+        final String id;
+        final long expiry;
+        final String offeringId;
+        final String endpointId;
+        final String protocol;
+        long currentMessageNr;
+        boolean lastMessage;
+
+        SourceState(String id, long expiry, String offeringId, String endpointId, String protocol) {
+            this.id = id;
+            this.expiry = expiry;
+            this.offeringId = offeringId;
+            this.endpointId = endpointId;
+            this.protocol = protocol;
+        }
+
+        byte[] create() throws IOException {
+            Record record = new Record(CREATE_SOURCE_SEQUENCE, id);
+            record.out.writeLong(expiry);
+            writeString(record.out, offeringId);
+            writeString(record.out, endpointId);
+            record.out.writeUTF(protocol);
+            return record.toByteArray();
+        }
+
+        byte[] update() throws IOException {
+            Record record = new Record(UPDATE_SOURCE_SEQUENCE, id);
+            record.out.writeLong(currentMessageNr);
+            record.out.writeBoolean(lastMessage);
+            return record.toByteArray();
+        }
+
+        SourceSequence toSequence() {
+            return new SourceSequence(createIdentifier(id), expiry == 0 ? null : new Date(expiry),
+                                      offeringId == null ? null : createIdentifier(offeringId),
+                                      currentMessageNr, lastMessage, decodeProtocolVersion(protocol));
+        }
+    }
+
+    private static final class DestinationState {
+        final String id;
+        final String acksTo;
+        final String endpointId;
+        final String protocol;
+        long lastMessageNr;
+        boolean terminated;
+        byte[] acknowledgement;
+
+        DestinationState(String id, String acksTo, String endpointId, String protocol) {
+            this.id = id;
+            this.acksTo = acksTo;
+            this.endpointId = endpointId;
+            this.protocol = protocol;
+        }
+
+        byte[] create() throws IOException {
+            Record record = new Record(CREATE_DESTINATION_SEQUENCE, id);
+            record.out.writeUTF(acksTo);
+            writeString(record.out, endpointId);
+            record.out.writeUTF(protocol);
+            return record.toByteArray();
+        }
+
+        byte[] update() throws IOException {
+            Record record = new Record(UPDATE_DESTINATION_SEQUENCE, id);
+            record.out.writeLong(lastMessageNr);
+            record.out.writeBoolean(terminated);
+            writeBytes(record.out, acknowledgement == null ? new byte[0] : acknowledgement);
+            return record.toByteArray();
+        }
+
+        DestinationSequence toSequence() {
+            SequenceAcknowledgement ack = null;
+            if (acknowledgement != null && acknowledgement.length > 0) {
+                ack = PersistenceUtils.getInstance()
+                    .deserialiseAcknowledgment(new ByteArrayInputStream(acknowledgement));
+            }
+            return new DestinationSequence(createIdentifier(id), RMUtils.createReference(acksTo),
+                                           lastMessageNr, terminated, ack, decodeProtocolVersion(protocol));
+        }
+    }
+}
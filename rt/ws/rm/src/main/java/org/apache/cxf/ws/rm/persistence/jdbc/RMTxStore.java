@@ -36,9 +36,14 @@ import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
@@ -69,6 +74,7 @@ import org.apache.cxf.ws.rm.v200702.SequenceAcknowledgement;
 public class RMTxStore implements RMStore {
 
     public static final String DEFAULT_DATABASE_NAME = "rmdb";
+    public static final int DEFAULT_GROUP_COMMIT_MAX_SIZE = 64;
     private static final String[][] DEST_SEQUENCES_TABLE_COLS
         = {{"SEQ_ID", "VARCHAR(256) NOT NULL"},
            {"ACKS_TO", "VARCHAR(1024) NOT NULL"},
@@ -194,10 +200,29 @@ public class RMTxStore implements RMStore {
     private String tableExistsState = DERBY_TABLE_EXISTS_STATE;
     private int tableExistsCode = ORACLE_TABLE_EXISTS_CODE;
 
+    private volatile long groupCommitWindow;
+    private volatile int groupCommitMaxSize = DEFAULT_GROUP_COMMIT_MAX_SIZE;
+    private GroupCommitter committer;
+
     public RMTxStore() {
     }
 
     public void destroy() {
+        GroupCommitter gc;
+        synchronized (this) {
+            gc = committer;
+            committer = null;
+            if (gc != null) {
+                gc.stop();
+            }
+        }
+        if (gc != null) {
+            gc.join();
+        }
+        closeConnection();
+    }
+
+    protected void closeConnection() {
         if (connection != null && createdConnection) {
             try {
                 connection.close();
@@ -303,6 +328,32 @@ public class RMTxStore implements RMStore {
         this.maxReconnectAttempts = maxReconnectAttempts;
     }
 
+    public long getGroupCommitWindow() {
+        return groupCommitWindow;
+    }
+
+    /**
+     * Sets the time in milliseconds during which persistIncoming, persistOutgoing and removeMessages
+     * calls from concurrent exchanges are collected and then written in a single transaction.
+     * Each call still only returns once its own write has been committed. Group commit requires
+     * the connection to be kept; with the default of 0 every call is committed on its own.
+     */
+    public void setGroupCommitWindow(long groupCommitWindow) {
+        this.groupCommitWindow = groupCommitWindow;
+    }
+
+    public int getGroupCommitMaxSize() {
+        return groupCommitMaxSize;
+    }
+
+    /**
+     * Sets the number of writes after which a group is committed without waiting for the
+     * rest of the group commit window.
+     */
+    public void setGroupCommitMaxSize(int groupCommitMaxSize) {
+        this.groupCommitMaxSize = groupCommitMaxSize;
+    }
+
     public void setConnection(Connection c) {
         connection = c;
         createdConnection = false;
@@ -629,6 +680,30 @@ public class RMTxStore implements RMStore {
     }
 
     public void persistIncoming(DestinationSequence seq, RMMessage msg) {
+        if (isGroupCommit()) {
+            submit(new PendingWrite(seq.getIdentifier(), null, seq, msg, null, false));
+        } else {
+            writeIncoming(seq, msg);
+        }
+    }
+
+    public void persistOutgoing(SourceSequence seq, RMMessage msg) {
+        if (isGroupCommit()) {
+            submit(new PendingWrite(seq.getIdentifier(), seq, null, msg, null, true));
+        } else {
+            writeOutgoing(seq, msg);
+        }
+    }
+
+    public void removeMessages(Identifier sid, Collection<Long> messageNrs, boolean outbound) {
+        if (isGroupCommit()) {
+            submit(new PendingWrite(sid, null, null, null, messageNrs, outbound));
+        } else {
+            deleteMessages(sid, messageNrs, outbound);
+        }
+    }
+
+    private void writeIncoming(DestinationSequence seq, RMMessage msg) {
         Connection con = verifyConnection();
         SQLException conex = null;
         try {
@@ -653,7 +728,7 @@ public class RMTxStore implements RMStore {
             updateConnectionState(con, conex);
         }
     }
-    public void persistOutgoing(SourceSequence seq, RMMessage msg) {
+    private void writeOutgoing(SourceSequence seq, RMMessage msg) {
         Connection con = verifyConnection();
         SQLException conex = null;
         try {
@@ -679,7 +754,7 @@ public class RMTxStore implements RMStore {
         }
     }
 
-    public void removeMessages(Identifier sid, Collection<Long> messageNrs, boolean outbound) {
+    private void deleteMessages(Identifier sid, Collection<Long> messageNrs, boolean outbound) {
         Connection con = verifyConnection();
         PreparedStatement stmt = null;
         SQLException conex = null;
@@ -691,8 +766,9 @@ public class RMTxStore implements RMStore {
 
             for (Long messageNr : messageNrs) {
                 stmt.setLong(2, messageNr);
-                stmt.execute();
+                stmt.addBatch();
             }
+            stmt.executeBatch();
 
             commit(con);
 
@@ -701,11 +777,194 @@ public class RMTxStore implements RMStore {
             abort(con);
             throw new RMStoreException(ex);
         } finally {
-            releaseResources(stmt, null);
+            releaseBatch(stmt);
             updateConnectionState(con, conex);
         }
     }
 
+    // group commit
+
+    private boolean isGroupCommit() {
+        return groupCommitWindow > 0 && connection != null;
+    }
+
+    private void submit(PendingWrite write) {
+        synchronized (this) {
+            if (committer == null) {
+                committer = new GroupCommitter();
+            }
+            committer.add(write);
+        }
+        write.await();
+    }
+
+    /**
+     * Writes a group of pending writes in one transaction. If that fails, the writes are retried one
+     * by one so that a single bad write does not fail the exchanges it happened to be grouped with.
+     */
+    private void commitGroup(List<PendingWrite> group) {
+        Connection con = verifyConnection();
+        SQLException conex = null;
+        Exception failure = null;
+        for (PendingWrite write : group) {
+            // a spilled message must still be readable if the group has to be retried one by one
+            write.holdContent();
+        }
+        try {
+            beginTransaction();
+
+            updateSequences(con, group);
+            storeMessages(con, group, true);
+            storeMessages(con, group, false);
+            removeMessages(con, group, true);
+            removeMessages(con, group, false);
+
+            commit(con);
+        } catch (SQLException ex) {
+            conex = ex;
+            failure = ex;
+            abort(con);
+        } catch (IOException ex) {
+            failure = ex;
+            abort(con);
+        } finally {
+            updateConnectionState(con, conex);
+        }
+
+        for (PendingWrite write : group) {
+            write.releaseContent();
+        }
+        if (failure == null) {
+            for (PendingWrite write : group) {
+                write.closeContent();
+                write.complete(null);
+            }
+            return;
+        }
+        if (LOG.isLoggable(Level.FINE)) {
+            LOG.log(Level.FINE, "Failed to commit a group of " + group.size()
+                    + " writes, retrying them one by one", failure);
+        }
+        for (PendingWrite write : group) {
+            try {
+                if (write.messageNrs != null) {
+                    deleteMessages(write.sid, write.messageNrs, write.outbound);
+                } else if (write.outbound) {
+                    writeOutgoing(write.source, write.message);
+                } else {
+                    writeIncoming(write.destination, write.message);
+                }
+                write.complete(null);
+            } catch (RMStoreException ex) {
+                write.closeContent();
+                write.complete(ex);
+            }
+        }
+    }
+
+    private void updateSequences(Connection con, List<PendingWrite> group)
+        throws SQLException, IOException {
+        // only the latest state of a sequence is written, however many of its messages are in the group
+        Map<String, SourceSequence> sources = new LinkedHashMap<>();
+        Map<String, DestinationSequence> destinations = new LinkedHashMap<>();
+        for (PendingWrite write : group) {
+            if (write.source != null) {
+                sources.put(write.sid.getValue(), write.source);
+            } else if (write.destination != null) {
+                destinations.put(write.sid.getValue(), write.destination);
+            }
+        }
+        if (!sources.isEmpty()) {
+            PreparedStatement stmt = getStatement(con, UPDATE_SRC_SEQUENCE_STMT_STR);
+            try {
+                for (SourceSequence seq : sources.values()) {
+                    setSourceSequenceParameters(stmt, seq);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            } finally {
+                releaseBatch(stmt);
+            }
+        }
+        if (!destinations.isEmpty()) {
+            PreparedStatement stmt = getStatement(con, UPDATE_DEST_SEQUENCE_STMT_STR);
+            try {
+                for (DestinationSequence seq : destinations.values()) {
+                    setDestinationSequenceParameters(stmt, seq);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            } finally {
+                releaseBatch(stmt);
+            }
+        }
+    }
+
+    private void storeMessages(Connection con, List<PendingWrite> group, boolean outbound)
+        throws SQLException, IOException {
+        PreparedStatement stmt = null;
+        List<InputStream> streams = new ArrayList<>();
+        try {
+            for (PendingWrite write : group) {
+                if (write.outbound == outbound && write.message != null && write.message.getContent() != null) {
+                    if (stmt == null) {
+                        stmt = getStatement(con, outbound
+                            ? CREATE_OUTBOUND_MESSAGE_STMT_STR : CREATE_INBOUND_MESSAGE_STMT_STR);
+                    }
+                    InputStream msgin = write.message.getContent().getInputStream();
+                    streams.add(msgin);
+                    setMessageParameters(stmt, write.sid.getValue(), write.message, msgin);
+                    stmt.addBatch();
+                }
+            }
+            if (stmt != null) {
+                stmt.executeBatch();
+            }
+        } finally {
+            releaseBatch(stmt);
+            for (InputStream msgin : streams) {
+                msgin.close();
+            }
+        }
+    }
+
+    private void removeMessages(Connection con, List<PendingWrite> group, boolean outbound)
+        throws SQLException {
+        PreparedStatement stmt = null;
+        try {
+            for (PendingWrite write : group) {
+                if (write.outbound == outbound && write.messageNrs != null) {
+                    if (stmt == null) {
+                        stmt = getStatement(con, outbound
+                            ? DELETE_OUTBOUND_MESSAGE_STMT_STR : DELETE_INBOUND_MESSAGE_STMT_STR);
+                    }
+                    stmt.setString(1, write.sid.getValue());
+                    for (Long messageNr : write.messageNrs) {
+                        stmt.setLong(2, messageNr);
+                        stmt.addBatch();
+                    }
+                }
+            }
+            if (stmt != null) {
+                stmt.executeBatch();
+            }
+        } finally {
+            releaseBatch(stmt);
+        }
+    }
+
+    private void releaseBatch(PreparedStatement stmt) {
+        if (stmt != null) {
+            try {
+                // a failed batch must not be executed by the next user of a cached statement
+                stmt.clearBatch();
+            } catch (SQLException e) {
+                // ignore
+            }
+            releaseResources(stmt, null);
+        }
+    }
+
     // transaction demarcation
     //
 
@@ -743,7 +1002,6 @@ public class RMTxStore implements RMStore {
         String id = sid.getValue();
         long nr = msg.getMessageNumber();
         String to = msg.getTo();
-        String contentType = msg.getContentType();
         if (LOG.isLoggable(Level.FINE)) {
             LOG.log(Level.FINE, "Storing {0} message number {1} for sequence {2}, to = {3}",
                     new Object[] {outbound ? "outbound" : "inbound", nr, id, to});
@@ -755,12 +1013,7 @@ public class RMTxStore implements RMStore {
             msgin = cos.getInputStream();
             stmt = getStatement(con, outbound ? CREATE_OUTBOUND_MESSAGE_STMT_STR : CREATE_INBOUND_MESSAGE_STMT_STR);
 
-            stmt.setString(1, id);
-            stmt.setLong(2, nr);
-            stmt.setString(3, to);
-            stmt.setLong(4, msg.getCreatedTime());
-            stmt.setBinaryStream(5, msgin);
-            stmt.setString(6, contentType);
+            setMessageParameters(stmt, id, msg, msgin);
             stmt.execute();
             if (LOG.isLoggable(Level.FINE)) {
                 LOG.log(Level.FINE, "Successfully stored {0} message number {1} for sequence {2}",
@@ -775,6 +1028,16 @@ public class RMTxStore implements RMStore {
         }
     }
 
+    private static void setMessageParameters(PreparedStatement stmt, String id, RMMessage msg,
+                                             InputStream msgin) throws SQLException {
+        stmt.setString(1, id);
+        stmt.setLong(2, msg.getMessageNumber());
+        stmt.setString(3, msg.getTo());
+        stmt.setLong(4, msg.getCreatedTime());
+        stmt.setBinaryStream(5, msgin);
+        stmt.setString(6, msg.getContentType());
+    }
+
     /**
      * this method is only useful when keepConnection is set to true
      */
@@ -789,15 +1052,20 @@ public class RMTxStore implements RMStore {
         try {
             stmt = getStatement(con, UPDATE_SRC_SEQUENCE_STMT_STR);
 
-            stmt.setLong(1, seq.getCurrentMessageNr());
-            stmt.setString(2, seq.isLastMessage() ? "1" : "0");
-            stmt.setString(3, seq.getIdentifier().getValue());
+            setSourceSequenceParameters(stmt, seq);
             stmt.execute();
         } finally {
             releaseResources(stmt, null);
         }
     }
 
+    private static void setSourceSequenceParameters(PreparedStatement stmt, SourceSequence seq)
+        throws SQLException {
+        stmt.setLong(1, seq.getCurrentMessageNr());
+        stmt.setString(2, seq.isLastMessage() ? "1" : "0");
+        stmt.setString(3, seq.getIdentifier().getValue());
+    }
+
     /**
      * @throws SQLException
      */
@@ -811,18 +1079,23 @@ public class RMTxStore implements RMStore {
         try {
             stmt = getStatement(con, UPDATE_DEST_SEQUENCE_STMT_STR);
 
-            long lastMessageNr = seq.getLastMessageNumber();
-            stmt.setLong(1, lastMessageNr);
-            stmt.setString(2, seq.isTerminated() ? "1" : "0");
-            InputStream is = PersistenceUtils.getInstance().serialiseAcknowledgment(seq.getAcknowledgment());
-            stmt.setBinaryStream(3, is, is.available());
-            stmt.setString(4, seq.getIdentifier().getValue());
+            setDestinationSequenceParameters(stmt, seq);
             stmt.execute();
         } finally {
             releaseResources(stmt, null);
         }
     }
 
+    private static void setDestinationSequenceParameters(PreparedStatement stmt, DestinationSequence seq)
+        throws SQLException, IOException {
+        long lastMessageNr = seq.getLastMessageNumber();
+        stmt.setLong(1, lastMessageNr);
+        stmt.setString(2, seq.isTerminated() ? "1" : "0");
+        InputStream is = PersistenceUtils.getInstance().serialiseAcknowledgment(seq.getAcknowledgment());
+        stmt.setBinaryStream(3, is, is.available());
+        stmt.setString(4, seq.getIdentifier().getValue());
+    }
+
     /**
      * @throws IOException
      * @throws SQLException
@@ -1130,8 +1403,8 @@ public class RMTxStore implements RMStore {
                 if (createdConnection && nextReconnectAttempt > 0
                     && (maxReconnectAttempts < 0 || maxReconnectAttempts > reconnectAttempts)) {
                     if (System.currentTimeMillis() > nextReconnectAttempt) {
-                        // destroy the broken connection
-                        destroy();
+                        // close the broken connection
+                        closeConnection();
                         // try to reconnect
                         reconnectAttempts++;
                         init();
@@ -1270,4 +1543,139 @@ public class RMTxStore implements RMStore {
         // check for a transient or non-transient connection exception
         return ex.getSQLState() != null && ex.getSQLState().startsWith("08");
     }
+
+    /**
+     * A persistIncoming, persistOutgoing or removeMessages call waiting for its group to be committed.
+     */
+    private static final class PendingWrite {
+        private static final PendingWrite STOP = new PendingWrite(null, null, null, null, null, false);
+
+        final Identifier sid;
+        final SourceSequence source;
+        final DestinationSequence destination;
+        final RMMessage message;
+        final Collection<Long> messageNrs;
+        final boolean outbound;
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile RMStoreException failure;
+
+        PendingWrite(Identifier sid, SourceSequence source, DestinationSequence destination,
+                     RMMessage message, Collection<Long> messageNrs, boolean outbound) {
+            this.sid = sid;
+            this.source = source;
+            this.destination = destination;
+            this.message = message;
+            this.messageNrs = messageNrs;
+            this.outbound = outbound;
+        }
+
+        void complete(RMStoreException ex) {
+            failure = ex;
+            done.countDown();
+        }
+
+        void holdContent() {
+            if (message != null && message.getContent() != null) {
+                message.getContent().holdTempFile();
+            }
+        }
+
+        void releaseContent() {
+            if (message != null && message.getContent() != null) {
+                message.getContent().releaseTempFileHold();
+            }
+        }
+
+        void closeContent() {
+            if (message != null && message.getContent() != null) {
+                try {
+                    message.getContent().close(); // needed to clean-up tmp file folder
+                } catch (IOException e) {
+                    // ignore
+                }
+            }
+        }
+
+        void await() {
+            // the write cannot be taken back once it is queued, so wait for it regardless
+            boolean interrupted = false;
+            while (done.getCount() > 0) {
+                try {
+                    done.await();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    /**
+     * Collects the pending writes into groups and commits them on its own thread.
+     */
+    private final class GroupCommitter implements Runnable {
+        private final BlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<>();
+        private final Thread thread;
+
+        GroupCommitter() {
+            thread = new Thread(this, "RMTxStore-GroupCommitter-" + RMTxStore.this.hashCode());
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        void add(PendingWrite write) {
+            queue.add(write);
+        }
+
+        void stop() {
+            queue.add(PendingWrite.STOP);
+        }
+
+        void join() {
+            if (Thread.currentThread() != thread) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        public void run() {
+            List<PendingWrite> group = new ArrayList<>();
+            boolean stopped = false;
+            while (!stopped) {
+                try {
+                    PendingWrite write = queue.take();
+                    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(groupCommitWindow);
+                    while (write != null && write != PendingWrite.STOP) {
+                        group.add(write);
+                        long wait = deadline - System.nanoTime();
+                        write = group.size() < groupCommitMaxSize && wait > 0
+                            ? queue.poll(wait, TimeUnit.NANOSECONDS) : null;
+                    }
+                    stopped = write == PendingWrite.STOP;
+                } catch (InterruptedException e) {
+                    // only a stop request ends the committer, as writers are waiting on it
+                }
+                if (!group.isEmpty()) {
+                    try {
+                        commitGroup(group);
+                    } catch (RuntimeException ex) {
+                        RMStoreException failure = ex instanceof RMStoreException
+                            ? (RMStoreException)ex : new RMStoreException(ex);
+                        for (PendingWrite write : group) {
+                            write.complete(failure);
+                        }
+                    }
+                    group.clear();
+                }
+            }
+        }
+    }
 }
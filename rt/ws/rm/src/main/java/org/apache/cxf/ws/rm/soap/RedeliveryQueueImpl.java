@@ -31,10 +31,11 @@ import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.SortedSet;
-import java.util.TimerTask;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -57,6 +58,7 @@ import org.apache.cxf.phase.PhaseInterceptorChain;
 import org.apache.cxf.phase.PhaseManager;
 import org.apache.cxf.staxutils.StaxSource;
 import org.apache.cxf.ws.rm.DestinationSequence;
+import org.apache.cxf.ws.rm.HashedWheelScheduler;
 import org.apache.cxf.ws.rm.RMCaptureInInterceptor;
 import org.apache.cxf.ws.rm.RMContextUtils;
 import org.apache.cxf.ws.rm.RMManager;
@@ -75,14 +77,15 @@ import org.apache.cxf.ws.rm.v200702.SequenceType;
 public class RedeliveryQueueImpl implements RedeliveryQueue {
     private static final Logger LOG = LogUtils.getL7dLogger(RedeliveryQueueImpl.class);
 
+    // the candidate lists are guarded by their own monitor, so that sequences do not contend
     private Map<String, List<RedeliverCandidate>> candidates =
-        new HashMap<String, List<RedeliverCandidate>>();
+        new ConcurrentHashMap<String, List<RedeliverCandidate>>();
     private Map<String, List<RedeliverCandidate>> suspendedCandidates =
-        new HashMap<String, List<RedeliverCandidate>>();
+        new ConcurrentHashMap<String, List<RedeliverCandidate>>();
 
     private RMManager manager;
 
-    private int undeliveredCount;
+    private AtomicInteger undeliveredCount = new AtomicInteger();
 
     public RedeliveryQueueImpl(RMManager m) {
         manager = m;
@@ -104,13 +107,18 @@ public class RedeliveryQueueImpl implements RedeliveryQueue {
      * @param seq the sequence under consideration
      * @return the number of undelivered messages for that sequence
      */
-    public synchronized int countUndelivered(DestinationSequence seq) {
+    public int countUndelivered(DestinationSequence seq) {
         List<RedeliverCandidate> sequenceCandidates = getSequenceCandidates(seq);
-        return sequenceCandidates == null ? 0 : sequenceCandidates.size();
+        if (sequenceCandidates == null) {
+            return 0;
+        }
+        synchronized (sequenceCandidates) {
+            return sequenceCandidates.size();
+        }
     }
 
     public int countUndelivered() {
-        return undeliveredCount;
+        return undeliveredCount.get();
     }
 
     public boolean isEmpty() {
@@ -118,24 +126,24 @@ public class RedeliveryQueueImpl implements RedeliveryQueue {
     }
     public void purgeAll(DestinationSequence seq) {
         Collection<Long> purged = new ArrayList<>();
-        synchronized (this) {
-            LOG.fine("Start purging redeliver candidates.");
-            List<RedeliverCandidate> sequenceCandidates = getSequenceCandidates(seq);
-            if (null != sequenceCandidates) {
+        LOG.fine("Start purging redeliver candidates.");
+        List<RedeliverCandidate> sequenceCandidates = getSequenceCandidates(seq);
+        if (null != sequenceCandidates) {
+            synchronized (sequenceCandidates) {
                 for (int i = sequenceCandidates.size() - 1; i >= 0; i--) {
                     RedeliverCandidate candidate = sequenceCandidates.get(i);
                     long m = candidate.getNumber();
                     sequenceCandidates.remove(i);
                     candidate.resolved();
-                    undeliveredCount--;
+                    undeliveredCount.decrementAndGet();
                     purged.add(m);
                 }
                 if (sequenceCandidates.isEmpty()) {
-                    candidates.remove(seq.getIdentifier().getValue());
+                    candidates.remove(seq.getIdentifier().getValue(), sequenceCandidates);
                 }
             }
-            LOG.fine("Completed purging redeliver candidates.");
         }
+        LOG.fine("Completed purging redeliver candidates.");
         if (!purged.isEmpty()) {
             RMStore store = manager.getStore();
             if (null != store) {
@@ -148,12 +156,14 @@ public class RedeliveryQueueImpl implements RedeliveryQueue {
         List<Long> undelivered = new ArrayList<>();
         List<RedeliverCandidate> sequenceCandidates = getSequenceCandidates(seq);
         if (null != sequenceCandidates) {
-            for (int i = 0; i < sequenceCandidates.size(); i++) {
-                RedeliverCandidate candidate = sequenceCandidates.get(i);
-                RMProperties properties = RMContextUtils.retrieveRMProperties(candidate.getMessage(),
-                                                                              false);
-                SequenceType st = properties.getSequence();
-                undelivered.add(st.getMessageNumber());
+            synchronized (sequenceCandidates) {
+                for (int i = 0; i < sequenceCandidates.size(); i++) {
+                    RedeliverCandidate candidate = sequenceCandidates.get(i);
+                    RMProperties properties = RMContextUtils.retrieveRMProperties(candidate.getMessage(),
+                                                                                  false);
+                    SequenceType st = properties.getSequence();
+                    undelivered.add(st.getMessageNumber());
+                }
             }
         }
         return undelivered;
@@ -161,8 +171,7 @@ public class RedeliveryQueueImpl implements RedeliveryQueue {
 
     /**
      * @param seq the sequence under consideration
-     * @return the list of resend candidates for that sequence
-     * @pre called with mutex held
+     * @return the list of resend candidates for that sequence, to be accessed holding its monitor
      */
     protected List<RedeliverCandidate> getSequenceCandidates(DestinationSequence seq) {
         return getSequenceCandidates(seq.getIdentifier().getValue());
@@ -170,8 +179,7 @@ public class RedeliveryQueueImpl implements RedeliveryQueue {
 
     /**
      * @param key the sequence identifier under consideration
-     * @return the list of resend candidates for that sequence
-     * @pre called with mutex held
+     * @return the list of resend candidates for that sequence, to be accessed holding its monitor
      */
     protected List<RedeliverCandidate> getSequenceCandidates(String key) {
         List<RedeliverCandidate> sc = candidates.get(key);
@@ -184,7 +192,6 @@ public class RedeliveryQueueImpl implements RedeliveryQueue {
     /**
      * @param key the sequence identifier under consideration
      * @return true if the sequence is currently suspended; false otherwise
-     * @pre called with mutex held
      */
     protected boolean isSequenceSuspended(String key) {
         return suspendedCandidates.containsKey(key);
@@ -193,13 +200,15 @@ public class RedeliveryQueueImpl implements RedeliveryQueue {
     public RetryStatus getRedeliveryStatus(DestinationSequence seq, long num) {
         List<RedeliverCandidate> sequenceCandidates = getSequenceCandidates(seq);
         if (null != sequenceCandidates) {
-            for (int i = 0; i < sequenceCandidates.size(); i++) {
-                RedeliverCandidate candidate = sequenceCandidates.get(i);
-                RMProperties properties = RMContextUtils.retrieveRMProperties(candidate.getMessage(),
-                                                                              false);
-                SequenceType st = properties.getSequence();
-                if (num == st.getMessageNumber()) {
-                    return candidate;
+            synchronized (sequenceCandidates) {
+                for (int i = 0; i < sequenceCandidates.size(); i++) {
+                    RedeliverCandidate candidate = sequenceCandidates.get(i);
+                    RMProperties properties = RMContextUtils.retrieveRMProperties(candidate.getMessage(),
+                                                                                  false);
+                    SequenceType st = properties.getSequence();
+                    if (num == st.getMessageNumber()) {
+                        return candidate;
+                    }
                 }
             }
         }
@@ -211,12 +220,14 @@ public class RedeliveryQueueImpl implements RedeliveryQueue {
         Map<Long, RetryStatus> cp = new HashMap<>();
         List<RedeliverCandidate> sequenceCandidates = getSequenceCandidates(seq);
         if (null != sequenceCandidates) {
-            for (int i = 0; i < sequenceCandidates.size(); i++) {
-                RedeliverCandidate candidate = sequenceCandidates.get(i);
-                RMProperties properties = RMContextUtils.retrieveRMProperties(candidate.getMessage(),
-                                                                              false);
-                SequenceType st = properties.getSequence();
-                cp.put(st.getMessageNumber(), candidate);
+            synchronized (sequenceCandidates) {
+                for (int i = 0; i < sequenceCandidates.size(); i++) {
+                    RedeliverCandidate candidate = sequenceCandidates.get(i);
+                    RMProperties properties = RMContextUtils.retrieveRMProperties(candidate.getMessage(),
+                                                                                  false);
+                    SequenceType st = properties.getSequence();
+                    cp.put(st.getMessageNumber(), candidate);
+                }
             }
         }
         return cp;
@@ -229,48 +240,51 @@ public class RedeliveryQueueImpl implements RedeliveryQueue {
 
 
     public void stop(DestinationSequence seq) {
-        synchronized (this) {
-            List<RedeliverCandidate> sequenceCandidates = getSequenceCandidates(seq);
-            if (null != sequenceCandidates) {
+        List<RedeliverCandidate> sequenceCandidates = getSequenceCandidates(seq);
+        if (null != sequenceCandidates) {
+            synchronized (sequenceCandidates) {
                 for (int i = sequenceCandidates.size() - 1; i >= 0; i--) {
                     RedeliverCandidate candidate = sequenceCandidates.get(i);
                     candidate.cancel();
                 }
-                LOG.log(Level.FINE, "Cancelled redeliveriss for sequence {0}.",
-                        seq.getIdentifier().getValue());
             }
+            LOG.log(Level.FINE, "Cancelled redeliveriss for sequence {0}.",
+                    seq.getIdentifier().getValue());
         }
     }
 
 
     public void suspend(DestinationSequence seq) {
-        synchronized (this) {
-            String key = seq.getIdentifier().getValue();
-            List<RedeliverCandidate> sequenceCandidates = candidates.remove(key);
-            if (null != sequenceCandidates) {
+        String key = seq.getIdentifier().getValue();
+        List<RedeliverCandidate> sequenceCandidates = candidates.get(key);
+        if (null != sequenceCandidates) {
+            synchronized (sequenceCandidates) {
                 for (int i = sequenceCandidates.size() - 1; i >= 0; i--) {
                     RedeliverCandidate candidate = sequenceCandidates.get(i);
                     candidate.suspend();
                 }
+                // add before removing, so the list can always be found under its key
                 suspendedCandidates.put(key, sequenceCandidates);
-                LOG.log(Level.FINE, "Suspended redeliveris for sequence {0}.", key);
+                candidates.remove(key, sequenceCandidates);
             }
+            LOG.log(Level.FINE, "Suspended redeliveris for sequence {0}.", key);
         }
     }
 
 
     public void resume(DestinationSequence seq) {
-        synchronized (this) {
-            String key = seq.getIdentifier().getValue();
-            List<RedeliverCandidate> sequenceCandidates = suspendedCandidates.remove(key);
-            if (null != sequenceCandidates) {
+        String key = seq.getIdentifier().getValue();
+        List<RedeliverCandidate> sequenceCandidates = suspendedCandidates.get(key);
+        if (null != sequenceCandidates) {
+            synchronized (sequenceCandidates) {
                 for (int i = 0; i < sequenceCandidates.size(); i++) {
                     RedeliverCandidate candidate = sequenceCandidates.get(i);
                     candidate.resume();
                 }
                 candidates.put(key, sequenceCandidates);
-                LOG.log(Level.FINE, "Resumed redeliveries for sequence {0}.", key);
+                suspendedCandidates.remove(key, sequenceCandidates);
             }
+            LOG.log(Level.FINE, "Resumed redeliveries for sequence {0}.", key);
         }
     }
 
@@ -288,20 +302,28 @@ public class RedeliveryQueueImpl implements RedeliveryQueue {
 
         RedeliverCandidate candidate = null;
 
-        synchronized (this) {
+        while (candidate == null) {
             List<RedeliverCandidate> sequenceCandidates = getSequenceCandidates(key);
             if (null == sequenceCandidates) {
-                sequenceCandidates = new ArrayList<>();
-                candidates.put(key, sequenceCandidates);
+                List<RedeliverCandidate> newCandidates = new ArrayList<>();
+                sequenceCandidates = candidates.putIfAbsent(key, newCandidates);
+                if (null == sequenceCandidates) {
+                    sequenceCandidates = newCandidates;
+                }
             }
-            candidate = getRedeliverCandidate(st, sequenceCandidates);
-            if (candidate == null) {
-                candidate = new RedeliverCandidate(message);
-                if (isSequenceSuspended(key)) {
-                    candidate.suspend();
+            synchronized (sequenceCandidates) {
+                // the list may have been emptied and dropped by a purge in the meantime
+                if (getSequenceCandidates(key) == sequenceCandidates) {
+                    candidate = getRedeliverCandidate(st, sequenceCandidates);
+                    if (candidate == null) {
+                        candidate = new RedeliverCandidate(message);
+                        if (isSequenceSuspended(key)) {
+                            candidate.suspend();
+                        }
+                        sequenceCandidates.add(candidate);
+                        undeliveredCount.incrementAndGet();
+                    }
                 }
-                sequenceCandidates.add(candidate);
-                undeliveredCount++;
             }
         }
         LOG.fine("Cached undelivered message.");
@@ -324,17 +346,17 @@ public class RedeliveryQueueImpl implements RedeliveryQueue {
         Identifier sid = st.getIdentifier();
         String key = sid.getValue();
 
-        synchronized (this) {
-            List<RedeliverCandidate> sequenceCandidates = getSequenceCandidates(key);
-            if (null != sequenceCandidates) {
+        List<RedeliverCandidate> sequenceCandidates = getSequenceCandidates(key);
+        if (null != sequenceCandidates) {
+            synchronized (sequenceCandidates) {
                 // TODO use a constant op instead of this inefficient linear op
-                sequenceCandidates.remove(candidate);
-                undeliveredCount--;
-            }
-            if (sequenceCandidates.isEmpty()) {
-                candidates.remove(sid.getValue());
+                if (sequenceCandidates.remove(candidate)) {
+                    undeliveredCount.decrementAndGet();
+                }
+                if (sequenceCandidates.isEmpty()) {
+                    candidates.remove(key, sequenceCandidates);
+                }
             }
-
         }
         LOG.fine("Purged delivered message.");
 
@@ -397,7 +419,7 @@ public class RedeliveryQueueImpl implements RedeliveryQueue {
         private Message message;
         private long number;
         private Date next;
-        private TimerTask nextTask;
+        private HashedWheelScheduler.Timeout nextTask;
         private int retries;
         private int maxRetries;
         private long nextInterval;
@@ -427,7 +449,7 @@ public class RedeliveryQueueImpl implements RedeliveryQueue {
                 number = rmprops.getSequence().getMessageNumber();
             }
 
-            if (null != manager.getTimer() && maxRetries != 0) {
+            if (null != manager.getScheduler() && maxRetries != 0) {
                 schedule();
             }
 
@@ -670,10 +692,11 @@ public class RedeliveryQueueImpl implements RedeliveryQueue {
         }
 
         protected final synchronized void schedule() {
-            if (null == manager.getTimer()) {
+            HashedWheelScheduler scheduler = manager.getScheduler();
+            if (null == scheduler) {
                 return;
             }
-            class RedeliverTask extends TimerTask {
+            class RedeliverTask implements Runnable {
                 RedeliverCandidate candidate;
 
                 RedeliverTask(RedeliverCandidate c) {
@@ -687,9 +710,8 @@ public class RedeliveryQueueImpl implements RedeliveryQueue {
                     }
                 }
             }
-            nextTask = new RedeliverTask(this);
             try {
-                manager.getTimer().schedule(nextTask, next);
+                nextTask = scheduler.schedule(new RedeliverTask(this), next);
             } catch (IllegalStateException ex) {
                 LOG.log(Level.WARNING, "SCHEDULE_RESEND_FAILED_MSG", ex);
             }
@@ -32,9 +32,10 @@ import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.Set;
-import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -83,6 +84,7 @@ import org.apache.cxf.ws.addressing.EndpointReferenceType;
 import org.apache.cxf.ws.addressing.soap.MAPCodec;
 import org.apache.cxf.ws.policy.AssertionInfo;
 import org.apache.cxf.ws.policy.builder.jaxb.JaxbAssertion;
+import org.apache.cxf.ws.rm.HashedWheelScheduler;
 import org.apache.cxf.ws.rm.ProtocolVariation;
 import org.apache.cxf.ws.rm.RMCaptureOutInterceptor;
 import org.apache.cxf.ws.rm.RMConfiguration;
@@ -109,14 +111,15 @@ public class RetransmissionQueueImpl implements RetransmissionQueue {
 
     private static final Logger LOG = LogUtils.getL7dLogger(RetransmissionQueueImpl.class);
 
+    // the candidate lists are guarded by their own monitor, so that sequences do not contend
     private Map<String, List<ResendCandidate>> candidates =
-        new HashMap<String, List<ResendCandidate>>();
+        new ConcurrentHashMap<String, List<ResendCandidate>>();
     private Map<String, List<ResendCandidate>> suspendedCandidates =
-        new HashMap<String, List<ResendCandidate>>();
+        new ConcurrentHashMap<String, List<ResendCandidate>>();
     private Resender resender;
     private RMManager manager;
 
-    private int unacknowledgedCount;
+    private AtomicInteger unacknowledgedCount = new AtomicInteger();
 
     public RetransmissionQueueImpl(RMManager m) {
         manager = m;
@@ -138,13 +141,18 @@ public class RetransmissionQueueImpl implements RetransmissionQueue {
      * @param seq the sequence under consideration
      * @return the number of unacknowledged messages for that sequence
      */
-    public synchronized int countUnacknowledged(SourceSequence seq) {
+    public int countUnacknowledged(SourceSequence seq) {
         List<ResendCandidate> sequenceCandidates = getSequenceCandidates(seq);
-        return sequenceCandidates == null ? 0 : sequenceCandidates.size();
+        if (sequenceCandidates == null) {
+            return 0;
+        }
+        synchronized (sequenceCandidates) {
+            return sequenceCandidates.size();
+        }
     }
 
     public int countUnacknowledged() {
-        return unacknowledgedCount;
+        return unacknowledgedCount.get();
     }
 
     /**
@@ -178,27 +186,27 @@ public class RetransmissionQueueImpl implements RetransmissionQueue {
         Collection<Long> purged = new ArrayList<>();
         Collection<ResendCandidate> resends = new ArrayList<>();
         Identifier sid = seq.getIdentifier();
-        synchronized (this) {
-            LOG.fine("Start purging resend candidates.");
-            List<ResendCandidate> sequenceCandidates = getSequenceCandidates(seq);
-            if (null != sequenceCandidates) {
+        LOG.fine("Start purging resend candidates.");
+        List<ResendCandidate> sequenceCandidates = getSequenceCandidates(seq);
+        if (null != sequenceCandidates) {
+            synchronized (sequenceCandidates) {
                 for (int i = sequenceCandidates.size() - 1; i >= 0; i--) {
                     ResendCandidate candidate = sequenceCandidates.get(i);
                     long m = candidate.getNumber();
                     if (any || seq.isAcknowledged(m)) {
                         sequenceCandidates.remove(i);
                         candidate.resolved();
-                        unacknowledgedCount--;
+                        unacknowledgedCount.decrementAndGet();
                         purged.add(m);
                         resends.add(candidate);
                     }
                 }
                 if (sequenceCandidates.isEmpty()) {
-                    candidates.remove(sid.getValue());
+                    candidates.remove(sid.getValue(), sequenceCandidates);
                 }
             }
-            LOG.fine("Completed purging resend candidates.");
         }
+        LOG.fine("Completed purging resend candidates.");
         if (!purged.isEmpty()) {
             RMStore store = manager.getStore();
             if (null != store) {
@@ -215,9 +223,11 @@ public class RetransmissionQueueImpl implements RetransmissionQueue {
         List<Long> unacknowledged = new ArrayList<>();
         List<ResendCandidate> sequenceCandidates = getSequenceCandidates(seq);
         if (null != sequenceCandidates) {
-            for (int i = 0; i < sequenceCandidates.size(); i++) {
-                ResendCandidate candidate = sequenceCandidates.get(i);
-                unacknowledged.add(candidate.getNumber());
+            synchronized (sequenceCandidates) {
+                for (int i = 0; i < sequenceCandidates.size(); i++) {
+                    ResendCandidate candidate = sequenceCandidates.get(i);
+                    unacknowledged.add(candidate.getNumber());
+                }
             }
         }
         return unacknowledged;
@@ -226,10 +236,12 @@ public class RetransmissionQueueImpl implements RetransmissionQueue {
     public RetryStatus getRetransmissionStatus(SourceSequence seq, long num) {
         List<ResendCandidate> sequenceCandidates = getSequenceCandidates(seq);
         if (null != sequenceCandidates) {
-            for (int i = 0; i < sequenceCandidates.size(); i++) {
-                ResendCandidate candidate = sequenceCandidates.get(i);
-                if (num == candidate.getNumber()) {
-                    return candidate;
+            synchronized (sequenceCandidates) {
+                for (int i = 0; i < sequenceCandidates.size(); i++) {
+                    ResendCandidate candidate = sequenceCandidates.get(i);
+                    if (num == candidate.getNumber()) {
+                        return candidate;
+                    }
                 }
             }
         }
@@ -240,9 +252,11 @@ public class RetransmissionQueueImpl implements RetransmissionQueue {
         Map<Long, RetryStatus> cp = new HashMap<>();
         List<ResendCandidate> sequenceCandidates = getSequenceCandidates(seq);
         if (null != sequenceCandidates) {
-            for (int i = 0; i < sequenceCandidates.size(); i++) {
-                ResendCandidate candidate = sequenceCandidates.get(i);
-                cp.put(candidate.getNumber(), candidate);
+            synchronized (sequenceCandidates) {
+                for (int i = 0; i < sequenceCandidates.size(); i++) {
+                    ResendCandidate candidate = sequenceCandidates.get(i);
+                    cp.put(candidate.getNumber(), candidate);
+                }
             }
         }
         return cp;
@@ -266,15 +280,15 @@ public class RetransmissionQueueImpl implements RetransmissionQueue {
      * Stops resending messages for the specified source sequence.
      */
     public void stop(SourceSequence seq) {
-        synchronized (this) {
-            List<ResendCandidate> sequenceCandidates = getSequenceCandidates(seq);
-            if (null != sequenceCandidates) {
+        List<ResendCandidate> sequenceCandidates = getSequenceCandidates(seq);
+        if (null != sequenceCandidates) {
+            synchronized (sequenceCandidates) {
                 for (int i = sequenceCandidates.size() - 1; i >= 0; i--) {
                     ResendCandidate candidate = sequenceCandidates.get(i);
                     candidate.cancel();
                 }
-                LOG.log(Level.FINE, "Cancelled resends for sequence {0}.", seq.getIdentifier().getValue());
             }
+            LOG.log(Level.FINE, "Cancelled resends for sequence {0}.", seq.getIdentifier().getValue());
         }
     }
 
@@ -283,32 +297,35 @@ public class RetransmissionQueueImpl implements RetransmissionQueue {
     }
 
     public void suspend(SourceSequence seq) {
-        synchronized (this) {
-            String key = seq.getIdentifier().getValue();
-            List<ResendCandidate> sequenceCandidates = candidates.remove(key);
-            if (null != sequenceCandidates) {
+        String key = seq.getIdentifier().getValue();
+        List<ResendCandidate> sequenceCandidates = candidates.get(key);
+        if (null != sequenceCandidates) {
+            synchronized (sequenceCandidates) {
                 for (int i = sequenceCandidates.size() - 1; i >= 0; i--) {
                     ResendCandidate candidate = sequenceCandidates.get(i);
                     candidate.suspend();
                 }
+                // add before removing, so the list can always be found under its key
                 suspendedCandidates.put(key, sequenceCandidates);
-                LOG.log(Level.FINE, "Suspended resends for sequence {0}.", key);
+                candidates.remove(key, sequenceCandidates);
             }
+            LOG.log(Level.FINE, "Suspended resends for sequence {0}.", key);
         }
     }
 
     public void resume(SourceSequence seq) {
-        synchronized (this) {
-            String key = seq.getIdentifier().getValue();
-            List<ResendCandidate> sequenceCandidates = suspendedCandidates.remove(key);
-            if (null != sequenceCandidates) {
+        String key = seq.getIdentifier().getValue();
+        List<ResendCandidate> sequenceCandidates = suspendedCandidates.get(key);
+        if (null != sequenceCandidates) {
+            synchronized (sequenceCandidates) {
                 for (int i = 0; i < sequenceCandidates.size(); i++) {
                     ResendCandidate candidate = sequenceCandidates.get(i);
                     candidate.resume();
                 }
                 candidates.put(key, sequenceCandidates);
-                LOG.log(Level.FINE, "Resumed resends for sequence {0}.", key);
+                suspendedCandidates.remove(key, sequenceCandidates);
             }
+            LOG.log(Level.FINE, "Resumed resends for sequence {0}.", key);
         }
     }
 
@@ -339,21 +356,29 @@ public class RetransmissionQueueImpl implements RetransmissionQueue {
         Identifier sid = st.getIdentifier();
         String key = sid.getValue();
 
-        ResendCandidate candidate = null;
-
-        synchronized (this) {
+        ResendCandidate candidate = new ResendCandidate(message);
+        boolean added = false;
+        while (!added) {
             List<ResendCandidate> sequenceCandidates = getSequenceCandidates(key);
             if (null == sequenceCandidates) {
-                sequenceCandidates = new ArrayList<>();
-                candidates.put(key, sequenceCandidates);
+                List<ResendCandidate> newCandidates = new ArrayList<>();
+                sequenceCandidates = candidates.putIfAbsent(key, newCandidates);
+                if (null == sequenceCandidates) {
+                    sequenceCandidates = newCandidates;
+                }
             }
-            candidate = new ResendCandidate(message);
-            if (isSequenceSuspended(key)) {
-                candidate.suspend();
+            synchronized (sequenceCandidates) {
+                // the list may have been emptied and dropped by a purge in the meantime
+                if (getSequenceCandidates(key) == sequenceCandidates) {
+                    if (isSequenceSuspended(key)) {
+                        candidate.suspend();
+                    }
+                    sequenceCandidates.add(candidate);
+                    added = true;
+                }
             }
-            sequenceCandidates.add(candidate);
-            unacknowledgedCount++;
         }
+        unacknowledgedCount.incrementAndGet();
         LOG.fine("Cached unacknowledged message.");
         try {
             RMEndpoint rme = manager.getReliableEndpoint(message);
@@ -374,8 +399,7 @@ public class RetransmissionQueueImpl implements RetransmissionQueue {
 
     /**
      * @param seq the sequence under consideration
-     * @return the list of resend candidates for that sequence
-     * @pre called with mutex held
+     * @return the list of resend candidates for that sequence, to be accessed holding its monitor
      */
     protected List<ResendCandidate> getSequenceCandidates(SourceSequence seq) {
         return getSequenceCandidates(seq.getIdentifier().getValue());
@@ -383,8 +407,7 @@ public class RetransmissionQueueImpl implements RetransmissionQueue {
 
     /**
      * @param key the sequence identifier under consideration
-     * @return the list of resend candidates for that sequence
-     * @pre called with mutex held
+     * @return the list of resend candidates for that sequence, to be accessed holding its monitor
      */
     protected List<ResendCandidate> getSequenceCandidates(String key) {
         List<ResendCandidate> sc = candidates.get(key);
@@ -397,7 +420,6 @@ public class RetransmissionQueueImpl implements RetransmissionQueue {
     /**
      * @param key the sequence identifier under consideration
      * @return true if the sequence is currently suspended; false otherwise
-     * @pre called with mutex held
      */
     protected boolean isSequenceSuspended(String key) {
         return suspendedCandidates.containsKey(key);
@@ -410,7 +432,7 @@ public class RetransmissionQueueImpl implements RetransmissionQueue {
         private Message message;
         private long number;
         private Date next;
-        private TimerTask nextTask;
+        private HashedWheelScheduler.Timeout nextTask;
         private int retries;
         private int maxRetries;
         private long nextInterval;
@@ -449,7 +471,7 @@ public class RetransmissionQueueImpl implements RetransmissionQueue {
             if (null != rmprops) {
                 number = rmprops.getSequence().getMessageNumber();
             }
-            if (null != manager.getTimer() && maxRetries != 0) {
+            if (null != manager.getScheduler() && maxRetries != 0) {
                 schedule();
             }
         }
@@ -630,10 +652,11 @@ public class RetransmissionQueueImpl implements RetransmissionQueue {
         }
 
         protected final synchronized void schedule() {
-            if (null == manager.getTimer()) {
+            HashedWheelScheduler scheduler = manager.getScheduler();
+            if (null == scheduler) {
                 return;
             }
-            class ResendTask extends TimerTask {
+            class ResendTask implements Runnable {
                 ResendCandidate candidate;
 
                 ResendTask(ResendCandidate c) {
@@ -647,9 +670,8 @@ public class RetransmissionQueueImpl implements RetransmissionQueue {
                     }
                 }
             }
-            nextTask = new ResendTask(this);
             try {
-                manager.getTimer().schedule(nextTask, next);
+                nextTask = scheduler.schedule(new ResendTask(this), next);
             } catch (IllegalStateException ex) {
                 LOG.log(Level.WARNING, "SCHEDULE_RESEND_FAILED_MSG", ex);
             }
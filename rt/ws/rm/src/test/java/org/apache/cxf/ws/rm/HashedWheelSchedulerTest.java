@@ -0,0 +1,115 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.ws.rm;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class HashedWheelSchedulerTest extends Assert {
+
+    private HashedWheelScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        scheduler = new HashedWheelScheduler("test", 10, TimeUnit.MILLISECONDS, 8);
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.stop();
+    }
+
+    @Test
+    public void testScheduledTasksRunInOrder() throws Exception {
+        final CountDownLatch latch = new CountDownLatch(3);
+        final StringBuffer order = new StringBuffer();
+        // 300ms is several turns of the 80ms wheel
+        scheduler.schedule(new Recorder(order, "c", latch), 300);
+        scheduler.schedule(new Recorder(order, "a", latch), 0);
+        scheduler.schedule(new Recorder(order, "b", latch), 100);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals("abc", order.toString());
+        assertEquals(0, scheduler.getPendingCount());
+        assertTrue(scheduler.getMaxLag() >= scheduler.getLastLag());
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        final AtomicInteger runs = new AtomicInteger();
+        Runnable task = new Runnable() {
+            public void run() {
+                runs.incrementAndGet();
+            }
+        };
+        HashedWheelScheduler.Timeout cancelled = scheduler.schedule(task, 50);
+        CountDownLatch latch = new CountDownLatch(1);
+        HashedWheelScheduler.Timeout kept = scheduler.schedule(new Recorder(new StringBuffer(), "x", latch), 100);
+        assertEquals(2, scheduler.getPendingCount());
+
+        assertTrue(cancelled.cancel());
+        assertFalse(cancelled.cancel());
+        assertTrue(cancelled.isCancelled());
+        assertEquals(1, scheduler.getPendingCount());
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(kept.isExpired());
+        assertFalse(kept.cancel());
+        assertEquals(0, runs.get());
+        assertEquals(0, scheduler.getPendingCount());
+    }
+
+    @Test
+    public void testScheduleAfterStop() {
+        scheduler.stop();
+        assertTrue(scheduler.isStopped());
+        try {
+            scheduler.schedule(new Runnable() {
+                public void run() {
+                }
+            }, 10);
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException ex) {
+            // expected
+        }
+    }
+
+    private static class Recorder implements Runnable {
+        private final StringBuffer order;
+        private final String name;
+        private final CountDownLatch latch;
+
+        Recorder(StringBuffer order, String name, CountDownLatch latch) {
+            this.order = order;
+            this.name = name;
+            this.latch = latch;
+        }
+
+        public void run() {
+            order.append(name);
+            latch.countDown();
+        }
+    }
+}
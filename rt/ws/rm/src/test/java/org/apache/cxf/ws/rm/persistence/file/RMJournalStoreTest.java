@@ -0,0 +1,284 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.ws.rm.persistence.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+
+import org.apache.cxf.helpers.FileUtils;
+import org.apache.cxf.helpers.IOUtils;
+import org.apache.cxf.io.CachedOutputStream;
+import org.apache.cxf.ws.rm.DestinationSequence;
+import org.apache.cxf.ws.rm.ProtocolVariation;
+import org.apache.cxf.ws.rm.RMUtils;
+import org.apache.cxf.ws.rm.SourceSequence;
+import org.apache.cxf.ws.rm.persistence.RMMessage;
+import org.apache.cxf.ws.rm.v200702.Identifier;
+import org.apache.cxf.ws.rm.v200702.SequenceAcknowledgement;
+import org.easymock.EasyMock;
+import org.easymock.IMocksControl;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RMJournalStoreTest extends Assert {
+    private static final String CLIENT_ENDPOINT_ID =
+        "celtix.{http://celtix.objectweb.org/greeter_control}GreeterService/GreeterPort";
+    private static final String SERVER_ENDPOINT_ID =
+        "celtix.{http://celtix.objectweb.org/greeter_control}GreeterService";
+    private static final String NON_ANON_ACKS_TO =
+        "http://localhost:9999/decoupled_endpoint";
+
+    private IMocksControl control;
+    private File directory;
+    private RMJournalStore store;
+
+    @Before
+    public void setUp() {
+        control = EasyMock.createNiceControl();
+        directory = FileUtils.createTmpDir(false);
+        store = createStore(64 * 1024);
+    }
+
+    @After
+    public void tearDown() {
+        store.destroy();
+        FileUtils.removeDir(directory);
+    }
+
+    @Test
+    public void testRecoverSourceSequence() throws IOException {
+        Identifier sid = createSourceSequence("sequence1", ProtocolVariation.RM11WSA200508);
+        SourceSequence seq = new SourceSequence(sid, null, null, 3, true, ProtocolVariation.RM11WSA200508);
+        store.persistOutgoing(seq, createMessage(1, "http://localhost:9000/greeter"));
+        store.persistOutgoing(seq, createMessage(2, null));
+        store.persistOutgoing(seq, createMessage(3, null));
+        store.removeMessages(sid, Arrays.asList(2L), true);
+
+        store = reopen(store);
+
+        Collection<SourceSequence> seqs = store.getSourceSequences(CLIENT_ENDPOINT_ID);
+        assertEquals(1, seqs.size());
+        SourceSequence rseq = seqs.iterator().next();
+        assertEquals("sequence1", rseq.getIdentifier().getValue());
+        assertEquals(3, rseq.getCurrentMessageNr());
+        assertTrue(rseq.isLastMessage());
+        assertEquals(ProtocolVariation.RM11WSA200508, rseq.getProtocol());
+        assertNull(store.getSourceSequence(sid).getExpires());
+        assertEquals(0, store.getSourceSequences(SERVER_ENDPOINT_ID).size());
+
+        Collection<RMMessage> msgs = store.getMessages(sid, true);
+        assertEquals(2, msgs.size());
+        Iterator<RMMessage> it = msgs.iterator();
+        RMMessage msg = it.next();
+        assertEquals(1, msg.getMessageNumber());
+        assertEquals("http://localhost:9000/greeter", msg.getTo());
+        assertEquals("text/xml", msg.getContentType());
+        assertEquals("Message 1", IOUtils.toString(msg.getContent().getInputStream()));
+        msg = it.next();
+        assertEquals(3, msg.getMessageNumber());
+        assertNull(msg.getTo());
+        assertEquals("Message 3", IOUtils.toString(msg.getContent().getInputStream()));
+        assertEquals(0, store.getMessages(sid, false).size());
+    }
+
+    @Test
+    public void testRecoverDestinationSequence() throws IOException {
+        Identifier sid = createDestinationSequence("sequence2");
+        SequenceAcknowledgement ack = new SequenceAcknowledgement();
+        SequenceAcknowledgement.AcknowledgementRange range = new SequenceAcknowledgement.AcknowledgementRange();
+        range.setLower(1L);
+        range.setUpper(2L);
+        ack.getAcknowledgementRange().add(range);
+        DestinationSequence seq = new DestinationSequence(sid, RMUtils.createReference(NON_ANON_ACKS_TO),
+                                                          2, false, ack, ProtocolVariation.RM10WSA200408);
+        store.persistIncoming(seq, createMessage(1, null));
+        store.persistIncoming(seq, createMessage(2, null));
+
+        store = reopen(store);
+
+        DestinationSequence rseq = store.getDestinationSequence(sid);
+        assertNotNull(rseq);
+        assertEquals(NON_ANON_ACKS_TO, rseq.getAcksTo().getAddress().getValue());
+        assertEquals(2, rseq.getLastMessageNumber());
+        assertFalse(rseq.isTerminated());
+        assertEquals(1, rseq.getAcknowledgment().getAcknowledgementRange().size());
+        assertEquals(2L, rseq.getAcknowledgment().getAcknowledgementRange().get(0).getUpper().longValue());
+        assertEquals(1, store.getDestinationSequences(SERVER_ENDPOINT_ID).size());
+        assertEquals(2, store.getMessages(sid, false).size());
+
+        store.removeDestinationSequence(sid);
+        assertNull(store.getDestinationSequence(sid));
+        assertEquals(0, store.getMessages(sid, false).size());
+
+        store = reopen(store);
+        assertNull(store.getDestinationSequence(sid));
+        assertEquals(0, store.getMessages(sid, false).size());
+    }
+
+    @Test
+    public void testRemovedMessagesReleaseSegments() throws IOException {
+        store.destroy();
+        store = createStore(1024);
+        Identifier sid = createSourceSequence("sequence3", ProtocolVariation.RM10WSA200408);
+        SourceSequence seq = new SourceSequence(sid, ProtocolVariation.RM10WSA200408);
+        Collection<Long> removed = new ArrayList<>();
+        for (long mn = 1; mn <= 100; mn++) {
+            store.persistOutgoing(seq, createMessage(mn, null));
+            if (mn <= 90) {
+                removed.add(mn);
+            }
+        }
+        int segments = countSegments();
+        assertTrue(segments > 5);
+
+        store.removeMessages(sid, removed, true);
+        assertTrue(countSegments() < segments);
+
+        store = reopen(store);
+        Collection<RMMessage> msgs = store.getMessages(sid, true);
+        assertEquals(10, msgs.size());
+        assertEquals(91, msgs.iterator().next().getMessageNumber());
+        assertNotNull(store.getSourceSequence(sid));
+
+        // a later segment must not bring back a sequence that was removed
+        store.removeSourceSequence(sid);
+        store = reopen(store);
+        assertNull(store.getSourceSequence(sid));
+        assertEquals(0, store.getMessages(sid, true).size());
+        assertEquals(1, countSegments());
+    }
+
+    @Test
+    public void testPartiallyWrittenGroupIsIgnored() throws IOException {
+        Identifier sid = createSourceSequence("sequence4", ProtocolVariation.RM10WSA200408);
+        store.persistOutgoing(new SourceSequence(sid, null, null, 1, false, ProtocolVariation.RM10WSA200408),
+                              createMessage(1, null));
+        store.persistOutgoing(new SourceSequence(sid, null, null, 2, true, ProtocolVariation.RM10WSA200408),
+                              createMessage(2, null));
+        store.destroy();
+
+        // a crash after the sequence update of the last call was written, but not its message
+        assertTrue(tearLastRecord("Message 2"));
+
+        store = createStore(64 * 1024);
+        SourceSequence rseq = store.getSourceSequence(sid);
+        assertEquals(1, rseq.getCurrentMessageNr());
+        assertFalse(rseq.isLastMessage());
+        Collection<RMMessage> msgs = store.getMessages(sid, true);
+        assertEquals(1, msgs.size());
+        assertEquals(1, msgs.iterator().next().getMessageNumber());
+
+        // the journal goes on in a new segment after the torn one
+        store.persistOutgoing(new SourceSequence(sid, null, null, 2, true, ProtocolVariation.RM10WSA200408),
+                              createMessage(2, null));
+        store = reopen(store);
+        assertEquals(2, store.getSourceSequence(sid).getCurrentMessageNr());
+        assertEquals(2, store.getMessages(sid, true).size());
+    }
+
+    /**
+     * Overwrites the end of the record holding the given content, as if writing it was cut off.
+     */
+    private boolean tearLastRecord(String content) throws IOException {
+        byte[] pattern = content.getBytes(StandardCharsets.UTF_8);
+        for (File f : directory.listFiles()) {
+            try (RandomAccessFile raf = new RandomAccessFile(f, "rw")) {
+                byte[] bytes = new byte[(int)raf.length()];
+                raf.readFully(bytes);
+                for (int i = 0; i <= bytes.length - pattern.length; i++) {
+                    if (Arrays.equals(pattern, Arrays.copyOfRange(bytes, i, i + pattern.length))) {
+                        raf.seek(i);
+                        raf.write(new byte[pattern.length]);
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private RMJournalStore createStore(int segmentSize) {
+        RMJournalStore s = new RMJournalStore();
+        s.setDirectory(directory);
+        s.setSegmentSize(segmentSize);
+        s.init();
+        return s;
+    }
+
+    private RMJournalStore reopen(RMJournalStore s) {
+        s.destroy();
+        return createStore(s.getSegmentSize());
+    }
+
+    private int countSegments() {
+        return directory.list().length;
+    }
+
+    private Identifier createSourceSequence(String s, ProtocolVariation pv) {
+        SourceSequence seq = control.createMock(SourceSequence.class);
+        Identifier sid = new Identifier();
+        sid.setValue(s);
+        EasyMock.expect(seq.getIdentifier()).andReturn(sid).anyTimes();
+        EasyMock.expect(seq.getEndpointIdentifier()).andReturn(CLIENT_ENDPOINT_ID);
+        EasyMock.expect(seq.getProtocol()).andReturn(pv);
+        control.replay();
+        store.createSourceSequence(seq);
+        control.verify();
+        control.reset();
+        return sid;
+    }
+
+    private Identifier createDestinationSequence(String s) {
+        DestinationSequence seq = control.createMock(DestinationSequence.class);
+        Identifier sid = new Identifier();
+        sid.setValue(s);
+        EasyMock.expect(seq.getIdentifier()).andReturn(sid).anyTimes();
+        EasyMock.expect(seq.getAcksTo()).andReturn(RMUtils.createReference(NON_ANON_ACKS_TO));
+        EasyMock.expect(seq.getEndpointIdentifier()).andReturn(SERVER_ENDPOINT_ID);
+        EasyMock.expect(seq.getProtocol()).andReturn(ProtocolVariation.RM10WSA200408);
+        control.replay();
+        store.createDestinationSequence(seq);
+        control.verify();
+        control.reset();
+        return sid;
+    }
+
+    private static RMMessage createMessage(long mn, String to) throws IOException {
+        RMMessage msg = new RMMessage();
+        msg.setMessageNumber(mn);
+        msg.setTo(to);
+        msg.setContentType("text/xml");
+        msg.setCreatedTime(System.currentTimeMillis());
+        CachedOutputStream cos = new CachedOutputStream();
+        cos.write(("Message " + mn).getBytes());
+        cos.flush();
+        msg.setContent(cos);
+        return msg;
+    }
+}
@@ -69,6 +69,8 @@ public abstract class RMTxStoreTestBase extends Assert {
     private static SequenceAcknowledgement ack2;
 
     private static final long TIME = System.currentTimeMillis();
+    private static final String SPILLED_CONTENT =
+        "<message>a message larger than the threshold of its cached output stream</message>";
 
     protected IMocksControl control;
 
@@ -297,6 +299,188 @@ public abstract class RMTxStoreTestBase extends Assert {
         store.removeMessages(sid2, messageNrs, true);
     }
 
+    @Test
+    public void testGroupCommit() throws Exception {
+        Identifier sid = createGroupCommitSequence("groupCommitSequence");
+        final SourceSequence rseq = new SourceSequence(sid, null, null, 10, false,
+                                                       ProtocolVariation.RM10WSA200408);
+        final List<Exception> failures = new ArrayList<>();
+        store.setGroupCommitWindow(100);
+        try {
+            Thread[] threads = new Thread[10];
+            for (int i = 0; i < threads.length; i++) {
+                threads[i] = persistOutgoingInThread(rseq, i + 1, failures);
+            }
+            for (Thread t : threads) {
+                t.join();
+            }
+            assertEquals(failures.toString(), 0, failures.size());
+
+            // every call returns only once its write is committed
+            assertEquals(10, store.getMessages(sid, true).size());
+            assertEquals(10, store.getSourceSequence(sid).getCurrentMessageNr());
+
+            Collection<Long> messageNrs = new ArrayList<>();
+            for (long mn = 1; mn <= 10; mn++) {
+                messageNrs.add(mn);
+            }
+            store.removeMessages(sid, messageNrs, true);
+            assertEquals(0, store.getMessages(sid, true).size());
+        } finally {
+            store.setGroupCommitWindow(0);
+            store.removeSourceSequence(sid);
+        }
+    }
+
+    @Test
+    public void testGroupCommitWithFailingWrite() throws Exception {
+        Identifier goodSid = createGroupCommitSequence("groupCommitGood");
+        Identifier badSid = createGroupCommitSequence("groupCommitBad");
+        store.persistOutgoing(new SourceSequence(badSid, null, null, 1, false, ProtocolVariation.RM10WSA200408),
+                              createGroupCommitMessage(1));
+
+        final SourceSequence goodSeq = new SourceSequence(goodSid, null, null, 5, false,
+                                                          ProtocolVariation.RM10WSA200408);
+        // stores message 1 again, which fails on the primary key of the messages table
+        final SourceSequence badSeq = new SourceSequence(badSid, null, null, 7, true,
+                                                         ProtocolVariation.RM10WSA200408);
+        final List<Exception> goodFailures = new ArrayList<>();
+        final List<Exception> badFailures = new ArrayList<>();
+        store.setGroupCommitWindow(500);
+        try {
+            Thread[] threads = new Thread[6];
+            for (int i = 0; i < 5; i++) {
+                threads[i] = persistOutgoingInThread(goodSeq, i + 1, goodFailures);
+            }
+            threads[5] = persistOutgoingInThread(badSeq, 1, badFailures);
+            for (Thread t : threads) {
+                t.join();
+            }
+
+            // the failed group is rolled back as a whole, then the good writes are committed
+            assertEquals(goodFailures.toString(), 0, goodFailures.size());
+            assertEquals(5, store.getMessages(goodSid, true).size());
+            assertEquals(5, store.getSourceSequence(goodSid).getCurrentMessageNr());
+
+            // nothing of the failed write is left behind, not even its sequence update
+            assertEquals(1, badFailures.size());
+            assertTrue(badFailures.get(0) instanceof RMStoreException);
+            assertEquals(1, store.getMessages(badSid, true).size());
+            SourceSequence recovered = store.getSourceSequence(badSid);
+            assertEquals(1, recovered.getCurrentMessageNr());
+            assertFalse(recovered.isLastMessage());
+        } finally {
+            store.setGroupCommitWindow(0);
+            store.removeSourceSequence(goodSid);
+            store.removeSourceSequence(badSid);
+        }
+    }
+
+    @Test
+    public void testGroupCommitRetryWithSpilledMessage() throws Exception {
+        Identifier goodSid = createGroupCommitSequence("groupCommitSpilled");
+        Identifier badSid = createGroupCommitSequence("groupCommitSpilledBad");
+        store.persistOutgoing(new SourceSequence(badSid, null, null, 1, false, ProtocolVariation.RM10WSA200408),
+                              createGroupCommitMessage(1));
+
+        final SourceSequence goodSeq = new SourceSequence(goodSid, null, null, 1, false,
+                                                          ProtocolVariation.RM10WSA200408);
+        final SourceSequence badSeq = new SourceSequence(badSid, null, null, 1, false,
+                                                         ProtocolVariation.RM10WSA200408);
+        final RMMessage spilled = createSpilledMessage(1);
+        final List<Exception> failures = new ArrayList<>();
+        final List<Exception> badFailures = new ArrayList<>();
+        store.setGroupCommitWindow(500);
+        try {
+            Thread good = new Thread() {
+                public void run() {
+                    try {
+                        store.persistOutgoing(goodSeq, spilled);
+                    } catch (Exception ex) {
+                        failures.add(ex);
+                    }
+                }
+            };
+            good.start();
+            Thread bad = persistOutgoingInThread(badSeq, 1, badFailures);
+            good.join();
+            bad.join();
+
+            // the group fails on the duplicate message, the spilled one is written again on its own
+            assertEquals(1, badFailures.size());
+            assertEquals(failures.toString(), 0, failures.size());
+            Collection<RMMessage> msgs = store.getMessages(goodSid, true);
+            assertEquals(1, msgs.size());
+            InputStream in = msgs.iterator().next().getContent().getInputStream();
+            try {
+                assertEquals(SPILLED_CONTENT, IOUtils.toString(in));
+            } finally {
+                in.close();
+            }
+            assertNull("the temp file is deleted once the message is written",
+                       spilled.getContent().getTempFile());
+        } finally {
+            store.setGroupCommitWindow(0);
+            store.removeSourceSequence(goodSid);
+            store.removeSourceSequence(badSid);
+        }
+    }
+
+    private static RMMessage createSpilledMessage(long mn) throws IOException {
+        RMMessage msg = new RMMessage();
+        msg.setMessageNumber(mn);
+        msg.setContentType("text/xml");
+        CachedOutputStream cos = new CachedOutputStream(16);
+        cos.write(SPILLED_CONTENT.getBytes());
+        cos.flush();
+        assertNotNull(cos.getTempFile());
+        msg.setContent(cos);
+        return msg;
+    }
+
+    private Identifier createGroupCommitSequence(String id) {
+        SourceSequence seq = control.createMock(SourceSequence.class);
+        Identifier sid = new Identifier();
+        sid.setValue(id);
+        EasyMock.expect(seq.getIdentifier()).andReturn(sid);
+        EasyMock.expect(seq.getExpires()).andReturn(null);
+        EasyMock.expect(seq.getOfferingSequenceIdentifier()).andReturn(null);
+        EasyMock.expect(seq.getEndpointIdentifier()).andReturn(CLIENT_ENDPOINT_ID);
+        EasyMock.expect(seq.getProtocol()).andReturn(ProtocolVariation.RM10WSA200408);
+        control.replay();
+        store.createSourceSequence(seq);
+        control.reset();
+        return sid;
+    }
+
+    private static RMMessage createGroupCommitMessage(long mn) throws IOException {
+        RMMessage msg = new RMMessage();
+        msg.setMessageNumber(mn);
+        msg.setContentType("text/xml");
+        CachedOutputStream cos = new CachedOutputStream();
+        cos.write(("Message " + mn).getBytes());
+        cos.flush();
+        msg.setContent(cos);
+        return msg;
+    }
+
+    private static Thread persistOutgoingInThread(final SourceSequence seq, final long mn,
+                                                  final List<Exception> failures) {
+        Thread thread = new Thread() {
+            public void run() {
+                try {
+                    store.persistOutgoing(seq, createGroupCommitMessage(mn));
+                } catch (Exception ex) {
+                    synchronized (failures) {
+                        failures.add(ex);
+                    }
+                }
+            }
+        };
+        thread.start();
+        return thread;
+    }
+
     @Test
     public void testUpdateDestinationSequence() throws SQLException, IOException {
         DestinationSequence seq = control.createMock(DestinationSequence.class);
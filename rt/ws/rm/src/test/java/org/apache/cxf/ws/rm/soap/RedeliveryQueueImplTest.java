@@ -0,0 +1,125 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.apache.cxf.ws.rm.soap;
+
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
+import org.apache.cxf.ws.rm.DestinationSequence;
+import org.apache.cxf.ws.rm.HashedWheelScheduler;
+import org.apache.cxf.ws.rm.RMContextUtils;
+import org.apache.cxf.ws.rm.RMManager;
+import org.apache.cxf.ws.rm.RMProperties;
+import org.apache.cxf.ws.rm.manager.DestinationPolicyType;
+import org.apache.cxf.ws.rm.manager.RetryPolicyType;
+import org.apache.cxf.ws.rm.v200702.Identifier;
+import org.apache.cxf.ws.rm.v200702.SequenceType;
+import org.easymock.EasyMock;
+import org.easymock.IMocksControl;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test redelivery scheduling.
+ */
+public class RedeliveryQueueImplTest extends Assert {
+    private IMocksControl control;
+    private RMManager manager;
+    private HashedWheelScheduler scheduler;
+    private RedeliveryQueueImpl queue;
+
+    @Before
+    public void setUp() {
+        control = EasyMock.createNiceControl();
+        manager = control.createMock(RMManager.class);
+        scheduler = new HashedWheelScheduler("RedeliveryQueueImplTest");
+        EasyMock.expect(manager.getScheduler()).andReturn(scheduler).anyTimes();
+        RetryPolicyType rp = new RetryPolicyType();
+        rp.setMaxRetries(3);
+        rp.setInterval(60000L);
+        DestinationPolicyType dp = new DestinationPolicyType();
+        dp.setRetryPolicy(rp);
+        EasyMock.expect(manager.getDestinationPolicy()).andReturn(dp).anyTimes();
+        queue = new RedeliveryQueueImpl(manager);
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.stop();
+        control.verify();
+    }
+
+    @Test
+    public void testUndeliveredScheduledAndPurged() {
+        DestinationSequence seq = control.createMock(DestinationSequence.class);
+        EasyMock.expect(seq.getIdentifier()).andReturn(createIdentifier("sequence1")).anyTimes();
+        control.replay();
+
+        queue.addUndelivered(createMessage("sequence1", 1));
+        queue.addUndelivered(createMessage("sequence1", 2));
+        // a message already cached is not scheduled again
+        queue.addUndelivered(createMessage("sequence1", 2));
+        assertEquals(2, queue.countUndelivered(seq));
+        assertEquals(2, scheduler.getPendingCount());
+
+        queue.purgeAll(seq);
+        assertEquals(0, queue.countUndelivered());
+        assertTrue(queue.isEmpty());
+        assertEquals(0, scheduler.getPendingCount());
+    }
+
+    @Test
+    public void testSuspendCancelsAndResumeReschedules() {
+        DestinationSequence seq = control.createMock(DestinationSequence.class);
+        EasyMock.expect(seq.getIdentifier()).andReturn(createIdentifier("sequence1")).anyTimes();
+        control.replay();
+
+        queue.addUndelivered(createMessage("sequence1", 1));
+        assertEquals(1, scheduler.getPendingCount());
+
+        queue.suspend(seq);
+        assertEquals(0, scheduler.getPendingCount());
+        assertEquals(1, queue.countUndelivered(seq));
+
+        queue.resume(seq);
+        assertEquals(1, scheduler.getPendingCount());
+        assertEquals(1, queue.getRedeliveryStatus(seq, 1).getRetries());
+    }
+
+    private static Identifier createIdentifier(String sid) {
+        Identifier id = new Identifier();
+        id.setValue(sid);
+        return id;
+    }
+
+    private static Message createMessage(String sid, long number) {
+        SequenceType st = new SequenceType();
+        st.setIdentifier(createIdentifier(sid));
+        st.setMessageNumber(number);
+        RMProperties rmps = new RMProperties();
+        rmps.setSequence(st);
+        Message message = new MessageImpl();
+        RMContextUtils.storeRMProperties(message, rmps, false);
+        return message;
+    }
+}
@@ -27,6 +27,7 @@ import java.util.concurrent.Executor;
 
 import org.apache.cxf.binding.soap.SoapMessage;
 import org.apache.cxf.message.Message;
+import org.apache.cxf.ws.rm.HashedWheelScheduler;
 import org.apache.cxf.ws.rm.RMConfiguration;
 import org.apache.cxf.ws.rm.RMEndpoint;
 import org.apache.cxf.ws.rm.RMException;
@@ -58,6 +59,7 @@ public class RetransmissionQueueImplTest extends Assert {
 
     private IMocksControl control;
     private RMManager manager;
+    private HashedWheelScheduler scheduler;
     private RMEndpoint endpoint;
     private Executor executor;
     private RetransmissionQueueImpl queue;
@@ -74,6 +76,8 @@ public class RetransmissionQueueImplTest extends Assert {
         manager = createMock(RMManager.class);
         endpoint = createMock(RMEndpoint.class);
         EasyMock.expect(manager.getReliableEndpoint(EasyMock.anyObject(Message.class))).andReturn(endpoint).anyTimes();
+        scheduler = new HashedWheelScheduler("RetransmissionQueueImplTest");
+        EasyMock.expect(manager.getScheduler()).andReturn(scheduler).anyTimes();
         queue = new RetransmissionQueueImpl(manager);
         resender = new TestResender();
         queue.replaceResender(resender);
@@ -83,6 +87,7 @@ public class RetransmissionQueueImplTest extends Assert {
 
     @After
     public void tearDown() {
+        scheduler.stop();
         control.verify();
         messages.clear();
         properties.clear();
@@ -119,6 +124,7 @@ public class RetransmissionQueueImplTest extends Assert {
         refDate = new Date(now + 7000);
         assertTrue(!candidate.getNext().after(refDate));
         assertTrue(!candidate.isPending());
+        assertEquals(1, scheduler.getPendingCount());
     }
 
     @Test
@@ -239,6 +245,7 @@ public class RetransmissionQueueImplTest extends Assert {
 
         sequenceList.add(queue.createResendCandidate(message1));
         sequenceList.add(queue.createResendCandidate(message2));
+        assertEquals(2, scheduler.getPendingCount());
 
         queue.purgeAcknowledged(sequence);
         assertEquals("unexpected unacked map size",
@@ -247,6 +254,8 @@ public class RetransmissionQueueImplTest extends Assert {
         assertEquals("unexpected unacked list size",
                      1,
                      sequenceList.size());
+        // the resend of the acknowledged message is cancelled
+        assertEquals(1, scheduler.getPendingCount());
     }
 
     @Test
@@ -305,6 +314,7 @@ public class RetransmissionQueueImplTest extends Assert {
         assertEquals("unexpected unacked list size",
                      0,
                      sequenceList.size());
+        assertEquals(0, scheduler.getPendingCount());
     }
 
     @Test
@@ -0,0 +1,96 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.ws.security.cache;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.apache.wss4j.common.cache.ReplayCache;
+
+/**
+ * An in-memory ReplayCache that never locks the whole cache to remove expired identifiers, and
+ * holds at most a maximum number of identifiers. The default TTL is 60 minutes and the max TTL
+ * is 12 hours, as for the ReplayCaches of WSS4J.
+ */
+public class ConcurrentReplayCache implements ReplayCache {
+    public static final long DEFAULT_TTL = 3600L;
+    public static final long MAX_TTL = DEFAULT_TTL * 12L;
+    public static final int DEFAULT_MAX_SIZE = 1000000;
+
+    private final ExpiringCache<Boolean> cache;
+
+    public ConcurrentReplayCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @param maxSize the number of identifiers above which the identifiers expiring soonest are
+     *                removed, 0 for no limit
+     */
+    public ConcurrentReplayCache(int maxSize) {
+        this(new ExpiringCache<Boolean>(maxSize));
+    }
+
+    ConcurrentReplayCache(ExpiringCache<Boolean> cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Add the given identifier to the cache. It will be cached for a default amount of time.
+     * @param identifier The identifier to be added
+     */
+    public void add(String identifier) {
+        add(identifier, null);
+    }
+
+    /**
+     * Add the given identifier to the cache to be cached for the given time
+     * @param identifier The identifier to be added
+     * @param expiry The expiry time. If null, or not within the max TTL, the default TTL is used
+     */
+    public void add(String identifier, Instant expiry) {
+        if (identifier == null || "".equals(identifier)) {
+            return;
+        }
+        cache.put(identifier, Boolean.TRUE, expires(expiry));
+    }
+
+    /**
+     * Return true if the given identifier is in the cache
+     * @param identifier The identifier to check
+     */
+    public boolean contains(String identifier) {
+        return identifier != null && cache.get(identifier) != null;
+    }
+
+    public void close() {
+        cache.clear();
+    }
+
+    private long expires(Instant expiry) {
+        Instant now = Instant.ofEpochMilli(cache.currentTimeMillis());
+        long ttl = expiry == null ? -1L : Duration.between(now, expiry).getSeconds();
+        if (ttl < 0 || ttl > MAX_TTL) {
+            expiry = now.plusSeconds(DEFAULT_TTL);
+        }
+        return expiry.toEpochMilli();
+    }
+
+}
@@ -0,0 +1,251 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.ws.security.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An in-memory cache of entries that expire at a time given when they are added, for the token
+ * stores and replay caches that are consulted on every request. Lookups and updates go straight
+ * to a ConcurrentHashMap. Expired entries are found through a timing wheel of buckets that hold
+ * the keys falling due in each tick, and a bucket is swept by whichever caller first notices that
+ * its tick has passed, so no caller ever waits for another one to expire entries. Once the cache
+ * holds more than its maximum size, the entries due soonest are evicted early.
+ */
+public class ExpiringCache<V> {
+    public static final long DEFAULT_TICK = 1000L;
+    public static final int DEFAULT_WHEEL_SIZE = 512;
+
+    private final ConcurrentMap<String, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final Queue<Object>[] wheel;
+    private final long tick;
+    private final int maxSize;
+    private final AtomicLong sweptTick;
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ExpiringCache(int maxSize) {
+        this(DEFAULT_TICK, DEFAULT_WHEEL_SIZE, maxSize);
+    }
+
+    /**
+     * @param tick the length of a tick in milliseconds, expired entries are removed at most one
+     *             tick after their expiry
+     * @param wheelSize the number of buckets
+     * @param maxSize the number of entries above which entries are evicted early, 0 for no limit
+     */
+    @SuppressWarnings("unchecked")
+    public ExpiringCache(long tick, int wheelSize, int maxSize) {
+        this.tick = tick;
+        this.maxSize = maxSize;
+        wheel = new Queue[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            wheel[i] = new ConcurrentLinkedQueue<>();
+        }
+        sweptTick = new AtomicLong(currentTimeMillis() / tick);
+    }
+
+    /**
+     * Returns the value of the key, or null if there is none or it has expired.
+     */
+    public V get(String key) {
+        long now = expire();
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expires <= now) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.value;
+    }
+
+    /**
+     * Adds the value under the key until the given time in milliseconds, replacing any previous value.
+     */
+    public void put(String key, V value, long expires) {
+        expire();
+        Entry<V> entry = newEntry(value, expires);
+        entries.put(key, entry);
+        added(key, entry);
+    }
+
+    public V remove(String key) {
+        Entry<V> entry = entries.remove(key);
+        return entry == null ? null : entry.value;
+    }
+
+    /**
+     * Returns the keys of the entries that have not expired.
+     */
+    public Collection<String> keys() {
+        long now = expire();
+        List<String> keys = new ArrayList<>();
+        for (Map.Entry<String, Entry<V>> e : entries.entrySet()) {
+            if (e.getValue().expires > now) {
+                keys.add(e.getKey());
+            }
+        }
+        return keys;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the number of entries evicted before their expiry to stay within the maximum size.
+     */
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    public void clear() {
+        entries.clear();
+        for (Queue<Object> bucket : wheel) {
+            bucket.clear();
+        }
+    }
+
+    /**
+     * Returns the current time in milliseconds that entries expire against, which tests can
+     * override.
+     */
+    public long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    private Entry<V> newEntry(V value, long expires) {
+        long due = expires / tick + 1;
+        long next = sweptTick.get() + 1;
+        return new Entry<>(value, expires, Math.max(due, next));
+    }
+
+    private void added(String key, Entry<V> entry) {
+        wheel[index(entry.due)].add(key);
+        if (maxSize > 0 && entries.size() > maxSize) {
+            evict();
+        }
+    }
+
+    private int index(long t) {
+        return (int)(t % wheel.length);
+    }
+
+    private long expire() {
+        long now = currentTimeMillis();
+        long current = now / tick;
+        long swept = sweptTick.get();
+        if (current - swept > wheel.length) {
+            // after a long pause every bucket only needs sweeping once
+            sweptTick.compareAndSet(swept, current - wheel.length);
+            swept = sweptTick.get();
+        }
+        // each tick is claimed by one caller, so concurrent callers sweep different buckets
+        while (swept < current) {
+            if (sweptTick.compareAndSet(swept, swept + 1)) {
+                sweep(swept + 1, now);
+            }
+            swept = sweptTick.get();
+        }
+        return now;
+    }
+
+    private void sweep(long t, long now) {
+        Queue<Object> bucket = wheel[index(t)];
+        // keys added after the marker are left for a later sweep
+        Object marker = new Object();
+        bucket.add(marker);
+        List<String> later = null;
+        for (Object o = bucket.poll(); o != marker && o != null; o = bucket.poll()) {
+            if (!(o instanceof String)) {
+                // the marker of another sweep
+                continue;
+            }
+            String key = (String)o;
+            Entry<V> entry = entries.get(key);
+            if (entry == null || index(entry.due) != index(t)) {
+                // removed, or replaced by an entry that is in another bucket
+                continue;
+            }
+            if (entry.expires <= now) {
+                entries.remove(key, entry);
+            } else if (entry.due > t) {
+                // due in a later turn of the wheel
+                if (later == null) {
+                    later = new ArrayList<>();
+                }
+                later.add(key);
+            }
+        }
+        if (later != null) {
+            bucket.addAll(later);
+        }
+    }
+
+    private void evict() {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long t = sweptTick.get() + 1;
+            for (int i = 0; i < wheel.length && entries.size() > maxSize; i++, t++) {
+                Queue<Object> bucket = wheel[index(t)];
+                for (Object o = bucket.poll(); o != null; o = bucket.poll()) {
+                    if (!(o instanceof String)) {
+                        continue;
+                    }
+                    Entry<V> entry = entries.get(o);
+                    // skip keys whose entry was replaced by one in another bucket, it is due later
+                    if (entry != null && index(entry.due) == index(t) && entries.remove(o, entry)) {
+                        evictions.incrementAndGet();
+                        if (entries.size() <= maxSize) {
+                            break;
+                        }
+                    }
+                }
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        final long expires;
+        final long due;
+
+        Entry(V value, long expires, long due) {
+            this.value = value;
+            this.expires = expires;
+            this.due = due;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.ws.security.tokenstore;
+
+import java.util.Collection;
+
+import org.apache.cxf.common.util.StringUtils;
+import org.apache.cxf.ws.security.cache.ExpiringCache;
+
+/**
+ * An in-memory TokenStore for endpoints that look tokens up on every request. Unlike
+ * MemoryTokenStore it never locks the whole store to remove expired tokens, and it holds at most
+ * a maximum number of tokens. The default TTL is 5 minutes and the max TTL is 1 hour.
+ */
+public class ConcurrentTokenStore implements TokenStore {
+    public static final long DEFAULT_TTL = MemoryTokenStore.DEFAULT_TTL;
+    public static final long MAX_TTL = MemoryTokenStore.MAX_TTL;
+    public static final int DEFAULT_MAX_SIZE = 100000;
+
+    private final ExpiringCache<SecurityToken> tokens;
+    private volatile long ttl = DEFAULT_TTL;
+
+    public ConcurrentTokenStore() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @param maxSize the number of tokens above which the tokens expiring soonest are removed,
+     *                0 for no limit
+     */
+    public ConcurrentTokenStore(int maxSize) {
+        this(new ExpiringCache<SecurityToken>(maxSize));
+    }
+
+    ConcurrentTokenStore(ExpiringCache<SecurityToken> tokens) {
+        this.tokens = tokens;
+    }
+
+    public void add(SecurityToken token) {
+        if (token != null && !StringUtils.isEmpty(token.getId())) {
+            add(token.getId(), token);
+        }
+    }
+
+    public void add(String identifier, SecurityToken token) {
+        if (token != null && !StringUtils.isEmpty(identifier)) {
+            tokens.put(identifier, token, tokens.currentTimeMillis() + ttl * 1000L);
+        }
+    }
+
+    /**
+     * Set a new (default) TTL value in seconds
+     * @param newTtl a new (default) TTL value in seconds
+     */
+    public void setTTL(long newTtl) {
+        ttl = newTtl;
+    }
+
+    public void remove(String identifier) {
+        if (!StringUtils.isEmpty(identifier)) {
+            tokens.remove(identifier);
+        }
+    }
+
+    public Collection<String> getTokenIdentifiers() {
+        return tokens.keys();
+    }
+
+    public SecurityToken getToken(String id) {
+        return id == null ? null : tokens.get(id);
+    }
+
+}
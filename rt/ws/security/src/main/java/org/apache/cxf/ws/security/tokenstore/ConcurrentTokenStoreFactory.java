@@ -0,0 +1,41 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.ws.security.tokenstore;
+
+import org.apache.cxf.message.Message;
+import org.apache.cxf.ws.security.cache.ConcurrentReplayCache;
+import org.apache.wss4j.common.cache.ReplayCache;
+
+/**
+ * A factory to return a ConcurrentTokenStore instance, and a ConcurrentReplayCache instance
+ * for the replay caches of the same endpoints.
+ */
+public class ConcurrentTokenStoreFactory extends TokenStoreFactory {
+
+    public TokenStore newTokenStore(String key, Message message) {
+        return new ConcurrentTokenStore();
+    }
+
+    @Override
+    public ReplayCache newReplayCache(String key, Message message) {
+        return new ConcurrentReplayCache();
+    }
+
+}
@@ -23,6 +23,7 @@ import java.time.Instant;
 import java.util.Collection;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.cxf.common.util.StringUtils;
 
@@ -35,6 +36,7 @@ public class MemoryTokenStore implements TokenStore {
 
     private Map<String, CacheEntry> tokens = new ConcurrentHashMap<>();
     private long ttl = DEFAULT_TTL;
+    private final AtomicBoolean sweeping = new AtomicBoolean();
 
     public void add(SecurityToken token) {
         if (token != null && !StringUtils.isEmpty(token.getId())) {
@@ -84,13 +86,19 @@ public class MemoryTokenStore implements TokenStore {
     }
 
     protected void processTokenExpiry() {
-        Instant current = Instant.now();
-        synchronized (tokens) {
+        // one caller sweeps at a time, the others carry on rather than wait for it
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            Instant current = Instant.now();
             for (Map.Entry<String, CacheEntry> entry : tokens.entrySet()) {
                 if (entry.getValue().getExpiry().isBefore(current)) {
-                    tokens.remove(entry.getKey());
+                    tokens.remove(entry.getKey(), entry.getValue());
                 }
             }
+        } finally {
+            sweeping.set(false);
         }
     }
 
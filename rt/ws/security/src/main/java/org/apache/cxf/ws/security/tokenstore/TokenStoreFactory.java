@@ -19,13 +19,27 @@
 
 package org.apache.cxf.ws.security.tokenstore;
 
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.cxf.common.classloader.ClassLoaderUtils;
+import org.apache.cxf.common.logging.LogUtils;
+import org.apache.cxf.common.util.StringUtils;
+import org.apache.cxf.common.util.SystemPropertyAction;
 import org.apache.cxf.message.Message;
+import org.apache.wss4j.common.cache.ReplayCache;
 
 /**
- * An abstract factory to return a TokenStore instance. It returns an EHCacheTokenStoreFactory
- * if EH-Cache is available. Otherwise it returns a MemoryTokenStoreFactory.
+ * An abstract factory to return a TokenStore instance. It returns an instance of the class named
+ * by the TOKEN_STORE_FACTORY_PROPERTY_NAME system property if it is set, for example
+ * ConcurrentTokenStoreFactory. Otherwise it returns an EHCacheTokenStoreFactory if EH-Cache is
+ * available, and a MemoryTokenStoreFactory if not.
  */
 public abstract class TokenStoreFactory {
+    public static final String TOKEN_STORE_FACTORY_PROPERTY_NAME =
+        "org.apache.cxf.ws.security.tokenstore.factory";
+
+    private static final Logger LOG = LogUtils.getLogger(TokenStoreFactory.class);
 
     private static boolean ehCacheInstalled;
 
@@ -45,6 +59,15 @@ public abstract class TokenStoreFactory {
     }
 
     public static TokenStoreFactory newInstance() {
+        String factoryClass = SystemPropertyAction.getPropertyOrNull(TOKEN_STORE_FACTORY_PROPERTY_NAME);
+        if (!StringUtils.isEmpty(factoryClass)) {
+            try {
+                return ClassLoaderUtils.loadClass(factoryClass, TokenStoreFactory.class, TokenStoreFactory.class)
+                    .newInstance();
+            } catch (Exception ex) {
+                LOG.log(Level.WARNING, "Could not create TokenStoreFactory " + factoryClass, ex);
+            }
+        }
         if (isEhCacheInstalled()) {
             return new EHCacheTokenStoreFactory();
         }
@@ -54,4 +77,12 @@ public abstract class TokenStoreFactory {
 
     public abstract TokenStore newTokenStore(String key, Message message);
 
+    /**
+     * Returns the ReplayCache to use alongside the TokenStores of this factory, or null to use
+     * the default ReplayCache.
+     */
+    public ReplayCache newReplayCache(String key, Message message) {
+        return null;
+    }
+
 }
@@ -46,6 +46,7 @@ import org.apache.cxf.service.model.EndpointInfo;
 import org.apache.cxf.ws.security.SecurityConstants;
 import org.apache.cxf.ws.security.cache.CXFEHCacheReplayCache;
 import org.apache.cxf.ws.security.tokenstore.SecurityToken;
+import org.apache.cxf.ws.security.tokenstore.TokenStoreFactory;
 import org.apache.cxf.ws.security.tokenstore.TokenStoreUtils;
 import org.apache.wss4j.common.cache.ReplayCache;
 import org.apache.wss4j.common.cache.ReplayCacheFactory;
@@ -134,15 +135,18 @@ public final class WSS4JUtils {
                             cacheKey += "-" + hashcode;
                         }
                     }
-                    URL configFile = SecurityUtils.getConfigFileURL(message, SecurityConstants.CACHE_CONFIG_FILE,
-                                                                    "cxf-ehcache.xml");
-
-                    if (ReplayCacheFactory.isEhCacheInstalled()) {
-                        Bus bus = message.getExchange().getBus();
-                        replayCache = new CXFEHCacheReplayCache(cacheKey, bus, configFile);
-                    } else {
-                        ReplayCacheFactory replayCacheFactory = ReplayCacheFactory.newInstance();
-                        replayCache = replayCacheFactory.newReplayCache(cacheKey, configFile);
+                    replayCache = TokenStoreFactory.newInstance().newReplayCache(cacheKey, message);
+                    if (replayCache == null) {
+                        URL configFile = SecurityUtils.getConfigFileURL(message, SecurityConstants.CACHE_CONFIG_FILE,
+                                                                        "cxf-ehcache.xml");
+
+                        if (ReplayCacheFactory.isEhCacheInstalled()) {
+                            Bus bus = message.getExchange().getBus();
+                            replayCache = new CXFEHCacheReplayCache(cacheKey, bus, configFile);
+                        } else {
+                            ReplayCacheFactory replayCacheFactory = ReplayCacheFactory.newInstance();
+                            replayCache = replayCacheFactory.newReplayCache(cacheKey, configFile);
+                        }
                     }
 
                     info.setProperty(instanceKey, replayCache);
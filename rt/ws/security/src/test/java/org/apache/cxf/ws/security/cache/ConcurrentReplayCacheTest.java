@@ -0,0 +1,146 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.ws.security.cache;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.wss4j.common.cache.ReplayCache;
+import org.junit.Test;
+
+public class ConcurrentReplayCacheTest extends org.junit.Assert {
+
+    @Test
+    public void testAddAndContains() throws Exception {
+        ConcurrentReplayCache cache = new ConcurrentReplayCache();
+        cache.add("id1");
+        cache.add("id2", Instant.now().plusSeconds(60L));
+        // an expiry in the past falls back to the default TTL
+        cache.add("id3", Instant.now().minusSeconds(60L));
+        assertTrue(cache.contains("id1"));
+        assertTrue(cache.contains("id2"));
+        assertTrue(cache.contains("id3"));
+        assertFalse(cache.contains("id4"));
+
+        cache.close();
+        assertFalse(cache.contains("id1"));
+    }
+
+    @Test
+    public void testReplayCacheExpiry() throws Exception {
+        final AtomicLong now = new AtomicLong(1000000000L);
+        ReplayCache replayCache = new ConcurrentReplayCache(newCache(now));
+        Instant start = Instant.ofEpochMilli(now.get());
+        replayCache.add("id1");
+        replayCache.add("id2", start.plusSeconds(60L));
+        // expiries in the past or beyond the max TTL fall back to the default TTL
+        replayCache.add("id3", start.minusSeconds(60L));
+        replayCache.add("id4", start.plusSeconds(ConcurrentReplayCache.MAX_TTL + 60L));
+
+        now.addAndGet(59000L);
+        assertTrue(replayCache.contains("id2"));
+
+        now.addAndGet(2000L);
+        assertFalse(replayCache.contains("id2"));
+        assertTrue(replayCache.contains("id1"));
+        assertTrue(replayCache.contains("id3"));
+        assertTrue(replayCache.contains("id4"));
+
+        now.set(start.plusSeconds(ConcurrentReplayCache.DEFAULT_TTL + 1L).toEpochMilli());
+        assertFalse(replayCache.contains("id1"));
+        assertFalse(replayCache.contains("id3"));
+        assertFalse(replayCache.contains("id4"));
+        replayCache.close();
+    }
+
+    @Test
+    public void testExpiry() {
+        final AtomicLong now = new AtomicLong(1000000L);
+        ExpiringCache<String> cache = new ExpiringCache<String>(100L, 8, 0) {
+            @Override
+            public long currentTimeMillis() {
+                return now.get();
+            }
+        };
+        cache.put("a", "a", now.get() + 50L);
+        cache.put("b", "b", now.get() + 250L);
+        // beyond one turn of the wheel
+        cache.put("c", "c", now.get() + 5000L);
+        assertEquals("a", cache.get("a"));
+
+        now.addAndGet(200L);
+        assertNull(cache.get("a"));
+        assertEquals("b", cache.get("b"));
+        assertEquals(2, cache.size());
+
+        now.addAndGet(1000L);
+        assertNull(cache.get("b"));
+        assertEquals(1, cache.size());
+        assertEquals("c", cache.get("c"));
+
+        now.addAndGet(5000L);
+        cache.keys();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testMaxSize() {
+        ExpiringCache<String> cache = new ExpiringCache<>(10);
+        long expires = System.currentTimeMillis() + 60000L;
+        for (int i = 0; i < 1000; i++) {
+            cache.put("id" + i, "id" + i, expires + i);
+        }
+        assertTrue(cache.size() <= 10);
+        assertEquals(1000 - cache.size(), cache.getEvictionCount());
+        assertEquals("id999", cache.get("id999"));
+    }
+
+    @Test
+    public void testMaxSizeEvictsByCurrentExpiry() {
+        final AtomicLong now = new AtomicLong(1000000L);
+        ExpiringCache<String> cache = new ExpiringCache<String>(100L, 8, 2) {
+            @Override
+            public long currentTimeMillis() {
+                return now.get();
+            }
+        };
+        cache.put("a", "a", now.get() + 50L);
+        // the key stays in the bucket of its first expiry
+        cache.put("a", "a", now.get() + 500L);
+        cache.put("b", "b", now.get() + 150L);
+        cache.put("c", "c", now.get() + 250L);
+
+        // b expires soonest now, not a
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals("a", cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals("c", cache.get("c"));
+    }
+
+    private static ExpiringCache<Boolean> newCache(final AtomicLong now) {
+        return new ExpiringCache<Boolean>(ExpiringCache.DEFAULT_TICK, ExpiringCache.DEFAULT_WHEEL_SIZE, 0) {
+            @Override
+            public long currentTimeMillis() {
+                return now.get();
+            }
+        };
+    }
+}
@@ -0,0 +1,134 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.cxf.ws.security.tokenstore;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
+import org.apache.cxf.ws.security.SecurityConstants;
+import org.apache.cxf.ws.security.cache.ExpiringCache;
+import org.junit.After;
+import org.junit.Before;
+
+public class ConcurrentTokenStoreTest extends org.junit.Assert {
+
+    private TokenStore store;
+
+    @Before
+    public void init() {
+        TokenStoreFactory tokenStoreFactory = new ConcurrentTokenStoreFactory();
+        Message message = new MessageImpl();
+        store = tokenStoreFactory.newTokenStore(SecurityConstants.TOKEN_STORE_CACHE_INSTANCE, message);
+    }
+
+    @After
+    public void cleanup() {
+        System.clearProperty(TokenStoreFactory.TOKEN_STORE_FACTORY_PROPERTY_NAME);
+    }
+
+    @org.junit.Test
+    public void testTokenAdd() throws Exception {
+        String key = "key";
+        SecurityToken token = new SecurityToken(key);
+        store.add(token);
+        assertEquals(token, store.getToken(key));
+        store.remove(token.getId());
+        assertNull(store.getToken(key));
+
+        String newKey = "xyz";
+        store.add(newKey, token);
+        assertNull(store.getToken(key));
+        assertEquals(token, store.getToken(newKey));
+        store.remove(newKey);
+        assertNull(store.getToken(newKey));
+    }
+
+    @org.junit.Test
+    public void testTokenRemove() {
+        store.add(new SecurityToken("token1"));
+        store.add(new SecurityToken("token2"));
+        store.add(new SecurityToken("token3"));
+        assertEquals(3, store.getTokenIdentifiers().size());
+        store.remove("token3");
+        assertNull(store.getToken("token3"));
+        store.remove("token1");
+        store.remove("token2");
+        assertEquals(0, store.getTokenIdentifiers().size());
+    }
+
+    @org.junit.Test
+    public void testTokenTTL() {
+        ((ConcurrentTokenStore)store).setTTL(0L);
+        store.add(new SecurityToken("token1"));
+        assertNull(store.getToken("token1"));
+        assertTrue(store.getTokenIdentifiers().isEmpty());
+    }
+
+    @org.junit.Test
+    public void testTokenExpiry() {
+        final AtomicLong now = new AtomicLong(1000000000L);
+        ConcurrentTokenStore expiringStore = new ConcurrentTokenStore(
+            new ExpiringCache<SecurityToken>(ExpiringCache.DEFAULT_TICK, ExpiringCache.DEFAULT_WHEEL_SIZE, 0) {
+                @Override
+                public long currentTimeMillis() {
+                    return now.get();
+                }
+            });
+        expiringStore.setTTL(60L);
+        SecurityToken token = new SecurityToken("token1");
+        expiringStore.add(token);
+        expiringStore.add("token2", token);
+
+        now.addAndGet(30000L);
+        // adding a token again restarts its TTL
+        expiringStore.add("token2", token);
+
+        now.addAndGet(29000L);
+        assertEquals(token, expiringStore.getToken("token1"));
+        assertEquals(2, expiringStore.getTokenIdentifiers().size());
+
+        now.addAndGet(2000L);
+        assertNull(expiringStore.getToken("token1"));
+        assertEquals(token, expiringStore.getToken("token2"));
+        assertEquals(1, expiringStore.getTokenIdentifiers().size());
+
+        now.addAndGet(30000L);
+        assertNull(expiringStore.getToken("token2"));
+        assertTrue(expiringStore.getTokenIdentifiers().isEmpty());
+    }
+
+    @org.junit.Test
+    public void testMaxSize() {
+        TokenStore boundedStore = new ConcurrentTokenStore(10);
+        for (int i = 0; i < 100; i++) {
+            boundedStore.add(new SecurityToken("token" + i));
+        }
+        assertTrue(boundedStore.getTokenIdentifiers().size() <= 10);
+    }
+
+    @org.junit.Test
+    public void testFactorySelection() {
+        System.setProperty(TokenStoreFactory.TOKEN_STORE_FACTORY_PROPERTY_NAME,
+                           ConcurrentTokenStoreFactory.class.getName());
+        assertTrue(TokenStoreFactory.newInstance() instanceof ConcurrentTokenStoreFactory);
+        assertNotNull(TokenStoreFactory.newInstance().newReplayCache("key", new MessageImpl()));
+    }
+}
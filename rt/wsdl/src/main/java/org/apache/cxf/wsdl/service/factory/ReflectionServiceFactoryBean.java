@@ -68,6 +68,7 @@ import org.apache.cxf.common.util.StringUtils;
 import org.apache.cxf.common.util.SystemPropertyAction;
 import org.apache.cxf.common.xmlschema.SchemaCollection;
 import org.apache.cxf.common.xmlschema.XmlSchemaUtils;
+import org.apache.cxf.databinding.AbstractDataBinding;
 import org.apache.cxf.databinding.DataBinding;
 import org.apache.cxf.databinding.source.mime.MimeAttribute;
 import org.apache.cxf.databinding.source.mime.MimeSerializer;
@@ -225,13 +226,18 @@ public class ReflectionServiceFactoryBean extends org.apache.cxf.service.factory
             } else if (obj instanceof Class) {
                 cls = ((Class<?>)obj).asSubclass(DataBinding.class);
             }
+            DataBinding binding;
             try {
-                return cls.getConstructor(Boolean.TYPE, Map.class)
+                binding = cls.getConstructor(Boolean.TYPE, Map.class)
                     .newInstance(this.isQualifyWrapperSchema(), this.getProperties());
             } catch (NoSuchMethodException nsme) {
                 //ignore, use the no-arg constructor
+                binding = cls.newInstance();
             }
-            return cls.newInstance();
+            if (binding instanceof AbstractDataBinding && getBus() != null) {
+                ((AbstractDataBinding)binding).setBus(getBus());
+            }
+            return binding;
         } catch (Exception e) {
             throw new ServiceConstructionException(e);
         }
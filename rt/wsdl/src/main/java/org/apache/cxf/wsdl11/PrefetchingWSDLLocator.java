@@ -0,0 +1,223 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.cxf.wsdl11;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.wsdl.xml.WSDLLocator;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import org.xml.sax.InputSource;
+import org.apache.cxf.Bus;
+import org.apache.cxf.common.logging.LogUtils;
+import org.apache.cxf.helpers.IOUtils;
+import org.apache.cxf.staxutils.StaxUtils;
+import org.apache.cxf.wsdl.WSDLConstants;
+
+/**
+ * A WSDLLocator that fetches the documents imported by a WSDL on an executor, following
+ * wsdl:import and xsd:import/include/redefine locations down the tree, so that WSDL4J
+ * finds them already in memory when it walks the imports one after another.  Anything
+ * that could not be fetched ahead of time is left to the wrapped locator, which then
+ * reports the error as it always did.
+ */
+final class PrefetchingWSDLLocator implements WSDLLocator {
+    private static final Logger LOG = LogUtils.getL7dLogger(PrefetchingWSDLLocator.class);
+
+    private final WSDLLocator delegate;
+    private final String wsdlUrl;
+    private final Bus bus;
+    private final Executor executor;
+    private final ConcurrentMap<String, FutureTask<Fetched>> fetched = new ConcurrentHashMap<>();
+    private Fetched lastFetched;
+
+    PrefetchingWSDLLocator(String wsdlUrl, WSDLLocator delegate, Bus bus, Executor executor) {
+        this.wsdlUrl = wsdlUrl;
+        this.delegate = delegate;
+        this.bus = bus;
+        this.executor = executor;
+    }
+
+    /**
+     * Starts fetching the documents imported by the already parsed base document.
+     */
+    void prefetch(Document doc) {
+        String base = delegate.getBaseURI();
+        prefetch(base, doc.getElementsByTagNameNS(WSDLConstants.NS_WSDL11, "import"), "location");
+        for (String name : new String[] {"import", "include", "redefine"}) {
+            prefetch(base, doc.getElementsByTagNameNS(WSDLConstants.NS_SCHEMA_XSD, name), "schemaLocation");
+        }
+    }
+
+    private void prefetch(String parent, NodeList elements, String attribute) {
+        for (int x = 0; x < elements.getLength(); x++) {
+            Element el = (Element)elements.item(x);
+            if (el.hasAttribute(attribute)) {
+                prefetch(parent, el.getAttribute(attribute));
+            }
+        }
+    }
+
+    private void prefetch(final String parent, final String location) {
+        String key = key(parent, location);
+        if (fetched.containsKey(key)) {
+            return;
+        }
+        FutureTask<Fetched> task = new FutureTask<>(() -> fetch(parent, location));
+        if (fetched.putIfAbsent(key, task) == null) {
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException ex) {
+                //the thread asking for the import runs the task itself
+            }
+        }
+    }
+
+    private Fetched fetch(String parent, String location) {
+        // the locators keep per call state, so every fetch gets its own
+        WSDLLocator locator = new ResourceManagerWSDLLocator(wsdlUrl,
+                                                             new CatalogWSDLLocator(wsdlUrl, bus),
+                                                             bus);
+        try {
+            InputSource src = locator.getImportInputSource(parent, location);
+            if (src == null || src.getByteStream() == null) {
+                return null;
+            }
+            Fetched f = new Fetched();
+            try (InputStream in = src.getByteStream()) {
+                f.bytes = IOUtils.readBytesFromStream(in);
+            }
+            f.systemId = src.getSystemId();
+            f.publicId = src.getPublicId();
+            f.latestImportURI = locator.getLatestImportURI();
+            prefetchImports(f);
+            return f;
+        } catch (Exception ex) {
+            LOG.log(Level.FINE, "Could not prefetch " + location, ex);
+            return null;
+        }
+    }
+
+    private void prefetchImports(Fetched f) throws Exception {
+        XMLStreamReader reader = StaxUtils.createXMLStreamReader(new ByteArrayInputStream(f.bytes));
+        try {
+            while (reader.hasNext()) {
+                if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                    continue;
+                }
+                String ns = reader.getNamespaceURI();
+                String name = reader.getLocalName();
+                String location = null;
+                if (WSDLConstants.NS_WSDL11.equals(ns) && "import".equals(name)) {
+                    location = reader.getAttributeValue(null, "location");
+                } else if (WSDLConstants.NS_SCHEMA_XSD.equals(ns)
+                    && ("import".equals(name) || "include".equals(name) || "redefine".equals(name))) {
+                    location = reader.getAttributeValue(null, "schemaLocation");
+                }
+                if (location != null) {
+                    prefetch(f.latestImportURI, location);
+                }
+            }
+        } finally {
+            StaxUtils.close(reader);
+        }
+    }
+
+    private Fetched getFetched(String parent, String location) {
+        FutureTask<Fetched> task = fetched.get(key(parent, location));
+        if (task == null) {
+            return null;
+        }
+        // no-op if a worker already picked it up, in which case we wait for it
+        task.run();
+        try {
+            return task.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException ex) {
+            //fall back to the delegate
+        }
+        return null;
+    }
+
+    private static String key(String parent, String location) {
+        return parent + '\n' + location;
+    }
+
+    public InputSource getBaseInputSource() {
+        return delegate.getBaseInputSource();
+    }
+
+    public String getBaseURI() {
+        return delegate.getBaseURI();
+    }
+
+    public InputSource getImportInputSource(String parentLocation, String importLocation) {
+        lastFetched = getFetched(parentLocation, importLocation);
+        if (lastFetched == null) {
+            return delegate.getImportInputSource(parentLocation, importLocation);
+        }
+        InputSource src = new InputSource(new ByteArrayInputStream(lastFetched.bytes));
+        src.setSystemId(lastFetched.systemId);
+        src.setPublicId(lastFetched.publicId);
+        return src;
+    }
+
+    public String getLatestImportURI() {
+        if (lastFetched != null) {
+            return lastFetched.latestImportURI;
+        }
+        return delegate.getLatestImportURI();
+    }
+
+    /**
+     * Drops whatever has not been fetched yet once the WSDL is read.
+     */
+    void cancel() {
+        for (FutureTask<Fetched> task : fetched.values()) {
+            task.cancel(false);
+        }
+    }
+
+    public void close() {
+        cancel();
+        delegate.close();
+    }
+
+    private static final class Fetched {
+        byte[] bytes;
+        String systemId;
+        String publicId;
+        String latestImportURI;
+    }
+}
@@ -26,6 +26,10 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 import javax.annotation.Resource;
 import javax.wsdl.BindingInput;
@@ -37,6 +41,7 @@ import javax.wsdl.extensions.ExtensibilityElement;
 import javax.wsdl.extensions.ExtensionRegistry;
 import javax.wsdl.extensions.mime.MIMEPart;
 import javax.wsdl.factory.WSDLFactory;
+import javax.wsdl.xml.WSDLLocator;
 import javax.wsdl.xml.WSDLReader;
 import javax.xml.namespace.QName;
 import javax.xml.stream.XMLStreamException;
@@ -50,10 +55,13 @@ import org.apache.cxf.Bus;
 import org.apache.cxf.BusException;
 import org.apache.cxf.common.injection.NoJSR250Annotations;
 import org.apache.cxf.common.util.CacheMap;
+import org.apache.cxf.common.util.PropertyUtils;
 import org.apache.cxf.configuration.ConfiguredBeanLocator;
 import org.apache.cxf.service.model.ServiceSchemaInfo;
 import org.apache.cxf.staxutils.StaxUtils;
 import org.apache.cxf.staxutils.XMLStreamReaderWrapper;
+import org.apache.cxf.workqueue.AutomaticWorkQueue;
+import org.apache.cxf.workqueue.WorkQueueManager;
 import org.apache.cxf.wsdl.WSDLConstants;
 import org.apache.cxf.wsdl.WSDLExtensionLoader;
 import org.apache.cxf.wsdl.WSDLManager;
@@ -63,6 +71,11 @@ import org.apache.cxf.wsdl.WSDLManager;
  */
 @NoJSR250Annotations(unlessNull = "bus")
 public class WSDLManagerImpl implements WSDLManager {
+    /**
+     * Bus property to fetch the documents a WSDL imports in parallel on the "wsdl-imports"
+     * (or else the default) work queue instead of one after another while parsing.
+     */
+    public static final String PARALLEL_IMPORTS = "org.apache.cxf.wsdl.parallelImports";
 
     final ExtensionRegistry registry;
     final WSDLFactory factory;
@@ -74,6 +87,13 @@ public class WSDLManagerImpl implements WSDLManager {
      */
     final Map<Object, ServiceSchemaInfo> schemaCacheMap;
     private boolean disableSchemaCache;
+    private Boolean parallelImports;
+
+    /**
+     * The definitions being loaded right now, so that endpoints initialized concurrently
+     * from the same WSDL wait for a single parse instead of each doing their own.
+     */
+    private final ConcurrentMap<String, FutureTask<Definition>> loading = new ConcurrentHashMap<>();
 
     private Bus bus;
 
@@ -161,11 +181,38 @@ public class WSDLManagerImpl implements WSDLManager {
                 return definitionsMap.get(url);
             }
         }
-        Definition def = loadDefinition(url);
-        synchronized (definitionsMap) {
-            definitionsMap.put(url, def);
+        FutureTask<Definition> task = new FutureTask<>(() -> {
+            Definition def = loadDefinition(url);
+            synchronized (definitionsMap) {
+                definitionsMap.put(url, def);
+            }
+            return def;
+        });
+        FutureTask<Definition> existing = loading.putIfAbsent(url, task);
+        if (existing == null) {
+            try {
+                task.run();
+            } finally {
+                loading.remove(url, task);
+            }
+            existing = task;
+        }
+        try {
+            return existing.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WSDLException(WSDLException.OTHER_ERROR, e.getMessage(), e);
+        } catch (ExecutionException e) {
+            Throwable t = e.getCause();
+            if (t instanceof WSDLException) {
+                throw (WSDLException)t;
+            } else if (t instanceof RuntimeException) {
+                throw (RuntimeException)t;
+            } else if (t instanceof Error) {
+                throw (Error)t;
+            }
+            throw new WSDLException(WSDLException.OTHER_ERROR, t.getMessage(), t);
         }
-        return def;
     }
 
     public Definition getDefinition(final Element el) throws WSDLException {
@@ -218,10 +265,13 @@ public class WSDLManagerImpl implements WSDLManager {
         //from the definition.  With this, the String the definition holds onto would be unique
         url = new String(url);
         CatalogWSDLLocator catLocator = new CatalogWSDLLocator(url, bus);
-        final ResourceManagerWSDLLocator wsdlLocator = new ResourceManagerWSDLLocator(url,
-                                                                                catLocator,
-                                                                                bus);
-        InputSource src = wsdlLocator.getBaseInputSource();
+        final ResourceManagerWSDLLocator rmLocator = new ResourceManagerWSDLLocator(url,
+                                                                              catLocator,
+                                                                              bus);
+        InputSource src = rmLocator.getBaseInputSource();
+        AutomaticWorkQueue queue = getImportsWorkQueue();
+        final WSDLLocator wsdlLocator = queue == null ? rmLocator
+            : new PrefetchingWSDLLocator(url, rmLocator, bus, queue);
         Definition def = null;
         if (src.getByteStream() != null || src.getCharacterStream() != null) {
             final Document doc;
@@ -249,6 +299,10 @@ public class WSDLManagerImpl implements WSDLManager {
                 }
             }
 
+            if (wsdlLocator instanceof PrefetchingWSDLLocator) {
+                ((PrefetchingWSDLLocator)wsdlLocator).prefetch(doc);
+            }
+
             // This is needed to avoid security exceptions when running with a security manager
             if (System.getSecurityManager() == null) {
                 def = reader.readWSDL(wsdlLocator, doc.getDocumentElement());
@@ -272,10 +326,38 @@ public class WSDLManagerImpl implements WSDLManager {
                 }
             }
         }
+        if (wsdlLocator instanceof PrefetchingWSDLLocator) {
+            ((PrefetchingWSDLLocator)wsdlLocator).cancel();
+        }
 
         return def;
     }
 
+    private AutomaticWorkQueue getImportsWorkQueue() {
+        if (bus == null || System.getSecurityManager() != null || !isParallelImports()) {
+            return null;
+        }
+        WorkQueueManager mgr = bus.getExtension(WorkQueueManager.class);
+        if (mgr == null) {
+            return null;
+        }
+        AutomaticWorkQueue queue = mgr.getNamedWorkQueue("wsdl-imports");
+        return queue == null ? mgr.getAutomaticWorkQueue() : queue;
+    }
+
+    public boolean isParallelImports() {
+        return parallelImports == null
+            ? bus != null && PropertyUtils.isTrue(bus.getProperty(PARALLEL_IMPORTS)) : parallelImports;
+    }
+
+    /**
+     * Fetch the documents imported by a WSDL in parallel while loading it.  Defaults to the
+     * PARALLEL_IMPORTS bus property.  This mostly helps WSDLs importing many remote documents.
+     */
+    public void setParallelImports(boolean parallelImports) {
+        this.parallelImports = parallelImports;
+    }
+
     public void setXMLStreamReaderWrapper(XMLStreamReaderWrapper wrapper) {
         this.xmlStreamReaderWrapper = wrapper;
     }
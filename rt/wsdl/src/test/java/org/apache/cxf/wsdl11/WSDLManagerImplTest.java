@@ -19,8 +19,15 @@
 
 package org.apache.cxf.wsdl11;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.wsdl.Binding;
 import javax.wsdl.Definition;
@@ -29,9 +36,14 @@ import javax.wsdl.Part;
 import javax.wsdl.Port;
 import javax.wsdl.PortType;
 import javax.wsdl.Service;
+import javax.wsdl.WSDLException;
+import javax.wsdl.extensions.schema.Schema;
+import javax.wsdl.extensions.schema.SchemaReference;
 import javax.xml.namespace.QName;
 import javax.xml.stream.XMLStreamReader;
 
+import org.apache.cxf.Bus;
+import org.apache.cxf.bus.extension.ExtensionManagerBus;
 import org.apache.cxf.staxutils.PropertiesExpandingStreamReader;
 import org.apache.cxf.staxutils.XMLStreamReaderWrapper;
 import org.junit.Assert;
@@ -128,4 +140,81 @@ public class WSDLManagerImplTest extends Assert {
         builder.getWSDLFactory().newWSDLWriter().writeWSDL(def, bos);
         assertTrue(bos.toString().contains("http://localhost:99999/SoapContext/SoapPort"));
     }
+
+    @Test
+    public void testParallelImports() throws Exception {
+        String wsdlUrl = getClass().getResource("wsdl2/person.wsdl").toString();
+        Bus bus = new ExtensionManagerBus();
+        try {
+            WSDLManagerImpl builder = new WSDLManagerImpl();
+            builder.setBus(bus);
+            builder.setParallelImports(true);
+            Definition def = builder.getDefinition(wsdlUrl);
+
+            Service service = (Service)def.getServices().values().iterator().next();
+            Port port = (Port)service.getPorts().values().iterator().next();
+            PortType portType = port.getBinding().getPortType();
+            assertNotNull(portType.getOperation("GetPerson", null, null));
+            assertFalse(portType.isUndefined());
+
+            Definition interfaces = findDefinition(def, portType.getQName());
+            assertNotNull(interfaces);
+            Schema schema = (Schema)interfaces.getTypes().getExtensibilityElements().get(0);
+            assertEquals(1, schema.getIncludes().size());
+            assertNotNull(((SchemaReference)schema.getIncludes().get(0)).getReferencedSchema());
+        } finally {
+            bus.shutdown(true);
+        }
+    }
+
+    private static Definition findDefinition(Definition def, QName portType) {
+        if (def.getPortTypes().containsKey(portType)) {
+            return def;
+        }
+        for (Object imports : def.getImports().values()) {
+            for (Object imp : (List<?>)imports) {
+                Definition found = findDefinition(((javax.wsdl.Import)imp).getDefinition(), portType);
+                if (found != null) {
+                    return found;
+                }
+            }
+        }
+        return null;
+    }
+
+    @Test
+    public void testConcurrentGetDefinitionLoadsOnce() throws Exception {
+        final String wsdlUrl = getClass().getResource("hello_world_services.wsdl").toString();
+        final AtomicInteger loads = new AtomicInteger();
+        final WSDLManagerImpl builder = new WSDLManagerImpl() {
+            @Override
+            protected Definition loadDefinition(String url) throws WSDLException {
+                loads.incrementAndGet();
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.loadDefinition(url);
+            }
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Definition>> results = new ArrayList<>();
+            for (int x = 0; x < 4; x++) {
+                results.add(executor.submit(new Callable<Definition>() {
+                    public Definition call() throws Exception {
+                        return builder.getDefinition(wsdlUrl);
+                    }
+                }));
+            }
+            Definition def = results.get(0).get();
+            for (Future<Definition> f : results) {
+                assertSame(def, f.get());
+            }
+            assertEquals(1, loads.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 }